@@ -13,6 +13,9 @@ public class AABB {
     /** The maximum point (corner) of the bounding box. */
     public final Point max;
 
+    /** Coordinates beyond this stand for infinity in the boxes of infinite geometries. */
+    private static final double UNBOUNDED = 1e8;
+
     /**
      * Constructs an AABB given the minimum and maximum points.
      * @param min The minimum point of the box.
@@ -30,8 +33,20 @@ public class AABB {
      * @return true if the ray intersects the bounding box, false otherwise.
      */
     public boolean intersects(Ray ray) {
+        return intersects(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Checks if the given ray enters this bounding box before a given distance along it,
+     * so that a closest-hit query skips the boxes beyond the nearest hit found so far.
+     * Uses the slab method for intersection testing.
+     * @param ray The ray to test for intersection.
+     * @param maxDistance The distance along the ray beyond which the box is not entered.
+     * @return true if the ray intersects the bounding box before the distance, false otherwise.
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
         double tMin = Double.NEGATIVE_INFINITY;
-        double tMax = Double.POSITIVE_INFINITY;
+        double tMax = maxDistance;
 
         double originX = ray.getHead().getX();
         double originY = ray.getHead().getY();
@@ -155,4 +170,14 @@ public class AABB {
     public Point getCenter() {
         return min.add(max.subtract(min).scale(0.5));
     }
+
+    /**
+     * Checks whether the box is finite. Infinite geometries (such as planes and tubes)
+     * report boxes reaching far beyond any scene instead.
+     * @return true if all the coordinates of the box are finite in scene terms.
+     */
+    public boolean isBounded() {
+        return Math.abs(min.getX()) < UNBOUNDED && Math.abs(min.getY()) < UNBOUNDED && Math.abs(min.getZ()) < UNBOUNDED
+                && Math.abs(max.getX()) < UNBOUNDED && Math.abs(max.getY()) < UNBOUNDED && Math.abs(max.getZ()) < UNBOUNDED;
+    }
 }
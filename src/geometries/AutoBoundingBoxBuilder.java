@@ -0,0 +1,190 @@
+package geometries;
+
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of BoundingVolumeBuilder choosing the structure for every collection.
+ * When the collection is built, its geometries are inspected - their number, how evenly
+ * they fill their bounds, the spread of their sizes and whether some of them are infinite -
+ * and the work is handed to the structure expected to be fastest:
+ * <ul>
+ *     <li>a few finite geometries are simply tested one by one behind their boxes (CBR),</li>
+ *     <li>clustered geometries or sizes spread widely go into a kd-tree,</li>
+ *     <li>any other collection goes into a uniform grid.</li>
+ * </ul>
+ * The choice and the reason for it are kept for inspection.
+ */
+public class AutoBoundingBoxBuilder implements BoundingVolumeBuilder {
+
+    /** The structures the builder chooses from */
+    public enum Choice {
+        /** Bounding boxes tested one by one */
+        CBR,
+        /** Uniform grid */
+        GRID,
+        /** SAH kd-tree */
+        KD_TREE
+    }
+
+    /** Largest number of finite geometries tested one by one */
+    private static final int MAX_CBR_SIZE = 8;
+
+    /** Smallest spread of sizes (coefficient of variation of the box diagonals) for a kd-tree */
+    private static final double MIN_KD_TREE_SPREAD = 2;
+
+    /**
+     * Smallest occupancy for a grid: the share of the cells holding a geometry center, out of
+     * the cells or geometries, whichever are fewer, with about one cell per geometry.
+     * Geometries spread at random through a volume reach about 0.6, over a surface such as
+     * a mesh about 0.2; a dense cluster in a large scene stays far below.
+     */
+    private static final double MIN_GRID_OCCUPANCY = 0.1;
+
+    /** The chosen structure, or null before the collection is built */
+    private Choice choice = null;
+
+    /** Why the structure was chosen */
+    private String reason = null;
+
+    /** The builder of the chosen structure */
+    private BoundingVolumeBuilder delegate = null;
+
+    /**
+     * Creates a new builder, since every collection makes a choice of its own.
+     * @return a new automatic builder.
+     */
+    @Override
+    public BoundingVolumeBuilder newBuilder() {
+        return new AutoBoundingBoxBuilder();
+    }
+
+    /**
+     * Returns the structure chosen for the collection.
+     * @return the choice, or null if the collection has not been built
+     */
+    public Choice getChoice() {
+        return choice;
+    }
+
+    /**
+     * Returns why the structure was chosen for the collection.
+     * @return the reason, or null if the collection has not been built
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Chooses the structure for the geometries, builds it and returns their bounding box.
+     * @param geometries The list of geometries to enclose.
+     * @return The bounding box of all the geometries, or null if no geometries.
+     */
+    @Override
+    public AABB createBoundingBox(List<Intersectable> geometries) {
+        if (geometries == null || geometries.isEmpty()) return null;
+        choose(geometries);
+        return delegate.createBoundingBox(geometries);
+    }
+
+    /**
+     * Inspects the geometries and chooses the structure.
+     * @param geometries the geometries of the collection
+     */
+    private void choose(List<Intersectable> geometries) {
+        int count = geometries.size();
+        List<AABB> boxes = new ArrayList<>(count);
+        double sum = 0, sumOfSquares = 0;
+        for (Intersectable geometry : geometries) {
+            AABB box = geometry.computeBoundingBoxIfNeeded();
+            if (box == null || !box.isBounded()) continue;
+            boxes.add(box);
+            double diagonal = Math.sqrt(box.min.distanceSquared(box.max));
+            sum += diagonal;
+            sumOfSquares += diagonal * diagonal;
+        }
+        int bounded = boxes.size();
+        String infinite = bounded == count ? "" : String.format(", %d infinite", count - bounded);
+
+        if (bounded <= MAX_CBR_SIZE) {
+            choice = Choice.CBR;
+            reason = String.format("%d finite geometries%s are few enough to test one by one", bounded, infinite);
+            delegate = new CBRBoundingBoxBuilder();
+            return;
+        }
+
+        double mean = sum / bounded;
+        double spread = mean == 0 ? 0 : Math.sqrt(Math.max(0, sumOfSquares / bounded - mean * mean)) / mean;
+        double occupancy = occupancy(boxes);
+        if (spread >= MIN_KD_TREE_SPREAD) {
+            choice = Choice.KD_TREE;
+            reason = String.format("%d finite geometries%s of widely spread sizes (spread %.2f) suit a kd-tree",
+                    bounded, infinite, spread);
+            delegate = new KdTreeBoundingBoxBuilder();
+        } else if (occupancy < MIN_GRID_OCCUPANCY) {
+            choice = Choice.KD_TREE;
+            reason = String.format("%d finite geometries%s are clustered (occupancy %.2f) and suit a kd-tree",
+                    bounded, infinite, occupancy);
+            delegate = new KdTreeBoundingBoxBuilder();
+        } else {
+            choice = Choice.GRID;
+            reason = String.format("%d finite geometries%s fill their bounds evenly (occupancy %.2f, spread %.2f)"
+                    + " and suit a grid", bounded, infinite, occupancy, spread);
+            delegate = new GridBoundingBoxBuilder();
+        }
+    }
+
+    /**
+     * Measures how evenly the geometries fill their bounds.
+     * The bounds are divided into about one cell per geometry, and the cells holding the center
+     * of a geometry are counted.
+     * @param boxes the bounding boxes of the geometries
+     * @return the occupied cells out of the cells or the geometries, whichever are fewer
+     */
+    private static double occupancy(List<AABB> boxes) {
+        double[] min = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+        double[] max = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (AABB box : boxes)
+            for (int axis = 0; axis < 3; ++axis) {
+                double center = (box.min.getCoordinate(axis) + box.max.getCoordinate(axis)) / 2;
+                min[axis] = Math.min(min[axis], center);
+                max[axis] = Math.max(max[axis], center);
+            }
+        // only the axes along which the centers spread are divided
+        int dimensions = 0;
+        for (int axis = 0; axis < 3; ++axis)
+            if (max[axis] > min[axis]) ++dimensions;
+        if (dimensions == 0) return 0;
+        int perAxis = Math.max(1, (int) Math.round(Math.pow(boxes.size(), 1.0 / dimensions)));
+
+        Set<Integer> occupied = new HashSet<>();
+        for (AABB box : boxes) {
+            int cell = 0;
+            for (int axis = 0; axis < 3; ++axis) {
+                if (max[axis] == min[axis]) continue;
+                double center = (box.min.getCoordinate(axis) + box.max.getCoordinate(axis)) / 2;
+                int index = Math.min(perAxis - 1, (int) ((center - min[axis]) / (max[axis] - min[axis]) * perAxis));
+                cell = cell * perAxis + index;
+            }
+            occupied.add(cell);
+        }
+        int cells = (int) Math.pow(perAxis, dimensions);
+        return (double) occupied.size() / Math.min(cells, boxes.size());
+    }
+
+    @Override
+    public List<Intersectable.Intersection> findIntersections(Ray ray, List<Intersectable> geometries) {
+        if (delegate == null) createBoundingBox(geometries);
+        return delegate == null ? null : delegate.findIntersections(ray, geometries);
+    }
+
+    @Override
+    public boolean findClosestIntersection(Ray ray, List<Intersectable> geometries, Intersectable.Intersection hit) {
+        if (delegate == null) createBoundingBox(geometries);
+        return delegate != null && delegate.findClosestIntersection(ray, geometries, hit);
+    }
+}
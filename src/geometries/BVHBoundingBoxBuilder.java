@@ -12,6 +12,15 @@ public class BVHBoundingBoxBuilder implements BoundingVolumeBuilder {
 
     private BVHNode root;
 
+    /**
+     * Creates a new builder, since every collection needs a tree of its own.
+     * @return a new BVH builder.
+     */
+    @Override
+    public BoundingVolumeBuilder newBuilder() {
+        return new BVHBoundingBoxBuilder();
+    }
+
     /**
      * Creates a bounding box that encloses all provided geometries using BVH tree structure.
      * This method builds the BVH tree and returns the root's bounding box.
@@ -52,6 +61,39 @@ public class BVHBoundingBoxBuilder implements BoundingVolumeBuilder {
         }
 
         // Use the BVH tree's efficient intersection method
-        return root.calculateIntersections(ray);
+        return root.calculateIntersectionsHelper(ray);
+    }
+
+    /**
+     * Records the closest intersection between the ray and the geometries using the BVH hierarchy.
+     * @param ray The ray to test intersections with.
+     * @param geometries The list of geometries to test (used to build tree if not already built).
+     * @param hit The record holding the closest hit found so far.
+     * @return true if a nearer hit was recorded.
+     */
+    @Override
+    public boolean findClosestIntersection(Ray ray, List<Intersectable> geometries, Intersectable.Intersection hit) {
+        if (root == null && geometries != null && !geometries.isEmpty()) {
+            createBoundingBox(geometries);
+        }
+        return root != null && root.calculateClosestIntersectionHelper(ray, hit);
+    }
+
+    /**
+     * Records the closest intersections of the active rays of a packet, which go down the
+     * BVH hierarchy together. A packet with a frustum starts from the deepest node holding
+     * everything inside the frustum.
+     * @param packet The packet of rays, holding the closest hit of each ray found so far.
+     * @param mask The active rays of the packet, a bit for each ray.
+     * @param geometries The list of geometries to test (used to build tree if not already built).
+     * @return The active rays that recorded a nearer hit.
+     */
+    @Override
+    public int findClosestIntersections(RayPacket packet, int mask, List<Intersectable> geometries) {
+        if (root == null && geometries != null && !geometries.isEmpty()) {
+            createBoundingBox(geometries);
+        }
+        BVHNode start = root == null || packet.frustum == null ? root : packet.frustum.entry(root);
+        return start == null ? 0 : start.calculateClosestIntersectionsHelper(packet, mask);
     }
-}
\ No newline at end of file
+}
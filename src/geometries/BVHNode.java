@@ -14,6 +14,9 @@ public class BVHNode extends Intersectable {
     // The bounding box that contains all geometries in this node
     private final AABB box;
 
+    // The center of the bounding box, to order the children along a ray without allocating
+    private final double centerX, centerY, centerZ;
+
     // Child nodes (null for leaf nodes)
     private final BVHNode left;
     private final BVHNode right;
@@ -21,9 +24,21 @@ public class BVHNode extends Intersectable {
     // Geometries stored in this node (null for internal nodes)
     private final List<Intersectable> geometries;
 
+    // The geometries of a leaf grouped by type, so that each group is intersected in a
+    // monomorphic loop over packed data (null for internal nodes)
+    private final Sphere[] spheres;
+    private final double[] sphereData;
+    private final Triangle[] triangles;
+    private final double[] triangleData;
+    private final Intersectable[] others;
+
     // Maximum number of geometries allowed in a leaf node before splitting
     private static final int MAX_GEOMETRIES_IN_LEAF = 4;
 
+    // A packet goes on down the tree together only while more than one in this many of its
+    // rays are active
+    private static final int MIN_PACKET_FRACTION = 4;
+
     /**
      * Constructor for internal nodes with left and right children.
      * @param left The left child node.
@@ -33,8 +48,17 @@ public class BVHNode extends Intersectable {
         this.left = left;
         this.right = right;
         this.geometries = null;
+        this.spheres = null;
+        this.sphereData = null;
+        this.triangles = null;
+        this.triangleData = null;
+        this.others = null;
         // Combine bounding boxes of children
         this.box = AABB.combine(left.box, right.box);
+        Point center = box == null ? Point.ZERO : box.getCenter();
+        this.centerX = center.getX();
+        this.centerY = center.getY();
+        this.centerZ = center.getZ();
     }
 
     /**
@@ -47,6 +71,27 @@ public class BVHNode extends Intersectable {
         this.right = null;
         // Create bounding box that contains all geometries
         this.box = AABB.combineAll(geometries);
+        Point center = box == null ? Point.ZERO : box.getCenter();
+        this.centerX = center.getX();
+        this.centerY = center.getY();
+        this.centerZ = center.getZ();
+
+        // Subclasses may intersect differently, so only the exact types are packed
+        List<Sphere> sphereList = new ArrayList<>();
+        List<Triangle> triangleList = new ArrayList<>();
+        List<Intersectable> otherList = new ArrayList<>();
+        for (Intersectable geometry : geometries) {
+            if (geometry.getClass() == Sphere.class) sphereList.add((Sphere) geometry);
+            else if (geometry.getClass() == Triangle.class) triangleList.add((Triangle) geometry);
+            else otherList.add(geometry);
+        }
+        this.spheres = sphereList.toArray(new Sphere[0]);
+        this.sphereData = new double[Sphere.PACKED_SIZE * spheres.length];
+        for (int i = 0; i < spheres.length; ++i) spheres[i].pack(sphereData, Sphere.PACKED_SIZE * i);
+        this.triangles = triangleList.toArray(new Triangle[0]);
+        this.triangleData = new double[Triangle.PACKED_SIZE * triangles.length];
+        for (int i = 0; i < triangles.length; ++i) triangles[i].pack(triangleData, Triangle.PACKED_SIZE * i);
+        this.others = otherList.toArray(new Intersectable[0]);
     }
 
     /**
@@ -125,21 +170,7 @@ public class BVHNode extends Intersectable {
         }
 
         if (isLeaf()) {
-            List<Intersection> result = null;
-            for (Intersectable geometry : geometries) {
-                if (geometry.getBoundingBox() != null &&
-                        !geometry.getBoundingBox().intersects(ray)) {
-                    continue;
-                }
-                List<Intersection> intersections = geometry.calculateIntersections(ray);
-                if (intersections != null && !intersections.isEmpty()) {
-                    if (result == null) {
-                        result = new ArrayList<>();
-                    }
-                    result.addAll(intersections);
-                }
-            }
-            return result;
+            return calculateIntersectionsInLeaf(ray);
         }
 
         List<Intersection> result = null;
@@ -164,47 +195,194 @@ public class BVHNode extends Intersectable {
         return result;
     }
 
+    /**
+     * Finds all the intersections of the ray with the geometries of a leaf, as for shadow
+     * and transparency rays. Spheres and triangles are tested straight from their packed
+     * data, the same way as by {@link #calculateClosestIntersectionInLeaf(Ray, Intersection)}.
+     * @param ray The ray to test.
+     * @return The intersections, or null if none.
+     */
+    private List<Intersection> calculateIntersectionsInLeaf(Ray ray) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        List<Intersection> result = null;
+        Mailbox mailbox = Mailbox.get();
+        double[] distances = new double[2];
+        for (int i = 0; i < spheres.length; ++i) {
+            if (!mailbox.visit(spheres[i])) continue;
+            int count = Sphere.intersectionDistances(sphereData, Sphere.PACKED_SIZE * i,
+                    ox, oy, oz, dx, dy, dz, distances);
+            for (int k = 0; k < count; ++k) {
+                if (result == null) result = new ArrayList<>();
+                result.add(createIntersection(spheres[i], ray, distances[k]));
+            }
+        }
+        for (int i = 0; i < triangles.length; ++i) {
+            if (!mailbox.visit(triangles[i])) continue;
+            double t = Triangle.intersectionDistance(triangleData, Triangle.PACKED_SIZE * i, ox, oy, oz, dx, dy, dz);
+            if (t > 0) {
+                if (result == null) result = new ArrayList<>();
+                result.add(createIntersection(triangles[i], ray, t));
+            }
+        }
+        for (Intersectable geometry : others) {
+            if (geometry.getBoundingBox() != null &&
+                    !geometry.getBoundingBox().intersects(ray) || !mailbox.visit(geometry)) {
+                continue;
+            }
+            List<Intersection> intersections = geometry.calculateIntersectionsHelper(ray);
+            if (intersections != null && !intersections.isEmpty()) {
+                if (result == null) result = new ArrayList<>();
+                result.addAll(intersections);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the intersection of a ray with a packed geometry.
+     * @param geometry The geometry.
+     * @param ray The ray.
+     * @param t The distance along the ray to the intersection.
+     * @return The intersection.
+     */
+    private static Intersection createIntersection(Geometry geometry, Ray ray, double t) {
+        Intersection intersection = new Intersection(geometry, ray.getPoint(t));
+        intersection.t = t;
+        return intersection;
+    }
+
+    @Override
+    protected boolean usesMailbox() {
+        return true;
+    }
+
     private boolean isLeaf() {
         return geometries != null;
     }
 
+    /**
+     * Finds the closest intersection of the ray with the geometries of this subtree.
+     * @param ray The ray to test.
+     * @return The closest intersection, or null if none.
+     */
     public Intersection findClosestIntersection(Ray ray) {
-        return findClosestIntersectionOptimal(ray, Double.POSITIVE_INFINITY);
+        return findClosestIntersection(ray, new Intersection());
     }
 
-    private Intersection findClosestIntersectionOptimal(Ray ray, double maxDistanceSquared) {
-        if (box != null && !box.intersects(ray)) {
-            return null;
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        // A node the ray enters only beyond the nearest hit found so far cannot hold a nearer one
+        if (box != null && !box.intersects(ray, hit.t)) {
+            return false;
         }
 
         if (isLeaf()) {
-            Intersection closest = null;
-            double closestDistanceSquared = maxDistanceSquared;
+            return calculateClosestIntersectionInLeaf(ray, hit);
+        }
 
-            for (Intersectable geometry : geometries) {
-                if (geometry.getBoundingBox() != null &&
-                        !geometry.getBoundingBox().intersects(ray)) {
-                    continue;
-                }
-                List<Intersection> intersections = geometry.calculateIntersections(ray);
-                if (intersections != null) {
-                    for (Intersection intersection : intersections) {
-                        double distanceSquared = intersection.getPoint().distanceSquared(ray.getHead());
-                        if (distanceSquared < closestDistanceSquared) {
-                            closest = intersection;
-                            closestDistanceSquared = distanceSquared;
-                        }
-                    }
-                }
+        BVHNode firstChild, secondChild;
+        if (shouldVisitLeftFirst(ray)) {
+            firstChild = left;
+            secondChild = right;
+        } else {
+            firstChild = right;
+            secondChild = left;
+        }
+
+        boolean found = firstChild != null && firstChild.calculateClosestIntersectionHelper(ray, hit);
+        if (secondChild != null && secondChild.calculateClosestIntersectionHelper(ray, hit)) found = true;
+        return found;
+    }
+
+    /**
+     * Records the closest intersection of the ray with the geometries of a leaf.
+     * Spheres and triangles are tested straight from their packed data, without a
+     * virtual call or a bounding box test per geometry.
+     * @param ray The ray to test.
+     * @param hit The record holding the closest hit found so far.
+     * @return true if a nearer hit was recorded.
+     */
+    private boolean calculateClosestIntersectionInLeaf(Ray ray, Intersection hit) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        boolean found = false;
+        Mailbox mailbox = Mailbox.get();
+        for (int i = 0; i < spheres.length; ++i) {
+            if (!mailbox.visit(spheres[i])) continue;
+            double t = Sphere.intersectionDistance(sphereData, Sphere.PACKED_SIZE * i, ox, oy, oz, dx, dy, dz);
+            if (t > 0 && hit.update(spheres[i], t)) found = true;
+        }
+        for (int i = 0; i < triangles.length; ++i) {
+            if (!mailbox.visit(triangles[i])) continue;
+            double t = Triangle.intersectionDistance(triangleData, Triangle.PACKED_SIZE * i, ox, oy, oz, dx, dy, dz);
+            if (t > 0 && hit.update(triangles[i], t)) found = true;
+        }
+        for (Intersectable geometry : others) {
+            if (geometry.getBoundingBox() != null &&
+                    !geometry.getBoundingBox().intersects(ray, hit.t) || !mailbox.visit(geometry)) {
+                continue;
             }
-            return closest;
+            if (geometry.calculateClosestIntersectionHelper(ray, hit)) found = true;
         }
+        return found;
+    }
 
-        Intersection closest = null;
-        double closestDistanceSquared = maxDistanceSquared;
+    /**
+     * Finds the deepest node of this subtree holding every node a frustum does not exclude.
+     * @param frustum The frustum.
+     * @return The node, or null if the frustum excludes the whole subtree.
+     */
+    BVHNode findEntry(Frustum frustum) {
+        BVHNode node = this;
+        if (box != null && frustum.excludes(box)) {
+            return null;
+        }
+        while (!node.isLeaf()) {
+            boolean hasLeft = node.left != null && (node.left.box == null || !frustum.excludes(node.left.box));
+            boolean hasRight = node.right != null && (node.right.box == null || !frustum.excludes(node.right.box));
+            if (hasLeft && hasRight) break;
+            if (!hasLeft && !hasRight) return null;
+            node = hasLeft ? node.left : node.right;
+        }
+        return node;
+    }
+
+    /**
+     * Records the closest intersections of the active rays of a packet with the geometries
+     * of this subtree. A subtree outside the frustum of the packet is skipped at once;
+     * otherwise the rays that cross the box of the node go down together, nearer
+     * child first as seen by the first of them; once too few of them are left together for
+     * the packet to pay, they go on one by one.
+     * @param packet The packet of rays, holding the closest hit of each ray found so far.
+     * @param mask The active rays of the packet.
+     * @return The active rays that recorded a nearer hit.
+     */
+    @Override
+    protected int calculateClosestIntersectionsHelper(RayPacket packet, int mask) {
+        if (box != null && packet.frustum != null && packet.frustum.excludes(box)) {
+            return 0;
+        }
+        int active = box == null ? mask : packet.intersect(box, mask);
+        if (active == 0) {
+            return 0;
+        }
+        if (Integer.bitCount(active) <= Math.max(1, packet.size() / MIN_PACKET_FRACTION)) {
+            return packet.traceSingly(this, active);
+        }
+
+        if (isLeaf()) {
+            return calculateClosestIntersectionsInLeaf(packet, active);
+        }
 
         BVHNode firstChild, secondChild;
-        if (shouldVisitLeftFirst(ray)) {
+        if (shouldVisitLeftFirst(packet.rays[Integer.numberOfTrailingZeros(active)])) {
             firstChild = left;
             secondChild = right;
         } else {
@@ -212,27 +390,42 @@ public class BVHNode extends Intersectable {
             secondChild = left;
         }
 
-        if (firstChild != null) {
-            Intersection firstClosest = firstChild.findClosestIntersectionOptimal(ray, closestDistanceSquared);
-            if (firstClosest != null) {
-                double distanceSquared = firstClosest.getPoint().distanceSquared(ray.getHead());
-                if (distanceSquared < closestDistanceSquared) {
-                    closest = firstClosest;
-                    closestDistanceSquared = distanceSquared;
-                }
+        int found = firstChild == null ? 0 : firstChild.calculateClosestIntersectionsHelper(packet, active);
+        if (secondChild != null) found |= secondChild.calculateClosestIntersectionsHelper(packet, active);
+        return found;
+    }
+
+    /**
+     * Records the closest intersections of the active rays of a packet with the geometries
+     * of a leaf. Every packed sphere and triangle is tested against all the rays in turn.
+     * @param packet The packet of rays, holding the closest hit of each ray found so far.
+     * @param active The active rays of the packet.
+     * @return The active rays that recorded a nearer hit.
+     */
+    private int calculateClosestIntersectionsInLeaf(RayPacket packet, int active) {
+        int found = 0;
+        for (int i = 0; i < spheres.length; ++i) {
+            for (int rays = active; rays != 0; rays &= rays - 1) {
+                int r = Integer.numberOfTrailingZeros(rays);
+                double t = Sphere.intersectionDistance(sphereData, Sphere.PACKED_SIZE * i,
+                        packet.ox[r], packet.oy[r], packet.oz[r], packet.dx[r], packet.dy[r], packet.dz[r]);
+                if (t > 0 && packet.hits[r].update(spheres[i], t)) found |= 1 << r;
             }
         }
-
-        if (secondChild != null) {
-            Intersection secondClosest = secondChild.findClosestIntersectionOptimal(ray, closestDistanceSquared);
-            if (secondClosest != null) {
-                double distanceSquared = secondClosest.getPoint().distanceSquared(ray.getHead());
-                if (distanceSquared < closestDistanceSquared) {
-                    closest = secondClosest;
-                }
+        for (int i = 0; i < triangles.length; ++i) {
+            for (int rays = active; rays != 0; rays &= rays - 1) {
+                int r = Integer.numberOfTrailingZeros(rays);
+                double t = Triangle.intersectionDistance(triangleData, Triangle.PACKED_SIZE * i,
+                        packet.ox[r], packet.oy[r], packet.oz[r], packet.dx[r], packet.dy[r], packet.dz[r]);
+                if (t > 0 && packet.hits[r].update(triangles[i], t)) found |= 1 << r;
             }
         }
-        return closest;
+        for (Intersectable geometry : others) {
+            AABB geometryBox = geometry.getBoundingBox();
+            int crossing = geometryBox == null ? active : packet.intersect(geometryBox, active);
+            if (crossing != 0) found |= geometry.calculateClosestIntersectionsHelper(packet, crossing);
+        }
+        return found;
     }
 
     private boolean shouldVisitLeftFirst(Ray ray) {
@@ -241,15 +434,12 @@ public class BVHNode extends Intersectable {
 
         Point rayOrigin = ray.getHead();
         Vector rayDir = ray.getDirection();
+        double ox = rayOrigin.getX(), oy = rayOrigin.getY(), oz = rayOrigin.getZ();
+        double dx = rayDir.getX(), dy = rayDir.getY(), dz = rayDir.getZ();
 
-        Point leftCenter = left.box.getCenter();
-        Point rightCenter = right.box.getCenter();
-
-        Vector toLeft = leftCenter.subtract(rayOrigin);
-        Vector toRight = rightCenter.subtract(rayOrigin);
-
-        double leftProjection = toLeft.dotProduct(rayDir);
-        double rightProjection = toRight.dotProduct(rayDir);
+        // Projections of the vectors from the ray head to the child centers on the ray direction
+        double leftProjection = (left.centerX - ox) * dx + (left.centerY - oy) * dy + (left.centerZ - oz) * dz;
+        double rightProjection = (right.centerX - ox) * dx + (right.centerY - oy) * dy + (right.centerZ - oz) * dz;
 
         return leftProjection < rightProjection;
     }
@@ -9,6 +9,13 @@ import java.util.List;
  * and to find intersections between a ray and these geometries.
  */
 public interface BoundingVolumeBuilder {
+    /**
+     * Creates a builder of the same kind for another collection of geometries.
+     * Builders that keep per-collection state (such as a tree) must return a new instance.
+     * @return a builder of the same kind with no collection state.
+     */
+    BoundingVolumeBuilder newBuilder();
+
     /**
      * Creates a bounding box that encloses the given list of geometries.
      * @param geometries The list of geometries to enclose.
@@ -23,4 +30,26 @@ public interface BoundingVolumeBuilder {
      * @return A list of intersections found between the ray and geometries.
      */
     List<Intersectable.Intersection> findIntersections(Ray ray, List<Intersectable> geometries);
+
+    /**
+     * Records the closest intersection between a ray and a list of geometries.
+     * @param ray The ray to test intersections with.
+     * @param geometries The list of geometries to test.
+     * @param hit The record holding the closest hit found so far, filled in place.
+     * @return true if a nearer hit was recorded.
+     */
+    boolean findClosestIntersection(Ray ray, List<Intersectable> geometries, Intersectable.Intersection hit);
+
+    /**
+     * Records the closest intersections of the active rays of a packet with a list of
+     * geometries. Structures that trace packets together override this method; the default
+     * traces the rays one by one.
+     * @param packet The packet of rays, holding the closest hit of each ray found so far.
+     * @param mask The active rays of the packet, a bit for each ray.
+     * @param geometries The list of geometries to test.
+     * @return The active rays that recorded a nearer hit.
+     */
+    default int findClosestIntersections(RayPacket packet, int mask, List<Intersectable> geometries) {
+        return packet.traceSingly(this, geometries, mask);
+    }
 }
@@ -12,6 +12,15 @@ import java.util.List;
  */
 public class CBRBoundingBoxBuilder implements BoundingVolumeBuilder {
 
+    /**
+     * The coarse builder keeps no state, so it can be shared by all collections.
+     * @return this builder.
+     */
+    @Override
+    public BoundingVolumeBuilder newBuilder() {
+        return this;
+    }
+
     /**
      * Creates a bounding box that encloses all provided geometries.
      * @param geometries The list of geometries to enclose.
@@ -28,7 +37,7 @@ public class CBRBoundingBoxBuilder implements BoundingVolumeBuilder {
         double maxZ = Double.NEGATIVE_INFINITY;
 
         for (Intersectable geometry : geometries) {
-            AABB box = geometry.createBoundingBox();
+            AABB box = geometry.computeBoundingBoxIfNeeded();
             if (box == null) continue;
 
             Point bMin = box.min;
@@ -57,13 +66,14 @@ public class CBRBoundingBoxBuilder implements BoundingVolumeBuilder {
     @Override
     public List<Intersectable.Intersection> findIntersections(Ray ray, List<Intersectable> geometries) {
         List<Intersectable.Intersection> result = null;
+        Mailbox mailbox = Mailbox.get();
 
         for (Intersectable geometry : geometries) {
             AABB box = geometry.getBoundingBox();
-            if (box != null && !box.intersects(ray)) {
+            if (box != null && !box.intersects(ray) || !mailbox.visit(geometry)) {
                 continue;
             }
-            var temp = geometry.calculateIntersections(ray);
+            var temp = geometry.calculateIntersectionsHelper(ray);
             if (temp != null) {
                 if (result == null) result = new LinkedList<>();
                 result.addAll(temp);
@@ -73,4 +83,26 @@ public class CBRBoundingBoxBuilder implements BoundingVolumeBuilder {
         return result;
     }
 
+    /**
+     * Records the closest intersection between the ray and the list of geometries,
+     * checking bounding boxes first.
+     * @param ray The ray to test.
+     * @param geometries The list of geometries to test.
+     * @param hit The record holding the closest hit found so far.
+     * @return true if a nearer hit was recorded.
+     */
+    @Override
+    public boolean findClosestIntersection(Ray ray, List<Intersectable> geometries, Intersectable.Intersection hit) {
+        boolean found = false;
+        Mailbox mailbox = Mailbox.get();
+        for (Intersectable geometry : geometries) {
+            AABB box = geometry.getBoundingBox();
+            if (box != null && !box.intersects(ray, hit.t) || !mailbox.visit(geometry)) {
+                continue;
+            }
+            if (geometry.calculateClosestIntersectionHelper(ray, hit)) found = true;
+        }
+        return found;
+    }
+
 }
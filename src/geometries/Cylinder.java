@@ -4,6 +4,8 @@ import primitives.*;
 
 import java.util.List;
 
+import static primitives.Util.*;
+
 /**
  * Represents a cylinder in 3D space, defined by a central axis and a height.
  * A cylinder is a special case of a tube with a finite height.
@@ -33,36 +35,26 @@ public class Cylinder extends Tube {
         this.height = height;
     }
 
-/**
- * Creates the axis-aligned bounding box (AABB) for the cylinder.
- *
- * @return AABB enclosing the cylinder.
- */
-@Override
+    /**
+     * Creates the axis-aligned bounding box (AABB) for the cylinder.
+     * Each base is a disk whose extent along a coordinate axis is the radius scaled by
+     * the sine of the angle between the cylinder's axis and that coordinate axis.
+     *
+     * @return AABB enclosing the cylinder.
+     */
+    @Override
     public AABB createBoundingBox() {
         Point base = axis.getHead();
-        Vector axisDir = axis.getDirection().normalize();
-
-        // Calculate min and max coordinates considering the radius and height
-        double radius = this.radius;
-        double height = this.height;
-
-        // To compute bounding box we consider the cylinder's axis and radius in all directions.
-        // Find two points: base and top of the cylinder axis
-        Point top = base.add(axisDir.scale(height));
-
-        double minX = Math.min(base.getX(), top.getX()) - radius;
-        double minY = Math.min(base.getY(), top.getY()) - radius;
-        double minZ = Math.min(base.getZ(), top.getZ()) - radius;
-
-        double maxX = Math.max(base.getX(), top.getX()) + radius;
-        double maxY = Math.max(base.getY(), top.getY()) + radius;
-        double maxZ = Math.max(base.getZ(), top.getZ()) + radius;
-
-        Point min = new Point(minX, minY, minZ);
-        Point max = new Point(maxX, maxY, maxZ);
-
-        return new AABB(min, max);
+        Vector v = axis.getDirection();
+        double[] min = new double[3], max = new double[3];
+        for (int i = 0; i < 3; ++i) {
+            double vi = v.getCoordinate(i);
+            double extent = radius * Math.sqrt(Math.max(0, 1 - vi * vi));
+            double bottom = base.getCoordinate(i), top = bottom + vi * height;
+            min[i] = Math.min(bottom, top) - extent;
+            max[i] = Math.max(bottom, top) + extent;
+        }
+        return new AABB(new Point(min[0], min[1], min[2]), new Point(max[0], max[1], max[2]));
     }
 
     /**
@@ -105,7 +97,76 @@ public class Cylinder extends Tube {
      * @param ray the ray used to find intersections
      * @return a list of points where the ray intersects the cylinder
      */
+    @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        return null;
+        double[] t = new double[4];
+        int count = distances(ray, t);
+        if (count == 0) return null;
+        return count == 1 ? List.of(new Intersection(this, ray.getPoint(t[0])))
+                : List.of(new Intersection(this, ray.getPoint(t[0])), new Intersection(this, ray.getPoint(t[1])));
+    }
+
+    /**
+     * Records the nearest intersection of a ray with the cylinder without allocating
+     * intersection objects.
+     *
+     * @param ray the ray to intersect with the cylinder
+     * @param hit the record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        double[] t = new double[4];
+        return distances(ray, t) > 0 && hit.update(this, t[0]);
+    }
+
+    /**
+     * Computes the distances along a ray to its intersections with the cylinder: the
+     * lateral surface between the bases and the two base disks. Points on the rims
+     * are not considered intersections.
+     *
+     * @param ray the ray to intersect with the cylinder
+     * @param t   receives the positive distances in ascending order (at least 4 places)
+     * @return the number of distances found
+     */
+    private int distances(Ray ray, double[] t) {
+        Point head = ray.getHead(), p0 = axis.getHead();
+        Vector dir = ray.getDirection(), v = axis.getDirection();
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
+        double px = head.getX() - p0.getX(), py = head.getY() - p0.getY(), pz = head.getZ() - p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        // heights above the bottom base of the ray head and of a unit step along the ray
+        double pv = px * vx + py * vy + pz * vz;
+        double dv = dx * vx + dy * vy + dz * vz;
+
+        int count = 0;
+        if (lateralDistances(ray, t) > 0) {
+            double t1 = alignZero(t[0]), t2 = alignZero(t[1]);
+            if (t1 > 0 && alignZero(pv + t1 * dv) > 0 && alignZero(pv + t1 * dv - height) < 0) t[count++] = t1;
+            if (t2 > 0 && alignZero(pv + t2 * dv) > 0 && alignZero(pv + t2 * dv - height) < 0) t[count++] = t2;
+        }
+
+        if (!isZero(dv)) {
+            double rSquared = radius * radius;
+            for (int cap = 0; cap < 2; ++cap) {
+                double capHeight = cap == 0 ? 0 : height;
+                double tc = alignZero((capHeight - pv) / dv);
+                if (tc <= 0) continue;
+                // offset of the hit point from the base center
+                double qx = px + tc * dx - capHeight * vx;
+                double qy = py + tc * dy - capHeight * vy;
+                double qz = pz + tc * dz - capHeight * vz;
+                if (alignZero(qx * qx + qy * qy + qz * qz - rSquared) < 0) t[count++] = tc;
+            }
+        }
+
+        for (int i = 1; i < count; ++i)
+            for (int j = i; j > 0 && t[j] < t[j - 1]; --j) {
+                double tmp = t[j];
+                t[j] = t[j - 1];
+                t[j - 1] = tmp;
+            }
+        // a cylinder is convex - more than two distances can only come from rounding at a rim
+        return Math.min(count, 2);
     }
 }
@@ -0,0 +1,251 @@
+package geometries;
+
+import primitives.*;
+
+/**
+ * A bounding volume hierarchy over the primitives of a composite geometry, such as the
+ * triangles of a {@link Mesh} or the spheres of a {@link SphereCloud}, stored in flat arrays
+ * instead of node objects.
+ * <p>
+ * The hierarchy is built from the box and the centroid of every primitive, by recursive
+ * subdivision at the median centroid along the longest axis, which keeps the tree depth
+ * logarithmic. Its leaves hold contiguous ranges of {@link #order}, the primitive indices in
+ * leaf order.
+ * <p>
+ * A query walks the hierarchy with a {@link Traversal}: {@link #begin(Ray)} starts it and
+ * {@link #nextLeaf(Traversal, double)} hands out the ranges of the leaves the ray enters, one
+ * after the other, leaving the primitives to the geometry. The traversal of each thread is
+ * reused by all its queries, so a query allocates nothing; the leaf loops never start another
+ * traversal, so a thread runs one traversal at a time.
+ */
+final class FlatBVH {
+
+    /**
+     * The state of a query walking a hierarchy: the ray and the nodes left to visit.
+     * After {@link #nextLeaf(Traversal, double)} returns true, {@link #start} and
+     * {@link #end} hold the range of {@link #order} of the leaf reached.
+     */
+    static final class Traversal {
+        /** Ray origin */
+        double ox, oy, oz;
+        /** Inverse of the ray direction */
+        double ix, iy, iz;
+        /** The nodes left to visit */
+        int[] stack = new int[64];
+        /** Number of nodes on the stack */
+        int top;
+        /** First position of the leaf range in {@link #order} */
+        int start;
+        /** Position after the leaf range */
+        int end;
+    }
+
+    /** The traversal of each thread */
+    private static final ThreadLocal<Traversal> TRAVERSALS = ThreadLocal.withInitial(Traversal::new);
+
+    /** The primitive indices, ordered so that every leaf owns a contiguous range */
+    final int[] order;
+
+    /** Bounds of the nodes: minX, minY, minZ, maxX, maxY, maxZ per node */
+    private final double[] nodeBounds;
+
+    /**
+     * The nodes, two values per node. For a leaf: the first position in {@link #order} and
+     * the (positive) primitive count. For an internal node: the index of the right child and
+     * 0 - the left child always follows its parent.
+     */
+    private final int[] nodes;
+
+    /** Number of nodes in use */
+    private int nodeCount = 0;
+
+    /** The depth of the tree */
+    private int depth = 0;
+
+    /**
+     * Builds the hierarchy over a set of primitives.
+     *
+     * @param bounds    the box of each primitive: minX, minY, minZ, maxX, maxY, maxZ
+     * @param centroids the centroid of each primitive: x, y, z
+     * @param leafSize  the largest number of primitives in a leaf
+     */
+    FlatBVH(double[] bounds, double[] centroids, int leafSize) {
+        int size = centroids.length / 3;
+        order = new int[size];
+        for (int i = 0; i < size; ++i) order[i] = i;
+        nodeBounds = new double[6 * 2 * size];
+        nodes = new int[2 * 2 * size];
+        buildNode(0, size, 1, bounds, centroids, leafSize);
+    }
+
+    /**
+     * Builds the node for a range of {@link #order}, and the nodes below it.
+     *
+     * @param start     first position of the range
+     * @param end       position after the range
+     * @param level     the depth of the node
+     * @param bounds    the primitive boxes
+     * @param centroids the primitive centroids
+     * @param leafSize  the largest number of primitives in a leaf
+     * @return the index of the created node
+     */
+    private int buildNode(int start, int end, int level, double[] bounds, double[] centroids, int leafSize) {
+        int node = nodeCount++;
+        depth = Math.max(depth, level);
+        double[] b = nodeBounds;
+        int o = 6 * node;
+        b[o] = b[o + 1] = b[o + 2] = Double.POSITIVE_INFINITY;
+        b[o + 3] = b[o + 4] = b[o + 5] = Double.NEGATIVE_INFINITY;
+        double[] cMin = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+        double[] cMax = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (int i = start; i < end; ++i) {
+            int primitive = order[i];
+            for (int axis = 0; axis < 3; ++axis) {
+                if (bounds[6 * primitive + axis] < b[o + axis]) b[o + axis] = bounds[6 * primitive + axis];
+                if (bounds[6 * primitive + 3 + axis] > b[o + 3 + axis]) b[o + 3 + axis] = bounds[6 * primitive + 3 + axis];
+                double c = centroids[3 * primitive + axis];
+                if (c < cMin[axis]) cMin[axis] = c;
+                if (c > cMax[axis]) cMax[axis] = c;
+            }
+        }
+
+        int count = end - start;
+        if (count <= leafSize) {
+            nodes[2 * node] = start;
+            nodes[2 * node + 1] = count;
+            return node;
+        }
+
+        int axis = 0;
+        for (int a = 1; a < 3; ++a)
+            if (cMax[a] - cMin[a] > cMax[axis] - cMin[axis]) axis = a;
+
+        // split at the median centroid along the longest axis
+        int mid = start + count / 2;
+        selectMedian(start, end, mid, axis, centroids);
+
+        buildNode(start, mid, level + 1, bounds, centroids, leafSize);
+        nodes[2 * node] = buildNode(mid, end, level + 1, bounds, centroids, leafSize);
+        nodes[2 * node + 1] = 0;
+        return node;
+    }
+
+    /**
+     * Reorders a range of {@link #order} so that the primitive at position {@code k} is the
+     * one that would be there if the range were sorted by centroid, with smaller ones before
+     * it and larger ones after it (quickselect).
+     *
+     * @param start     first position of the range
+     * @param end       position after the range
+     * @param k         the position to select
+     * @param axis      the axis to compare centroids on
+     * @param centroids the primitive centroids
+     */
+    private void selectMedian(int start, int end, int k, int axis, double[] centroids) {
+        while (end - start > 1) {
+            double pivot = centroids[3 * order[(start + end) >>> 1] + axis];
+            int i = start, j = end - 1;
+            while (i <= j) {
+                while (centroids[3 * order[i] + axis] < pivot) ++i;
+                while (centroids[3 * order[j] + axis] > pivot) --j;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i++] = order[j];
+                    order[j--] = tmp;
+                }
+            }
+            if (k <= j) end = j + 1;
+            else if (k >= i) start = i;
+            else return;
+        }
+    }
+
+    /**
+     * Returns the box around all the primitives.
+     *
+     * @return the box of the root node
+     */
+    AABB getBoundingBox() {
+        return new AABB(new Point(nodeBounds[0], nodeBounds[1], nodeBounds[2]),
+                new Point(nodeBounds[3], nodeBounds[4], nodeBounds[5]));
+    }
+
+    /**
+     * Starts a query of a ray with the traversal of the current thread.
+     *
+     * @param ray the ray
+     * @return the traversal, positioned before the root
+     */
+    Traversal begin(Ray ray) {
+        Traversal traversal = TRAVERSALS.get();
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        traversal.ox = head.getX();
+        traversal.oy = head.getY();
+        traversal.oz = head.getZ();
+        traversal.ix = 1 / dir.getX();
+        traversal.iy = 1 / dir.getY();
+        traversal.iz = 1 / dir.getZ();
+        if (traversal.stack.length <= depth) traversal.stack = new int[depth + 1];
+        traversal.stack[0] = 0;
+        traversal.top = 1;
+        return traversal;
+    }
+
+    /**
+     * Goes on to the next leaf whose bounds the ray enters before a distance.
+     *
+     * @param traversal the traversal started by {@link #begin(Ray)}
+     * @param tMax      distance beyond which hits are of no interest, such as that of the
+     *                  closest hit found so far
+     * @return true if a leaf was reached, its range left in the traversal, or false if the
+     * query is done
+     */
+    boolean nextLeaf(Traversal traversal, double tMax) {
+        int[] stack = traversal.stack;
+        while (traversal.top > 0) {
+            int node = stack[--traversal.top];
+            if (!hitsNode(node, traversal, tMax)) continue;
+            int count = nodes[2 * node + 1];
+            if (count == 0) {
+                stack[traversal.top++] = nodes[2 * node];
+                stack[traversal.top++] = node + 1;
+                continue;
+            }
+            traversal.start = nodes[2 * node];
+            traversal.end = traversal.start + count;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tests a ray against the bounds of a node.
+     *
+     * @param node      the node index
+     * @param traversal the traversal holding the ray
+     * @param tMax      distance beyond which hits are of no interest
+     * @return true if the ray enters the node bounds before {@code tMax}
+     */
+    private boolean hitsNode(int node, Traversal traversal, double tMax) {
+        int o = 6 * node;
+        double ox = traversal.ox, oy = traversal.oy, oz = traversal.oz;
+        double ix = traversal.ix, iy = traversal.iy, iz = traversal.iz;
+        double tNear = 0, tFar = tMax;
+        double t0 = (nodeBounds[o] - ox) * ix, t1 = (nodeBounds[o + 3] - ox) * ix;
+        if (t0 > t1) { double tmp = t0; t0 = t1; t1 = tmp; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+        t0 = (nodeBounds[o + 1] - oy) * iy;
+        t1 = (nodeBounds[o + 4] - oy) * iy;
+        if (t0 > t1) { double tmp = t0; t0 = t1; t1 = tmp; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+        t0 = (nodeBounds[o + 2] - oz) * iz;
+        t1 = (nodeBounds[o + 5] - oz) * iz;
+        if (t0 > t1) { double tmp = t0; t0 = t1; t1 = tmp; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+        return tNear <= tFar;
+    }
+}
@@ -0,0 +1,166 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static primitives.Util.isZero;
+
+/**
+ * An infinite pyramid with its apex at a point, bounded by the planes through the apex
+ * and every two consecutive edge directions - the beam that holds the primary rays of a
+ * tile of pixels.
+ * <p>
+ * A box wholly outside one of the side planes cannot be hit by any ray of the beam, so a
+ * packet of rays carrying its frustum skips such boxes - whole subtrees of a bounding
+ * volume hierarchy - with one test for all its rays.
+ * <p>
+ * The frustum also remembers, for every hierarchy it was tested against, the deepest node
+ * holding all it can reach, so the following packets of the tile start their traversal
+ * there - or not at all. A frustum is meant for the tile of a single rendering thread.
+ */
+public final class Frustum {
+
+    /** Smallest cosine between a ray and the axis of a frustum enclosing it */
+    private static final double MIN_COSINE = 0.5;
+
+    /** How much wider an enclosing frustum is made than its rays, against rounding errors */
+    private static final double MARGIN = 1e-7;
+
+    /** The apex */
+    private final double ox, oy, oz;
+
+    /** The inward unit normals of the side planes, x, y and z after each other */
+    private final double[] normals;
+
+    /** The node where the traversal of each hierarchy starts, null for a hierarchy out of reach */
+    private final Map<BVHNode, BVHNode> entries = new IdentityHashMap<>();
+
+    /**
+     * Constructs a frustum from its apex and the directions of its edges.
+     *
+     * @param apex  the apex, the common head of the rays of the beam
+     * @param edges the directions of the edges, in order around the beam - a convex
+     *              polygon when cut across
+     * @throws IllegalArgumentException if there are fewer than 3 edges, or two consecutive
+     *                                  edges are parallel
+     */
+    public Frustum(Point apex, Vector... edges) {
+        if (edges.length < 3) throw new IllegalArgumentException("A frustum must have at least 3 edges");
+        ox = apex.getX();
+        oy = apex.getY();
+        oz = apex.getZ();
+
+        Vector axis = edges[0];
+        for (int i = 1; i < edges.length; ++i) axis = axis.add(edges[i]);
+        normals = new double[3 * edges.length];
+        for (int i = 0; i < edges.length; ++i) {
+            Vector normal = edges[i].crossProduct(edges[(i + 1) % edges.length]).normalize();
+            if (normal.dotProduct(axis) < 0) normal = normal.scale(-1.0);
+            normals[3 * i] = normal.getX();
+            normals[3 * i + 1] = normal.getY();
+            normals[3 * i + 2] = normal.getZ();
+        }
+    }
+
+    /**
+     * Encloses rays in a frustum, if they leave from a common head in close enough
+     * directions. The frustum is the rectangle of their directions across their mean one,
+     * made slightly wider.
+     *
+     * @param rays  the rays
+     * @param count the number of rays, from the first
+     * @return the frustum, or null if the rays cannot be enclosed
+     */
+    public static Frustum enclosing(Ray[] rays, int count) {
+        if (count == 0) return null;
+        Point head = rays[0].getHead();
+        double ax = 0, ay = 0, az = 0;
+        for (int i = 0; i < count; ++i) {
+            if (!rays[i].getHead().equals(head)) return null;
+            Vector direction = rays[i].getDirection();
+            ax += direction.getX();
+            ay += direction.getY();
+            az += direction.getZ();
+        }
+        double length = Math.sqrt(ax * ax + ay * ay + az * az);
+        if (isZero(length)) return null;
+        Vector axis = new Vector(ax / length, ay / length, az / length);
+        Vector u = axis.crossProduct(Math.abs(axis.getX()) < 0.9 ? Vector.AXIS_X : Vector.AXIS_Y).normalize();
+        Vector v = axis.crossProduct(u);
+
+        double minU = Double.POSITIVE_INFINITY, maxU = Double.NEGATIVE_INFINITY;
+        double minV = Double.POSITIVE_INFINITY, maxV = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; ++i) {
+            Vector direction = rays[i].getDirection();
+            double cosine = direction.dotProduct(axis);
+            if (cosine < MIN_COSINE) return null;
+            double pu = direction.dotProduct(u) / cosine, pv = direction.dotProduct(v) / cosine;
+            minU = Math.min(minU, pu);
+            maxU = Math.max(maxU, pu);
+            minV = Math.min(minV, pv);
+            maxV = Math.max(maxV, pv);
+        }
+        minU -= MARGIN;
+        maxU += MARGIN;
+        minV -= MARGIN;
+        maxV += MARGIN;
+        return new Frustum(head, edge(axis, u, v, minU, minV), edge(axis, u, v, maxU, minV),
+                edge(axis, u, v, maxU, maxV), edge(axis, u, v, minU, maxV));
+    }
+
+    /**
+     * Computes the direction of an edge of an enclosing frustum, at a unit distance along
+     * its axis.
+     *
+     * @param axis the axis of the frustum
+     * @param u    the first direction across the axis
+     * @param v    the second direction across the axis
+     * @param pu   the offset of the edge along u
+     * @param pv   the offset of the edge along v
+     * @return the direction of the edge
+     */
+    private static Vector edge(Vector axis, Vector u, Vector v, double pu, double pv) {
+        return new Vector(axis.getX() + pu * u.getX() + pv * v.getX(),
+                axis.getY() + pu * u.getY() + pv * v.getY(),
+                axis.getZ() + pu * u.getZ() + pv * v.getZ());
+    }
+
+    /**
+     * Checks whether a box lies wholly outside the frustum, beyond one of its side planes.
+     * The test is conservative: a box outside the frustum but across the line of two side
+     * planes may still be kept.
+     *
+     * @param box the box
+     * @return true if no ray of the beam can cross the box
+     */
+    public boolean excludes(AABB box) {
+        double minX = box.min.getX() - ox, minY = box.min.getY() - oy, minZ = box.min.getZ() - oz;
+        double maxX = box.max.getX() - ox, maxY = box.max.getY() - oy, maxZ = box.max.getZ() - oz;
+        for (int i = 0; i < normals.length; i += 3) {
+            double nx = normals[i], ny = normals[i + 1], nz = normals[i + 2];
+            // the corner of the box farthest inside the plane
+            double distance = nx * (nx > 0 ? maxX : minX) + ny * (ny > 0 ? maxY : minY) + nz * (nz > 0 ? maxZ : minZ);
+            if (distance < 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the node of a bounding volume hierarchy where the traversal of rays inside the
+     * frustum starts: the deepest node whose subtree holds every node the frustum does not
+     * exclude. It is found once per hierarchy.
+     *
+     * @param root the root of the hierarchy
+     * @return the node to start from, or null if the frustum excludes the whole hierarchy
+     */
+    BVHNode entry(BVHNode root) {
+        if (entries.containsKey(root)) return entries.get(root);
+        BVHNode entry = root.findEntry(this);
+        entries.put(root, entry);
+        return entry;
+    }
+}
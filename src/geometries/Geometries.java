@@ -14,10 +14,25 @@ public class Geometries extends Intersectable {
 
     private static BoundingVolumeBuilder boundingBoxBuilder = null;
 
+    /**
+     * The builder of this collection, created from the global strategy,
+     * so that every collection keeps its own bounding volume state.
+     */
+    private BoundingVolumeBuilder builder = null;
+
     /**
      * A list that holds all the geometries in the composite.
      */
-    private final List<Intersectable> geoComposite = new LinkedList<>();
+    private List<Intersectable> geoComposite = new LinkedList<>();
+
+    /**
+     * Whether the collection is committed: its geometries are final and its bounding
+     * volumes are built, see {@link #commit()}.
+     */
+    private boolean committed = false;
+
+    /** Whether queries of any of the geometries use the mailbox, set by {@link #commit()} */
+    private boolean membersUseMailbox = false;
 
     /**
      * Default constructor to create an empty collection of geometries.
@@ -38,7 +53,8 @@ public class Geometries extends Intersectable {
      * This method allows selecting a specific algorithm (e.g., BVH or CBR) to be used when
      * constructing bounding boxes and finding intersections.
      * <p>
-     * This setting affects all geometries that use the static builder.
+     * This setting affects all geometries that use the static builder; every collection
+     * creates its own builder of the selected kind, so each keeps its own bounding volumes.
      *
      * @param builder the bounding volume builder to use (e.g., {@link BVHBoundingBoxBuilder}, {@link CBRBoundingBoxBuilder})
      */
@@ -52,9 +68,70 @@ public class Geometries extends Intersectable {
      * @param geometries the geometries to be added
      */
     public void add(Intersectable... geometries) {
+        if (committed) throw new IllegalStateException("Cannot add geometries to a committed collection");
         for (Intersectable geometry : geometries) {
             geoComposite.add(geometry);
         }
+        builder = null;
+    }
+
+    /**
+     * Returns the geometries in the collection.
+     *
+     * @return the geometries, not to be modified
+     */
+    List<Intersectable> getGeometries() {
+        return geoComposite;
+    }
+
+    /**
+     * Returns the builder of this collection, creating it from the global strategy
+     * when needed.
+     *
+     * @return the builder of this collection, or null if no strategy is set
+     */
+    private BoundingVolumeBuilder builder() {
+        if (committed) return builder;
+        if (boundingBoxBuilder == null) return null;
+        if (builder == null || builder.getClass() != boundingBoxBuilder.getClass()) {
+            builder = boundingBoxBuilder.newBuilder();
+        }
+        return builder;
+    }
+
+    /**
+     * Commits the collection for rendering: commits the geometries in parallel, builds the
+     * bounding volumes of the global strategy over them and freezes the collection, so that
+     * rendering threads find everything built and nothing changes under them.
+     * Geometries can no longer be added. A committed collection is committed again only if
+     * the global strategy has changed to another kind of builder since.
+     */
+    @Override
+    public synchronized void commit() {
+        if (committed && (builder == null ? boundingBoxBuilder == null
+                : boundingBoxBuilder != null && builder.getClass() == boundingBoxBuilder.getClass())) return;
+        committed = false;
+        geoComposite = List.copyOf(geoComposite);
+        geoComposite.parallelStream().forEach(Intersectable::commit);
+        builder = boundingBoxBuilder == null ? null : boundingBoxBuilder.newBuilder();
+        membersUseMailbox = geoComposite.stream().anyMatch(Intersectable::usesMailbox);
+        updateBoundingBox();
+        committed = true;
+    }
+
+    /**
+     * A collection uses the mailbox if it has bounding volumes, which may hold a geometry
+     * shared with another collection, or if any of its geometries does.
+     *
+     * @return true if queries of the collection use the mailbox
+     */
+    @Override
+    protected boolean usesMailbox() {
+        if (committed) return builder != null || membersUseMailbox;
+        if (builder() != null) return true;
+        for (Intersectable geometry : geoComposite)
+            if (geometry.usesMailbox()) return true;
+        return false;
     }
 
     /**
@@ -65,7 +142,8 @@ public class Geometries extends Intersectable {
      */
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        if (boundingBoxBuilder == null) {
+        BoundingVolumeBuilder builder = builder();
+        if (builder == null) {
             List<Intersection> intersectionPoints = null;
             for (Intersectable geometry : geoComposite) {
                 List<Intersection> tempPoints = geometry.calculateIntersectionsHelper(ray);
@@ -78,8 +156,47 @@ public class Geometries extends Intersectable {
             }
             return intersectionPoints;
         } else {
-            return boundingBoxBuilder.findIntersections(ray, geoComposite);
+            return builder.findIntersections(ray, geoComposite);
+        }
+    }
+
+    /**
+     * Records the closest intersection of the ray with the geometries in the collection.
+     *
+     * @param ray the ray to check for intersections
+     * @param hit the record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        BoundingVolumeBuilder builder = builder();
+        if (builder != null)
+            return builder.findClosestIntersection(ray, geoComposite, hit);
+        boolean found = false;
+        for (Intersectable geometry : geoComposite) {
+            if (geometry.calculateClosestIntersectionHelper(ray, hit)) found = true;
+        }
+        return found;
+    }
+
+    /**
+     * Records the closest intersections of the active rays of a packet with the geometries
+     * in the collection.
+     *
+     * @param packet the packet of rays
+     * @param mask   the active rays of the packet, a bit for each ray
+     * @return the active rays that recorded a nearer hit
+     */
+    @Override
+    protected int calculateClosestIntersectionsHelper(RayPacket packet, int mask) {
+        BoundingVolumeBuilder builder = builder();
+        if (builder != null)
+            return builder.findClosestIntersections(packet, mask, geoComposite);
+        int found = 0;
+        for (Intersectable geometry : geoComposite) {
+            found |= geometry.calculateClosestIntersectionsHelper(packet, mask);
         }
+        return found;
     }
 
     /**
@@ -90,7 +207,8 @@ public class Geometries extends Intersectable {
      */
     @Override
     protected AABB createBoundingBox() {
-        return boundingBoxBuilder.createBoundingBox(geoComposite);
+        BoundingVolumeBuilder builder = builder();
+        return (builder != null ? builder : new CBRBoundingBoxBuilder()).createBoundingBox(geoComposite);
     }
 
 }
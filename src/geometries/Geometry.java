@@ -45,6 +45,17 @@ public abstract class Geometry extends Intersectable {
         return material;
     }
 
+    /**
+     * Returns the material at an intersection with the geometry.
+     * Composite geometries override it to use the primitive recorded in the intersection.
+     *
+     * @param intersection an intersection with this geometry
+     * @return the material at the intersection point
+     */
+    public Material getMaterial(Intersection intersection) {
+        return getMaterial();
+    }
+
     /**
      * Returns the emission color of the geometry.
      *
@@ -73,6 +84,17 @@ public abstract class Geometry extends Intersectable {
      */
     public abstract Vector getNormal(Point point);
 
+    /**
+     * Calculates the normal vector to the surface at an intersection point.
+     * Composite geometries override it to use the primitive recorded in the intersection.
+     *
+     * @param intersection an intersection with this geometry
+     * @return the normal vector at the intersection point
+     */
+    public Vector getNormal(Intersection intersection) {
+        return getNormal(intersection.point);
+    }
+
     /**
      * A list that holds other intersectable geometries.
      * Used in subclasses for managing multiple geometries.
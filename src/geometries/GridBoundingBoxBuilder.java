@@ -0,0 +1,326 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Implementation of BoundingVolumeBuilder using a uniform grid.
+ * The bounds of the geometries are divided into equal cells, every cell referencing the
+ * geometries whose bounding boxes overlap it, and rays walk the cells they cross in order
+ * (3D-DDA). A geometry spanning several cells is tested once per ray thanks to the
+ * {@link Mailbox}. Infinite geometries are kept out of the grid and tested for every ray.
+ * <p>
+ * Grids suit scenes of many geometries of similar sizes spread over the scene.
+ */
+public class GridBoundingBoxBuilder implements BoundingVolumeBuilder {
+
+    /** Average number of cells per geometry */
+    private static final double CELLS_PER_GEOMETRY = 4;
+
+    /** Maximum number of cells along an axis */
+    private static final int MAX_RESOLUTION = 128;
+
+    /** The geometries referenced by the grid cells */
+    private Intersectable[] bounded;
+
+    /** The geometries with no finite bounding box, tested for every ray */
+    private Intersectable[] unbounded;
+
+    /** The grid bounds: minX, minY, minZ, maxX, maxY, maxZ */
+    private final double[] bounds = new double[6];
+
+    /** Number of cells along each axis */
+    private final int[] resolution = new int[3];
+
+    /** Size of a cell along each axis */
+    private final double[] cellSize = new double[3];
+
+    /** Start of the references of every cell in {@link #cellItems}, plus the end of the last cell */
+    private int[] cellStart;
+
+    /** Indices in {@link #bounded} referenced by the cells, cell after cell */
+    private int[] cellItems;
+
+    /** The bounding box of all the geometries */
+    private AABB box;
+
+    /** Whether the grid has been built */
+    private boolean built = false;
+
+    /**
+     * Creates a new builder, since every collection needs a grid of its own.
+     * @return a new grid builder.
+     */
+    @Override
+    public BoundingVolumeBuilder newBuilder() {
+        return new GridBoundingBoxBuilder();
+    }
+
+    /**
+     * Builds the grid over the geometries and returns their bounding box.
+     * @param geometries The list of geometries to enclose.
+     * @return The bounding box of all the geometries, or null if no geometries.
+     */
+    @Override
+    public AABB createBoundingBox(List<Intersectable> geometries) {
+        if (geometries == null || geometries.isEmpty()) return null;
+
+        List<Intersectable> boundedList = new ArrayList<>();
+        List<Intersectable> unboundedList = new ArrayList<>();
+        AABB all = null;
+        double[] b = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (Intersectable geometry : geometries) {
+            AABB gBox = geometry.computeBoundingBoxIfNeeded();
+            all = AABB.combine(all, gBox);
+            if (gBox == null || !gBox.isBounded()) {
+                unboundedList.add(geometry);
+                continue;
+            }
+            boundedList.add(geometry);
+            for (int axis = 0; axis < 3; ++axis) {
+                b[axis] = Math.min(b[axis], gBox.min.getCoordinate(axis));
+                b[axis + 3] = Math.max(b[axis + 3], gBox.max.getCoordinate(axis));
+            }
+        }
+        bounded = boundedList.toArray(new Intersectable[0]);
+        unbounded = unboundedList.toArray(new Intersectable[0]);
+        box = all;
+        if (bounded.length > 0) buildCells(b);
+        built = true;
+        return box;
+    }
+
+    /**
+     * Chooses the grid resolution and fills the cells.
+     * @param b the bounds of the bounded geometries
+     */
+    private void buildCells(double[] b) {
+        double[] extent = new double[3];
+        double diagonal = 0;
+        for (int axis = 0; axis < 3; ++axis) {
+            extent[axis] = b[axis + 3] - b[axis];
+            diagonal = Math.max(diagonal, extent[axis]);
+        }
+        // flat scenes still need some thickness to be divided
+        double thickness = Math.max(diagonal * 1e-3, 1e-9);
+        double volume = 1;
+        for (int axis = 0; axis < 3; ++axis) {
+            if (extent[axis] < thickness) {
+                b[axis] -= thickness / 2;
+                b[axis + 3] += thickness / 2;
+                extent[axis] = b[axis + 3] - b[axis];
+            }
+            volume *= extent[axis];
+        }
+        double cellsPerUnit = Math.cbrt(CELLS_PER_GEOMETRY * bounded.length / volume);
+        for (int axis = 0; axis < 3; ++axis) {
+            resolution[axis] = (int) Math.max(1, Math.min(MAX_RESOLUTION, Math.round(extent[axis] * cellsPerUnit)));
+            cellSize[axis] = extent[axis] / resolution[axis];
+        }
+        System.arraycopy(b, 0, bounds, 0, 6);
+
+        // count the references of every cell, then fill them
+        int cellCount = resolution[0] * resolution[1] * resolution[2];
+        int[][] ranges = new int[bounded.length][];
+        cellStart = new int[cellCount + 1];
+        for (int i = 0; i < bounded.length; ++i) {
+            ranges[i] = cellRange(bounded[i].computeBoundingBoxIfNeeded());
+            forEachCell(ranges[i], cell -> ++cellStart[cell + 1]);
+        }
+        for (int cell = 0; cell < cellCount; ++cell) cellStart[cell + 1] += cellStart[cell];
+        cellItems = new int[cellStart[cellCount]];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < bounded.length; ++i) {
+            int item = i;
+            forEachCell(ranges[i], cell -> cellItems[fill[cell]++] = item);
+        }
+    }
+
+    /**
+     * Finds the range of cells overlapped by a bounding box.
+     * @param gBox the bounding box
+     * @return first and last cell along X, Y and Z
+     */
+    private int[] cellRange(AABB gBox) {
+        int[] range = new int[6];
+        for (int axis = 0; axis < 3; ++axis) {
+            range[axis] = cellIndex(gBox.min.getCoordinate(axis), axis);
+            range[axis + 3] = cellIndex(gBox.max.getCoordinate(axis), axis);
+        }
+        return range;
+    }
+
+    /**
+     * Applies an action to every cell in a range.
+     * @param range  first and last cell along X, Y and Z
+     * @param action the action, given the cell index
+     */
+    private void forEachCell(int[] range, IntConsumer action) {
+        for (int z = range[2]; z <= range[5]; ++z)
+            for (int y = range[1]; y <= range[4]; ++y)
+                for (int x = range[0]; x <= range[3]; ++x)
+                    action.accept(x + resolution[0] * (y + resolution[1] * z));
+    }
+
+    /**
+     * Finds the cell containing a coordinate along an axis.
+     * @param coordinate the coordinate
+     * @param axis       the axis
+     * @return the cell index along the axis, clamped to the grid
+     */
+    private int cellIndex(double coordinate, int axis) {
+        int index = (int) Math.floor((coordinate - bounds[axis]) / cellSize[axis]);
+        return Math.max(0, Math.min(resolution[axis] - 1, index));
+    }
+
+    @Override
+    public List<Intersectable.Intersection> findIntersections(Ray ray, List<Intersectable> geometries) {
+        if (!built) createBoundingBox(geometries);
+        if (!built) return null;
+
+        Mailbox mailbox = Mailbox.get();
+        List<Intersectable.Intersection> result = null;
+        for (Intersectable geometry : unbounded)
+            if (mailbox.visit(geometry)) result = addAll(result, geometry.calculateIntersectionsHelper(ray));
+        if (bounded.length == 0) return result;
+
+        Walk walk = new Walk(ray);
+        while (walk.inside) {
+            for (int i = cellStart[walk.cell], end = cellStart[walk.cell + 1]; i < end; ++i) {
+                Intersectable geometry = bounded[cellItems[i]];
+                if (mailbox.visit(geometry)) result = addAll(result, geometry.calculateIntersectionsHelper(ray));
+            }
+            walk.next();
+        }
+        return result;
+    }
+
+    /**
+     * Adds intersections to a result list.
+     * @param result        the list so far, or null if it is still empty
+     * @param intersections the intersections to add, or null
+     * @return the list with the intersections added
+     */
+    private static List<Intersectable.Intersection> addAll(List<Intersectable.Intersection> result,
+                                                           List<Intersectable.Intersection> intersections) {
+        if (intersections == null) return result;
+        if (result == null) result = new ArrayList<>();
+        result.addAll(intersections);
+        return result;
+    }
+
+    @Override
+    public boolean findClosestIntersection(Ray ray, List<Intersectable> geometries, Intersectable.Intersection hit) {
+        if (!built) createBoundingBox(geometries);
+        if (!built) return false;
+
+        Mailbox mailbox = Mailbox.get();
+        boolean found = false;
+        for (Intersectable geometry : unbounded)
+            if (mailbox.visit(geometry) && geometry.calculateClosestIntersectionHelper(ray, hit)) found = true;
+        if (bounded.length == 0) return found;
+
+        Walk walk = new Walk(ray);
+        // cells are visited in order, so a hit inside the current cell ends the walk
+        while (walk.inside && hit.t > walk.entry) {
+            for (int i = cellStart[walk.cell], end = cellStart[walk.cell + 1]; i < end; ++i) {
+                Intersectable geometry = bounded[cellItems[i]];
+                if (mailbox.visit(geometry) && geometry.calculateClosestIntersectionHelper(ray, hit)) found = true;
+            }
+            if (hit.t <= walk.exit()) break;
+            walk.next();
+        }
+        return found;
+    }
+
+    /**
+     * The walk of a ray through the grid cells, in the order the ray crosses them.
+     */
+    private class Walk {
+        /** Whether the current cell is inside the grid */
+        boolean inside;
+        /** Index of the current cell */
+        int cell;
+        /** Distance along the ray where it enters the current cell */
+        double entry;
+        /** Current cell index along each axis */
+        private final int[] index = new int[3];
+        /** Step of the cell index along each axis */
+        private final int[] step = new int[3];
+        /** Distance along the ray to the next cell boundary on each axis */
+        private final double[] next = new double[3];
+        /** Distance along the ray between cell boundaries on each axis */
+        private final double[] delta = new double[3];
+
+        /**
+         * Starts the walk at the cell where the ray enters the grid.
+         * @param ray the ray
+         */
+        Walk(Ray ray) {
+            Point head = ray.getHead();
+            Vector dir = ray.getDirection();
+            double tNear = 0, tFar = Double.POSITIVE_INFINITY;
+            double[] origin = new double[3], direction = new double[3];
+            for (int axis = 0; axis < 3; ++axis) {
+                origin[axis] = head.getCoordinate(axis);
+                direction[axis] = dir.getCoordinate(axis);
+                if (direction[axis] == 0) {
+                    if (origin[axis] < bounds[axis] || origin[axis] > bounds[axis + 3]) return;
+                    continue;
+                }
+                double t0 = (bounds[axis] - origin[axis]) / direction[axis];
+                double t1 = (bounds[axis + 3] - origin[axis]) / direction[axis];
+                tNear = Math.max(tNear, Math.min(t0, t1));
+                tFar = Math.min(tFar, Math.max(t0, t1));
+            }
+            if (tNear > tFar) return;
+
+            inside = true;
+            entry = tNear;
+            for (int axis = 0; axis < 3; ++axis) {
+                index[axis] = cellIndex(origin[axis] + tNear * direction[axis], axis);
+                if (direction[axis] > 0) {
+                    step[axis] = 1;
+                    next[axis] = (bounds[axis] + (index[axis] + 1) * cellSize[axis] - origin[axis]) / direction[axis];
+                    delta[axis] = cellSize[axis] / direction[axis];
+                } else if (direction[axis] < 0) {
+                    step[axis] = -1;
+                    next[axis] = (bounds[axis] + index[axis] * cellSize[axis] - origin[axis]) / direction[axis];
+                    delta[axis] = -cellSize[axis] / direction[axis];
+                } else {
+                    next[axis] = Double.POSITIVE_INFINITY;
+                }
+            }
+            cell = index[0] + resolution[0] * (index[1] + resolution[1] * index[2]);
+        }
+
+        /**
+         * Returns the distance along the ray where it leaves the current cell.
+         * @return the exit distance
+         */
+        double exit() {
+            return Math.min(next[0], Math.min(next[1], next[2]));
+        }
+
+        /**
+         * Moves to the next cell crossed by the ray.
+         */
+        void next() {
+            int axis = next[0] < next[1] ? (next[0] < next[2] ? 0 : 2) : (next[1] < next[2] ? 1 : 2);
+            entry = next[axis];
+            index[axis] += step[axis];
+            if (index[axis] < 0 || index[axis] >= resolution[axis]) {
+                inside = false;
+                return;
+            }
+            next[axis] += delta[axis];
+            cell = index[0] + resolution[0] * (index[1] + resolution[1] * index[2]);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static primitives.Util.isZero;
+
+/**
+ * Represents a placed copy of a shared geometry (a single geometry or a whole
+ * {@link Geometries} group) under an affine transform.
+ * <p>
+ * The shared geometry, including any bounding volume hierarchy it builds, is stored once;
+ * every instance holds only its 4x3 transform and the inverse. Rays are transformed into
+ * the object space of the shared geometry instead of copying it, and hits are reported
+ * back in world space with the geometry's own material.
+ * <p>
+ * Instances can't be nested: the shared geometry may hold no instance, directly or inside a
+ * collection at any depth.
+ */
+public class Instance extends Intersectable {
+
+    /**
+     * The object-space hit record of each thread, reused by every query and normal through
+     * an instance. Instances are not nested, so a thread uses it for one instance at a time.
+     */
+    private static final ThreadLocal<Intersection> SCRATCH = ThreadLocal.withInitial(Intersection::new);
+
+    /** The shared geometry in its object space */
+    private final Intersectable geometry;
+
+    /** Object-to-world transform: three rows of (linear part, translation) */
+    private final double[] matrix;
+
+    /** World-to-object transform: three rows of (linear part, translation) */
+    private final double[] inverse;
+
+    /**
+     * Constructs an instance with a general affine transform.
+     *
+     * @param geometry the shared geometry
+     * @param matrix   the object-to-world transform, 12 values: three rows of
+     *                 {@code m0 m1 m2 translation}
+     * @throws IllegalArgumentException if the matrix is malformed or singular, or if the
+     *                                  geometry holds an instance
+     */
+    public Instance(Intersectable geometry, double... matrix) {
+        if (matrix.length != 12)
+            throw new IllegalArgumentException("An affine transform needs 12 values");
+        if (holdsInstance(geometry))
+            throw new IllegalArgumentException("Instances can't be nested");
+        this.geometry = geometry;
+        this.matrix = matrix.clone();
+        this.inverse = invert(this.matrix);
+    }
+
+    /**
+     * Constructs an instance that is only moved relative to the shared geometry.
+     *
+     * @param geometry    the shared geometry
+     * @param translation the offset of the instance
+     */
+    public Instance(Intersectable geometry, Vector translation) {
+        this(geometry, 1, 0, 0, translation.getX(), 0, 1, 0, translation.getY(), 0, 0, 1, translation.getZ());
+    }
+
+    /**
+     * Constructs an instance that is uniformly scaled, then rotated around an axis through
+     * the object origin, and then placed with the object origin at the given position.
+     *
+     * @param geometry the shared geometry
+     * @param axis     the rotation axis
+     * @param angle    the rotation angle in degrees
+     * @param scale    the uniform scale factor
+     * @param position the world position of the object origin
+     * @throws IllegalArgumentException if the scale is not positive
+     */
+    public Instance(Intersectable geometry, Vector axis, double angle, double scale, Point position) {
+        this(geometry, rotationScale(axis, angle, scale, position));
+    }
+
+    /**
+     * Checks whether a geometry is an instance or holds one, in a collection at any depth.
+     *
+     * @param geometry the geometry
+     * @return true if an instance is found
+     */
+    private static boolean holdsInstance(Intersectable geometry) {
+        if (geometry instanceof Instance) return true;
+        if (geometry instanceof Geometries group)
+            for (Intersectable member : group.getGeometries())
+                if (holdsInstance(member)) return true;
+        return false;
+    }
+
+    /**
+     * Builds the matrix of a scale, a rotation (Rodrigues' formula) and a translation.
+     *
+     * @param axis     the rotation axis
+     * @param angle    the rotation angle in degrees
+     * @param scale    the uniform scale factor
+     * @param position the world position of the object origin
+     * @return the 12 matrix values
+     */
+    private static double[] rotationScale(Vector axis, double angle, double scale, Point position) {
+        if (scale <= 0) throw new IllegalArgumentException("Scale must be positive");
+        Vector k = axis.normalize();
+        double x = k.getX(), y = k.getY(), z = k.getZ();
+        double rad = Math.toRadians(angle);
+        double c = Math.cos(rad), s = Math.sin(rad), t = 1 - c;
+        return new double[] {
+                scale * (t * x * x + c), scale * (t * x * y - s * z), scale * (t * x * z + s * y), position.getX(),
+                scale * (t * x * y + s * z), scale * (t * y * y + c), scale * (t * y * z - s * x), position.getY(),
+                scale * (t * x * z - s * y), scale * (t * y * z + s * x), scale * (t * z * z + c), position.getZ()
+        };
+    }
+
+    /**
+     * Inverts an affine transform.
+     *
+     * @param m the transform
+     * @return the inverse transform
+     * @throws IllegalArgumentException if the transform is singular
+     */
+    private static double[] invert(double[] m) {
+        double a = m[0], b = m[1], c = m[2];
+        double d = m[4], e = m[5], f = m[6];
+        double g = m[8], h = m[9], i = m[10];
+        double c0 = e * i - f * h, c1 = f * g - d * i, c2 = d * h - e * g;
+        double det = a * c0 + b * c1 + c * c2;
+        if (isZero(det)) throw new IllegalArgumentException("The transform is singular");
+        double inv = 1 / det;
+        double[] r = new double[12];
+        r[0] = c0 * inv;
+        r[1] = (c * h - b * i) * inv;
+        r[2] = (b * f - c * e) * inv;
+        r[4] = c1 * inv;
+        r[5] = (a * i - c * g) * inv;
+        r[6] = (c * d - a * f) * inv;
+        r[8] = c2 * inv;
+        r[9] = (b * g - a * h) * inv;
+        r[10] = (a * e - b * d) * inv;
+        for (int row = 0; row < 12; row += 4)
+            r[row + 3] = -(r[row] * m[3] + r[row + 1] * m[7] + r[row + 2] * m[11]);
+        return r;
+    }
+
+    /**
+     * Applies an affine transform to a point.
+     *
+     * @param m the transform
+     * @param p the point
+     * @return the transformed point
+     */
+    private static Point transformPoint(double[] m, Point p) {
+        double x = p.getX(), y = p.getY(), z = p.getZ();
+        return new Point(m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * Transforms a world-space ray into the object space of the shared geometry.
+     * The object-space direction is normalized by the ray, so distances along it are
+     * {@code scale} times the world distances, where {@code scale} is its length before
+     * normalization.
+     *
+     * @param ray the world-space ray
+     * @return the object-space ray
+     */
+    private Ray toObject(Ray ray) {
+        Vector d = ray.getDirection();
+        double x = d.getX(), y = d.getY(), z = d.getZ();
+        return new Ray(transformPoint(inverse, ray.getHead()),
+                new Vector(inverse[0] * x + inverse[1] * y + inverse[2] * z,
+                        inverse[4] * x + inverse[5] * y + inverse[6] * z,
+                        inverse[8] * x + inverse[9] * y + inverse[10] * z));
+    }
+
+    /**
+     * Returns how much longer distances are in object space than in world space along a ray.
+     *
+     * @param ray the world-space ray
+     * @return the ratio of object-space to world-space distance
+     */
+    private double distanceScale(Ray ray) {
+        Vector d = ray.getDirection();
+        double x = d.getX(), y = d.getY(), z = d.getZ();
+        double ox = inverse[0] * x + inverse[1] * y + inverse[2] * z;
+        double oy = inverse[4] * x + inverse[5] * y + inverse[6] * z;
+        double oz = inverse[8] * x + inverse[9] * y + inverse[10] * z;
+        return Math.sqrt(ox * ox + oy * oy + oz * oz);
+    }
+
+    /**
+     * Commits the shared geometry and the instance.
+     *
+     * @throws IllegalStateException if an instance was added to the shared geometry since
+     *                               the instance was constructed
+     */
+    @Override
+    protected void commit() {
+        if (holdsInstance(geometry)) throw new IllegalStateException("Instances can't be nested");
+        geometry.commit();
+        super.commit();
+    }
+
+    @Override
+    protected boolean usesMailbox() {
+        return true;
+    }
+
+    @Override
+    protected AABB createBoundingBox() {
+        AABB box = geometry.computeBoundingBoxIfNeeded();
+        if (box == null) return null;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 8; ++corner) {
+            Point p = transformPoint(matrix, new Point(
+                    (corner & 1) == 0 ? box.min.getX() : box.max.getX(),
+                    (corner & 2) == 0 ? box.min.getY() : box.max.getY(),
+                    (corner & 4) == 0 ? box.min.getZ() : box.max.getZ()));
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        return new AABB(new Point(minX, minY, minZ), new Point(maxX, maxY, maxZ));
+    }
+
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        double scale = distanceScale(ray);
+        Intersection objectHit = SCRATCH.get().reset(hit.t * scale);
+        Mailbox mailbox = Mailbox.get();
+        mailbox.enter();
+        boolean found;
+        try {
+            found = geometry.calculateClosestIntersectionHelper(toObject(ray), objectHit);
+        } finally {
+            mailbox.exit();
+        }
+        if (!found) return false;
+        if (!hit.update(objectHit.geometry, objectHit.t / scale, objectHit.primitive)) return false;
+        hit.instance = this;
+        return true;
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        List<Intersection> objectIntersections;
+        Mailbox mailbox = Mailbox.get();
+        mailbox.enter();
+        try {
+            objectIntersections = geometry.calculateIntersectionsHelper(toObject(ray));
+        } finally {
+            mailbox.exit();
+        }
+        if (objectIntersections == null) return null;
+        List<Intersection> result = new ArrayList<>(objectIntersections.size());
+        for (Intersection objectIntersection : objectIntersections) {
+            Intersection intersection = new Intersection(objectIntersection.geometry,
+                    transformPoint(matrix, objectIntersection.point));
+            intersection.material = objectIntersection.material;
+            intersection.primitive = objectIntersection.primitive;
+            intersection.instance = this;
+            result.add(intersection);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the world-space normal at an intersection found through this instance.
+     * The geometry's normal is computed in object space and transformed by the
+     * inverse transpose of the instance transform.
+     *
+     * @param intersection an intersection found through this instance
+     * @return the normalized world-space normal
+     */
+    public Vector getNormal(Intersection intersection) {
+        Intersection objectIntersection = SCRATCH.get().reset(Double.POSITIVE_INFINITY);
+        objectIntersection.geometry = intersection.geometry;
+        objectIntersection.point = transformPoint(inverse, intersection.point);
+        objectIntersection.primitive = intersection.primitive;
+        Vector n = intersection.geometry.getNormal(objectIntersection);
+        double x = n.getX(), y = n.getY(), z = n.getZ();
+        return new Vector(inverse[0] * x + inverse[4] * y + inverse[8] * z,
+                inverse[1] * x + inverse[5] * y + inverse[9] * z,
+                inverse[2] * x + inverse[6] * y + inverse[10] * z).normalize();
+    }
+}
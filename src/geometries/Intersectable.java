@@ -1,8 +1,10 @@
 package geometries;
 
+import lighting.LightSample;
 import lighting.LightSource;
 import primitives.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Abstract class representing an object that can be intersected by a ray.
@@ -16,13 +18,51 @@ public abstract class Intersectable {
     // Cached bounding box, computed lazily
     private AABB boundingBox = null;
 
+    // Source of the IDs that identify the objects in mailboxes
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    /** The ID of the object in {@link Mailbox mailboxes} */
+    final int id = nextId.getAndIncrement();
+
     /**
      * Lazily compute and cache the bounding box if not already computed.
+     * @return The cached bounding box.
      */
-    protected void computeBoundingBoxIfNeeded() {
+    protected AABB computeBoundingBoxIfNeeded() {
         if (boundingBox == null) {
             boundingBox = createBoundingBox();
         }
+        return boundingBox;
+    }
+
+    /**
+     * Recomputes and caches the bounding box, building the bounding volumes behind it anew.
+     * @return The new bounding box.
+     */
+    protected final AABB updateBoundingBox() {
+        boundingBox = createBoundingBox();
+        return boundingBox;
+    }
+
+    /**
+     * Prepares the object for rendering, before any ray is traced: computes its bounding box
+     * and whatever else would otherwise be initialized lazily by the first ray, so that the
+     * rendering threads only read the object.
+     * Composite objects commit their parts first.
+     */
+    protected void commit() {
+        computeBoundingBoxIfNeeded();
+    }
+
+    /**
+     * Tells whether queries of the object test geometries through the {@link Mailbox}, so
+     * that a query has to start a new ray in it first. Only structures that may reach a
+     * geometry along several paths, and instances, use it; queries of anything else leave
+     * the mailbox of the thread alone.
+     * @return true if queries of the object use the mailbox
+     */
+    protected boolean usesMailbox() {
+        return false;
     }
 
     /**
@@ -60,13 +100,22 @@ public abstract class Intersectable {
     public static class Intersection {
 
         /** The geometry object intersected */
-        public final Geometry geometry;
+        public Geometry geometry;
 
         /** The point of intersection */
-        public final Point point;
+        public Point point;
 
         /** The material of the intersected geometry */
-        public final Material material;
+        public Material material;
+
+        /** The distance along the ray to the intersection point */
+        public double t = Double.POSITIVE_INFINITY;
+
+        /** Index of the primitive hit inside a composite geometry (e.g. a mesh triangle), or -1 */
+        public int primitive = -1;
+
+        /** The instance through which the geometry was hit, or null if it was hit directly */
+        public Instance instance;
 
         /** The ray direction at intersection point */
         public Vector rayDirection;
@@ -80,6 +129,9 @@ public abstract class Intersectable {
         /** The light source for shading */
         public LightSource lightSource;
 
+        /** The sample of the light source at the intersection point */
+        public LightSample lightSample;
+
         /** Direction from intersection point to light */
         public Vector lightDirection;
 
@@ -105,6 +157,70 @@ public abstract class Intersectable {
             this.material = (geometry == null) ? null : geometry.getMaterial();
         }
 
+        /**
+         * Constructs an empty intersection record, to be filled in place by
+         * {@link Intersectable#findClosestIntersection(Ray, Intersection)}.
+         */
+        public Intersection() {
+            this(null, null);
+        }
+
+        /**
+         * Clears the record so it can be reused for another closest-hit query.
+         * @param maxDistance only hits nearer than this distance will be recorded
+         * @return this record
+         */
+        public Intersection reset(double maxDistance) {
+            geometry = null;
+            point = null;
+            material = null;
+            t = maxDistance;
+            primitive = -1;
+            instance = null;
+            return this;
+        }
+
+        /**
+         * Records a hit if it is nearer than the one already held by this record.
+         * The intersection point itself is computed only once the query is done.
+         * @param geometry the geometry that was hit
+         * @param t the distance along the ray to the hit
+         * @return true if the hit was recorded, false if it is not nearer
+         */
+        public boolean update(Geometry geometry, double t) {
+            return update(geometry, t, -1);
+        }
+
+        /**
+         * Records a hit on a primitive of a composite geometry if it is nearer than
+         * the one already held by this record.
+         * Of two geometries hit at the very same distance, such as coincident faces, the one
+         * created first is kept, so that the hit does not depend on the order in which an
+         * accelerator happens to test them.
+         * @param geometry the geometry that was hit
+         * @param t the distance along the ray to the hit
+         * @param primitive the index of the primitive inside the geometry
+         * @return true if the hit was recorded, false if it is not nearer
+         */
+        public boolean update(Geometry geometry, double t, int primitive) {
+            if (t > this.t || t == this.t && (this.geometry == null || geometry.id >= this.geometry.id)) return false;
+            this.geometry = geometry;
+            this.point = null;
+            this.t = t;
+            this.primitive = primitive;
+            this.instance = null;
+            return true;
+        }
+
+        /**
+         * Computes the world-space surface normal at the intersection point,
+         * taking into account the instance the geometry was hit through.
+         * @return the normal vector at the intersection point
+         */
+        public Vector computeNormal() {
+            return instance == null ? geometry.getNormal(this) : instance.getNormal(this);
+        }
+
         /**
          * Checks equality: same geometry and point.
          * @param obj Object to compare
@@ -141,6 +257,77 @@ public abstract class Intersectable {
      * @return List of Intersection objects or null
      */
     public final List<Intersection> calculateIntersections(Ray ray) {
+        if (usesMailbox()) Mailbox.get().beginRay();
         return calculateIntersectionsHelper(ray);
     }
+
+    /**
+     * Finds the closest intersection of the ray with the object and writes it into
+     * the given record instead of allocating a list of intersections.
+     *
+     * @param ray The ray to test intersections
+     * @param hit The record to fill in place (it is reset first)
+     * @return the filled record, or null if the ray misses the object
+     */
+    public final Intersection findClosestIntersection(Ray ray, Intersection hit) {
+        hit.reset(Double.POSITIVE_INFINITY);
+        if (usesMailbox()) Mailbox.get().beginRay();
+        if (!calculateClosestIntersectionHelper(ray, hit)) return null;
+        if (hit.point == null) hit.point = ray.getPoint(hit.t);
+        hit.material = hit.geometry.getMaterial(hit);
+        return hit;
+    }
+
+    /**
+     * Finds the closest intersections of all the rays of a packet with the object, tracing
+     * them together where the object supports it. The hit of each ray is then returned by
+     * {@link RayPacket#getHit(int)}.
+     *
+     * @param packet the packet of rays, whose hit records are reset first
+     * @return the packet
+     */
+    public final RayPacket findClosestIntersections(RayPacket packet) {
+        packet.begin();
+        packet.end(calculateClosestIntersectionsHelper(packet, packet.all()));
+        return packet;
+    }
+
+    /**
+     * Helper method for packet queries. Records for every active ray of the packet the
+     * intersection nearest to its head, as long as it is nearer than its hit found so far.
+     * The default implementation traces the rays one by one; collections override it to
+     * trace them together.
+     *
+     * @param packet the packet of rays
+     * @param mask   the active rays of the packet, a bit for each ray
+     * @return the active rays that recorded a nearer hit
+     */
+    protected int calculateClosestIntersectionsHelper(RayPacket packet, int mask) {
+        return packet.traceSingly(this, mask);
+    }
+
+    /**
+     * Helper method for closest-hit queries. Records in {@code hit} the intersection
+     * nearest to the ray head, as long as it is nearer than {@code hit.t}.
+     * The default implementation falls back to {@link #calculateIntersectionsHelper(Ray)};
+     * primitives override it to avoid allocating intersection lists.
+     *
+     * @param ray The ray to intersect
+     * @param hit The record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        List<Intersection> intersections = calculateIntersectionsHelper(ray);
+        if (intersections == null) return false;
+        boolean found = false;
+        Point head = ray.getHead();
+        for (Intersection intersection : intersections) {
+            if (hit.update(intersection.geometry, head.distance(intersection.point), intersection.primitive)) {
+                hit.point = intersection.point;
+                hit.instance = intersection.instance;
+                found = true;
+            }
+        }
+        return found;
+    }
 }
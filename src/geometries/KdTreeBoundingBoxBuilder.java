@@ -0,0 +1,386 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of BoundingVolumeBuilder using a kd-tree built with the surface area
+ * heuristic (SAH).
+ * Every node splits space by an axis-aligned plane placed where the expected cost of
+ * tracing a ray is lowest; a geometry crossing the plane is referenced from both sides and
+ * is tested once per ray thanks to the {@link Mailbox}. Rays visit the leaves they cross
+ * front to back and stop at the first leaf containing a hit.
+ * Infinite geometries are kept out of the tree and tested for every ray.
+ * <p>
+ * kd-trees suit scenes with geometries of very different sizes and dense clusters.
+ */
+public class KdTreeBoundingBoxBuilder implements BoundingVolumeBuilder {
+
+    /** Estimated cost of visiting a node, relative to testing a geometry */
+    private static final double TRAVERSAL_COST = 1;
+
+    /** Estimated cost of testing a geometry */
+    private static final double INTERSECTION_COST = 80;
+
+    /** Cost reduction for splits leaving one side empty */
+    private static final double EMPTY_BONUS = 0.5;
+
+    /** Number of worse-than-leaf splits allowed along a path before making a leaf */
+    private static final int MAX_BAD_REFINES = 3;
+
+    /** Maximal depth of a node in the stack used by traversal */
+    private static final int MAX_STACK = 64;
+
+    /**
+     * A node of the tree: an internal node has a split plane and two children,
+     * a leaf has the indices of its geometries.
+     */
+    private static final class Node {
+        /** Split axis, or -1 for a leaf */
+        int axis = -1;
+        /** Split coordinate along the axis */
+        double split;
+        /** Child below the split plane */
+        Node below;
+        /** Child above the split plane */
+        Node above;
+        /** Indices in {@link #bounded} of the geometries of a leaf */
+        int[] items;
+    }
+
+    /** The geometries referenced by the tree */
+    private Intersectable[] bounded;
+
+    /** The bounding boxes of {@link #bounded}: minX, minY, minZ, maxX, maxY, maxZ each */
+    private double[] boxes;
+
+    /** The geometries with no finite bounding box, tested for every ray */
+    private Intersectable[] unbounded;
+
+    /** The bounds of the tree: minX, minY, minZ, maxX, maxY, maxZ */
+    private final double[] bounds = new double[6];
+
+    /** The root of the tree, or null if there are no bounded geometries */
+    private Node root;
+
+    /** The bounding box of all the geometries */
+    private AABB box;
+
+    /** Whether the tree has been built */
+    private boolean built = false;
+
+    /**
+     * Creates a new builder, since every collection needs a tree of its own.
+     * @return a new kd-tree builder.
+     */
+    @Override
+    public BoundingVolumeBuilder newBuilder() {
+        return new KdTreeBoundingBoxBuilder();
+    }
+
+    /**
+     * Builds the tree over the geometries and returns their bounding box.
+     * @param geometries The list of geometries to enclose.
+     * @return The bounding box of all the geometries, or null if no geometries.
+     */
+    @Override
+    public AABB createBoundingBox(List<Intersectable> geometries) {
+        if (geometries == null || geometries.isEmpty()) return null;
+
+        List<Intersectable> boundedList = new ArrayList<>();
+        List<Intersectable> unboundedList = new ArrayList<>();
+        AABB all = null;
+        for (Intersectable geometry : geometries) {
+            AABB gBox = geometry.computeBoundingBoxIfNeeded();
+            all = AABB.combine(all, gBox);
+            if (gBox == null || !gBox.isBounded()) unboundedList.add(geometry);
+            else boundedList.add(geometry);
+        }
+        bounded = boundedList.toArray(new Intersectable[0]);
+        unbounded = unboundedList.toArray(new Intersectable[0]);
+        box = all;
+
+        int n = bounded.length;
+        if (n > 0) {
+            boxes = new double[6 * n];
+            Arrays.fill(bounds, 0, 3, Double.POSITIVE_INFINITY);
+            Arrays.fill(bounds, 3, 6, Double.NEGATIVE_INFINITY);
+            for (int i = 0; i < n; ++i) {
+                AABB gBox = bounded[i].computeBoundingBoxIfNeeded();
+                for (int axis = 0; axis < 3; ++axis) {
+                    boxes[6 * i + axis] = gBox.min.getCoordinate(axis);
+                    boxes[6 * i + 3 + axis] = gBox.max.getCoordinate(axis);
+                    bounds[axis] = Math.min(bounds[axis], boxes[6 * i + axis]);
+                    bounds[axis + 3] = Math.max(bounds[axis + 3], boxes[6 * i + 3 + axis]);
+                }
+            }
+            int[] items = new int[n];
+            for (int i = 0; i < n; ++i) items[i] = i;
+            int maxDepth = (int) Math.round(8 + 1.3 * Math.log(n) / Math.log(2));
+            root = buildNode(items, bounds.clone(), maxDepth, 0);
+        }
+        built = true;
+        return box;
+    }
+
+    // ***************** Construction ********************** //
+
+    /**
+     * Builds the subtree of a region of space.
+     * @param items      the geometries overlapping the region
+     * @param region     the region: minX, minY, minZ, maxX, maxY, maxZ
+     * @param depth      how much deeper the tree may grow
+     * @param badRefines the number of worse-than-leaf splits on the path to the region
+     * @return the node of the region
+     */
+    private Node buildNode(int[] items, double[] region, int depth, int badRefines) {
+        Node node = new Node();
+        int n = items.length;
+        if (n <= 1 || depth == 0) {
+            node.items = items;
+            return node;
+        }
+
+        double[] extent = { region[3] - region[0], region[4] - region[1], region[5] - region[2] };
+        double totalArea = 2 * (extent[0] * extent[1] + extent[0] * extent[2] + extent[1] * extent[2]);
+        double leafCost = INTERSECTION_COST * n;
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        double bestSplit = 0;
+
+        // try the box edges along every axis as split candidates, in increasing order
+        long[] events = new long[2 * n];
+        double[] positions = new double[2 * n];
+        for (int axis = 0; axis < 3 && totalArea > 0; ++axis) {
+            for (int i = 0; i < n; ++i) {
+                int item = items[i];
+                // an end sorts before a start at the same position
+                events[2 * i] = eventKey(boxes[6 * item + axis], 1, i);
+                events[2 * i + 1] = eventKey(boxes[6 * item + 3 + axis], 0, i);
+            }
+            Arrays.sort(events);
+            for (int e = 0; e < 2 * n; ++e) {
+                int i = (int) (events[e] & 0x7fffffff);
+                boolean end = ((events[e] >>> 31) & 1) == 0;
+                positions[e] = end ? boxes[6 * items[i] + 3 + axis] : boxes[6 * items[i] + axis];
+            }
+
+            int other1 = (axis + 1) % 3, other2 = (axis + 2) % 3;
+            int below = 0, above = n;
+            for (int e = 0; e < 2 * n; ++e) {
+                boolean end = ((events[e] >>> 31) & 1) == 0;
+                if (end) --above;
+                double split = positions[e];
+                if (split > region[axis] && split < region[axis + 3]) {
+                    double belowSide = split - region[axis], aboveSide = region[axis + 3] - split;
+                    double crossArea = extent[other1] * extent[other2];
+                    double perimeter = extent[other1] + extent[other2];
+                    double pBelow = 2 * (crossArea + belowSide * perimeter) / totalArea;
+                    double pAbove = 2 * (crossArea + aboveSide * perimeter) / totalArea;
+                    double bonus = below == 0 || above == 0 ? EMPTY_BONUS : 0;
+                    double cost = TRAVERSAL_COST
+                            + INTERSECTION_COST * (1 - bonus) * (pBelow * below + pAbove * above);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestSplit = split;
+                    }
+                }
+                if (!end) ++below;
+            }
+        }
+
+        if (bestCost > leafCost) ++badRefines;
+        if (bestAxis < 0 || (bestCost > 4 * leafCost && n < 16) || badRefines == MAX_BAD_REFINES) {
+            node.items = items;
+            return node;
+        }
+
+        int[] belowItems = new int[n], aboveItems = new int[n];
+        int belowCount = 0, aboveCount = 0;
+        for (int item : items) {
+            if (boxes[6 * item + bestAxis] < bestSplit) belowItems[belowCount++] = item;
+            if (boxes[6 * item + 3 + bestAxis] > bestSplit) aboveItems[aboveCount++] = item;
+            // a flat box lying on the plane belongs to both sides
+            if (boxes[6 * item + bestAxis] == bestSplit && boxes[6 * item + 3 + bestAxis] == bestSplit) {
+                belowItems[belowCount++] = item;
+                aboveItems[aboveCount++] = item;
+            }
+        }
+        double[] belowRegion = region.clone(), aboveRegion = region.clone();
+        belowRegion[bestAxis + 3] = bestSplit;
+        aboveRegion[bestAxis] = bestSplit;
+
+        node.axis = bestAxis;
+        node.split = bestSplit;
+        node.below = buildNode(Arrays.copyOf(belowItems, belowCount), belowRegion, depth - 1, badRefines);
+        node.above = buildNode(Arrays.copyOf(aboveItems, aboveCount), aboveRegion, depth - 1, badRefines);
+        return node;
+    }
+
+    /**
+     * Encodes a split candidate as a key sorting by position, then ends before starts.
+     * @param position the position of the box edge
+     * @param start    1 for the start of a box, 0 for its end
+     * @param index    the index of the geometry in the node
+     * @return the sort key; its low 31 bits hold the index and bit 31 the type
+     */
+    private static long eventKey(double position, int start, int index) {
+        // order-preserving mapping of the position to the bits of a float
+        int bits = Float.floatToIntBits((float) position);
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | ((long) start << 31) | index;
+    }
+
+    // ***************** Traversal ********************** //
+
+    @Override
+    public List<Intersectable.Intersection> findIntersections(Ray ray, List<Intersectable> geometries) {
+        if (!built) createBoundingBox(geometries);
+        if (!built) return null;
+
+        Mailbox mailbox = Mailbox.get();
+        List<Intersectable.Intersection> result = null;
+        for (Intersectable geometry : unbounded)
+            if (mailbox.visit(geometry)) result = addAll(result, geometry.calculateIntersectionsHelper(ray));
+
+        Traversal traversal = new Traversal(ray);
+        for (Node leaf = traversal.nextLeaf(); leaf != null; leaf = traversal.nextLeaf())
+            for (int item : leaf.items) {
+                Intersectable geometry = bounded[item];
+                if (mailbox.visit(geometry)) result = addAll(result, geometry.calculateIntersectionsHelper(ray));
+            }
+        return result;
+    }
+
+    /**
+     * Adds intersections to a result list.
+     * @param result        the list so far, or null if it is still empty
+     * @param intersections the intersections to add, or null
+     * @return the list with the intersections added
+     */
+    private static List<Intersectable.Intersection> addAll(List<Intersectable.Intersection> result,
+                                                           List<Intersectable.Intersection> intersections) {
+        if (intersections == null) return result;
+        if (result == null) result = new ArrayList<>();
+        result.addAll(intersections);
+        return result;
+    }
+
+    @Override
+    public boolean findClosestIntersection(Ray ray, List<Intersectable> geometries, Intersectable.Intersection hit) {
+        if (!built) createBoundingBox(geometries);
+        if (!built) return false;
+
+        Mailbox mailbox = Mailbox.get();
+        boolean found = false;
+        for (Intersectable geometry : unbounded)
+            if (mailbox.visit(geometry) && geometry.calculateClosestIntersectionHelper(ray, hit)) found = true;
+
+        Traversal traversal = new Traversal(ray);
+        // leaves are visited front to back, so a hit inside the current leaf ends the traversal
+        for (Node leaf = traversal.nextLeaf(hit.t); leaf != null; leaf = traversal.nextLeaf(hit.t)) {
+            for (int item : leaf.items) {
+                Intersectable geometry = bounded[item];
+                if (mailbox.visit(geometry) && geometry.calculateClosestIntersectionHelper(ray, hit)) found = true;
+            }
+            if (hit.t <= traversal.leafExit) break;
+        }
+        return found;
+    }
+
+    /**
+     * The front-to-back walk of a ray through the leaves of the tree.
+     */
+    private class Traversal {
+        /** Ray origin along each axis */
+        private final double[] origin = new double[3];
+        /** Inverse of the ray direction along each axis */
+        private final double[] inverse = new double[3];
+        /** Nodes waiting to be visited */
+        private final Node[] stack = new Node[MAX_STACK];
+        /** Entry distances of the waiting nodes */
+        private final double[] stackEntry = new double[MAX_STACK];
+        /** Exit distances of the waiting nodes */
+        private final double[] stackExit = new double[MAX_STACK];
+        /** Number of waiting nodes */
+        private int top = 0;
+        /** Distance along the ray where it leaves the last returned leaf */
+        double leafExit;
+
+        /**
+         * Starts the walk at the root if the ray crosses the tree bounds.
+         * @param ray the ray
+         */
+        Traversal(Ray ray) {
+            if (root == null) return;
+            Point head = ray.getHead();
+            Vector dir = ray.getDirection();
+            double tNear = 0, tFar = Double.POSITIVE_INFINITY;
+            for (int axis = 0; axis < 3; ++axis) {
+                origin[axis] = head.getCoordinate(axis);
+                inverse[axis] = 1 / dir.getCoordinate(axis);
+                double t0 = (bounds[axis] - origin[axis]) * inverse[axis];
+                double t1 = (bounds[axis + 3] - origin[axis]) * inverse[axis];
+                // a NaN from a ray parallel to the bounds leaves the range unchanged
+                if (t0 > t1) { double tmp = t0; t0 = t1; t1 = tmp; }
+                if (t0 > tNear) tNear = t0;
+                if (t1 < tFar) tFar = t1;
+            }
+            if (tNear > tFar) return;
+            stack[0] = root;
+            stackEntry[0] = tNear;
+            stackExit[0] = tFar;
+            top = 1;
+        }
+
+        /**
+         * Returns the next leaf crossed by the ray.
+         * @return the leaf, or null if there are no more
+         */
+        Node nextLeaf() {
+            return nextLeaf(Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Returns the next leaf crossed by the ray before a distance.
+         * @param maxDistance leaves entered beyond this distance are skipped
+         * @return the leaf, or null if there are no more
+         */
+        Node nextLeaf(double maxDistance) {
+            while (top > 0) {
+                --top;
+                Node node = stack[top];
+                double tMin = stackEntry[top], tMax = stackExit[top];
+                if (tMin > maxDistance) continue;
+                while (node.axis >= 0) {
+                    int axis = node.axis;
+                    double tPlane = (node.split - origin[axis]) * inverse[axis];
+                    boolean belowFirst = origin[axis] < node.split
+                            || (origin[axis] == node.split && inverse[axis] <= 0);
+                    Node first = belowFirst ? node.below : node.above;
+                    Node second = belowFirst ? node.above : node.below;
+                    // a NaN from a ray lying in the plane keeps it on its side
+                    if (!(tPlane > 0) || tPlane > tMax) node = first;
+                    else if (tPlane < tMin) node = second;
+                    else {
+                        stack[top] = second;
+                        stackEntry[top] = tPlane;
+                        stackExit[top] = tMax;
+                        ++top;
+                        node = first;
+                        tMax = tPlane;
+                    }
+                }
+                leafExit = tMax;
+                return node;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package geometries;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per-thread record of the geometries already tested against the current ray.
+ * <p>
+ * Accelerators that reference a geometry from several places (grid cells, tree nodes
+ * split in space, groups sharing a member) could otherwise test it several times along
+ * one ray. Every query started through {@link Intersectable} opens a new ray; the
+ * bounding volume builders ask {@link #visit(Intersectable)} before testing a geometry
+ * and skip it if it was already tested for that ray.
+ * <p>
+ * Geometries reached through an {@link Instance} are placed differently from the same
+ * geometries reached directly or through another instance, so every instance traversal
+ * is recorded in a nested scope of its own.
+ */
+public final class Mailbox {
+
+    /** The mailbox of each thread */
+    private static final ThreadLocal<Mailbox> MAILBOXES = ThreadLocal.withInitial(Mailbox::new);
+
+    /** Number of geometry tests requested from all mailboxes */
+    private static final LongAdder totalTests = new LongAdder();
+
+    /** Number of geometry tests avoided by all mailboxes */
+    private static final LongAdder totalAvoided = new LongAdder();
+
+    /** The scopes of the current ray: the ray itself and the instances it is traversing */
+    private Scope[] scopes = { new Scope() };
+
+    /** The index of the innermost scope */
+    private int depth = 0;
+
+    /** Number of tests requested for the current ray */
+    private long tests = 0;
+
+    /** Number of tests avoided for the current ray */
+    private long avoided = 0;
+
+    /**
+     * Creates a mailbox, only by {@link #get()}.
+     */
+    private Mailbox() {
+    }
+
+    /**
+     * Returns the mailbox of the current thread.
+     *
+     * @return the mailbox
+     */
+    static Mailbox get() {
+        return MAILBOXES.get();
+    }
+
+    /**
+     * Starts a new ray, forgetting every geometry tested before.
+     */
+    void beginRay() {
+        if (tests != 0) {
+            totalTests.add(tests);
+            totalAvoided.add(avoided);
+            tests = avoided = 0;
+        }
+        depth = 0;
+        scopes[0].clear();
+    }
+
+    /**
+     * Opens a nested scope for the traversal of an instance.
+     */
+    void enter() {
+        if (++depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth + 1);
+            scopes[depth] = new Scope();
+        }
+        scopes[depth].clear();
+    }
+
+    /**
+     * Closes the innermost scope and returns to the one that opened it.
+     */
+    void exit() {
+        --depth;
+    }
+
+    /**
+     * Records that a geometry is about to be tested against the current ray.
+     *
+     * @param geometry the geometry
+     * @return true if the geometry has to be tested, false if it was already tested
+     */
+    boolean visit(Intersectable geometry) {
+        ++tests;
+        if (scopes[depth].add(geometry.id)) return true;
+        ++avoided;
+        return false;
+    }
+
+    /**
+     * Returns the number of geometry tests requested from the accelerators since the last
+     * reset. The last ray of every thread is counted once the thread starts another ray.
+     *
+     * @return the number of requested tests
+     */
+    public static long getTestCount() {
+        return totalTests.sum();
+    }
+
+    /**
+     * Returns the number of geometry tests the mailboxes avoided since the last reset.
+     *
+     * @return the number of avoided tests
+     */
+    public static long getAvoidedCount() {
+        return totalAvoided.sum();
+    }
+
+    /**
+     * Returns the rate of the geometry tests the mailboxes avoided since the last reset.
+     *
+     * @return the avoided tests out of the requested ones, 0 if there were none
+     */
+    public static double getAvoidedRate() {
+        long tests = totalTests.sum();
+        return tests == 0 ? 0 : (double) totalAvoided.sum() / tests;
+    }
+
+    /**
+     * Resets the statistics of all mailboxes, including the current ray of the calling thread.
+     */
+    public static void resetStatistics() {
+        Mailbox mailbox = get();
+        mailbox.tests = mailbox.avoided = 0;
+        totalTests.reset();
+        totalAvoided.reset();
+    }
+
+    /**
+     * A set of geometry IDs, emptied in constant time by moving to a new stamp.
+     * An open-addressing table: only slots holding the current stamp are in use.
+     */
+    private static final class Scope {
+
+        /** Initial number of slots, a power of 2 */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /** The geometry ID in each slot */
+        private int[] ids = new int[INITIAL_CAPACITY];
+
+        /** The stamp of each slot */
+        private int[] stamps = new int[INITIAL_CAPACITY];
+
+        /** The current stamp, never 0 - the stamp of unused slots */
+        private int stamp = 1;
+
+        /** Number of slots in use */
+        private int size = 0;
+
+        /**
+         * Empties the set.
+         */
+        void clear() {
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            size = 0;
+        }
+
+        /**
+         * Adds an ID to the set.
+         *
+         * @param id the ID
+         * @return true if the ID was added, false if it was already in the set
+         */
+        boolean add(int id) {
+            int mask = ids.length - 1;
+            int slot = id & mask;
+            while (stamps[slot] == stamp) {
+                if (ids[slot] == id) return false;
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            stamps[slot] = stamp;
+            if (++size * 2 > ids.length) grow();
+            return true;
+        }
+
+        /**
+         * Doubles the table, keeping the IDs in use.
+         */
+        private void grow() {
+            int[] oldIds = ids, oldStamps = stamps;
+            ids = new int[2 * oldIds.length];
+            stamps = new int[2 * oldIds.length];
+            int mask = ids.length - 1;
+            for (int i = 0; i < oldIds.length; ++i) {
+                if (oldStamps[i] != stamp) continue;
+                int slot = oldIds[i] & mask;
+                while (stamps[slot] == stamp) slot = (slot + 1) & mask;
+                ids[slot] = oldIds[i];
+                stamps[slot] = stamp;
+            }
+        }
+    }
+}
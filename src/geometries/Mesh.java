@@ -0,0 +1,300 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static primitives.Util.*;
+
+/**
+ * Represents an indexed triangle mesh.
+ * <p>
+ * Vertex positions are kept in one flat {@code double[]} (x, y, z per vertex) and the
+ * triangles in an {@code int[]} index buffer (three vertex indices per triangle), so shared
+ * vertices are stored once and no per-triangle objects are created.
+ * Optional per-vertex normals are interpolated across each triangle.
+ * <p>
+ * The mesh builds its own {@link FlatBVH bounding volume hierarchy} over triangle indices at
+ * construction, so the scene's accelerator sees it as a single geometry.
+ */
+public class Mesh extends Geometry {
+
+    /** Maximum number of triangles in a leaf of the internal hierarchy */
+    private static final int MAX_TRIANGLES_IN_LEAF = 4;
+
+    /** Vertex positions: x, y, z of each vertex */
+    private final double[] positions;
+
+    /** Triangle vertex indices: three per triangle */
+    private final int[] indices;
+
+    /** Per-vertex normals (x, y, z of each vertex), or null for flat shading */
+    private final double[] normals;
+
+    /** Number of triangles */
+    private final int size;
+
+    /** The hierarchy over the triangles */
+    private final FlatBVH hierarchy;
+
+    /** Triangle indices ordered so that every hierarchy leaf owns a contiguous range */
+    private final int[] order;
+
+    /**
+     * Constructs a flat-shaded mesh.
+     *
+     * @param positions vertex positions, three coordinates per vertex
+     * @param indices   triangle vertex indices, three per triangle
+     * @throws IllegalArgumentException if the buffers are malformed
+     */
+    public Mesh(double[] positions, int[] indices) {
+        this(positions, indices, null);
+    }
+
+    /**
+     * Constructs a mesh with per-vertex normals. The buffers are copied, so changing them
+     * afterwards does not change the mesh.
+     *
+     * @param positions vertex positions, three coordinates per vertex
+     * @param indices   triangle vertex indices, three per triangle
+     * @param normals   vertex normals, three coordinates per vertex, or null for flat shading
+     * @throws IllegalArgumentException if the buffers are malformed
+     */
+    public Mesh(double[] positions, int[] indices, double[] normals) {
+        positions = positions.clone();
+        indices = indices.clone();
+        normals = normals == null ? null : normals.clone();
+        if (positions.length % 3 != 0)
+            throw new IllegalArgumentException("Positions must hold three coordinates per vertex");
+        if (indices.length == 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("Indices must hold three vertices per triangle");
+        if (normals != null && normals.length != positions.length)
+            throw new IllegalArgumentException("Normals must hold one normal per vertex");
+        int vertexCount = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("Triangle index out of range: " + index);
+
+        this.positions = positions;
+        this.indices = indices;
+        this.normals = normals;
+        this.size = indices.length / 3;
+
+        double[] bounds = new double[6 * size];
+        double[] centroids = new double[3 * size];
+        for (int tri = 0; tri < size; ++tri)
+            for (int axis = 0; axis < 3; ++axis) {
+                double c0 = coordinate(tri, 0, axis), c1 = coordinate(tri, 1, axis), c2 = coordinate(tri, 2, axis);
+                bounds[6 * tri + axis] = Math.min(c0, Math.min(c1, c2));
+                bounds[6 * tri + 3 + axis] = Math.max(c0, Math.max(c1, c2));
+                centroids[3 * tri + axis] = (c0 + c1 + c2) / 3;
+            }
+        this.hierarchy = new FlatBVH(bounds, centroids, MAX_TRIANGLES_IN_LEAF);
+        this.order = hierarchy.order;
+    }
+
+    /**
+     * Returns the number of triangles in the mesh.
+     *
+     * @return the triangle count
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    protected AABB createBoundingBox() {
+        return hierarchy.getBoundingBox();
+    }
+
+    /**
+     * Returns a coordinate of a triangle corner.
+     *
+     * @param tri    triangle index
+     * @param corner corner of the triangle (0..2)
+     * @param axis   coordinate axis (0..2)
+     * @return the coordinate value
+     */
+    double coordinate(int tri, int corner, int axis) {
+        return positions[3 * indices[3 * tri + corner] + axis];
+    }
+
+    // ***************** Intersections ********************** //
+
+    /**
+     * Computes the distance along the ray to its intersection with a triangle of the mesh
+     * using the Möller–Trumbore test. Unlike {@link Triangle}, hits on shared edges are
+     * accepted so that the surface has no cracks between adjacent triangles.
+     *
+     * @param tri the triangle index
+     * @param ox  ray origin X
+     * @param oy  ray origin Y
+     * @param oz  ray origin Z
+     * @param dx  ray direction X
+     * @param dy  ray direction Y
+     * @param dz  ray direction Z
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    double intersectTriangle(int tri, double ox, double oy, double oz,
+                             double dx, double dy, double dz) {
+        int a = 3 * indices[3 * tri], b = 3 * indices[3 * tri + 1], c = 3 * indices[3 * tri + 2];
+        double p0x = positions[a], p0y = positions[a + 1], p0z = positions[a + 2];
+        double e1x = positions[b] - p0x, e1y = positions[b + 1] - p0y, e1z = positions[b + 2] - p0z;
+        double e2x = positions[c] - p0x, e2y = positions[c + 1] - p0y, e2z = positions[c + 2] - p0z;
+
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) return 0;
+        double invDet = 1 / det;
+
+        double sx = ox - p0x, sy = oy - p0y, sz = oz - p0z;
+        double u = (sx * px + sy * py + sz * pz) * invDet;
+        if (u < 0 || u > 1) return 0;
+
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (v < 0 || u + v > 1) return 0;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+        return t > 0 ? t : 0;
+    }
+
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        boolean found = false;
+        FlatBVH.Traversal traversal = hierarchy.begin(ray);
+        while (hierarchy.nextLeaf(traversal, hit.t)) {
+            for (int i = traversal.start; i < traversal.end; ++i) {
+                int tri = order[i];
+                double t = intersectTriangle(tri, ox, oy, oz, dx, dy, dz);
+                if (t > 0 && hit.update(this, t, tri)) found = true;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        List<Intersection> result = null;
+        FlatBVH.Traversal traversal = hierarchy.begin(ray);
+        while (hierarchy.nextLeaf(traversal, Double.POSITIVE_INFINITY)) {
+            for (int i = traversal.start; i < traversal.end; ++i) {
+                int tri = order[i];
+                double t = intersectTriangle(tri, ox, oy, oz, dx, dy, dz);
+                if (t > 0) {
+                    if (result == null) result = new ArrayList<>();
+                    Intersection intersection = new Intersection(this, ray.getPoint(t));
+                    intersection.primitive = tri;
+                    intersection.t = t;
+                    result.add(intersection);
+                }
+            }
+        }
+        return result;
+    }
+
+    // ***************** Normals ********************** //
+
+    /**
+     * Returns the normal at an intersection, using the triangle recorded in it.
+     *
+     * @param intersection an intersection with this mesh
+     * @return the normal vector at the intersection point
+     */
+    @Override
+    public Vector getNormal(Intersection intersection) {
+        return intersection.primitive < 0 ? getNormal(intersection.point)
+                : getNormal(intersection.primitive, intersection.point);
+    }
+
+    /**
+     * Returns the normal at a point on the mesh surface. This is a slow path: the triangle
+     * containing the point is searched for among all the triangles, in time linear in the
+     * size of the mesh. The renderer only takes it for hits that do not know their triangle;
+     * prefer {@link #getNormal(Intersection)}.
+     *
+     * @param point a point on the mesh surface
+     * @return the normal vector at the point
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        int best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int tri = 0; tri < size; ++tri) {
+            double distance = distanceToTriangle(tri, point);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = tri;
+            }
+        }
+        return getNormal(best, point);
+    }
+
+    /**
+     * Returns the normal of a triangle at a point, interpolating the vertex normals if present.
+     *
+     * @param tri   the triangle index
+     * @param point a point on the triangle
+     * @return the normalized normal vector
+     */
+    private Vector getNormal(int tri, Point point) {
+        int a = 3 * indices[3 * tri], b = 3 * indices[3 * tri + 1], c = 3 * indices[3 * tri + 2];
+        double e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1], e1z = positions[b + 2] - positions[a + 2];
+        double e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1], e2z = positions[c + 2] - positions[a + 2];
+        double nx = e1y * e2z - e1z * e2y;
+        double ny = e1z * e2x - e1x * e2z;
+        double nz = e1x * e2y - e1y * e2x;
+        if (normals == null)
+            return new Vector(nx, ny, nz).normalize();
+
+        // barycentric weights of the point by sub-triangle areas
+        double area = nx * nx + ny * ny + nz * nz;
+        double px = point.getX() - positions[a], py = point.getY() - positions[a + 1], pz = point.getZ() - positions[a + 2];
+        double wb = (nx * (py * e2z - pz * e2y) + ny * (pz * e2x - px * e2z) + nz * (px * e2y - py * e2x)) / area;
+        double wc = (nx * (e1y * pz - e1z * py) + ny * (e1z * px - e1x * pz) + nz * (e1x * py - e1y * px)) / area;
+        double wa = 1 - wb - wc;
+        return new Vector(wa * normals[a] + wb * normals[b] + wc * normals[c],
+                wa * normals[a + 1] + wb * normals[b + 1] + wc * normals[c + 1],
+                wa * normals[a + 2] + wb * normals[b + 2] + wc * normals[c + 2]).normalize();
+    }
+
+    /**
+     * Estimates how far a point is from a triangle: the distance from its plane, or
+     * infinity if the point projects outside the triangle.
+     *
+     * @param tri   the triangle index
+     * @param point the point
+     * @return the distance from the triangle plane or infinity
+     */
+    private double distanceToTriangle(int tri, Point point) {
+        int a = 3 * indices[3 * tri], b = 3 * indices[3 * tri + 1], c = 3 * indices[3 * tri + 2];
+        double e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1], e1z = positions[b + 2] - positions[a + 2];
+        double e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1], e2z = positions[c + 2] - positions[a + 2];
+        double nx = e1y * e2z - e1z * e2y;
+        double ny = e1z * e2x - e1x * e2z;
+        double nz = e1x * e2y - e1y * e2x;
+        double area = nx * nx + ny * ny + nz * nz;
+        if (isZero(area)) return Double.POSITIVE_INFINITY;
+        double px = point.getX() - positions[a], py = point.getY() - positions[a + 1], pz = point.getZ() - positions[a + 2];
+        double wb = (nx * (py * e2z - pz * e2y) + ny * (pz * e2x - px * e2z) + nz * (px * e2y - py * e2x)) / area;
+        double wc = (nx * (e1y * pz - e1z * py) + ny * (e1z * px - e1x * pz) + nz * (e1x * py - e1y * px)) / area;
+        final double eps = 1e-9;
+        if (wb < -eps || wc < -eps || wb + wc > 1 + eps) return Double.POSITIVE_INFINITY;
+        return Math.abs(nx * px + ny * py + nz * pz) / Math.sqrt(area);
+    }
+}
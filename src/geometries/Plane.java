@@ -134,4 +134,40 @@ public class Plane extends Geometry {
         return List.of(new Intersection(this, intersectionPoint));
     }
 
+    /**
+     * Records the intersection of a ray with the plane without allocating
+     * intersection objects.
+     *
+     * @param ray the ray to intersect with the plane
+     * @param hit the record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        double t = intersectionDistance(ray);
+        return t > 0 && hit.update(this, t);
+    }
+
+    /**
+     * Computes the distance along the ray to its intersection with the plane.
+     *
+     * @param ray the ray to intersect with the plane
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    double intersectionDistance(Ray ray) {
+        Point p0 = ray.getHead();
+        Vector dir = ray.getDirection();
+
+        double nv = normal.getX() * dir.getX() + normal.getY() * dir.getY() + normal.getZ() * dir.getZ();
+        if (Util.isZero(nv)) return 0;
+
+        double numerator = normal.getX() * (q.getX() - p0.getX())
+                + normal.getY() * (q.getY() - p0.getY())
+                + normal.getZ() * (q.getZ() - p0.getZ());
+        if (Util.isZero(numerator)) return 0;
+
+        double t = Util.alignZero(numerator / nv);
+        return t > 0 ? t : 0;
+    }
+
 }
@@ -28,6 +28,23 @@ public class Polygon extends Geometry {
      * The number of vertices in the polygon.
      */
     private final int size;
+
+    /**
+     * The two coordinate axes the polygon is projected on for the inside test -
+     * the axes other than the dominant axis of its normal.
+     */
+    private final int axisU, axisV;
+
+    /**
+     * Coordinates of the vertices projected on {@link #axisU} and {@link #axisV}.
+     */
+    private final double[] projectedU, projectedV;
+
+    /**
+     * The sign of the projected polygon's winding: 1 if counter-clockwise, -1 if clockwise.
+     */
+    private final double winding;
+
     @Override
 /**
  * Creates the axis-aligned bounding box (AABB) for the polygon.
@@ -80,8 +97,25 @@ public class Polygon extends Geometry {
         this.vertices = List.of(vertices);
         size = vertices.length;
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
-        if (size == 3) return;
+
+        // project on the coordinate plane where the polygon's area is largest
         Vector n = plane.getNormal(vertices[0]);
+        double nx = Math.abs(n.getX()), ny = Math.abs(n.getY()), nz = Math.abs(n.getZ());
+        int dominant = nx >= ny && nx >= nz ? 0 : ny >= nz ? 1 : 2;
+        axisU = dominant == 0 ? 1 : 0;
+        axisV = dominant == 2 ? 1 : 2;
+        projectedU = new double[size];
+        projectedV = new double[size];
+        for (int i = 0; i < size; ++i) {
+            projectedU[i] = vertices[i].getCoordinate(axisU);
+            projectedV[i] = vertices[i].getCoordinate(axisV);
+        }
+        double area = 0;
+        for (int i = 0, j = size - 1; i < size; j = i++)
+            area += projectedU[j] * projectedV[i] - projectedU[i] * projectedV[j];
+        winding = area > 0 ? 1 : -1;
+
+        if (size == 3) return;
         Vector edge1 = vertices[size - 1].subtract(vertices[size - 2]);
         Vector edge2 = vertices[0].subtract(vertices[size - 1]);
         boolean positive = edge1.crossProduct(edge2).dotProduct(n) > 0;
@@ -109,12 +143,53 @@ public class Polygon extends Geometry {
 
     /**
      * Finds the intersection points between a ray and the polygon.
-     * Currently not implemented.
      *
      * @param ray the ray to intersect with the polygon
-     * @return null (not implemented)
+     * @return a list containing the intersection point, or null if there are no intersections
      */
+    @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        return null;
+        double t = intersectionDistance(ray);
+        return t > 0 ? List.of(new Intersection(this, ray.getPoint(t))) : null;
+    }
+
+    /**
+     * Records the intersection of a ray with the polygon without allocating
+     * intersection objects.
+     *
+     * @param ray the ray to intersect with the polygon
+     * @param hit the record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        double t = intersectionDistance(ray);
+        return t > 0 && hit.update(this, t);
+    }
+
+    /**
+     * Computes the distance along the ray to its intersection with the polygon.
+     * The hit point on the polygon's plane is tested against the edges of the polygon
+     * projected on two coordinate axes. Points on the edges are not considered inside.
+     *
+     * @param ray the ray to intersect with the polygon
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    private double intersectionDistance(Ray ray) {
+        double t = plane.intersectionDistance(ray);
+        if (t == 0) return 0;
+
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double u = head.getCoordinate(axisU) + t * dir.getCoordinate(axisU);
+        double v = head.getCoordinate(axisV) + t * dir.getCoordinate(axisV);
+
+        // the point is inside a convex polygon if it is on the inner side of every edge
+        for (int i = 0, j = size - 1; i < size; j = i++) {
+            double edgeU = projectedU[i] - projectedU[j], edgeV = projectedV[i] - projectedV[j];
+            double side = alignZero((edgeU * (v - projectedV[j]) - edgeV * (u - projectedU[j])) * winding);
+            if (side <= 0) return 0;
+        }
+        return t;
     }
 }
@@ -0,0 +1,271 @@
+package geometries;
+
+import geometries.Intersectable.Intersection;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+
+import static primitives.Util.isZero;
+
+/**
+ * A packet of rays that are intersected together, for coherent rays such as the primary
+ * rays of neighbouring pixels.
+ * <p>
+ * The rays of a packet go down the bounding volume hierarchy together: each node is
+ * tested against all the rays still active and entered with the rays that hit its box,
+ * and each leaf tests its geometries against all of them. The rays are kept as flat
+ * arrays of origins and inverse directions, and the bit {@code i} of an active mask stands
+ * for the ray {@code i}. Structures that do not trace packets trace their rays one by one.
+ * <p>
+ * A packet of rays from a common head, such as primary rays, can be given a {@link Frustum}
+ * enclosing them - typically that of their whole tile of pixels: a box outside it is
+ * skipped with one test, before any ray is tested against it.
+ * <p>
+ * A packet is filled with {@link #add(Ray, Intersection)}, queried with
+ * {@link Intersectable#findClosestIntersections(RayPacket)}, and reused after
+ * {@link #clear()}.
+ */
+public final class RayPacket {
+
+    /** Largest number of rays in a packet, the bits of a mask */
+    public static final int MAX_SIZE = Integer.SIZE;
+
+    /** The rays */
+    final Ray[] rays;
+    /** The hit record of each ray */
+    final Intersection[] hits;
+    /** The ray origins */
+    final double[] ox, oy, oz;
+    /** The ray directions */
+    final double[] dx, dy, dz;
+    /** The inverse ray directions, 0 along the axes a ray is parallel to */
+    final double[] ix, iy, iz;
+    /** Number of rays */
+    int size = 0;
+    /** The rays that hit something in the last query */
+    private int found = 0;
+    /** A frustum enclosing the rays, or null if none is known */
+    Frustum frustum = null;
+
+    /**
+     * Creates an empty packet.
+     *
+     * @param capacity the largest number of rays in the packet
+     * @throws IllegalArgumentException if the capacity is not between 1 and {@link #MAX_SIZE}
+     */
+    public RayPacket(int capacity) {
+        if (capacity < 1 || capacity > MAX_SIZE)
+            throw new IllegalArgumentException("Packet capacity must be between 1 and " + MAX_SIZE);
+        rays = new Ray[capacity];
+        hits = new Intersection[capacity];
+        ox = new double[capacity];
+        oy = new double[capacity];
+        oz = new double[capacity];
+        dx = new double[capacity];
+        dy = new double[capacity];
+        dz = new double[capacity];
+        ix = new double[capacity];
+        iy = new double[capacity];
+        iz = new double[capacity];
+    }
+
+    /**
+     * Adds a ray to the packet.
+     *
+     * @param ray the ray
+     * @param hit the record to fill with the closest hit of the ray
+     * @return the index of the ray in the packet
+     * @throws IllegalStateException if the packet is full
+     */
+    public int add(Ray ray, Intersection hit) {
+        if (size == rays.length) throw new IllegalStateException("The packet is full");
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        rays[size] = ray;
+        hits[size] = hit;
+        ox[size] = head.getX();
+        oy[size] = head.getY();
+        oz[size] = head.getZ();
+        dx[size] = direction.getX();
+        dy[size] = direction.getY();
+        dz[size] = direction.getZ();
+        ix[size] = isZero(dx[size]) ? 0 : 1 / dx[size];
+        iy[size] = isZero(dy[size]) ? 0 : 1 / dy[size];
+        iz[size] = isZero(dz[size]) ? 0 : 1 / dz[size];
+        return size++;
+    }
+
+    /**
+     * Empties the packet, releasing its rays and records.
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            rays[i] = null;
+            hits[i] = null;
+        }
+        size = 0;
+        found = 0;
+        frustum = null;
+    }
+
+    /**
+     * Sets a frustum enclosing all the rays of the packet, until the packet is cleared.
+     *
+     * @param frustum the frustum, or null for none
+     * @return this packet
+     */
+    public RayPacket setFrustum(Frustum frustum) {
+        this.frustum = frustum;
+        return this;
+    }
+
+    /**
+     * Returns the number of rays in the packet.
+     *
+     * @return the number of rays
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the largest number of rays in the packet.
+     *
+     * @return the capacity of the packet
+     */
+    public int capacity() {
+        return rays.length;
+    }
+
+    /**
+     * Returns the closest hit of a ray found by the last query.
+     *
+     * @param index the index of the ray in the packet
+     * @return the filled record of the ray, or null if the ray hit nothing
+     */
+    public Intersection getHit(int index) {
+        return (found & 1 << index) == 0 ? null : hits[index];
+    }
+
+    /**
+     * Returns the mask of all the rays of the packet.
+     *
+     * @return a mask with a bit for every ray
+     */
+    int all() {
+        return size == Integer.SIZE ? -1 : (1 << size) - 1;
+    }
+
+    /**
+     * Starts a query: empties the hit records of all the rays.
+     */
+    void begin() {
+        for (int i = 0; i < size; ++i) hits[i].reset(Double.POSITIVE_INFINITY);
+        found = 0;
+    }
+
+    /**
+     * Ends a query: completes the records of the rays that hit something.
+     *
+     * @param found the rays that hit something
+     */
+    void end(int found) {
+        this.found = found;
+        for (int i = 0; i < size; ++i) {
+            if ((found & 1 << i) == 0) continue;
+            Intersection hit = hits[i];
+            if (hit.point == null) hit.point = rays[i].getPoint(hit.t);
+            hit.material = hit.geometry.getMaterial(hit);
+        }
+    }
+
+    /**
+     * Tests a box against the active rays. A ray keeps its bit only if it crosses the box
+     * ahead of its origin and not behind the closest hit it has found.
+     *
+     * @param box  the box
+     * @param mask the active rays
+     * @return the active rays that cross the box
+     */
+    int intersect(AABB box, int mask) {
+        double minX = box.min.getX(), minY = box.min.getY(), minZ = box.min.getZ();
+        double maxX = box.max.getX(), maxY = box.max.getY(), maxZ = box.max.getZ();
+        int result = 0;
+        for (int i = 0; i < size; ++i) {
+            if ((mask & 1 << i) == 0) continue;
+            double tMin = 0, tMax = hits[i].t;
+
+            if (ix[i] == 0) {
+                if (ox[i] < minX || ox[i] > maxX) continue;
+            } else {
+                double t0 = (minX - ox[i]) * ix[i], t1 = (maxX - ox[i]) * ix[i];
+                if (t0 > t1) { double t = t0; t0 = t1; t1 = t; }
+                if (t0 > tMin) tMin = t0;
+                if (t1 < tMax) tMax = t1;
+                if (tMax < tMin) continue;
+            }
+            if (iy[i] == 0) {
+                if (oy[i] < minY || oy[i] > maxY) continue;
+            } else {
+                double t0 = (minY - oy[i]) * iy[i], t1 = (maxY - oy[i]) * iy[i];
+                if (t0 > t1) { double t = t0; t0 = t1; t1 = t; }
+                if (t0 > tMin) tMin = t0;
+                if (t1 < tMax) tMax = t1;
+                if (tMax < tMin) continue;
+            }
+            if (iz[i] == 0) {
+                if (oz[i] < minZ || oz[i] > maxZ) continue;
+            } else {
+                double t0 = (minZ - oz[i]) * iz[i], t1 = (maxZ - oz[i]) * iz[i];
+                if (t0 > t1) { double t = t0; t0 = t1; t1 = t; }
+                if (t0 > tMin) tMin = t0;
+                if (t1 < tMax) tMax = t1;
+                if (tMax < tMin) continue;
+            }
+            result |= 1 << i;
+        }
+        return result;
+    }
+
+    /**
+     * Traces the active rays one by one through a geometry, each as a query of its own.
+     * Used where a structure does not trace packets, or where the rays of a packet have
+     * gone too many different ways for it to pay.
+     *
+     * @param geometry the geometry
+     * @param mask     the active rays
+     * @return the active rays that recorded a nearer hit
+     */
+    int traceSingly(Intersectable geometry, int mask) {
+        int result = 0;
+        Mailbox mailbox = geometry.usesMailbox() ? Mailbox.get() : null;
+        for (int i = 0; i < size; ++i) {
+            if ((mask & 1 << i) == 0) continue;
+            if (mailbox != null) mailbox.beginRay();
+            if (geometry.calculateClosestIntersectionHelper(rays[i], hits[i])) result |= 1 << i;
+        }
+        return result;
+    }
+
+    /**
+     * Traces the active rays one by one through the structure of a collection, each as a
+     * query of its own.
+     *
+     * @param builder    the structure of the collection
+     * @param geometries the geometries of the collection
+     * @param mask       the active rays
+     * @return the active rays that recorded a nearer hit
+     */
+    int traceSingly(BoundingVolumeBuilder builder, List<Intersectable> geometries, int mask) {
+        int result = 0;
+        Mailbox mailbox = Mailbox.get();
+        for (int i = 0; i < size; ++i) {
+            if ((mask & 1 << i) == 0) continue;
+            mailbox.beginRay();
+            if (builder.findClosestIntersection(rays[i], geometries, hits[i])) result |= 1 << i;
+        }
+        return result;
+    }
+}
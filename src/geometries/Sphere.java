@@ -112,4 +112,143 @@ public class Sphere extends RadialGeometry {
         return result.isEmpty() ? null : result;
     }
 
+    /**
+     * Records the nearest intersection of a ray with the sphere without allocating
+     * intersection objects.
+     *
+     * @param ray the ray to intersect with the sphere
+     * @param hit the record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        Point P0 = ray.getHead();
+        Vector v = ray.getDirection();
+        double t = intersectionDistance(center.getX(), center.getY(), center.getZ(), radius,
+                P0.getX(), P0.getY(), P0.getZ(), v.getX(), v.getY(), v.getZ());
+        return t > 0 && hit.update(this, t);
+    }
+
+    /**
+     * Number of values describing a sphere for the intersection test.
+     */
+    static final int PACKED_SIZE = 4;
+
+    /**
+     * Copies the center coordinates and the radius into a packed sphere array.
+     *
+     * @param data   the packed array
+     * @param offset the position of the sphere in the array
+     */
+    void pack(double[] data, int offset) {
+        data[offset] = center.getX();
+        data[offset + 1] = center.getY();
+        data[offset + 2] = center.getZ();
+        data[offset + 3] = radius;
+    }
+
+    /**
+     * Computes the distance along a ray to its nearest intersection with a sphere in a
+     * packed sphere array (see {@link #pack(double[], int)}).
+     *
+     * @param data   the packed array
+     * @param offset the position of the sphere in the array
+     * @param ox     ray origin X
+     * @param oy     ray origin Y
+     * @param oz     ray origin Z
+     * @param dx     ray direction X
+     * @param dy     ray direction Y
+     * @param dz     ray direction Z
+     * @return the distance to the nearest intersection, or 0 if there is none
+     */
+    static double intersectionDistance(double[] data, int offset, double ox, double oy, double oz,
+                                       double dx, double dy, double dz) {
+        return intersectionDistance(data[offset], data[offset + 1], data[offset + 2], data[offset + 3],
+                ox, oy, oz, dx, dy, dz);
+    }
+
+    /**
+     * Computes the distances along a ray to all its intersections with a sphere in a packed
+     * sphere array (see {@link #pack(double[], int)}), nearest first.
+     *
+     * @param data      the packed array
+     * @param offset    the position of the sphere in the array
+     * @param ox        ray origin X
+     * @param oy        ray origin Y
+     * @param oz        ray origin Z
+     * @param dx        ray direction X
+     * @param dy        ray direction Y
+     * @param dz        ray direction Z
+     * @param distances receives the distances, room for two
+     * @return the number of intersections
+     */
+    static int intersectionDistances(double[] data, int offset, double ox, double oy, double oz,
+                                     double dx, double dy, double dz, double[] distances) {
+        double ux = data[offset] - ox, uy = data[offset + 1] - oy, uz = data[offset + 2] - oz;
+        double r = data[offset + 3];
+        double uSquared = ux * ux + uy * uy + uz * uz;
+        if (isZero(uSquared)) {
+            // Ray starts at the center of the sphere
+            distances[0] = r;
+            return 1;
+        }
+
+        double tm = dx * ux + dy * uy + dz * uz;
+        double dSquared = uSquared - tm * tm;
+        double rSquared = r * r;
+        if (dSquared > rSquared) return 0;
+
+        double thSquared = rSquared - dSquared;
+        if (isZero(thSquared)) thSquared = 0; // for safety in sqrt
+        if (thSquared < 0) return 0;
+
+        double th = Math.sqrt(thSquared);
+        double t1 = alignZero(tm - th);
+        double t2 = alignZero(tm + th);
+        int count = 0;
+        if (t1 > 0) distances[count++] = t1;
+        if (t2 > 0) distances[count++] = t2;
+        return count;
+    }
+
+    /**
+     * Computes the distance along a ray to its nearest intersection with a sphere.
+     *
+     * @param cx center X
+     * @param cy center Y
+     * @param cz center Z
+     * @param r  radius
+     * @param ox ray origin X
+     * @param oy ray origin Y
+     * @param oz ray origin Z
+     * @param dx ray direction X
+     * @param dy ray direction Y
+     * @param dz ray direction Z
+     * @return the distance to the nearest intersection, or 0 if there is none
+     */
+    private static double intersectionDistance(double cx, double cy, double cz, double r,
+                                               double ox, double oy, double oz,
+                                               double dx, double dy, double dz) {
+        double ux = cx - ox, uy = cy - oy, uz = cz - oz;
+        double uSquared = ux * ux + uy * uy + uz * uz;
+        if (isZero(uSquared))
+            // Ray starts at the center of the sphere
+            return r;
+
+        double tm = dx * ux + dy * uy + dz * uz;
+        double dSquared = uSquared - tm * tm;
+        double rSquared = r * r;
+        if (dSquared > rSquared) return 0;
+
+        double thSquared = rSquared - dSquared;
+        if (isZero(thSquared)) thSquared = 0; // for safety in sqrt
+        if (thSquared < 0) return 0;
+
+        double th = Math.sqrt(thSquared);
+        double t1 = alignZero(tm - th);
+        if (t1 > 0) return t1;
+        double t2 = alignZero(tm + th);
+        return t2 > 0 ? t2 : 0;
+    }
+
 }
@@ -0,0 +1,273 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static primitives.Util.*;
+
+/**
+ * Represents a large set of spheres (particles, bubbles, etc.) as a single geometry.
+ * <p>
+ * Centers, radii and material indices are kept in structure-of-arrays form - one primitive
+ * array per attribute - instead of one {@link Sphere} object per sphere, and the spheres are
+ * intersected in tight loops over those arrays. The cloud builds its own
+ * {@link FlatBVH bounding volume hierarchy} at construction and reorders the arrays so that
+ * the spheres of every leaf are stored contiguously.
+ * <p>
+ * All the spheres share the emission of the cloud. Each sphere may have its own material
+ * out of a small material table; without a table all of them use the cloud's material.
+ */
+public class SphereCloud extends Geometry {
+
+    /** Maximum number of spheres in a leaf of the internal hierarchy */
+    private static final int MAX_SPHERES_IN_LEAF = 4;
+
+    /** Number of spheres */
+    private final int size;
+
+    /** Center X coordinates */
+    private final double[] centerX;
+
+    /** Center Y coordinates */
+    private final double[] centerY;
+
+    /** Center Z coordinates */
+    private final double[] centerZ;
+
+    /** Radii */
+    private final double[] radii;
+
+    /** Index of the material of each sphere in {@link #materials}, or null if there is no table */
+    private final int[] materialIndices;
+
+    /** The material table, or null if all the spheres use the cloud's material */
+    private final Material[] materials;
+
+    /** The hierarchy over the spheres, whose leaves hold contiguous ranges of the arrays */
+    private final FlatBVH hierarchy;
+
+    /**
+     * Constructs a cloud of spheres that all use the cloud's material.
+     *
+     * @param centers sphere centers, three coordinates per sphere
+     * @param radii   sphere radii
+     * @throws IllegalArgumentException if the arrays are malformed or a radius is not positive
+     */
+    public SphereCloud(double[] centers, double[] radii) {
+        this(centers, radii, null, null);
+    }
+
+    /**
+     * Constructs a cloud of spheres with a material per sphere.
+     *
+     * @param centers         sphere centers, three coordinates per sphere
+     * @param radii           sphere radii
+     * @param materials       the material table
+     * @param materialIndices index of each sphere's material in the table
+     * @throws IllegalArgumentException if the arrays are malformed, a radius is not positive
+     *                                  or a material index is out of range
+     */
+    public SphereCloud(double[] centers, double[] radii, Material[] materials, int[] materialIndices) {
+        if (radii.length == 0)
+            throw new IllegalArgumentException("A sphere cloud must contain spheres");
+        if (centers.length != 3 * radii.length)
+            throw new IllegalArgumentException("Centers must hold three coordinates per sphere");
+        if ((materials == null) != (materialIndices == null))
+            throw new IllegalArgumentException("Materials and material indices must be given together");
+        if (materialIndices != null && materialIndices.length != radii.length)
+            throw new IllegalArgumentException("Material indices must hold one index per sphere");
+        for (double radius : radii)
+            if (alignZero(radius) <= 0)
+                throw new IllegalArgumentException("Radius must be positive");
+        if (materialIndices != null)
+            for (int index : materialIndices)
+                if (index < 0 || index >= materials.length)
+                    throw new IllegalArgumentException("Material index out of range: " + index);
+
+        this.size = radii.length;
+        this.centerX = new double[size];
+        this.centerY = new double[size];
+        this.centerZ = new double[size];
+        this.radii = new double[size];
+        this.materials = materials == null ? null : materials.clone();
+        this.materialIndices = materialIndices == null ? null : new int[size];
+
+        double[] bounds = new double[6 * size];
+        for (int sphere = 0; sphere < size; ++sphere)
+            for (int axis = 0; axis < 3; ++axis) {
+                bounds[6 * sphere + axis] = centers[3 * sphere + axis] - radii[sphere];
+                bounds[6 * sphere + 3 + axis] = centers[3 * sphere + axis] + radii[sphere];
+            }
+        this.hierarchy = new FlatBVH(bounds, centers, MAX_SPHERES_IN_LEAF);
+        int[] order = hierarchy.order;
+
+        // store the spheres in leaf order
+        for (int i = 0; i < size; ++i) {
+            int sphere = order[i];
+            centerX[i] = centers[3 * sphere];
+            centerY[i] = centers[3 * sphere + 1];
+            centerZ[i] = centers[3 * sphere + 2];
+            this.radii[i] = radii[sphere];
+            if (materialIndices != null) this.materialIndices[i] = materialIndices[sphere];
+        }
+    }
+
+    /**
+     * Returns the number of spheres in the cloud.
+     *
+     * @return the sphere count
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    protected AABB createBoundingBox() {
+        return hierarchy.getBoundingBox();
+    }
+
+    @Override
+    public Material getMaterial(Intersection intersection) {
+        return materials == null || intersection.primitive < 0 ? getMaterial()
+                : materials[materialIndices[intersection.primitive]];
+    }
+
+    // ***************** Intersections ********************** //
+
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        boolean found = false;
+        FlatBVH.Traversal traversal = hierarchy.begin(ray);
+        while (hierarchy.nextLeaf(traversal, hit.t)) {
+            for (int i = traversal.start; i < traversal.end; ++i) {
+                // same computation as Sphere, unrolled over the arrays
+                double ux = centerX[i] - ox, uy = centerY[i] - oy, uz = centerZ[i] - oz;
+                double r = radii[i];
+                double uSquared = ux * ux + uy * uy + uz * uz;
+                double t;
+                if (isZero(uSquared)) t = r;
+                else {
+                    double tm = dx * ux + dy * uy + dz * uz;
+                    double thSquared = r * r - (uSquared - tm * tm);
+                    if (isZero(thSquared)) thSquared = 0;
+                    if (thSquared < 0) continue;
+                    double th = Math.sqrt(thSquared);
+                    t = alignZero(tm - th);
+                    if (t <= 0) t = alignZero(tm + th);
+                    if (t <= 0) continue;
+                }
+                if (hit.update(this, t, i)) found = true;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        List<Intersection> result = null;
+        FlatBVH.Traversal traversal = hierarchy.begin(ray);
+        while (hierarchy.nextLeaf(traversal, Double.POSITIVE_INFINITY)) {
+            for (int i = traversal.start; i < traversal.end; ++i) {
+                double ux = centerX[i] - ox, uy = centerY[i] - oy, uz = centerZ[i] - oz;
+                double r = radii[i];
+                double uSquared = ux * ux + uy * uy + uz * uz;
+                if (isZero(uSquared)) {
+                    result = addIntersection(result, ray, r, i);
+                    continue;
+                }
+                double tm = dx * ux + dy * uy + dz * uz;
+                double thSquared = r * r - (uSquared - tm * tm);
+                if (isZero(thSquared)) thSquared = 0;
+                if (thSquared < 0) continue;
+                double th = Math.sqrt(thSquared);
+                double t1 = alignZero(tm - th);
+                double t2 = alignZero(tm + th);
+                if (t1 > 0) result = addIntersection(result, ray, t1, i);
+                if (t2 > 0) result = addIntersection(result, ray, t2, i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds an intersection with one of the spheres to a result list.
+     *
+     * @param result the list so far, or null if it is still empty
+     * @param ray    the intersecting ray
+     * @param t      the distance along the ray
+     * @param sphere the index of the sphere
+     * @return the list with the intersection added
+     */
+    private List<Intersection> addIntersection(List<Intersection> result, Ray ray, double t, int sphere) {
+        if (result == null) result = new ArrayList<>();
+        Intersection intersection = new Intersection(this, ray.getPoint(t));
+        intersection.primitive = sphere;
+        intersection.t = t;
+        intersection.material = getMaterial(intersection);
+        result.add(intersection);
+        return result;
+    }
+
+    // ***************** Normals ********************** //
+
+    /**
+     * Returns the normal at an intersection, using the sphere recorded in it.
+     *
+     * @param intersection an intersection with this cloud
+     * @return the normal vector at the intersection point
+     */
+    @Override
+    public Vector getNormal(Intersection intersection) {
+        return intersection.primitive < 0 ? getNormal(intersection.point)
+                : getNormal(intersection.primitive, intersection.point);
+    }
+
+    /**
+     * Returns the normal at a point on the surface of one of the spheres. This is a slow
+     * path: the sphere is searched for among all the spheres, in time linear in the size of
+     * the cloud. The renderer only takes it for hits that do not know their sphere; prefer
+     * {@link #getNormal(Intersection)}.
+     *
+     * @param point a point on the surface of a sphere
+     * @return the normal vector at the point
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        int best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; ++i) {
+            double ux = x - centerX[i], uy = y - centerY[i], uz = z - centerZ[i];
+            double distance = Math.abs(Math.sqrt(ux * ux + uy * uy + uz * uz) - radii[i]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return getNormal(best, point);
+    }
+
+    /**
+     * Returns the normal of a sphere of the cloud at a point on its surface.
+     *
+     * @param sphere the sphere index
+     * @param point  a point on the sphere
+     * @return the normalized normal vector
+     */
+    private Vector getNormal(int sphere, Point point) {
+        return new Vector(point.getX() - centerX[sphere], point.getY() - centerY[sphere],
+                point.getZ() - centerZ[sphere]).normalize();
+    }
+}
@@ -8,13 +8,47 @@ import static primitives.Util.*;
  * Represents a triangle in 3D space, defined as a specific case of a polygon with three vertices.
  */
 public class Triangle extends Polygon {
+    /**
+     * Number of values describing a triangle for the intersection test.
+     */
+    static final int PACKED_SIZE = 9;
+
+    /**
+     * Coordinates of the first vertex, of the edge from it to the second vertex and of
+     * the edge from it to the third vertex - the layout used in packed triangle arrays.
+     */
+    private final double[] packed = new double[PACKED_SIZE];
+
     /**
      * Constructs a triangle with the specified vertices.
+     * The edges used by the intersection test are computed once here.
      *
      * @param vertices the three vertices of the triangle
      */
     public Triangle(Point... vertices) {
         super(vertices);
+        Point p0 = vertices[0];
+        Point p1 = vertices[1];
+        Point p2 = vertices[2];
+        packed[0] = p0.getX();
+        packed[1] = p0.getY();
+        packed[2] = p0.getZ();
+        packed[3] = p1.getX() - packed[0];
+        packed[4] = p1.getY() - packed[1];
+        packed[5] = p1.getZ() - packed[2];
+        packed[6] = p2.getX() - packed[0];
+        packed[7] = p2.getY() - packed[1];
+        packed[8] = p2.getZ() - packed[2];
+    }
+
+    /**
+     * Copies the values used by the intersection test into a packed triangle array.
+     *
+     * @param data   the packed array
+     * @param offset the position of the triangle in the array
+     */
+    void pack(double[] data, int offset) {
+        System.arraycopy(packed, 0, data, offset, PACKED_SIZE);
     }
     @Override
 /**
@@ -45,30 +79,78 @@ public class Triangle extends Polygon {
      */
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        var intersections = plane.calculateIntersectionsHelper(ray);
-        if (intersections == null)
-            return null;
-
-        Point  p0 = ray.getHead();
-        Vector v  = ray.getDirection();
-        Vector v1 = vertices.get(0).subtract(p0);
-        Vector v2 = vertices.get(1).subtract(p0);
-        Vector n  = v1.crossProduct(v2).normalize();
-        double s1 = alignZero(v.dotProduct(n));
-        if (s1 == 0)
-            return null;
-
-        Vector v3 = vertices.get(2).subtract(p0);
-        n = v2.crossProduct(v3).normalize();
-        double s2 = alignZero(v.dotProduct(n));
-        if (s1 * s2 <= 0)
-            return null;
-
-        n = v3.crossProduct(v1).normalize();
-        double s3 = alignZero(v.dotProduct(n));
-        if (s1 * s3 <= 0)
-            return null;
-
-        return List.of(new Intersection(this, intersections.get(0).point));
+        double t = intersectionDistance(ray);
+        return t > 0 ? List.of(new Intersection(this, ray.getPoint(t))) : null;
+    }
+
+    /**
+     * Records the intersection of a ray with the triangle without allocating
+     * intersection objects.
+     *
+     * @param ray the ray to intersect with the triangle
+     * @param hit the record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        double t = intersectionDistance(ray);
+        return t > 0 && hit.update(this, t);
+    }
+
+    /**
+     * Computes the distance along the ray to its intersection with the triangle
+     * using the Möller–Trumbore test on the precomputed edges.
+     * Hits on an edge or a vertex are not counted as intersections.
+     *
+     * @param ray the ray to intersect with the triangle
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    double intersectionDistance(Ray ray) {
+        Point head = ray.getHead();
+        Vector dir = ray.getDirection();
+        return intersectionDistance(packed, 0, head.getX(), head.getY(), head.getZ(),
+                dir.getX(), dir.getY(), dir.getZ());
+    }
+
+    /**
+     * Computes the distance along a ray to its intersection with a triangle in a packed
+     * triangle array (see {@link #pack(double[], int)}).
+     *
+     * @param data   the packed array
+     * @param offset the position of the triangle in the array
+     * @param ox     ray origin X
+     * @param oy     ray origin Y
+     * @param oz     ray origin Z
+     * @param dx     ray direction X
+     * @param dy     ray direction Y
+     * @param dz     ray direction Z
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    static double intersectionDistance(double[] data, int offset, double ox, double oy, double oz,
+                                       double dx, double dy, double dz) {
+        double e1x = data[offset + 3], e1y = data[offset + 4], e1z = data[offset + 5];
+        double e2x = data[offset + 6], e2y = data[offset + 7], e2z = data[offset + 8];
+
+        // p = dir x e2
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) return 0; // ray is parallel to the triangle
+        double invDet = 1 / det;
+
+        double sx = ox - data[offset], sy = oy - data[offset + 1], sz = oz - data[offset + 2];
+        double u = (sx * px + sy * py + sz * pz) * invDet;
+        if (alignZero(u) <= 0 || alignZero(u - 1) >= 0) return 0;
+
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (alignZero(v) <= 0 || alignZero(u + v - 1) >= 0) return 0;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+        return t > 0 ? t : 0;
     }
 }
@@ -0,0 +1,177 @@
+package geometries;
+
+import geometries.Intersectable.Intersection;
+import primitives.Point;
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The triangles of a scene, gathered from its {@link Triangle triangles} and
+ * {@link Mesh meshes} into flat arrays, apart from the rest of its geometries.
+ * <p>
+ * A rasterizer reads the corners of the triangles to find the pixels each one covers, and
+ * tests the triangles with the same intersection tests as their geometries, so the hits
+ * it finds are those ray tracing would find. The closest intersection of a ray is then
+ * completed by tracing the rest of the geometries only up to the closest triangle.
+ */
+public final class TriangleSet {
+
+    /** The geometry each triangle belongs to */
+    private final Geometry[] owners;
+
+    /** The index of each triangle in its mesh, -1 for a {@link Triangle} */
+    private final int[] primitives;
+
+    /** The first corner and the two edges from it of each triangle, {@link Triangle#PACKED_SIZE} values per triangle */
+    private final double[] data;
+
+    /** The geometries that are not triangles, or null if there are none */
+    private final Geometries rest;
+
+    /**
+     * Gathers the triangles of a scene.
+     *
+     * @param geometries the geometries of the scene
+     */
+    public TriangleSet(Intersectable geometries) {
+        List<Geometry> ownerList = new ArrayList<>();
+        List<Integer> primitiveList = new ArrayList<>();
+        List<Intersectable> restList = new ArrayList<>();
+        gather(geometries, ownerList, primitiveList, restList);
+
+        int size = ownerList.size();
+        owners = ownerList.toArray(new Geometry[0]);
+        primitives = new int[size];
+        data = new double[Triangle.PACKED_SIZE * size];
+        for (int i = 0; i < size; ++i) {
+            primitives[i] = primitiveList.get(i);
+            int offset = Triangle.PACKED_SIZE * i;
+            if (owners[i] instanceof Mesh mesh) {
+                int tri = primitives[i];
+                for (int axis = 0; axis < 3; ++axis) {
+                    double corner = mesh.coordinate(tri, 0, axis);
+                    data[offset + axis] = corner;
+                    data[offset + 3 + axis] = mesh.coordinate(tri, 1, axis) - corner;
+                    data[offset + 6 + axis] = mesh.coordinate(tri, 2, axis) - corner;
+                }
+            } else {
+                ((Triangle) owners[i]).pack(data, offset);
+            }
+        }
+
+        if (restList.isEmpty()) {
+            rest = null;
+        } else {
+            rest = new Geometries(restList.toArray(new Intersectable[0]));
+            rest.commit();
+        }
+    }
+
+    /**
+     * Sorts the geometries of a subtree into triangles and the rest.
+     *
+     * @param geometry   the root of the subtree
+     * @param owners     the geometries of the triangles found
+     * @param primitives the indices of the triangles found in their meshes
+     * @param rest       the other geometries found
+     */
+    private static void gather(Intersectable geometry, List<Geometry> owners, List<Integer> primitives,
+                               List<Intersectable> rest) {
+        // subclasses may intersect differently, so only the exact types are gathered
+        if (geometry instanceof Geometries geometries) {
+            for (Intersectable child : geometries.getGeometries()) gather(child, owners, primitives, rest);
+        } else if (geometry.getClass() == Triangle.class) {
+            owners.add((Triangle) geometry);
+            primitives.add(-1);
+        } else if (geometry.getClass() == Mesh.class) {
+            Mesh mesh = (Mesh) geometry;
+            for (int tri = 0; tri < mesh.size(); ++tri) {
+                owners.add(mesh);
+                primitives.add(tri);
+            }
+        } else {
+            rest.add(geometry);
+        }
+    }
+
+    /**
+     * Returns the number of triangles.
+     *
+     * @return the number of triangles
+     */
+    public int size() {
+        return owners.length;
+    }
+
+    /**
+     * Returns whether the scene has geometries other than triangles.
+     *
+     * @return true if some geometries are not triangles
+     */
+    public boolean hasRest() {
+        return rest != null;
+    }
+
+    /**
+     * Returns a corner of a triangle.
+     *
+     * @param triangle the index of the triangle
+     * @param corner   the corner, 0 to 2
+     * @return the corner
+     */
+    public Point getCorner(int triangle, int corner) {
+        int offset = Triangle.PACKED_SIZE * triangle;
+        double x = data[offset], y = data[offset + 1], z = data[offset + 2];
+        if (corner > 0) {
+            x += data[offset + 3 * corner];
+            y += data[offset + 3 * corner + 1];
+            z += data[offset + 3 * corner + 2];
+        }
+        return new Point(x, y, z);
+    }
+
+    /**
+     * Computes the distance along a ray to its intersection with a triangle, by the test of
+     * the geometry of the triangle.
+     *
+     * @param triangle the index of the triangle
+     * @param ox       ray origin X
+     * @param oy       ray origin Y
+     * @param oz       ray origin Z
+     * @param dx       ray direction X
+     * @param dy       ray direction Y
+     * @param dz       ray direction Z
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    public double intersectionDistance(int triangle, double ox, double oy, double oz,
+                                       double dx, double dy, double dz) {
+        return primitives[triangle] < 0
+                ? Triangle.intersectionDistance(data, Triangle.PACKED_SIZE * triangle, ox, oy, oz, dx, dy, dz)
+                : ((Mesh) owners[triangle]).intersectTriangle(primitives[triangle], ox, oy, oz, dx, dy, dz);
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the scene, given the closest triangle it
+     * hits: the rest of the geometries are traced only up to that triangle.
+     *
+     * @param ray      the ray
+     * @param triangle the index of the closest triangle the ray hits, or -1 if it hits none
+     * @param distance the distance along the ray to the triangle
+     * @param hit      the record to fill in place (it is reset first)
+     * @return the filled record, or null if the ray misses the scene
+     */
+    public Intersection findClosestIntersection(Ray ray, int triangle, double distance, Intersection hit) {
+        hit.reset(Double.POSITIVE_INFINITY);
+        boolean found = triangle >= 0 && hit.update(owners[triangle], distance, primitives[triangle]);
+        if (rest != null) {
+            if (rest.usesMailbox()) Mailbox.get().beginRay();
+            if (rest.calculateClosestIntersectionHelper(ray, hit)) found = true;
+        }
+        if (!found) return null;
+        if (hit.point == null) hit.point = ray.getPoint(hit.t);
+        hit.material = hit.geometry.getMaterial(hit);
+        return hit;
+    }
+}
@@ -4,6 +4,8 @@ import primitives.*;
 
 import java.util.List;
 
+import static primitives.Util.*;
+
 /**
  * Represents an infinite tube in 3D space, defined by a central axis (a ray) and a radius.
  * A tube is like a cylinder without top and bottom caps — it extends infinitely in both directions.
@@ -26,19 +28,29 @@ public class Tube extends RadialGeometry {
         this.axis = axis;
     }
 
+    /**
+     * A coordinate far enough to stand for infinity in bounding boxes.
+     */
+    protected static final double LARGE = 1e9;
+
     /**
     * Creates the axis-aligned bounding box (AABB) for the tube.
-    * Since the tube extends infinitely along its axis, bounding box is undefined.
+    * The tube extends infinitely along every coordinate axis its axis is not perpendicular to;
+    * along an axis it is perpendicular to, the tube is bounded by its radius.
     *
-    * @return AABB for the tube or null if not bounded.
+    * @return AABB for the tube.
     */
     @Override
     public AABB createBoundingBox() {
-        double large = 1e9;
-        return new AABB(
-                new Point(-large, -large, -large),
-                new Point(large, large, large)
-        );
+        Point head = axis.getHead();
+        Vector v = axis.getDirection();
+        double[] min = new double[3], max = new double[3];
+        for (int i = 0; i < 3; ++i) {
+            boolean bounded = isZero(v.getCoordinate(i));
+            min[i] = bounded ? head.getCoordinate(i) - radius : -LARGE;
+            max[i] = bounded ? head.getCoordinate(i) + radius : LARGE;
+        }
+        return new AABB(new Point(min[0], min[1], min[2]), new Point(max[0], max[1], max[2]));
     }
 
     /**
@@ -70,7 +82,70 @@ public class Tube extends RadialGeometry {
      * @param ray the ray to intersect with the tube
      * @return a list of intersection points or null if there are no intersections
      */
+    @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
-        return null;
+        double[] t = new double[2];
+        if (lateralDistances(ray, t) == 0) return null;
+        double t1 = alignZero(t[0]), t2 = alignZero(t[1]);
+        if (t2 <= 0) return null;
+        return t1 <= 0 ? List.of(new Intersection(this, ray.getPoint(t2)))
+                : List.of(new Intersection(this, ray.getPoint(t1)), new Intersection(this, ray.getPoint(t2)));
+    }
+
+    /**
+     * Records the nearest intersection of a ray with the tube without allocating
+     * intersection objects.
+     *
+     * @param ray the ray to intersect with the tube
+     * @param hit the record holding the closest hit found so far
+     * @return true if a nearer hit was recorded
+     */
+    @Override
+    protected boolean calculateClosestIntersectionHelper(Ray ray, Intersection hit) {
+        double[] t = new double[2];
+        if (lateralDistances(ray, t) == 0) return false;
+        double t1 = alignZero(t[0]);
+        if (t1 > 0) return hit.update(this, t1);
+        double t2 = alignZero(t[1]);
+        return t2 > 0 && hit.update(this, t2);
+    }
+
+    /**
+     * Computes the distances along a ray to the lines where it crosses the infinite lateral
+     * surface, by solving the quadratic equation of the ray's distance from the axis.
+     * A ray parallel to the axis or tangent to the surface does not cross it.
+     *
+     * @param ray the ray to intersect with the lateral surface
+     * @param t   receives the two distances in ascending order, including non-positive ones
+     * @return the number of distances found: 0 or 2
+     */
+    protected int lateralDistances(Ray ray, double[] t) {
+        Point head = ray.getHead(), p0 = axis.getHead();
+        Vector dir = ray.getDirection(), v = axis.getDirection();
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
+
+        // components of the ray direction and of the offset from the axis, perpendicular to the axis
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double dv = dx * vx + dy * vy + dz * vz;
+        dx -= dv * vx;
+        dy -= dv * vy;
+        dz -= dv * vz;
+        double px = head.getX() - p0.getX(), py = head.getY() - p0.getY(), pz = head.getZ() - p0.getZ();
+        double pv = px * vx + py * vy + pz * vz;
+        px -= pv * vx;
+        py -= pv * vy;
+        pz -= pv * vz;
+
+        double a = dx * dx + dy * dy + dz * dz;
+        if (isZero(a)) return 0;
+        double b = dx * px + dy * py + dz * pz;
+        double c = px * px + py * py + pz * pz - radius * radius;
+        double discriminant = alignZero(b * b - a * c);
+        if (discriminant <= 0) return 0;
+
+        double root = Math.sqrt(discriminant);
+        t[0] = (-b - root) / a;
+        t[1] = (-b + root) / a;
+        return 2;
     }
 }
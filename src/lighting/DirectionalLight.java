@@ -10,6 +10,9 @@ import primitives.*;
 public class DirectionalLight extends Light implements LightSource {
     private final Vector direction;
 
+    /** The sample of the light, the same at every point */
+    private final LightSample sample;
+
     /**
      * Constructs a new {@code DirectionalLight} with the given intensity and direction.
      *
@@ -19,6 +22,7 @@ public class DirectionalLight extends Light implements LightSource {
     public DirectionalLight(Color intensity, Vector direction) {
         super(intensity);
         this.direction = direction.normalize();
+        sample = new LightSample(this.direction, Double.POSITIVE_INFINITY, intensity);
     }
 
     /**
@@ -56,4 +60,15 @@ public class DirectionalLight extends Light implements LightSource {
     public double getDistance(Point point) {
         return Double.POSITIVE_INFINITY;
     }
+
+    /**
+     * Returns the sample of the light, which does not depend on the point.
+     *
+     * @param point the point at which the light is sampled (ignored)
+     * @return the direction of the light, an infinite distance and the constant intensity
+     */
+    @Override
+    public LightSample sample(Point point) {
+        return sample;
+    }
 }
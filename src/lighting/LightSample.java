@@ -0,0 +1,16 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Vector;
+
+/**
+ * A sample of a light source at a point: all that the shading of the point needs from the
+ * light, computed together by {@link LightSource#sample(primitives.Point)} so that the light
+ * is evaluated once per point.
+ *
+ * @param direction the normalized direction from the light towards the point
+ * @param distance  the distance from the light to the point, infinite for a light at infinity
+ * @param intensity the intensity of the light at the point, attenuated by distance and angle
+ */
+public record LightSample(Vector direction, double distance, Color intensity) {
+}
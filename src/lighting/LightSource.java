@@ -38,4 +38,29 @@ public interface LightSource {
      * @return the distance to the light source from point {@code point}
      */
     double getDistance(Point point);
+
+    /**
+     * Samples the light at a point: its direction, distance and attenuated intensity
+     * together, in one pass. The ray tracers read a light only through its samples.
+     * <p>
+     * A light that {@link #canIlluminate(Point)} rejects is not sampled.
+     *
+     * @param point the point in the scene
+     * @return the sample, or null if the light cannot contribute to the point
+     */
+    LightSample sample(Point point);
+
+    /**
+     * Checks whether the light may reach a point with a noticeable intensity. A light that
+     * cannot is skipped before any shadow ray is cast towards it.
+     * <p>
+     * The check may be conservative: a light it accepts may still turn out to contribute
+     * nothing, but a light it rejects contributes nothing worth shading.
+     *
+     * @param point the point in the scene
+     * @return false if the light cannot contribute to the point
+     */
+    default boolean canIlluminate(Point point) {
+        return true;
+    }
 }
@@ -0,0 +1,284 @@
+package lighting;
+
+import primitives.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code LightTree} is a bounding volume hierarchy over the lights of a scene, to find the
+ * few lights that may reach a shading point without testing every light of the scene.
+ * <p>
+ * Every {@link PointLight} or {@link SpotLight} with an influence threshold reaches only the
+ * points of a bounded region: the sphere of its influence radius, which grows with its power
+ * and shrinks with its attenuation, cut by the cone of a spotlight. The tree clusters the
+ * lights by the boxes around these regions, splitting them at the median along the longest
+ * axis, so a query descends only into the nodes whose box holds the point - or overlaps the
+ * box of the points of a whole tile of pixels. The cost of a query grows with the logarithm
+ * of the number of lights and with the number of lights reaching the point. Lights of
+ * unbounded reach are returned by every query.
+ * <p>
+ * The regions are taken when the tree is built; changes of the attenuation or the threshold
+ * of a light later on are not seen by the tree.
+ */
+public final class LightTree {
+
+    /** Largest number of lights in a leaf */
+    private static final int LEAF_SIZE = 4;
+
+    /** The lights of the scene, in order */
+    private final LightSource[] lights;
+
+    /** The indices of the lights of unbounded reach, in order */
+    private final int[] unbounded;
+
+    /** The indices of the bounded lights, ordered so that every leaf holds a range of them */
+    private final int[] order;
+
+    /** The box of each bounded light, indexed as the lights: the minimal x, y and z, then the maximal ones */
+    private final double[] lightBounds;
+
+    /** The box of each node: the minimal x, y and z, then the maximal ones */
+    private final double[] bounds;
+
+    /** The first index into {@link #order} of each leaf, or the index of the right child of an inner node */
+    private final int[] starts;
+
+    /** The number of lights in each leaf, 0 for an inner node, whose left child follows it */
+    private final int[] counts;
+
+    /** Number of nodes */
+    private int size = 0;
+
+    /** The depth of the tree */
+    private int depth = 0;
+
+    /**
+     * The buffers of a query, reused by every query of a thread so that shading a point
+     * allocates nothing.
+     */
+    private static final class Query {
+        /** The minimal x, y and z of the query box, then the maximal ones */
+        final double[] box = new double[6];
+        /** The indices of the lights found */
+        int[] found;
+        /** The nodes left to visit */
+        final int[] stack;
+        /** The lights found, returned by the query */
+        final ArrayList<LightSource> result;
+
+        /**
+         * Creates the buffers of a query.
+         *
+         * @param found the initial number of lights found
+         * @param depth the depth of the tree
+         */
+        Query(int found, int depth) {
+            this.found = new int[found];
+            stack = new int[depth + 1];
+            result = new ArrayList<>(found);
+        }
+    }
+
+    /** The query buffers of each thread */
+    private final ThreadLocal<Query> queries;
+
+    /**
+     * Builds the tree over the lights of a scene.
+     *
+     * @param lights the lights of the scene
+     */
+    public LightTree(List<LightSource> lights) {
+        this.lights = lights.toArray(new LightSource[0]);
+        List<Integer> boundedList = new ArrayList<>();
+        List<Integer> unboundedList = new ArrayList<>();
+        for (int i = 0; i < this.lights.length; ++i)
+            if (this.lights[i] instanceof PointLight light && light.getInfluenceRadius() < Double.POSITIVE_INFINITY)
+                boundedList.add(i);
+            else
+                unboundedList.add(i);
+        unbounded = unboundedList.stream().mapToInt(Integer::intValue).toArray();
+        order = boundedList.stream().mapToInt(Integer::intValue).toArray();
+
+        lightBounds = new double[6 * this.lights.length];
+        for (int i : order) ((PointLight) this.lights[i]).influenceBounds(lightBounds, 6 * i);
+        int capacity = Math.max(1, 2 * order.length);
+        bounds = new double[6 * capacity];
+        starts = new int[capacity];
+        counts = new int[capacity];
+        if (order.length > 0) build(0, order.length, 1);
+        int found = unbounded.length + Math.min(order.length, 4 * LEAF_SIZE);
+        queries = ThreadLocal.withInitial(() -> new Query(found, depth));
+    }
+
+    /**
+     * Builds the node over a range of the bounded lights, and the nodes below it.
+     *
+     * @param from  the first index of the range into {@link #order}
+     * @param to    the index after the range
+     * @param level the depth of the node
+     * @return the index of the node
+     */
+    private int build(int from, int to, int level) {
+        int node = size++;
+        depth = Math.max(depth, level);
+        int offset = 6 * node;
+        Arrays.fill(bounds, offset, offset + 3, Double.POSITIVE_INFINITY);
+        Arrays.fill(bounds, offset + 3, offset + 6, Double.NEGATIVE_INFINITY);
+        double[] low = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+        double[] high = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (int i = from; i < to; ++i) {
+            int light = 6 * order[i];
+            for (int axis = 0; axis < 3; ++axis) {
+                bounds[offset + axis] = Math.min(bounds[offset + axis], lightBounds[light + axis]);
+                bounds[offset + 3 + axis] = Math.max(bounds[offset + 3 + axis], lightBounds[light + 3 + axis]);
+                double center = lightBounds[light + axis] + lightBounds[light + 3 + axis];
+                low[axis] = Math.min(low[axis], center);
+                high[axis] = Math.max(high[axis], center);
+            }
+        }
+        if (to - from <= LEAF_SIZE) {
+            starts[node] = from;
+            counts[node] = to - from;
+            return node;
+        }
+
+        int split = 0;
+        for (int axis = 1; axis < 3; ++axis)
+            if (high[axis] - low[axis] > high[split] - low[split]) split = axis;
+        int middle = (from + to) >>> 1;
+        select(split, from, to, middle);
+        build(from, middle, level + 1);
+        starts[node] = build(middle, to, level + 1);
+        return node;
+    }
+
+    /**
+     * Reorders a range of the bounded lights so that the light at a given index is the one
+     * that would be there if the range were sorted by the centers of the boxes along an
+     * axis, with no greater center before it and no smaller one after it.
+     *
+     * @param axis the axis
+     * @param from the first index of the range into {@link #order}
+     * @param to   the index after the range
+     * @param nth  the index to place
+     */
+    private void select(int axis, int from, int to, int nth) {
+        int low = from, high = to - 1;
+        while (low < high) {
+            double pivot = center(order[(low + high) >>> 1], axis);
+            int i = low, j = high;
+            while (i <= j) {
+                while (center(order[i], axis) < pivot) ++i;
+                while (center(order[j], axis) > pivot) --j;
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if (nth <= j) high = j;
+            else if (nth >= i) low = i;
+            else return;
+        }
+    }
+
+    /**
+     * Returns twice the center of the box of a light along an axis.
+     *
+     * @param light the index of the light
+     * @param axis  the axis
+     * @return the sum of the minimal and maximal coordinates
+     */
+    private double center(int light, int axis) {
+        return lightBounds[6 * light + axis] + lightBounds[6 * light + 3 + axis];
+    }
+
+    /**
+     * Finds the lights that may reach a point: the lights of unbounded reach, and the
+     * bounded lights whose box holds the point. Every light left out cannot reach it, but
+     * the lights found may still not, so they are to be checked with
+     * {@link LightSource#canIlluminate(Point)}.
+     * <p>
+     * The list returned is reused by the next query of the same thread, so it is to be
+     * read before that query, and copied to be kept.
+     *
+     * @param point the point
+     * @return the lights, in their order in the scene
+     */
+    public List<LightSource> findLights(Point point) {
+        return findLights(point, point);
+    }
+
+    /**
+     * Finds the lights that may reach any point of an axis-aligned box: the lights of
+     * unbounded reach, and the bounded lights whose box overlaps it.
+     * <p>
+     * The list returned is reused by the next query of the same thread, so it is to be
+     * read before that query, and copied to be kept.
+     *
+     * @param min the corner of the box with the minimal coordinates
+     * @param max the corner of the box with the maximal coordinates
+     * @return the lights, in their order in the scene
+     */
+    public List<LightSource> findLights(Point min, Point max) {
+        Query query = queries.get();
+        double[] box = query.box;
+        box[0] = min.getX();
+        box[1] = min.getY();
+        box[2] = min.getZ();
+        box[3] = max.getX();
+        box[4] = max.getY();
+        box[5] = max.getZ();
+        int[] found = query.found;
+        System.arraycopy(unbounded, 0, found, 0, unbounded.length);
+        int count = unbounded.length;
+
+        int[] stack = query.stack;
+        int top = 0;
+        if (size > 0) stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!overlaps(bounds, 6 * node, box)) continue;
+            if (counts[node] == 0) {
+                stack[top++] = starts[node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            if (count + counts[node] > found.length)
+                query.found = found = Arrays.copyOf(found, Math.max(2 * found.length, count + counts[node]));
+            for (int i = starts[node]; i < starts[node] + counts[node]; ++i)
+                if (overlaps(lightBounds, 6 * order[i], box)) found[count++] = order[i];
+        }
+
+        Arrays.sort(found, 0, count);
+        ArrayList<LightSource> result = query.result;
+        result.clear();
+        for (int i = 0; i < count; ++i) result.add(lights[found[i]]);
+        return result;
+    }
+
+    /**
+     * Checks whether a stored box overlaps a query box, touching included.
+     *
+     * @param boxes  the array holding the stored box
+     * @param offset the index of the minimal x of the stored box
+     * @param query  the minimal x, y and z of the query box, then the maximal ones
+     * @return true if the boxes overlap
+     */
+    private static boolean overlaps(double[] boxes, int offset, double[] query) {
+        for (int axis = 0; axis < 3; ++axis)
+            if (query[3 + axis] < boxes[offset + axis] || query[axis] > boxes[offset + 3 + axis]) return false;
+        return true;
+    }
+
+    /**
+     * Returns the number of lights of unbounded reach, returned by every query.
+     *
+     * @return the number of unbounded lights
+     */
+    public int getUnboundedCount() {
+        return unbounded.length;
+    }
+}
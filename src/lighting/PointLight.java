@@ -22,6 +22,12 @@ public class PointLight extends Light implements LightSource {
     /** Quadratic attenuation factor (default 0) */
     private double kQ = 0.0;
 
+    /** The intensity below which the light is culled (default 0 - never culled) */
+    private double influenceThreshold = 0.0;
+
+    /** The distance beyond which the intensity of the light is below the threshold */
+    private double influenceRadius = Double.POSITIVE_INFINITY;
+
     /**
      * Constructs a point light source with a given intensity and position.
      *
@@ -41,6 +47,7 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setkC(double kc) {
         this.kC = kc;
+        updateInfluenceRadius();
         return this;
     }
 
@@ -52,6 +59,7 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setKl(double kl) {
         this.kL = kl;
+        updateInfluenceRadius();
         return this;
     }
 
@@ -63,9 +71,86 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setKq(double kq) {
         this.kQ = kq;
+        updateInfluenceRadius();
+        return this;
+    }
+
+    /**
+     * Sets the intensity threshold of the light: beyond the distance where the strongest
+     * color component of the attenuated intensity falls below it, the light is culled
+     * before any shadow ray is cast. The threshold is in the units of the colors, so a
+     * fraction of a color level keeps the image unchanged.
+     *
+     * @param threshold the intensity threshold, 0 to never cull the light
+     * @return the current {@code PointLight} instance (for method chaining)
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public PointLight setInfluenceThreshold(double threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("The influence threshold must not be negative");
+        this.influenceThreshold = threshold;
+        updateInfluenceRadius();
         return this;
     }
 
+    /**
+     * Returns the intensity threshold of the light.
+     *
+     * @return the threshold, 0 if the light is never culled
+     */
+    public double getInfluenceThreshold() {
+        return influenceThreshold;
+    }
+
+    /**
+     * Returns the distance beyond which the intensity of the light is below its threshold.
+     *
+     * @return the influence radius, infinite if the light is never culled by distance
+     */
+    public double getInfluenceRadius() {
+        return influenceRadius;
+    }
+
+    /**
+     * Returns the strongest color component of the unattenuated intensity.
+     *
+     * @return the largest of the red, green and blue intensities
+     */
+    protected double getMaxIntensity() {
+        Double3 rgb = intensity.getRgb();
+        return Math.max(rgb.d1(), Math.max(rgb.d2(), rgb.d3()));
+    }
+
+    /**
+     * Recomputes the influence radius after a change of the attenuation or the threshold,
+     * solving {@code kC + kL*d + kQ*d² = I / threshold} for the distance {@code d}, where
+     * {@code I} is the strongest color component.
+     */
+    private void updateInfluenceRadius() {
+        if (influenceThreshold == 0) {
+            influenceRadius = Double.POSITIVE_INFINITY;
+            return;
+        }
+        double excess = getMaxIntensity() / influenceThreshold - kC;
+        if (excess <= 0)
+            influenceRadius = 0;
+        else if (kQ != 0)
+            influenceRadius = (Math.sqrt(kL * kL + 4 * kQ * excess) - kL) / (2 * kQ);
+        else if (kL != 0)
+            influenceRadius = excess / kL;
+        else
+            influenceRadius = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the constant attenuation factor.
+     *
+     * @return kC
+     */
+    protected double getKc() {
+        return kC;
+    }
+
     /**
      * Calculates and returns the attenuated light intensity at a given point in the scene.
      * <p>
@@ -79,10 +164,57 @@ public class PointLight extends Light implements LightSource {
      */
     @Override
     public Color getIntensity(Point p) {
-        double d = position.distanceSquared(p);
-        double sqrted = Math.sqrt(d);
-        double factor = 1.0 / (kC + kL * sqrted + kQ * sqrted * sqrted);
-        return intensity.scale(factor);
+        double distanceSquared = position.distanceSquared(p);
+        return attenuate(Math.sqrt(distanceSquared), distanceSquared);
+    }
+
+    /**
+     * Attenuates the intensity of the light by a distance.
+     *
+     * @param distance        the distance from the light
+     * @param distanceSquared the square of the distance
+     * @return the intensity at the distance
+     */
+    private Color attenuate(double distance, double distanceSquared) {
+        return intensity.scale(1.0 / (kC + kL * distance + kQ * distanceSquared));
+    }
+
+    /**
+     * Samples the light at a point from one distance computation: the direction is the
+     * offset from the light divided by the distance, and the attenuation reuses both the
+     * distance and its square. Points beyond the influence radius, at the light, or in a
+     * direction the light does not shine to are not sampled.
+     *
+     * @param point the point in the scene
+     * @return the sample, or null if the light cannot contribute to the point
+     */
+    @Override
+    public LightSample sample(Point point) {
+        double distanceSquared = position.distanceSquared(point);
+        if (distanceSquared > influenceRadius * influenceRadius) return null;
+        double distance = Math.sqrt(distanceSquared);
+        Vector l;
+        try {
+            l = point.subtract(position).scale(1 / distance);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        double spread = spread(l);
+        if (spread <= 0) return null;
+        Color attenuated = attenuate(distance, distanceSquared);
+        // a point light shines evenly, and its intensity is not scaled again
+        return new LightSample(l, distance, spread == 1 ? attenuated : attenuated.scale(spread));
+    }
+
+    /**
+     * Returns the factor of the intensity of the light in a direction. A point light shines
+     * evenly in all directions.
+     *
+     * @param l the normalized direction from the light
+     * @return the factor, 0 or less if the light does not contribute in the direction
+     */
+    protected double spread(Vector l) {
+        return 1;
     }
 
     /**
@@ -111,4 +243,31 @@ public class PointLight extends Light implements LightSource {
     public double getDistance(Point point) {
         return position.distance(point);
     }
+
+    /**
+     * Writes the axis-aligned box around the points the light may reach, for the
+     * {@link LightTree} to cluster it by: the box around its influence sphere.
+     *
+     * @param bounds the array to write the minimal x, y and z, then the maximal ones, into
+     * @param offset the index of the minimal x in the array
+     */
+    void influenceBounds(double[] bounds, int offset) {
+        double[] center = { position.getX(), position.getY(), position.getZ() };
+        for (int axis = 0; axis < 3; ++axis) {
+            bounds[offset + axis] = center[axis] - influenceRadius;
+            bounds[offset + 3 + axis] = center[axis] + influenceRadius;
+        }
+    }
+
+    /**
+     * Checks whether a point is within the influence radius of the light.
+     *
+     * @param point the point in the scene
+     * @return false if the point is beyond the influence radius
+     */
+    @Override
+    public boolean canIlluminate(Point point) {
+        return influenceRadius == Double.POSITIVE_INFINITY
+                || position.distanceSquared(point) <= influenceRadius * influenceRadius;
+    }
 }
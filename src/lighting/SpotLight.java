@@ -63,6 +63,97 @@ public class SpotLight extends PointLight {
         return this;
     }
 
+    /**
+     * Sets the intensity threshold of the light, which bounds both its distance and its cone.
+     *
+     * @param threshold the intensity threshold, 0 to never cull the light
+     * @return this {@code SpotLight} instance (for method chaining)
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    @Override
+    public SpotLight setInfluenceThreshold(double threshold) {
+        super.setInfluenceThreshold(threshold);
+        return this;
+    }
+
+    /**
+     * Returns the cosine of the half-angle of the cone outside which the intensity of the
+     * light is below its threshold at any distance: the intensity at a point is at most
+     * {@code I * cos / kC}, where {@code cos} is the cosine of its angle from the spotlight
+     * direction.
+     *
+     * @return the smallest cosine of a point the light may reach, 0 without a threshold
+     */
+    public double getMinCosine() {
+        double threshold = getInfluenceThreshold();
+        return threshold == 0 ? 0 : threshold * getKc() / getMaxIntensity();
+    }
+
+    /**
+     * Writes the axis-aligned box around the points the light may reach: the box around
+     * the sector of its influence sphere within its cone. Along every axis the sector
+     * reaches the radius if the axis is inside the cone, and otherwise as far as the edge
+     * of the cone nearest the axis, but never less than the apex.
+     *
+     * @param bounds the array to write the minimal x, y and z, then the maximal ones, into
+     * @param offset the index of the minimal x in the array
+     */
+    @Override
+    void influenceBounds(double[] bounds, int offset) {
+        double radius = getInfluenceRadius();
+        double halfAngle = Math.acos(Math.min(1.0, getMinCosine()));
+        double[] apex = { position.getX(), position.getY(), position.getZ() };
+        double[] axes = { direction.getX(), direction.getY(), direction.getZ() };
+        for (int axis = 0; axis < 3; ++axis) {
+            double angle = Math.acos(Math.max(-1.0, Math.min(1.0, axes[axis])));
+            bounds[offset + axis] = apex[axis] - reach(radius, Math.PI - angle, halfAngle);
+            bounds[offset + 3 + axis] = apex[axis] + reach(radius, angle, halfAngle);
+        }
+    }
+
+    /**
+     * Computes how far a sector of a sphere, centered at its apex, reaches along a direction.
+     *
+     * @param radius    the radius of the sphere
+     * @param angle     the angle between the direction and the axis of the sector
+     * @param halfAngle the half-angle of the sector, at most 90 degrees
+     * @return the largest projection of a point of the sector on the direction, at least 0
+     */
+    private static double reach(double radius, double angle, double halfAngle) {
+        double outside = angle - halfAngle;
+        if (outside <= 0) return radius;
+        return outside >= Math.PI / 2 ? 0 : radius * Math.cos(outside);
+    }
+
+    /**
+     * Checks whether a point is within both the influence radius and the cone of the light.
+     * Points behind the light are never reached.
+     *
+     * @param point the point in the scene
+     * @return false if the point is beyond the influence radius or outside the cone
+     */
+    @Override
+    public boolean canIlluminate(Point point) {
+        if (!super.canIlluminate(point)) return false;
+        Vector l = getL(point);
+        if (l == null) return true;
+        double cosine = alignZero(direction.dotProduct(l));
+        return cosine > 0 && cosine >= getMinCosine();
+    }
+
+    /**
+     * Returns the cosine of the angle of a direction from the spotlight direction, if the
+     * direction is inside the cone bound of the light.
+     *
+     * @param l the normalized direction from the light
+     * @return the cosine, or 0 outside the cone bound
+     */
+    @Override
+    protected double spread(Vector l) {
+        double cosine = alignZero(direction.dotProduct(l));
+        return cosine > 0 && cosine >= getMinCosine() ? cosine : 0;
+    }
+
     /**
      * Computes the light intensity at a given point in the scene.
      * <p>
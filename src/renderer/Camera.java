@@ -7,6 +7,7 @@ import scene.Scene;
 
 import java.util.LinkedList;
 import java.util.MissingResourceException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 /**
@@ -57,6 +58,12 @@ public class Camera implements Cloneable {
     private int nX = 1;
     private int nY = 1;
 
+    /**
+     * Width and height in pixels of a tile - the block of pixels handed out to a wavefront
+     * ray tracer, rasterized together into the visibility buffer and given one list of lights
+     */
+    public static final int TILE_SIZE = 16;
+
     /**
      * Image writer for rendering pixels
      */
@@ -72,6 +79,69 @@ public class Camera implements Cloneable {
     double printInterval = 0; // printing progress percentage interval (0 – no printing)
     private PixelManager pixelManager; // pixel manager object
 
+    /**
+     * Whether primary hits are rasterized into a visibility buffer rather than traced
+     */
+    private boolean useVisibilityBuffer = false;
+
+    /**
+     * The visibility buffer of the image being rendered, null if primary rays are traced
+     */
+    private VisibilityBuffer visibilityBuffer = null;
+
+    /**
+     * The triangles of the scene, gathered once when the camera is built, null if primary
+     * hits are not rasterized
+     */
+    private TriangleSet triangles = null;
+
+    /**
+     * Whether the primary hits of the first render are kept for the following ones
+     */
+    private boolean useGBuffer = false;
+
+    /**
+     * The primary hits kept from the first render, null if none are kept
+     */
+    private GBuffer gBuffer = null;
+
+    /**
+     * Whether the geometries hit through each pixel are recorded
+     */
+    private boolean trackDependencies = false;
+
+    /**
+     * The geometries hit through each pixel in the last render, null if not recorded
+     */
+    private PixelDependencies dependencies = null;
+
+    /**
+     * Whether a grid ray tracer shades once per primitive seen through a pixel
+     */
+    private boolean decoupledShading = false;
+
+    /**
+     * Whether the pixels on the edges of objects are supersampled after a first pass
+     */
+    private boolean edgeAntiAliasing = false;
+
+    /**
+     * The objects and normals seen through the pixels in the first pass, null if the
+     * edges are not anti-aliased
+     */
+    private EdgeBuffer edgeBuffer = null;
+
+    /**
+     * Whether primary hits are shaded with the lights of their tile only
+     */
+    private boolean useTileLights = false;
+
+    /**
+     * The lights of each tile of the image being rendered, null if primary hits are shaded
+     * with the lights the scene finds for them
+     */
+    private TileLights tileLights = null;
+
     /**
      * Renders the image by casting rays through each pixel.
      *
@@ -79,11 +149,104 @@ public class Camera implements Cloneable {
      */
     public Camera renderImage() {
         pixelManager = new PixelManager(nY, nX, printInterval);
-        return switch (threadsCount) {
+        if (rayTracer instanceof WavefrontRayTracer wavefront) return renderImageWavefront(wavefront);
+        boolean primaryHits = rayTracer instanceof SimpleRayTracer && !(rayTracer instanceof GridRayTracer);
+        boolean tiled = useTileLights && primaryHits;
+        if ((useGBuffer || tiled) && primaryHits && gBuffer == null) gBuffer = new GBuffer(nX, nY);
+        visibilityBuffer = useVisibilityBuffer && primaryHits && (gBuffer == null || !gBuffer.isComplete())
+                ? new VisibilityBuffer(this, nX, nY, triangles) : null;
+        dependencies = trackDependencies && primaryHits ? new PixelDependencies(nX, nY) : null;
+        if (primaryHits) ((SimpleRayTracer) rayTracer).setDependencies(dependencies);
+        edgeBuffer = edgeAntiAliasing && primaryHits ? new EdgeBuffer(nX, nY) : null;
+        if (tiled) {
+            if (!gBuffer.isComplete()) storePrimaryHits();
+            tileLights = new TileLights(gBuffer, nX, nY, rayTracer.scene);
+        }
+        switch (threadsCount) {
             case 0 -> renderImageNoThreads();
             case -1 -> renderImageStream();
             default -> renderImageRawThreads();
-        };
+        }
+        tileLights = null;
+        if (tiled && !useGBuffer) gBuffer = null;
+        if (edgeBuffer != null) antiAliasEdges();
+        return this;
+    }
+
+    /**
+     * Stores the primary hits of all the pixels in the G-buffer without shading them, from
+     * the visibility buffer if there is one, so the pixels are then shaded from the G-buffer.
+     */
+    private void storePrimaryHits() {
+        SimpleRayTracer tracer = (SimpleRayTracer) rayTracer;
+        IntStream rows = IntStream.range(0, nY);
+        if (threadsCount != 0) rows = rows.parallel();
+        rows.forEach(row -> {
+            for (int column = 0; column < nX; ++column) {
+                Ray ray = constructRay(nX, nY, column, row);
+                Intersectable.Intersection intersection = visibilityBuffer == null
+                        ? tracer.findClosestIntersection(ray)
+                        : visibilityBuffer.findClosestIntersection(column, row, ray);
+                if (intersection != null) tracer.preprocessoIntersection(intersection, ray.getDirection());
+                gBuffer.store(column, row, intersection);
+            }
+        });
+        visibilityBuffer = null;
+    }
+
+    /**
+     * Renders again the pixels on the edges of objects found by the first pass, each with
+     * the grid of sample rays of a {@link GridRayTracer}.
+     */
+    private void antiAliasEdges() {
+        int[] pixels = edgeBuffer.findEdgePixels();
+        edgeBuffer = null;
+        GridRayTracer grid = new GridRayTracer(rayTracer.scene, vpHeight / nX, vRight, vUp)
+                .setDecoupledShading(decoupledShading);
+        pixelManager = new PixelManager(1, pixels.length, printInterval);
+        IntStream stream = IntStream.of(pixels);
+        if (threadsCount != 0) stream = stream.parallel();
+        stream.forEach(pixel -> {
+            int column = pixel % nX, row = pixel / nX;
+            imageWriter.writePixel(column, row, grid.traceRayGrid(location, this, nX, nY, column, row));
+            pixelManager.pixelDone();
+        });
+    }
+
+    /**
+     * Renders again only the pixels whose rays hit any of the given geometries in the
+     * previous renders, after the geometries were edited. The edit of a material or an
+     * emission changes exactly these pixels. A geometry that moves may also come into sight
+     * of other pixels - directly, in reflections or as a new shadow - which calls for
+     * {@link #renderImage()} instead.
+     *
+     * @param edited the edited geometries
+     * @return this camera instance
+     * @throws IllegalStateException if no render of the camera recorded the dependencies
+     *                               of its pixels
+     */
+    public Camera renderEdits(Geometry... edited) {
+        if (dependencies == null)
+            throw new IllegalStateException("The dependencies of the pixels were not recorded");
+        int[] pixels = dependencies.findDependentPixels(edited);
+        pixelManager = new PixelManager(1, pixels.length, printInterval);
+        visibilityBuffer = null;
+        ((SimpleRayTracer) rayTracer).setDependencies(dependencies);
+        IntStream stream = IntStream.of(pixels);
+        if (threadsCount != 0) stream = stream.parallel();
+        stream.forEach(pixel -> castRay(nX, nY, pixel % nX, pixel / nX));
+        return this;
+    }
+
+    /**
+     * Drops the primary hits kept by the G-buffer, so the next render traces the camera
+     * rays again and keeps their new hits - after the geometries of the scene change.
+     *
+     * @return this camera instance
+     */
+    public Camera clearGBuffer() {
+        gBuffer = null;
+        return this;
     }
 
     /**
@@ -132,6 +295,45 @@ public class Camera implements Cloneable {
         return this;
     }
 
+    /**
+     * Renders the image tile by tile with a wavefront ray tracer, handing the tiles out to
+     * the threads.
+     *
+     * @param tracer the wavefront ray tracer
+     * @return the camera object itself
+     */
+    private Camera renderImageWavefront(WavefrontRayTracer tracer) {
+        final int tileSize = TILE_SIZE;
+        int tilesX = (nX + tileSize - 1) / tileSize;
+        int tiles = tilesX * ((nY + tileSize - 1) / tileSize);
+        AtomicInteger nextTile = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int tile = nextTile.getAndIncrement(); tile < tiles; tile = nextTile.getAndIncrement()) {
+                int column = tile % tilesX * tileSize, row = tile / tilesX * tileSize;
+                int width = Math.min(tileSize, nX - column), height = Math.min(tileSize, nY - row);
+                Color[] colors = tracer.traceTile(this, nX, nY, column, row, width, height);
+                for (int i = 0; i < height; ++i)
+                    for (int j = 0; j < width; ++j) {
+                        imageWriter.writePixel(column + j, row + i, colors[i * width + j]);
+                        pixelManager.pixelDone();
+                    }
+            }
+        };
+
+        int threads = threadsCount == -1 ? Runtime.getRuntime().availableProcessors() : threadsCount;
+        if (threads <= 0) {
+            worker.run();
+            return this;
+        }
+        var workers = new LinkedList<Thread>();
+        for (int i = 0; i < threads; ++i) workers.add(new Thread(worker));
+        for (var thread : workers) thread.start();
+        try {
+            for (var thread : workers) thread.join();
+        } catch (InterruptedException ignore) {}
+        return this;
+    }
+
     /**
      * Returns a new builder to construct a camera instance.
      *
@@ -271,6 +473,39 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Enables the uniform grid optimization.
+         *
+         * @return this builder instance
+         */
+        public Builder enableGrid() {
+            Intersectable.enableBVH = true;
+            Geometries.setBoundingVolumeBuilder(new GridBoundingBoxBuilder());
+            return this;
+        }
+
+        /**
+         * Enables the kd-tree optimization.
+         *
+         * @return this builder instance
+         */
+        public Builder enableKdTree() {
+            Intersectable.enableBVH = true;
+            Geometries.setBoundingVolumeBuilder(new KdTreeBoundingBoxBuilder());
+            return this;
+        }
+
+        /**
+         * Enables the optimization chosen for every collection of geometries by its contents.
+         *
+         * @return this builder instance
+         */
+        public Builder enableAuto() {
+            Intersectable.enableBVH = true;
+            Geometries.setBoundingVolumeBuilder(new AutoBoundingBoxBuilder());
+            return this;
+        }
+
         /**
          * Sets the location of the camera.
          *
@@ -315,6 +550,89 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Enables or disables the visibility buffer: the primary hits of the image are found
+         * by rasterizing the triangles of the scene before rendering, and only the shadow and
+         * secondary rays are traced. Used by the simple and iterative ray tracers. The
+         * triangles are gathered, and the other geometries bounded apart, once in {@link #build()}.
+         *
+         * @param useVisibilityBuffer whether to rasterize the primary hits
+         * @return this builder instance
+         */
+        public Builder setVisibilityBuffer(boolean useVisibilityBuffer) {
+            camera.useVisibilityBuffer = useVisibilityBuffer;
+            return this;
+        }
+
+        /**
+         * Enables or disables the G-buffer: the first render of the camera keeps the primary
+         * hits of all the pixels, and the following renders only shade them again - for
+         * changes of the lights or the materials only. Used by the simple and iterative ray
+         * tracers.
+         *
+         * @param useGBuffer whether to keep the primary hits between renders
+         * @return this builder instance
+         */
+        public Builder setGBuffer(boolean useGBuffer) {
+            camera.useGBuffer = useGBuffer;
+            return this;
+        }
+
+        /**
+         * Enables or disables recording the geometries hit through each pixel, so that after
+         * an edit of some geometries {@link Camera#renderEdits(Geometry...)} renders only
+         * the pixels that depend on them. Used by the simple and iterative ray tracers.
+         *
+         * @param trackDependencies whether to record the dependencies of the pixels
+         * @return this builder instance
+         */
+        public Builder setDependencyTracking(boolean trackDependencies) {
+            camera.trackDependencies = trackDependencies;
+            return this;
+        }
+
+        /**
+         * Enables or disables decoupled shading for grid anti-aliasing: the samples of a
+         * pixel are traced for visibility only, and every primitive they hit is shaded once,
+         * weighted by the samples that hit it. Used by the grid ray tracer.
+         *
+         * @param decoupledShading whether to shade once per primitive of a pixel
+         * @return this builder instance
+         */
+        public Builder setDecoupledShading(boolean decoupledShading) {
+            camera.decoupledShading = decoupledShading;
+            if (camera.rayTracer instanceof GridRayTracer grid) grid.setDecoupledShading(decoupledShading);
+            return this;
+        }
+
+        /**
+         * Enables or disables edge anti-aliasing: a first pass traces one ray per pixel and
+         * finds the pixels on the edges of objects, and only those are supersampled with
+         * the grid of the grid ray tracer. Used by the simple and iterative ray tracers.
+         *
+         * @param edgeAntiAliasing whether to anti-alias the edges of objects
+         * @return this builder instance
+         */
+        public Builder setEdgeAntiAliasing(boolean edgeAntiAliasing) {
+            camera.edgeAntiAliasing = edgeAntiAliasing;
+            return this;
+        }
+
+        /**
+         * Enables or disables tile light lists: a first pass keeps the primary hits of all
+         * the pixels in a G-buffer, the lights that may reach the hits of each tile of
+         * pixels are listed, and the primary hits are shaded with the lights of their tile
+         * only. Pays off on scenes of many lights of bounded reach. Used by the simple and
+         * iterative ray tracers.
+         *
+         * @param tileLightLists whether to shade primary hits with the lights of their tile
+         * @return this builder instance
+         */
+        public Builder setTileLightLists(boolean tileLightLists) {
+            camera.useTileLights = tileLightLists;
+            return this;
+        }
+
         /**
          * Selects the ray tracer strategy based on the provided type and initializes it using the given scene.
          *
@@ -327,7 +645,10 @@ public class Camera implements Cloneable {
             if (scene == null) scene = new Scene("fake");
             camera.rayTracer = switch (type) {
                 case SIMPLE -> new SimpleRayTracer(scene);
-                case GRID -> new GridRayTracer(scene, camera.vpHeight / camera.nX, camera.vRight, camera.vUp);
+                case GRID -> new GridRayTracer(scene, camera.vpHeight / camera.nX, camera.vRight, camera.vUp)
+                        .setDecoupledShading(camera.decoupledShading);
+                case ITERATIVE -> new IterativeRayTracer(scene);
+                case WAVEFRONT -> new WavefrontRayTracer(scene);
                 default -> throw new IllegalArgumentException("Unexpected tracer type: " + type);
             };
             return this;
@@ -453,6 +774,11 @@ public class Camera implements Cloneable {
             if (camera.rayTracer == null) {
                 throw new MissingResourceException(MISSING_DATA_MSG, Camera.class.getName(), "rayTracer"); }
             if (camera.imageWriter == null) throw new MissingResourceException(MISSING_DATA_MSG, Camera.class.getName(), "imageWriter");
+            // build everything the rays need now, rather than lazily by the rendering threads
+            if (camera.rayTracer.scene != null) {
+                camera.rayTracer.scene.commit();
+                if (camera.useVisibilityBuffer) camera.triangles = new TriangleSet(camera.rayTracer.scene.geometries);
+            }
             try {
                 return (Camera) camera.clone();
             } catch (CloneNotSupportedException e) {
@@ -501,8 +827,22 @@ public class Camera implements Cloneable {
             color = gridTracer.traceRayGrid(location, this, nX, nY, column, row);
         }
         else if (rayTracer instanceof SimpleRayTracer simpleTracer) {
-            Ray ray = constructRay(Nx, Ny, column, row);
-            color = simpleTracer.traceRay(ray);
+            if (dependencies != null) dependencies.begin();
+            if (gBuffer != null && gBuffer.isComplete()) {
+                Intersectable.Intersection intersection = gBuffer.load(column, row);
+                if (dependencies != null && intersection != null) dependencies.touch(intersection.geometry);
+                color = simpleTracer.shade(intersection, tileLights == null ? null : tileLights.getLights(column, row));
+                if (edgeBuffer != null) edgeBuffer.store(column, row, intersection);
+            } else {
+                Ray ray = constructRay(Nx, Ny, column, row);
+                Intersectable.Intersection intersection = visibilityBuffer == null ? simpleTracer.findClosestIntersection(ray)
+                        : visibilityBuffer.findClosestIntersection(column, row, ray);
+                if (dependencies != null && intersection != null) dependencies.touch(intersection.geometry);
+                color = simpleTracer.traceRay(ray, intersection);
+                if (gBuffer != null) gBuffer.store(column, row, intersection);
+                if (edgeBuffer != null) edgeBuffer.store(column, row, intersection);
+            }
+            if (dependencies != null) dependencies.end(column, row);
         }
         else {
             Ray ray = constructRay(Nx, Ny, column, row);
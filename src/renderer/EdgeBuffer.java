@@ -0,0 +1,125 @@
+package renderer;
+
+import geometries.Intersectable;
+import geometries.Intersectable.Intersection;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * {@code EdgeBuffer} keeps the object and the normal seen through the center of every
+ * pixel, to find the pixels on the edges of objects - the only pixels that need
+ * anti-aliasing.
+ * <p>
+ * A pixel is on an edge if a neighbouring pixel, side or corner, sees another object, or
+ * the same object at a normal too far from its own - a crease, or a curved surface seen at
+ * a grazing angle. Objects are told apart by the geometry hit, or by the instance through
+ * which it is hit. Inside an object, a shading discontinuity that changes neither - a
+ * shadow edge, a highlight - is not an edge.
+ */
+public class EdgeBuffer {
+
+    /** The object index of a pixel whose camera ray hits nothing */
+    private static final int MISS = -1;
+
+    /** Smallest cosine between the normals of two neighbouring pixels on a smooth surface */
+    private static final double MIN_NORMAL_COSINE = 0.9;
+
+    /** Number of pixels in the X (width) direction */
+    private final int nX;
+
+    /** Number of pixels in the Y (height) direction */
+    private final int nY;
+
+    /** The index of the object seen through each pixel, {@link #MISS} for none, row after row */
+    private final int[] objects;
+
+    /** The normal seen through each pixel, x, y and z after each other */
+    private final float[] normals;
+
+    /** The index of each object seen */
+    private final Map<Intersectable, Integer> indices = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty buffer for an image.
+     *
+     * @param nX number of pixels in the X (width) direction
+     * @param nY number of pixels in the Y (height) direction
+     */
+    public EdgeBuffer(int nX, int nY) {
+        this.nX = nX;
+        this.nY = nY;
+        objects = new int[nX * nY];
+        normals = new float[3 * nX * nY];
+    }
+
+    /**
+     * Stores the closest hit of the camera ray of a pixel.
+     *
+     * @param column       the column of the pixel
+     * @param row          the row of the pixel
+     * @param intersection the closest intersection, with its normal set, or null if the
+     *                     ray hits nothing
+     */
+    public void store(int column, int row, Intersection intersection) {
+        int pixel = row * nX + column;
+        if (intersection == null) {
+            objects[pixel] = MISS;
+            return;
+        }
+        objects[pixel] = indexOf(intersection.instance != null ? intersection.instance : intersection.geometry);
+        Vector normal = intersection.normal;
+        normals[3 * pixel] = (float) normal.getX();
+        normals[3 * pixel + 1] = (float) normal.getY();
+        normals[3 * pixel + 2] = (float) normal.getZ();
+    }
+
+    /**
+     * Returns the index of an object, adding it if needed.
+     *
+     * @param object the object
+     * @return its index
+     */
+    private synchronized int indexOf(Intersectable object) {
+        return indices.computeIfAbsent(object, o -> indices.size());
+    }
+
+    /**
+     * Finds the pixels on the edges of objects.
+     *
+     * @return the indices of the pixels, row after row ({@code row * nX + column})
+     */
+    public synchronized int[] findEdgePixels() {
+        int[] pixels = new int[objects.length];
+        int count = 0;
+        for (int row = 0; row < nY; ++row)
+            for (int column = 0; column < nX; ++column)
+                if (isEdge(column, row)) pixels[count++] = row * nX + column;
+        return Arrays.copyOf(pixels, count);
+    }
+
+    /**
+     * Checks whether a pixel is on an edge: whether a neighbouring pixel sees another
+     * object, or the same one at a normal too far from its own.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @return true if the pixel is on an edge
+     */
+    private boolean isEdge(int column, int row) {
+        int pixel = row * nX + column;
+        for (int i = Math.max(0, row - 1); i <= Math.min(nY - 1, row + 1); ++i)
+            for (int j = Math.max(0, column - 1); j <= Math.min(nX - 1, column + 1); ++j) {
+                int neighbour = i * nX + j;
+                if (objects[neighbour] != objects[pixel]) return true;
+                if (objects[pixel] == MISS) continue;
+                double cosine = normals[3 * pixel] * normals[3 * neighbour]
+                        + normals[3 * pixel + 1] * normals[3 * neighbour + 1]
+                        + normals[3 * pixel + 2] * normals[3 * neighbour + 2];
+                if (cosine < MIN_NORMAL_COSINE) return true;
+            }
+        return false;
+    }
+}
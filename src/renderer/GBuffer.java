@@ -0,0 +1,237 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Instance;
+import geometries.Intersectable.Intersection;
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code GBuffer} keeps the closest hit of the camera ray of every pixel of an image, so
+ * the same view can be rendered again without tracing the camera rays.
+ * <p>
+ * The first render stores, for every pixel, the geometry hit, the instance it was hit
+ * through, the distance, the point, the normal and the view direction - in flat arrays of
+ * primitives, the geometries and the instances themselves as indices into tables. Once every pixel is stored, a later render restores the hit of
+ * each pixel and only computes its shading: its lights, shadows, reflections and
+ * refractions. The material of a hit is read again from its geometry, so the lights of the
+ * scene and the coefficients of the materials may change between the renders, but not the
+ * geometries or the camera.
+ */
+public class GBuffer {
+
+    /** The geometry index of a pixel whose camera ray hits nothing */
+    private static final int MISS = -1;
+
+    /** The geometry index of a pixel not stored yet */
+    private static final int UNSET = -2;
+
+    /** The instance index of a hit on a geometry hit directly */
+    private static final int NO_INSTANCE = -1;
+
+    /** Number of pixels in the X (width) direction */
+    private final int nX;
+
+    /**
+     * The index of the geometry hit through each pixel, {@link #MISS} for none and
+     * {@link #UNSET} until the pixel is stored, row after row
+     */
+    private final int[] geometryIndices;
+
+    /** The index of the instance of the hit of each pixel, {@link #NO_INSTANCE} for none */
+    private final int[] instanceIndices;
+
+    /** The primitive hit through each pixel inside its geometry, -1 for a plain geometry */
+    private final int[] primitives;
+
+    /** The distance along the camera ray of each pixel to its hit */
+    private final double[] distances;
+
+    /** The hit point of each pixel, x, y and z after each other */
+    private final double[] points;
+
+    /** The normal at the hit of each pixel, x, y and z after each other */
+    private final double[] normals;
+
+    /** The direction of the camera ray of each pixel, x, y and z after each other */
+    private final double[] directions;
+
+    /** The geometries hit, by index */
+    private final List<Geometry> geometries = new ArrayList<>();
+
+    /** The index of each geometry hit */
+    private final Map<Geometry, Integer> indices = new IdentityHashMap<>();
+
+    /** The instances hit through, by index */
+    private final List<Instance> instances = new ArrayList<>();
+
+    /** The index of each instance hit through */
+    private final Map<Instance, Integer> instanceIndexOf = new IdentityHashMap<>();
+
+    /** Number of distinct pixels stored */
+    private final AtomicInteger stored = new AtomicInteger();
+
+    /** The hit record of each rendering thread */
+    private final ThreadLocal<Intersection> records = ThreadLocal.withInitial(Intersection::new);
+
+    /**
+     * Creates an empty buffer for an image.
+     *
+     * @param nX number of pixels in the X (width) direction
+     * @param nY number of pixels in the Y (height) direction
+     */
+    public GBuffer(int nX, int nY) {
+        this.nX = nX;
+        int size = nX * nY;
+        geometryIndices = new int[size];
+        Arrays.fill(geometryIndices, UNSET);
+        instanceIndices = new int[size];
+        primitives = new int[size];
+        distances = new double[size];
+        points = new double[3 * size];
+        normals = new double[3 * size];
+        directions = new double[3 * size];
+    }
+
+    /**
+     * Checks whether the hits of all the pixels are stored.
+     *
+     * @return true if the buffer can be rendered from
+     */
+    public boolean isComplete() {
+        return stored.get() == geometryIndices.length;
+    }
+
+    /**
+     * Stores the closest hit of the camera ray of a pixel. Storing a pixel again replaces
+     * its hit, and counts once towards {@link #isComplete()}.
+     *
+     * @param column       the column of the pixel
+     * @param row          the row of the pixel
+     * @param intersection the closest intersection, with its ray direction and normal set,
+     *                     or null if the ray hits nothing
+     */
+    public void store(int column, int row, Intersection intersection) {
+        int pixel = row * nX + column;
+        boolean first = geometryIndices[pixel] == UNSET;
+        if (intersection == null) {
+            geometryIndices[pixel] = MISS;
+        } else {
+            geometryIndices[pixel] = indexOf(intersection.geometry);
+            instanceIndices[pixel] = intersection.instance == null ? NO_INSTANCE : indexOf(intersection.instance);
+            primitives[pixel] = intersection.primitive;
+            distances[pixel] = intersection.t;
+            Point point = intersection.point;
+            Vector normal = intersection.normal, direction = intersection.rayDirection;
+            int o = 3 * pixel;
+            points[o] = point.getX();
+            points[o + 1] = point.getY();
+            points[o + 2] = point.getZ();
+            normals[o] = normal.getX();
+            normals[o + 1] = normal.getY();
+            normals[o + 2] = normal.getZ();
+            directions[o] = direction.getX();
+            directions[o + 1] = direction.getY();
+            directions[o + 2] = direction.getZ();
+        }
+        if (first) stored.incrementAndGet();
+    }
+
+    /**
+     * Returns the index of a geometry in the table, adding it if needed.
+     *
+     * @param geometry the geometry
+     * @return its index
+     */
+    private synchronized int indexOf(Geometry geometry) {
+        return indices.computeIfAbsent(geometry, g -> {
+            geometries.add(g);
+            return geometries.size() - 1;
+        });
+    }
+
+    /**
+     * Returns the index of an instance in the table, adding it if needed.
+     *
+     * @param instance the instance
+     * @return its index
+     */
+    private synchronized int indexOf(Instance instance) {
+        return instanceIndexOf.computeIfAbsent(instance, i -> {
+            instances.add(i);
+            return instances.size() - 1;
+        });
+    }
+
+    /**
+     * Returns the hit point of the camera ray of a pixel.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @return the point, or null if the ray hits nothing or the pixel is not stored
+     */
+    public Point getPoint(int column, int row) {
+        int pixel = row * nX + column;
+        if (geometryIndices[pixel] < 0) return null;
+        int o = 3 * pixel;
+        return new Point(points[o], points[o + 1], points[o + 2]);
+    }
+
+    /**
+     * Checks whether the camera ray of a pixel is stored with a hit.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @return true if the hit of the pixel is stored, false if the ray hits nothing or the
+     *         pixel is not stored
+     */
+    public boolean isHit(int column, int row) {
+        return geometryIndices[row * nX + column] >= 0;
+    }
+
+    /**
+     * Returns a coordinate of the hit point of the camera ray of a pixel, without
+     * constructing the point. The pixel must be stored with a hit.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @param axis   0 for x, 1 for y, 2 for z
+     * @return the coordinate
+     */
+    public double getCoordinate(int column, int row, int axis) {
+        return points[3 * (row * nX + column) + axis];
+    }
+
+    /**
+     * Restores the closest hit of the camera ray of a pixel, with its ray direction and
+     * normal set and its current material. The record is reused by the next call of the
+     * same thread.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @return the intersection, or null if the ray hits nothing or the pixel is not stored
+     */
+    public Intersection load(int column, int row) {
+        int pixel = row * nX + column;
+        if (geometryIndices[pixel] < 0) return null;
+        Intersection intersection = records.get().reset(distances[pixel]);
+        intersection.geometry = geometries.get(geometryIndices[pixel]);
+        intersection.primitive = primitives[pixel];
+        int instance = instanceIndices[pixel];
+        intersection.instance = instance == NO_INSTANCE ? null : instances.get(instance);
+        int o = 3 * pixel;
+        intersection.point = new Point(points[o], points[o + 1], points[o + 2]);
+        intersection.normal = new Vector(normals[o], normals[o + 1], normals[o + 2]);
+        intersection.rayDirection = new Vector(directions[o], directions[o + 1], directions[o + 2]);
+        intersection.rayDirectionDPNormal = intersection.rayDirection.dotProduct(intersection.normal);
+        intersection.material = intersection.geometry.getMaterial(intersection);
+        return intersection;
+    }
+}
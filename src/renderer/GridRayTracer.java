@@ -1,5 +1,8 @@
 package renderer;
 
+import geometries.Geometry;
+import geometries.Instance;
+import geometries.Intersectable.Intersection;
 import primitives.Point2D;
 import renderer.SimpleRayTracer;
 import scene.*;
@@ -13,12 +16,66 @@ import java.util.List;
  * <p>
  * This class extends {@link SimpleRayTracer} and overrides the ray tracing per pixel
  * by tracing multiple rays through sub-pixel sample points, arranged in a uniform grid.
+ * <p>
+ * With decoupled shading, only the visibility is supersampled: the samples of a pixel are
+ * grouped by the primitive they hit, each group is shaded once - at its sample nearest the
+ * pixel center - and weighted by the number of its samples. A pixel inside a single
+ * surface then costs one shading, with its lights, shadows and secondary rays, instead of
+ * one per sample, while its edges keep the coverage of the full grid.
  */
 public class GridRayTracer extends SimpleRayTracer {
     private final Blackboard blackboard;     // Holds a list of 2D sampling points inside a pixel
     private final Vector xAxis, yAxis;       // Orthonormal vectors defining the target plane orientation
     private final List<Point2D> points2D;
 
+    /** The squared distance of each sample point from the pixel center */
+    private final double[] centerDistances;
+
+    /** Whether the samples of a pixel that hit the same primitive are shaded once */
+    private boolean decoupledShading = false;
+
+    /** The samples of the pixel each thread traces, grouped by the primitive they hit */
+    private final ThreadLocal<SampleGroups> sampleGroups;
+
+    /**
+     * The rays of the samples of a pixel and their groups: a group holds the samples that
+     * hit the same primitive of the same geometry, or that hit nothing.
+     */
+    private static final class SampleGroups {
+        /** The ray of each sample */
+        private final Ray[] rays;
+        /** The closest-hit record of each sample, kept to shade the group it represents */
+        private final Intersection[] hits;
+        /** The geometry hit by the samples of each group, null for a miss */
+        private final Geometry[] geometries;
+        /** The primitive hit by the samples of each group */
+        private final int[] primitives;
+        /** The instance through which the samples of each group hit, or null */
+        private final Instance[] instances;
+        /** The number of samples of each group */
+        private final int[] counts;
+        /** The sample of each group nearest the pixel center */
+        private final int[] representatives;
+        /** Number of groups */
+        private int size;
+
+        /**
+         * Creates the buffers for the samples of a pixel.
+         *
+         * @param samples the number of samples
+         */
+        private SampleGroups(int samples) {
+            rays = new Ray[samples];
+            hits = new Intersection[samples];
+            for (int sample = 0; sample < samples; ++sample) hits[sample] = new Intersection();
+            geometries = new Geometry[samples];
+            primitives = new int[samples];
+            instances = new Instance[samples];
+            counts = new int[samples];
+            representatives = new int[samples];
+        }
+    }
+
     /**
      * Constructs a {@code GridRayTracer} that traces multiple rays through each pixel
      * using a regular grid of sample points.
@@ -35,6 +92,24 @@ public class GridRayTracer extends SimpleRayTracer {
         this.xAxis = xAxis;
         this.yAxis = yAxis;
         this.points2D = blackboard.getPoints();
+        this.centerDistances = new double[points2D.size()];
+        for (int i = 0; i < centerDistances.length; ++i) {
+            Point2D p2d = points2D.get(i);
+            centerDistances[i] = p2d.getX() * p2d.getX() + p2d.getY() * p2d.getY();
+        }
+        this.sampleGroups = ThreadLocal.withInitial(() -> new SampleGroups(points2D.size()));
+    }
+
+    /**
+     * Enables or disables decoupled shading: shading once per primitive hit inside a pixel,
+     * weighted by its coverage, instead of once per sample.
+     *
+     * @param decoupledShading whether to shade once per primitive
+     * @return this tracer, for chaining
+     */
+    public GridRayTracer setDecoupledShading(boolean decoupledShading) {
+        this.decoupledShading = decoupledShading;
+        return this;
     }
 
     /**
@@ -55,6 +130,8 @@ public class GridRayTracer extends SimpleRayTracer {
             return Color.BLACK;
         }
 
+        if (decoupledShading) return traceDecoupled(cameraPos, origin3D);
+
         Color colorSum = Color.BLACK;
 
         // Loop over all 2D sample points
@@ -77,4 +154,57 @@ public class GridRayTracer extends SimpleRayTracer {
         // Return the average color from all rays
         return colorSum.reduce(points2D.size());
     }
+
+    /**
+     * Traces the samples of a pixel for their visibility only, and shades each primitive
+     * they hit once, weighted by the number of samples that hit it.
+     *
+     * @param cameraPos the position of the camera
+     * @param origin3D  the center of the pixel on the view plane
+     * @return the coverage-weighted average color of the primitives seen through the pixel
+     */
+    private Color traceDecoupled(Point cameraPos, Point origin3D) {
+        SampleGroups groups = sampleGroups.get();
+        groups.size = 0;
+        for (int sample = 0; sample < points2D.size(); ++sample) {
+            Point2D p2d = points2D.get(sample);
+            Point point3D = origin3D;
+            if (!Util.isZero(p2d.getX())) point3D = point3D.add(xAxis.scale(p2d.getX()));
+            if (!Util.isZero(p2d.getY())) point3D = point3D.add(yAxis.scale(p2d.getY()));
+            Ray ray = new Ray(cameraPos, point3D.subtract(cameraPos).normalize());
+            groups.rays[sample] = ray;
+
+            Intersection hit = scene.geometries.findClosestIntersection(ray, groups.hits[sample]);
+            Geometry geometry = hit == null ? null : hit.geometry;
+            int primitive = hit == null ? -1 : hit.primitive;
+            Instance instance = hit == null ? null : hit.instance;
+            int group = 0;
+            while (group < groups.size && (groups.geometries[group] != geometry
+                    || groups.primitives[group] != primitive || groups.instances[group] != instance))
+                ++group;
+            if (group == groups.size) {
+                groups.geometries[group] = geometry;
+                groups.primitives[group] = primitive;
+                groups.instances[group] = instance;
+                groups.counts[group] = 0;
+                groups.representatives[group] = sample;
+                ++groups.size;
+            } else if (centerDistances[sample] < centerDistances[groups.representatives[group]]) {
+                groups.representatives[group] = sample;
+            }
+            ++groups.counts[group];
+        }
+
+        // shade each primitive from the hit of its representative, without tracing it again
+        Color colorSum = Color.BLACK;
+        for (int group = 0; group < groups.size; ++group) {
+            int representative = groups.representatives[group];
+            Color color = groups.geometries[group] == null ? scene.backround
+                    : traceRay(groups.rays[representative], groups.hits[representative]);
+            colorSum = colorSum.add(color.scale(groups.counts[group]));
+            groups.geometries[group] = null;
+            groups.instances[group] = null;
+        }
+        return colorSum.reduce(points2D.size());
+    }
 }
@@ -55,6 +55,14 @@ final class ImageWriter {
     */
    int nX() { return nX; }
 
+   /**
+    * The RGB value written to a specific pixel
+    * @param xIndex X axis index of the pixel
+    * @param yIndex Y axis index of the pixel
+    * @return the RGB value of the pixel
+    */
+   int getPixel(int xIndex, int yIndex) { return image.getRGB(xIndex, yIndex) & 0xFFFFFF; }
+
    // ***************** Operations ******************** //
 
    /**
@@ -0,0 +1,215 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import lighting.LightSource;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Ray;
+import primitives.Util;
+import scene.Scene;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@code IterativeRayTracer} computes the same colors as {@link SimpleRayTracer} without
+ * recursion.
+ * <p>
+ * Instead of calling itself for the reflected and refracted rays of every hit, the tracer
+ * pushes them on a per-thread stack together with their level and their attenuation - the
+ * product of the reflection and transparency coefficients along their path - and adds the
+ * attenuated local color of every hit to a running sum. Pending rays wait in flat arrays,
+ * no intermediate colors are combined along the way, and the depth of the Java stack does
+ * not grow with the number of bounces.
+ * <p>
+ * A secondary ray is only constructed if its attenuation - its importance to the pixel -
+ * reaches {@link #MIN_CALC_COLOR_K}. Past a configurable depth, rays are further thinned by
+ * Russian roulette: a ray survives with a probability equal to its importance and carries
+ * its attenuation divided by that probability, so the expected color is unchanged while
+ * weak rays deep in mirrored scenes are mostly not traced. The roulette is off by default,
+ * keeping the images deterministic; with a random seed set, it plays the same way on every
+ * run of a single rendering thread.
+ */
+public class IterativeRayTracer extends SimpleRayTracer {
+
+    /**
+     * The rays waiting to be traced, with their levels and attenuations.
+     * Rays are traced depth first, so there are at most two rays per level waiting.
+     */
+    private static final class RayStack {
+        /** The waiting rays */
+        private Ray[] rays = new Ray[2 * MAX_CALC_COLOR_LEVEL];
+        /** The level of each waiting ray */
+        private int[] levels = new int[2 * MAX_CALC_COLOR_LEVEL];
+        /** The attenuation of each waiting ray, red, green and blue after each other */
+        private double[] weights = new double[6 * MAX_CALC_COLOR_LEVEL];
+        /** Number of waiting rays */
+        private int size = 0;
+
+        /**
+         * Pushes a ray.
+         *
+         * @param ray   the ray
+         * @param level the level of the ray
+         * @param r     the red attenuation of the ray
+         * @param g     the green attenuation of the ray
+         * @param b     the blue attenuation of the ray
+         */
+        void push(Ray ray, int level, double r, double g, double b) {
+            if (size == rays.length) {
+                rays = Arrays.copyOf(rays, 2 * size);
+                levels = Arrays.copyOf(levels, 2 * size);
+                weights = Arrays.copyOf(weights, 6 * size);
+            }
+            rays[size] = ray;
+            levels[size] = level;
+            weights[3 * size] = r;
+            weights[3 * size + 1] = g;
+            weights[3 * size + 2] = b;
+            ++size;
+        }
+    }
+
+    /** The ray stack of each rendering thread */
+    private final ThreadLocal<RayStack> stacks = ThreadLocal.withInitial(RayStack::new);
+
+    /** Number of bounces from which secondary rays play Russian roulette, 0 for never */
+    private int russianRouletteDepth = 0;
+
+    /** The random numbers of the roulette of each rendering thread */
+    private ThreadLocal<RandomGenerator> randoms = ThreadLocal.withInitial(ThreadLocalRandom::current);
+
+    /**
+     * Constructs an {@code IterativeRayTracer} with the specified scene.
+     *
+     * @param scene the scene to be rendered
+     */
+    public IterativeRayTracer(Scene scene) {
+        super(scene);
+    }
+
+    /**
+     * Sets the number of bounces from which secondary rays play Russian roulette.
+     * The reflected and refracted rays of the first hit are at depth 1.
+     *
+     * @param depth the first depth to play at, 0 to never play
+     * @return this tracer, for chaining
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    public IterativeRayTracer setRussianRouletteDepth(int depth) {
+        if (depth < 0) throw new IllegalArgumentException("Russian roulette depth cannot be negative");
+        this.russianRouletteDepth = depth;
+        return this;
+    }
+
+    /**
+     * Seeds the random numbers of the Russian roulette, instead of unseeded numbers. Every
+     * rendering thread draws from its own generator, split from one seeded by the seed in
+     * the order the threads first play, so a single thread plays the same way every time.
+     *
+     * @param seed the seed
+     * @return this tracer, for chaining
+     */
+    public IterativeRayTracer setRandomSeed(long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        randoms = ThreadLocal.withInitial(() -> {
+            synchronized (root) {
+                return root.split();
+            }
+        });
+        return this;
+    }
+
+    @Override
+    public Color shade(Intersection intersection, List<LightSource> lights) {
+        if (intersection == null) return scene.backround;
+        if (Util.isZero(intersection.rayDirectionDPNormal)) return Color.BLACK;
+
+        double[] sum = new double[3];
+        RayStack stack = stacks.get();
+        stack.size = 0;
+        shade(intersection, MAX_CALC_COLOR_LEVEL, Double3.ONE, lights, sum, stack);
+
+        Double3 background = scene.backround.getRgb();
+        while (stack.size > 0) {
+            int top = --stack.size;
+            Ray secondary = stack.rays[top];
+            stack.rays[top] = null;
+            int level = stack.levels[top];
+            Double3 k = new Double3(stack.weights[3 * top], stack.weights[3 * top + 1], stack.weights[3 * top + 2]);
+
+            intersection = findClosestIntersection(secondary, level);
+            if (intersection == null) {
+                add(sum, background, k);
+                continue;
+            }
+            touch(intersection);
+            if (preprocessoIntersection(intersection, secondary.getDirection()))
+                shade(intersection, level, k, null, sum, stack);
+        }
+        return scene.ambientLight.getIntensity().add(new Color(sum[0], sum[1], sum[2]));
+    }
+
+    /**
+     * Adds the attenuated local color of a hit to the sum and pushes its reflected and
+     * refracted rays.
+     *
+     * @param intersection the preprocessed hit
+     * @param level        the level of the ray that hit
+     * @param k            the attenuation of the ray that hit
+     * @param lights       the lights that may reach the hit, or null to find them in the scene
+     * @param sum          the red, green and blue sums, updated in place
+     * @param stack        the stack of waiting rays
+     */
+    private void shade(Intersection intersection, int level, Double3 k, List<LightSource> lights, double[] sum,
+                       RayStack stack) {
+        add(sum, calcColorLocalEffects(intersection, lights).getRgb(), k);
+        if (level == 1) return;
+
+        // the refracted ray is pushed last to be traced first, as the recursive tracer does
+        spawn(intersection, true, level - 1, k, intersection.material.kR, stack);
+        spawn(intersection, false, level - 1, k, intersection.material.kT, stack);
+    }
+
+    /**
+     * Pushes a reflected or refracted ray if it is important enough, constructing it only then.
+     *
+     * @param intersection the preprocessed hit
+     * @param reflected    true for the reflected ray, false for the refracted ray
+     * @param level        the level of the new ray
+     * @param k            the attenuation of the ray that hit
+     * @param kx           the reflection or transparency coefficient of the hit
+     * @param stack        the stack of waiting rays
+     */
+    private void spawn(Intersection intersection, boolean reflected, int level, Double3 k, Double3 kx,
+                       RayStack stack) {
+        double r = k.d1() * kx.d1(), g = k.d2() * kx.d2(), b = k.d3() * kx.d3();
+        double importance = Math.max(r, Math.max(g, b));
+        if (importance < MIN_CALC_COLOR_K) return;
+
+        if (russianRouletteDepth > 0 && MAX_CALC_COLOR_LEVEL - level >= russianRouletteDepth && importance < 1) {
+            if (randoms.get().nextDouble() >= importance) return;
+            r /= importance;
+            g /= importance;
+            b /= importance;
+        }
+        stack.push(reflected ? constructReflectedRay(intersection) : constructRefractedRay(intersection),
+                level, r, g, b);
+    }
+
+    /**
+     * Adds an attenuated color to a sum.
+     *
+     * @param sum the red, green and blue sums, updated in place
+     * @param rgb the color components
+     * @param k   the attenuation
+     */
+    private static void add(double[] sum, Double3 rgb, Double3 k) {
+        sum[0] += rgb.d1() * k.d1();
+        sum[1] += rgb.d2() * k.d2();
+        sum[2] += rgb.d3() * k.d3();
+    }
+}
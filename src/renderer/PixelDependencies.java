@@ -0,0 +1,160 @@
+package renderer;
+
+import geometries.Geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code PixelDependencies} records, for every pixel of an image, the geometries its rays
+ * hit - its camera ray, its reflected and refracted rays, and the blockers of its shadow
+ * rays - so that after an edit of some geometries only the pixels that depend on them are
+ * rendered again.
+ * <p>
+ * Each geometry is given an index, and the indices hit through a pixel form its sorted
+ * dependency set. Neighbouring pixels mostly see the same geometries, so every distinct set
+ * is kept once and a pixel only holds the index of its set.
+ * <p>
+ * While a pixel is rendered, its thread gathers the geometries with {@link #touch(Geometry)}
+ * between {@link #begin()} and {@link #end(int, int)}.
+ */
+public class PixelDependencies {
+
+    /** The dependency set of a pixel not rendered yet */
+    private static final int NONE = -1;
+
+    /** Number of pixels in the X (width) direction */
+    private final int nX;
+
+    /** The index of the dependency set of each pixel, row after row */
+    private final int[] pixelSets;
+
+    /** The distinct dependency sets, each the sorted indices of its geometries */
+    private final List<int[]> sets = new ArrayList<>();
+
+    /** The index of each distinct dependency set */
+    private final Map<SetKey, Integer> setIndices = new HashMap<>();
+
+    /** The index of each geometry hit */
+    private final Map<Geometry, Integer> geometryIndices = new IdentityHashMap<>();
+
+    /** The geometries touched by the pixel each thread renders */
+    private final ThreadLocal<Touched> touched = ThreadLocal.withInitial(Touched::new);
+
+    /**
+     * The geometries touched by the pixel a thread renders, each once.
+     */
+    private static final class Touched {
+        /** The geometries */
+        private Geometry[] geometries = new Geometry[8];
+        /** Number of geometries */
+        private int size = 0;
+    }
+
+    /**
+     * A dependency set as a key of a map, compared by its contents.
+     *
+     * @param ids the sorted indices of the geometries of the set
+     */
+    private record SetKey(int[] ids) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof SetKey other && Arrays.equals(ids, other.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(ids);
+        }
+    }
+
+    /**
+     * Creates an empty record for an image.
+     *
+     * @param nX number of pixels in the X (width) direction
+     * @param nY number of pixels in the Y (height) direction
+     */
+    public PixelDependencies(int nX, int nY) {
+        this.nX = nX;
+        pixelSets = new int[nX * nY];
+        Arrays.fill(pixelSets, NONE);
+    }
+
+    /**
+     * Starts gathering the geometries of a pixel in the current thread.
+     */
+    public void begin() {
+        Touched current = touched.get();
+        Arrays.fill(current.geometries, 0, current.size, null);
+        current.size = 0;
+    }
+
+    /**
+     * Adds a geometry hit by a ray of the pixel of the current thread.
+     *
+     * @param geometry the geometry
+     */
+    public void touch(Geometry geometry) {
+        Touched current = touched.get();
+        for (int i = 0; i < current.size; ++i)
+            if (current.geometries[i] == geometry) return;
+        if (current.size == current.geometries.length)
+            current.geometries = Arrays.copyOf(current.geometries, 2 * current.size);
+        current.geometries[current.size++] = geometry;
+    }
+
+    /**
+     * Ends gathering the geometries of a pixel in the current thread, and keeps them as
+     * its dependency set, replacing the one it had.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     */
+    public void end(int column, int row) {
+        Touched current = touched.get();
+        int[] ids = new int[current.size];
+        synchronized (this) {
+            for (int i = 0; i < current.size; ++i)
+                ids[i] = geometryIndices.computeIfAbsent(current.geometries[i], g -> geometryIndices.size());
+            Arrays.sort(ids);
+            pixelSets[row * nX + column] = setIndices.computeIfAbsent(new SetKey(ids), key -> {
+                sets.add(key.ids());
+                return sets.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Finds the pixels whose rays hit any of the given geometries.
+     *
+     * @param edited the geometries
+     * @return the indices of the pixels, row after row ({@code row * nX + column})
+     */
+    public synchronized int[] findDependentPixels(Geometry... edited) {
+        boolean[] ids = new boolean[geometryIndices.size()];
+        for (Geometry geometry : edited) {
+            Integer id = geometryIndices.get(geometry);
+            if (id != null) ids[id] = true;
+        }
+        boolean[] dependent = new boolean[sets.size()];
+        for (int set = 0; set < dependent.length; ++set)
+            for (int id : sets.get(set))
+                if (ids[id]) {
+                    dependent[set] = true;
+                    break;
+                }
+
+        int count = 0;
+        for (int set : pixelSets)
+            if (set != NONE && dependent[set]) ++count;
+        int[] pixels = new int[count];
+        count = 0;
+        for (int pixel = 0; pixel < pixelSets.length; ++pixel)
+            if (pixelSets[pixel] != NONE && dependent[pixelSets[pixel]]) pixels[count++] = pixel;
+        return pixels;
+    }
+}
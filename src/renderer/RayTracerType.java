@@ -7,5 +7,9 @@ public enum RayTracerType {
    /** Simple (basic) ray tracer */
    SIMPLE,
    /** Ray tracer using regular grid */
-   GRID
+   GRID,
+   /** Simple ray tracer following reflected and refracted rays with a stack instead of recursion */
+   ITERATIVE,
+   /** Simple ray tracer tracing a tile of pixels at once, wave after wave of rays */
+   WAVEFRONT
 }
@@ -1,14 +1,19 @@
 package renderer;
+import geometries.Geometry;
 import primitives.Material;
 import geometries.Intersectable.Intersection;
 import lighting.AmbientLight;
+import lighting.LightSample;
 import lighting.LightSource;
 import primitives.Color;
 import primitives.Point;
 import primitives.*;
 import scene.Scene;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.lang.Math.abs;
 import static primitives.Util.alignZero;
@@ -22,12 +27,49 @@ import static primitives.Util.alignZero;
  * combined with local lighting effects such as diffuse and specular reflections.
  */
 public class SimpleRayTracer extends RayTracerBase {
-    private static final double DELTA = 0.1;
+    /** Distance secondary and shadow rays start off the surface */
+    protected static final double DELTA = 0.1;
 
-    private static final int MAX_CALC_COLOR_LEVEL = 10;
-    private static final double MIN_CALC_COLOR_K = 0.001;
+    /** Maximal number of levels of reflected and refracted rays, including the camera ray */
+    protected static final int MAX_CALC_COLOR_LEVEL = 10;
+    /** Smallest attenuation worth tracing a ray for */
+    protected static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = Double3.ONE;
 
+    /**
+     * Per-thread hit and shading records, one per recursion level. The closest-hit
+     * query and the shading code fill them in place instead of allocating new
+     * intersection lists for every ray.
+     */
+    private final ThreadLocal<Intersection[]> hitRecords = ThreadLocal.withInitial(() -> {
+        Intersection[] records = new Intersection[MAX_CALC_COLOR_LEVEL + 1];
+        for (int i = 0; i < records.length; ++i) records[i] = new Intersection();
+        return records;
+    });
+
+    /** The record of the geometries hit through each pixel, null if none is kept */
+    private PixelDependencies dependencies = null;
+
+    /** The last opaque blocker of every light found by each thread */
+    private final ThreadLocal<OccluderCache> occluderCaches = ThreadLocal.withInitial(OccluderCache::new);
+
+    /** Number of shadow rays traced */
+    private final LongAdder shadowQueries = new LongAdder();
+
+    /** Number of shadow rays blocked by the cached occluder of their light */
+    private final LongAdder occluderHits = new LongAdder();
+
+    /**
+     * The last opaque blocker of every light found by a thread, and the record its shadow
+     * rays are tested against it in.
+     */
+    private static final class OccluderCache {
+        /** The last opaque blocker of each light */
+        private final Map<LightSource, Geometry> occluders = new IdentityHashMap<>();
+        /** The hit record of the tests of the cached blockers */
+        private final Intersection hit = new Intersection();
+    }
+
 
     /**
      * Checks if a point is unshaded, meaning it is not blocked from the light source.
@@ -60,13 +102,13 @@ public class SimpleRayTracer extends RayTracerBase {
         Vector pointLight = l.scale(-1.0);
         Ray lightRay = new Ray(intersection.point, pointLight, DELTA, n);
 
-        List<Intersection> intersections = scene.geometries.calculateIntersectionsHelper(lightRay);
+        List<Intersection> intersections = scene.geometries.calculateIntersections(lightRay);
         if (intersections == null || intersections.isEmpty())
             return true;
 
         for (Intersection blocking : intersections) {
             if (blocking.point.distance(intersection.point) < lightSource.getDistance(intersection.point)) {
-                if (blocking.geometry.getMaterial().kT.lowerThan(MIN_CALC_COLOR_K)) {
+                if (blocking.geometry.getMaterial(blocking).kT.lowerThan(MIN_CALC_COLOR_K)) {
                     return false;
                 }
             }
@@ -75,20 +117,51 @@ public class SimpleRayTracer extends RayTracerBase {
         return true;
     }
 
+    /**
+     * Computes how much of the light of the light source set in an intersection reaches
+     * it through the geometries in between.
+     * <p>
+     * Neighbouring points mostly have the same opaque blocker towards a light, so the
+     * current thread keeps the last opaque blocker found for every light and tests it
+     * first; only if it no longer blocks the light are all the geometries queried.
+     * Opacity is that of the material at the hit, so a geometry of several materials, such
+     * as a {@link geometries.SphereCloud}, blocks the light only where it is opaque.
+     *
+     * @param intersection the intersection, with its light source set
+     * @return the product of the transparency coefficients of the blockers
+     */
     private Double3 transparency(Intersection intersection) {
         Double3 ktr = Double3.ONE;
 
         Vector pointLight = intersection.lightDirection.scale(-1.0);
         Ray lightRay = new Ray(intersection.point, pointLight, DELTA, intersection.normal);
+        double lightDistance = intersection.lightSample.distance();
+
+        OccluderCache cache = occluderCaches.get();
+        shadowQueries.increment();
+        Geometry occluder = cache.occluders.get(intersection.lightSource);
+        if (occluder != null) {
+            Intersection blocking = occluder.findClosestIntersection(lightRay, cache.hit);
+            if (blocking != null && blocking.point.distance(intersection.point) < lightDistance
+                    && blocking.material.kT.lowerThan(MIN_CALC_COLOR_K)) {
+                occluderHits.increment();
+                touch(blocking);
+                return Double3.ZERO;
+            }
+        }
 
-        List<Intersection> intersections = scene.geometries.calculateIntersectionsHelper(lightRay);
+        List<Intersection> intersections = scene.geometries.calculateIntersections(lightRay);
         if (intersections == null || intersections.isEmpty())
             return ktr;
 
         for (Intersection blocking : intersections) {
-            if (blocking.point.distance(intersection.point) < intersection.lightSource.getDistance(intersection.point)) {
-                ktr = ktr.product(blocking.geometry.getMaterial().kT);
-                if (blocking.geometry.getMaterial().kT.lowerThan(MIN_CALC_COLOR_K)) {
+            if (blocking.point.distance(intersection.point) < lightDistance) {
+                touch(blocking);
+                Double3 kT = blocking.geometry.getMaterial(blocking).kT;
+                ktr = ktr.product(kT);
+                if (kT.lowerThan(MIN_CALC_COLOR_K)) {
+                    // a geometry reached through an instance is placed by it, so it is not kept
+                    if (blocking.instance == null) cache.occluders.put(intersection.lightSource, blocking.geometry);
                     return Double3.ZERO;
                 }
             }
@@ -97,6 +170,44 @@ public class SimpleRayTracer extends RayTracerBase {
         return ktr;
     }
 
+    /**
+     * Returns the number of shadow rays traced since the last reset.
+     *
+     * @return the number of shadow rays
+     */
+    public long getShadowRayCount() {
+        return shadowQueries.sum();
+    }
+
+    /**
+     * Returns the number of shadow rays blocked by the cached occluder of their light since
+     * the last reset, without querying all the geometries.
+     *
+     * @return the number of cache hits
+     */
+    public long getOccluderCacheHitCount() {
+        return occluderHits.sum();
+    }
+
+    /**
+     * Returns the rate of the shadow rays blocked by the cached occluder of their light
+     * since the last reset.
+     *
+     * @return the cache hits out of the shadow rays, 0 if there were none
+     */
+    public double getOccluderCacheHitRate() {
+        long queries = shadowQueries.sum();
+        return queries == 0 ? 0 : (double) occluderHits.sum() / queries;
+    }
+
+    /**
+     * Resets the statistics of the occluder caches.
+     */
+    public void resetOccluderCacheStatistics() {
+        shadowQueries.reset();
+        occluderHits.reset();
+    }
+
 
     /**
      * Constructs a {@code SimpleRayTracer} with the specified scene.
@@ -116,27 +227,65 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     @Override
     public Color traceRay(Ray ray) {
-        Intersection intersection = findClosestIntersection(ray);
-        if (intersection == null) {
-            return this.scene.backround;
-        } else {
-            return calcColor(intersection, ray);
-        }
+        return traceRay(ray, findClosestIntersection(ray, MAX_CALC_COLOR_LEVEL));
     }
 
     /**
-     * Computes the color at the given intersection point.
+     * Computes the color of a ray whose closest intersection is already known, such as a
+     * primary ray resolved by a {@link VisibilityBuffer}. Only the shadow and secondary rays
+     * of the hit are traced.
      *
-     * @param intersection the intersection point with geometry
-     * @param ray the ray that hit the intersection
-     * @return the computed color at the intersection
+     * @param ray          the ray
+     * @param intersection the closest intersection of the ray, or null if it hits nothing
+     * @return the computed color at the intersection point,
+     *         or the background color if there is none
      */
-    private Color calcColor(Intersection intersection, Ray ray) {
-        Vector rayDirection = ray.getDirection();
-        if(preprocessoIntersection(intersection, rayDirection) == false) {
-            return Color.BLACK;
-        }
-        return scene.ambientLight.getIntensity().add(calcColor(intersection,MAX_CALC_COLOR_LEVEL, INITIAL_K));
+    public Color traceRay(Ray ray, Intersection intersection) {
+        if (intersection != null) preprocessoIntersection(intersection, ray.getDirection());
+        return shade(intersection);
+    }
+
+    /**
+     * Computes the color of a camera ray from its closest intersection, whose ray direction
+     * and normal are already set - by {@link #preprocessoIntersection(Intersection, Vector)},
+     * or restored from a {@link GBuffer}. Only the shadow and secondary rays of the hit are
+     * traced.
+     *
+     * @param intersection the preprocessed closest intersection, or null if the ray hits nothing
+     * @return the computed color at the intersection point, black if the ray is parallel
+     *         to the surface, or the background color if there is no intersection
+     */
+    public Color shade(Intersection intersection) {
+        return shade(intersection, null);
+    }
+
+    /**
+     * Computes the color of a camera ray from its preprocessed closest intersection, lighting
+     * the intersection itself with a given list of lights, such as the lights of its tile.
+     * The hits of its secondary rays find their lights in the scene.
+     *
+     * @param intersection the preprocessed closest intersection, or null if the ray hits nothing
+     * @param lights       the lights that may reach the intersection, in the order of the
+     *                     scene - every light left out must be one that cannot reach it - or
+     *                     null to find them in the scene
+     * @return the computed color at the intersection point, black if the ray is parallel
+     *         to the surface, or the background color if there is no intersection
+     */
+    public Color shade(Intersection intersection, List<LightSource> lights) {
+        if (intersection == null) return scene.backround;
+        if (Util.isZero(intersection.rayDirectionDPNormal)) return Color.BLACK;
+        return scene.ambientLight.getIntensity().add(calcColor(intersection, MAX_CALC_COLOR_LEVEL, INITIAL_K, lights));
+    }
+
+    /**
+     * Finds the closest intersection of a camera ray with the scene, filling the current
+     * thread's hit record of camera rays in place.
+     *
+     * @param ray the camera ray
+     * @return the filled hit record, or {@code null} if the ray hits nothing
+     */
+    public Intersection findClosestIntersection(Ray ray) {
+        return findClosestIntersection(ray, MAX_CALC_COLOR_LEVEL);
     }
 
     /*private Color calcColor(Intersection intersection, int level, Double3 k) {
@@ -145,11 +294,25 @@ public class SimpleRayTracer extends RayTracerBase {
 
     }*/
     private Color calcColor(Intersection intersection, int level, Double3 k) {
+        return calcColor(intersection, level, k, null);
+    }
+
+    /**
+     * Computes the color of a hit with the given lights, and of its secondary rays with the
+     * lights the scene finds for their hits.
+     *
+     * @param intersection the preprocessed hit
+     * @param level        the level of the ray that hit
+     * @param k            the attenuation of the ray that hit
+     * @param lights       the lights that may reach the hit, or null to find them in the scene
+     * @return the color of the hit
+     */
+    private Color calcColor(Intersection intersection, int level, Double3 k, List<LightSource> lights) {
         if (level == 0 || k.lowerThan(MIN_CALC_COLOR_K)) {
             return Color.BLACK;
         }
 
-        Color color = calcColorLocalEffects(intersection);
+        Color color = calcColorLocalEffects(intersection, lights);
         return level == 1 ? color : color.add(calcGlobalEffects(intersection, level, k));
     }
 
@@ -162,7 +325,7 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     public boolean preprocessoIntersection (Intersection cut, Vector rayDirection){
         cut.rayDirection = rayDirection;
-        cut.normal = cut.geometry.getNormal(cut.point);
+        cut.normal = cut.computeNormal();
         cut.rayDirectionDPNormal = cut.rayDirection.dotProduct(cut.normal);
         if (Util.isZero(cut.rayDirectionDPNormal)) {
             return false;
@@ -171,15 +334,22 @@ public class SimpleRayTracer extends RayTracerBase {
     }
 
     /**
-     * Sets the lighting vectors for a given light source.
+     * Samples a light source at an intersection and sets its lighting vectors from the
+     * sample - the only evaluation of the light for the intersection.
      *
      * @param cut the intersection to update
      * @param lightSource the light source to set
-     * @return {@code false} if light and ray are both parallel to the surface, {@code true} otherwise
+     * @return {@code false} if the light cannot contribute to the intersection, or light and
+     *         ray are both parallel to the surface, {@code true} otherwise
      */
     public boolean setLightSource(Intersection cut, LightSource lightSource) {
+        LightSample sample = lightSource.sample(cut.point);
+        if (sample == null) {
+            return false;
+        }
         cut.lightSource = lightSource;
-        cut.lightDirection = lightSource.getL(cut.point);
+        cut.lightSample = sample;
+        cut.lightDirection = sample.direction();
         cut.lightDirectionDPNormal = cut.lightDirection.dotProduct(cut.normal);
 
         if (Util.isZero(cut.lightDirectionDPNormal) && Util.isZero(cut.rayDirectionDPNormal)) {
@@ -194,24 +364,36 @@ public class SimpleRayTracer extends RayTracerBase {
      * @param intersection the intersection to compute lighting for
      * @return the resulting color contribution from lights
      */
-    private Color calcColorLocalEffects(Intersection intersection) {
-        Vector n = intersection.normal;
+    protected Color calcColorLocalEffects(Intersection intersection) {
+        return calcColorLocalEffects(intersection, null);
+    }
+
+    /**
+     * Calculates the local lighting (diffuse + specular) at the intersection point, with the
+     * given lights.
+     *
+     * @param intersection the intersection to compute lighting for
+     * @param lights       the lights that may reach the intersection, in the order of the
+     *                     scene, or null to find them in the scene
+     * @return the resulting color contribution from lights
+     */
+    protected Color calcColorLocalEffects(Intersection intersection, List<LightSource> lights) {
         double nv = intersection.rayDirectionDPNormal;
         Color color = intersection.geometry.getEmission();
 
         if (Util.isZero(nv)) {
             return color;
         }
-        for (LightSource lightSource: scene.lights){
+        if (lights == null) lights = scene.findLights(intersection.point);
+        for (LightSource lightSource: lights){
             if(setLightSource(intersection, lightSource) == false){
                 continue;
             }
-            Vector l = lightSource.getL(intersection.point);
-            double nl = alignZero(n.dotProduct(l));
+            double nl = alignZero(intersection.lightDirectionDPNormal);
             if (nl * nv > 0 ) {
                 Double3 ktr = transparency(intersection);
                 if (ktr.greaterThan(MIN_CALC_COLOR_K)) {
-                    Color iL = lightSource.getIntensity(intersection.point).scale(ktr);
+                    Color iL = intersection.lightSample.intensity().scale(ktr);
                     color = color.add(iL.scale(calcDiffusive(intersection).add(calcSpecular(intersection))));
                 }
             }
@@ -228,7 +410,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @param intersection the intersection point
      * @return the diffuse contribution as a {@link Double3}
      */
-    private Double3 calcDiffusive(Intersection intersection) {
+    protected Double3 calcDiffusive(Intersection intersection) {
         double nl = intersection.lightDirectionDPNormal;
         if (Util.isZero(nl)) {
             return Double3.ZERO;
@@ -242,7 +424,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @param intersection the intersection point
      * @return the specular contribution as a {@link Double3}
      */
-    private Double3 calcSpecular(Intersection intersection) {
+    protected Double3 calcSpecular(Intersection intersection) {
         Vector n = intersection.normal;
         Vector v = intersection.rayDirection;
         Vector l = intersection.lightDirection;
@@ -317,7 +499,7 @@ public class SimpleRayTracer extends RayTracerBase {
         if (kkx.lowerThan(MIN_CALC_COLOR_K)) {
             return Color.BLACK;
         }
-        Intersection intersection = ray.findClosestIntersection(scene.geometries.calculateIntersectionsHelper(ray));
+        Intersection intersection = ray.findClosestIntersection(scene.geometries.calculateIntersections(ray));
         if (intersection == null){
             return scene.backround.scale(kx);
         }
@@ -326,11 +508,14 @@ public class SimpleRayTracer extends RayTracerBase {
                 calcColor(intersection, level - 1, kkx) : Color.BLACK;
     }*/
     private Color calcGlobalEffects(Intersection intersection, int level, Double3 k) {
-        Ray refractedRay = constructRefractedRay(intersection);
-        Ray reflectedRay = constructReflectedRay(intersection);
+        Double3 kT = intersection.material.kT, kR = intersection.material.kR;
+        Double3 kkt = k.product(kT), kkr = k.product(kR);
 
-        Color refracted = calcColorGLobalEffect(refractedRay, level, k.product(intersection.material.kT), intersection.material.kT);
-        Color reflected = calcColorGLobalEffect(reflectedRay, level, k.product(intersection.material.kR), intersection.material.kR);
+        // rays too weak to matter, such as those of a zero coefficient, are not even constructed
+        Color refracted = kkt.lowerThan(MIN_CALC_COLOR_K) ? Color.BLACK
+                : calcColorGLobalEffect(constructRefractedRay(intersection), level, kkt, kT);
+        Color reflected = kkr.lowerThan(MIN_CALC_COLOR_K) ? Color.BLACK
+                : calcColorGLobalEffect(constructReflectedRay(intersection), level, kkr, kR);
 
         return refracted.add(reflected);
     }
@@ -340,22 +525,47 @@ public class SimpleRayTracer extends RayTracerBase {
             return Color.BLACK;
         }
 
-        Intersection intersection = ray.findClosestIntersection(scene.geometries.calculateIntersectionsHelper(ray));
+        Intersection intersection = findClosestIntersection(ray, level - 1);
         if (intersection == null) {
             return scene.backround.scale(kx);
         }
+        touch(intersection);
 
         return preprocessoIntersection(intersection, ray.getDirection()) ?
                 calcColor(intersection, level - 1, k).scale(kx) : Color.BLACK;
     }
 
 
-    private Intersection findClosestIntersection(Ray ray){
-        List<Intersection> intersectionList = scene.geometries.calculateIntersectionsHelper(ray);
-        if (intersectionList == null || intersectionList.isEmpty()) {
-            return null;
-        }
-        return ray.findClosestIntersection(intersectionList);
+    /**
+     * Sets the record of the geometries hit through each pixel. The geometries hit by the
+     * secondary and shadow rays are then added to the pixel of the current thread.
+     *
+     * @param dependencies the record, or null to keep none
+     */
+    void setDependencies(PixelDependencies dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Adds the geometry of a hit to the dependencies of the pixel of the current thread,
+     * if they are recorded.
+     *
+     * @param intersection the hit
+     */
+    protected void touch(Intersection intersection) {
+        if (dependencies != null) dependencies.touch(intersection.geometry);
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the scene, filling the
+     * current thread's hit record of the given recursion level in place.
+     *
+     * @param ray the ray to trace
+     * @param level the recursion level whose hit record is used
+     * @return the filled hit record, or {@code null} if the ray hits nothing
+     */
+    protected Intersection findClosestIntersection(Ray ray, int level) {
+        return scene.geometries.findClosestIntersection(ray, hitRecords.get()[level]);
     }
 
 }
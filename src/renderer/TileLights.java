@@ -0,0 +1,125 @@
+package renderer;
+
+import lighting.LightSource;
+import primitives.Point;
+import scene.Scene;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static renderer.Camera.TILE_SIZE;
+
+/**
+ * {@code TileLights} keeps, for every tile of pixels of an image, the lights that may reach
+ * any surface seen through the tile, so the shading of its primary hits loops over them
+ * only instead of over all the lights of the scene.
+ * <p>
+ * The primary hits of a tile lie in the part of its view frustum between their nearest
+ * and farthest depths; the box around the hit points themselves bounds them tighter still.
+ * The lights of the tile are those whose influence region, as held by the light hierarchy
+ * of the scene, overlaps the box. The list of a tile holds every light that may reach one
+ * of its primary hits, in the order of the scene, so the shading is the same as with all
+ * the lights. The lists are kept as the indices of their lights in the scene.
+ */
+public class TileLights {
+
+    /** Number of tiles in a row of tiles */
+    private final int tilesX;
+
+    /** The lights of the scene */
+    private final List<LightSource> lights;
+
+    /** The lights of each tile, tile after tile */
+    private final TileList[] tiles;
+
+    /**
+     * The lights of a tile: a view of the lights of the scene at the indices of the tile.
+     */
+    private final class TileList extends AbstractList<LightSource> implements RandomAccess {
+        /** The indices of the lights of the tile in the lights of the scene, in ascending order */
+        private final int[] indices;
+
+        /**
+         * Constructs the lights of a tile.
+         *
+         * @param indices the indices of the lights in the lights of the scene, in ascending order
+         */
+        TileList(int[] indices) {
+            this.indices = indices;
+        }
+
+        @Override
+        public LightSource get(int index) {
+            return lights.get(indices[index]);
+        }
+
+        @Override
+        public int size() {
+            return indices.length;
+        }
+    }
+
+    /**
+     * Finds the lights of every tile from the primary hits of an image.
+     *
+     * @param gBuffer the complete primary hits of the image
+     * @param nX      number of pixels in the X (width) direction
+     * @param nY      number of pixels in the Y (height) direction
+     * @param scene   the committed scene whose lights are listed
+     */
+    public TileLights(GBuffer gBuffer, int nX, int nY, Scene scene) {
+        lights = scene.lights;
+        tilesX = (nX + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesY = (nY + TILE_SIZE - 1) / TILE_SIZE;
+        tiles = new TileList[tilesX * tilesY];
+        TileList none = new TileList(new int[0]);
+        double[] box = new double[6];
+        for (int tileRow = 0; tileRow < tilesY; ++tileRow)
+            for (int tileColumn = 0; tileColumn < tilesX; ++tileColumn) {
+                Arrays.fill(box, 0, 3, Double.POSITIVE_INFINITY);
+                Arrays.fill(box, 3, 6, Double.NEGATIVE_INFINITY);
+                boolean hit = false;
+                for (int row = tileRow * TILE_SIZE; row < Math.min(nY, (tileRow + 1) * TILE_SIZE); ++row)
+                    for (int column = tileColumn * TILE_SIZE; column < Math.min(nX, (tileColumn + 1) * TILE_SIZE);
+                         ++column) {
+                        if (!gBuffer.isHit(column, row)) continue;
+                        hit = true;
+                        for (int axis = 0; axis < 3; ++axis) {
+                            double coordinate = gBuffer.getCoordinate(column, row, axis);
+                            box[axis] = Math.min(box[axis], coordinate);
+                            box[3 + axis] = Math.max(box[3 + axis], coordinate);
+                        }
+                    }
+                tiles[tileRow * tilesX + tileColumn] = !hit ? none : new TileList(indicesOf(scene.findLights(
+                        new Point(box[0], box[1], box[2]), new Point(box[3], box[4], box[5]))));
+            }
+    }
+
+    /**
+     * Finds the indices of some of the lights of the scene.
+     *
+     * @param found lights of the scene, in the order of the scene
+     * @return their indices in the lights of the scene, in ascending order
+     */
+    private int[] indicesOf(List<LightSource> found) {
+        int[] indices = new int[found.size()];
+        int index = 0, count = 0;
+        for (Iterator<LightSource> light = lights.iterator(); count < indices.length; ++index)
+            if (light.next() == found.get(count)) indices[count++] = index;
+        return indices;
+    }
+
+    /**
+     * Returns the lights of the tile of a pixel.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @return the lights that may reach the primary hits of the tile, in the order of the scene
+     */
+    public List<LightSource> getLights(int column, int row) {
+        return tiles[row / TILE_SIZE * tilesX + column / TILE_SIZE];
+    }
+}
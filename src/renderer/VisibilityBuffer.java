@@ -0,0 +1,258 @@
+package renderer;
+
+import geometries.Intersectable;
+import geometries.Intersectable.Intersection;
+import geometries.TriangleSet;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static renderer.Camera.TILE_SIZE;
+
+/**
+ * {@code VisibilityBuffer} finds the closest triangle seen through every pixel of an image
+ * by rasterizing the triangles of a scene, instead of tracing the primary rays through it.
+ * <p>
+ * Every triangle of the scene - from its {@link geometries.Triangle triangles} and
+ * {@link geometries.Mesh meshes} - is projected through the pixel grid of the camera and
+ * binned to the square tiles of pixels its projection covers. Then, tile by tile, each
+ * binned triangle is tested at the pixels of its projection against the ray of the camera
+ * through that pixel, by the same test ray tracing uses, and the nearest one is kept with
+ * its distance: a primitive-ID buffer and a depth buffer. Triangles reaching behind the
+ * camera cannot be projected and are tested at every pixel.
+ * <p>
+ * The closest intersection of a primary ray is then the triangle of its pixel, unless one
+ * of the other geometries of the scene is nearer - those are traced, but only up to the
+ * triangle. The hits are those of tracing the primary rays through the whole scene.
+ */
+public class VisibilityBuffer {
+
+    /** Smallest depth, relative to the view plane, of a corner that can be projected */
+    private static final double MIN_DEPTH = 1e-6;
+
+    /** The camera whose primary rays are rasterized */
+    private final Camera camera;
+
+    /** Number of pixels in the X (width) direction */
+    private final int nX;
+
+    /** Number of pixels in the Y (height) direction */
+    private final int nY;
+
+    /** The triangles of the scene */
+    private final TriangleSet triangles;
+
+    /** The index of the closest triangle of each pixel, -1 for none, row after row */
+    private final int[] ids;
+
+    /** The distance to the closest triangle of each pixel, row after row */
+    private final double[] depths;
+
+    /** The pixel bounds of each triangle: first column, last column, first row, last row */
+    private final int[] bounds;
+
+    /** The first index in {@link #binned} of the triangles of each tile, and the end */
+    private final int[] binStarts;
+
+    /** The triangles binned to each tile, tile after tile */
+    private final int[] binned;
+
+    /** Number of tiles in a row of tiles */
+    private final int tilesX;
+
+    /** The closest-hit record of each rendering thread */
+    private final ThreadLocal<Intersection> records = ThreadLocal.withInitial(Intersection::new);
+
+    /**
+     * Rasterizes the triangles of a scene through the pixels of a camera.
+     *
+     * @param camera     the camera
+     * @param nX         number of pixels in the X (width) direction
+     * @param nY         number of pixels in the Y (height) direction
+     * @param geometries the geometries of the scene
+     */
+    public VisibilityBuffer(Camera camera, int nX, int nY, Intersectable geometries) {
+        this(camera, nX, nY, new TriangleSet(geometries));
+    }
+
+    /**
+     * Rasterizes triangles already gathered from a scene through the pixels of a camera, so
+     * that rendering the scene again does not gather them again.
+     *
+     * @param camera    the camera
+     * @param nX        number of pixels in the X (width) direction
+     * @param nY        number of pixels in the Y (height) direction
+     * @param triangles the triangles of the scene
+     */
+    public VisibilityBuffer(Camera camera, int nX, int nY, TriangleSet triangles) {
+        this.camera = camera;
+        this.nX = nX;
+        this.nY = nY;
+        this.triangles = triangles;
+        this.ids = new int[nX * nY];
+        this.depths = new double[nX * nY];
+        Arrays.fill(ids, -1);
+        Arrays.fill(depths, Double.POSITIVE_INFINITY);
+
+        int size = triangles.size();
+        bounds = new int[4 * size];
+        project();
+
+        tilesX = (nX + TILE_SIZE - 1) / TILE_SIZE;
+        int tiles = tilesX * ((nY + TILE_SIZE - 1) / TILE_SIZE);
+        binStarts = new int[tiles + 1];
+        for (int tri = 0; tri < size; ++tri) {
+            if (bounds[4 * tri] > bounds[4 * tri + 1]) continue;
+            for (int tileRow = bounds[4 * tri + 2] / TILE_SIZE; tileRow <= bounds[4 * tri + 3] / TILE_SIZE; ++tileRow)
+                for (int tileColumn = bounds[4 * tri] / TILE_SIZE; tileColumn <= bounds[4 * tri + 1] / TILE_SIZE;
+                     ++tileColumn)
+                    ++binStarts[tileRow * tilesX + tileColumn + 1];
+        }
+        for (int tile = 0; tile < tiles; ++tile) binStarts[tile + 1] += binStarts[tile];
+        binned = new int[binStarts[tiles]];
+        int[] next = Arrays.copyOf(binStarts, tiles);
+        for (int tri = 0; tri < size; ++tri) {
+            if (bounds[4 * tri] > bounds[4 * tri + 1]) continue;
+            for (int tileRow = bounds[4 * tri + 2] / TILE_SIZE; tileRow <= bounds[4 * tri + 3] / TILE_SIZE; ++tileRow)
+                for (int tileColumn = bounds[4 * tri] / TILE_SIZE; tileColumn <= bounds[4 * tri + 1] / TILE_SIZE;
+                     ++tileColumn)
+                    binned[next[tileRow * tilesX + tileColumn]++] = tri;
+        }
+
+        IntStream.range(0, tiles).parallel().forEach(this::rasterizeTile);
+    }
+
+    /**
+     * Finds the pixel bounds of every triangle, one pixel wider than its projection.
+     * Pixel centers lie on the view plane at {@code p00 + j*a + i*b}, so a point {@code x}
+     * projects to the pixel {@code (j, i)} where {@code x - eye = s*(p00 - eye + j*a + i*b)}.
+     */
+    private void project() {
+        Point eye = camera.constructRay(nX, nY, 0, 0).getHead();
+        Point p00 = camera.pixelPointCalc(nX, nY, 0, 0);
+        Vector c0 = p00.subtract(eye);
+        Vector c1 = camera.pixelPointCalc(nX, nY, 1, 0).subtract(p00);
+        Vector c2 = camera.pixelPointCalc(nX, nY, 0, 1).subtract(p00);
+        double det = c0.dotProduct(c1.crossProduct(c2));
+        Vector r0 = c1.crossProduct(c2).scale(1 / det);
+        Vector r1 = c2.crossProduct(c0).scale(1 / det);
+        Vector r2 = c0.crossProduct(c1).scale(1 / det);
+
+        for (int tri = 0; tri < triangles.size(); ++tri) {
+            double minJ = Double.POSITIVE_INFINITY, maxJ = Double.NEGATIVE_INFINITY;
+            double minI = Double.POSITIVE_INFINITY, maxI = Double.NEGATIVE_INFINITY;
+            boolean behind = false;
+            for (int corner = 0; corner < 3 && !behind; ++corner) {
+                Point point = triangles.getCorner(tri, corner);
+                double dx = point.getX() - eye.getX(), dy = point.getY() - eye.getY(), dz = point.getZ() - eye.getZ();
+                double s = r0.getX() * dx + r0.getY() * dy + r0.getZ() * dz;
+                if (s < MIN_DEPTH) {
+                    behind = true;
+                    break;
+                }
+                double j = (r1.getX() * dx + r1.getY() * dy + r1.getZ() * dz) / s;
+                double i = (r2.getX() * dx + r2.getY() * dy + r2.getZ() * dz) / s;
+                minJ = Math.min(minJ, j);
+                maxJ = Math.max(maxJ, j);
+                minI = Math.min(minI, i);
+                maxI = Math.max(maxI, i);
+            }
+            int o = 4 * tri;
+            if (behind) {
+                bounds[o] = 0;
+                bounds[o + 1] = nX - 1;
+                bounds[o + 2] = 0;
+                bounds[o + 3] = nY - 1;
+            } else {
+                bounds[o] = (int) Math.max(0, Math.floor(minJ) - 1);
+                bounds[o + 1] = (int) Math.min(nX - 1, Math.ceil(maxJ) + 1);
+                bounds[o + 2] = (int) Math.max(0, Math.floor(minI) - 1);
+                bounds[o + 3] = (int) Math.min(nY - 1, Math.ceil(maxI) + 1);
+            }
+        }
+    }
+
+    /**
+     * Finds the closest triangle of every pixel of a tile.
+     *
+     * @param tile the index of the tile
+     */
+    private void rasterizeTile(int tile) {
+        if (binStarts[tile] == binStarts[tile + 1]) return;
+        int column = tile % tilesX * TILE_SIZE, row = tile / tilesX * TILE_SIZE;
+        int width = Math.min(TILE_SIZE, nX - column), height = Math.min(TILE_SIZE, nY - row);
+
+        double[] origins = new double[3 * width * height], directions = new double[3 * width * height];
+        for (int i = 0; i < height; ++i)
+            for (int j = 0; j < width; ++j) {
+                Ray ray = camera.constructRay(nX, nY, column + j, row + i);
+                int o = 3 * (i * width + j);
+                Point head = ray.getHead();
+                Vector direction = ray.getDirection();
+                origins[o] = head.getX();
+                origins[o + 1] = head.getY();
+                origins[o + 2] = head.getZ();
+                directions[o] = direction.getX();
+                directions[o + 1] = direction.getY();
+                directions[o + 2] = direction.getZ();
+            }
+
+        for (int b = binStarts[tile]; b < binStarts[tile + 1]; ++b) {
+            int tri = binned[b];
+            int firstJ = Math.max(bounds[4 * tri], column), lastJ = Math.min(bounds[4 * tri + 1], column + width - 1);
+            int firstI = Math.max(bounds[4 * tri + 2], row), lastI = Math.min(bounds[4 * tri + 3], row + height - 1);
+            for (int i = firstI; i <= lastI; ++i)
+                for (int j = firstJ; j <= lastJ; ++j) {
+                    int o = 3 * ((i - row) * width + j - column);
+                    double t = triangles.intersectionDistance(tri, origins[o], origins[o + 1], origins[o + 2],
+                            directions[o], directions[o + 1], directions[o + 2]);
+                    int pixel = i * nX + j;
+                    if (t > 0 && t < depths[pixel]) {
+                        depths[pixel] = t;
+                        ids[pixel] = tri;
+                    }
+                }
+        }
+    }
+
+    /**
+     * Returns the closest triangle seen through a pixel.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @return the index of the triangle in the {@link TriangleSet} of the scene, or -1 if
+     *         the pixel sees no triangle
+     */
+    public int getTriangle(int column, int row) {
+        return ids[row * nX + column];
+    }
+
+    /**
+     * Returns the distance to the closest triangle seen through a pixel.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @return the distance along the primary ray of the pixel, or infinity if the pixel
+     *         sees no triangle
+     */
+    public double getDepth(int column, int row) {
+        return depths[row * nX + column];
+    }
+
+    /**
+     * Finds the closest intersection of the primary ray of a pixel with the scene.
+     * The record is reused by the next call of the same thread.
+     *
+     * @param column the column of the pixel
+     * @param row    the row of the pixel
+     * @param ray    the primary ray of the pixel, as constructed by the camera
+     * @return the closest intersection, or null if the ray misses the scene
+     */
+    public Intersection findClosestIntersection(int column, int row, Ray ray) {
+        int pixel = row * nX + column;
+        return triangles.findClosestIntersection(ray, ids[pixel], depths[pixel], records.get());
+    }
+}
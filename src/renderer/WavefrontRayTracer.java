@@ -0,0 +1,474 @@
+package renderer;
+
+import geometries.Frustum;
+import geometries.Intersectable.Intersection;
+import geometries.RayPacket;
+import lighting.LightSource;
+import primitives.*;
+import scene.Scene;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static renderer.Camera.TILE_SIZE;
+
+/**
+ * {@code WavefrontRayTracer} traces a whole tile of pixels at once, breadth first.
+ * <p>
+ * All the primary rays of a tile form the first wave. Every wave runs through the same
+ * stages, each over all its rays before the next stage starts:
+ * <ol>
+ *     <li>the closest hit of every ray is found;</li>
+ *     <li>every hit is shaded: its emission is added to its pixel, and for every light it
+ *     faces a shadow ray is queued, carrying the light contribution it would let through;
+ *     its reflected and refracted rays are queued for the next wave;</li>
+ *     <li>the shadow rays are traced and let their contributions through, attenuated by the
+ *     transparency of whatever they cross.</li>
+ * </ol>
+ * Before being traced, the shadow rays and the next wave are sorted by the octant of their
+ * direction and then along a Morton curve through their origins, so that rays traced one
+ * after the other go the same way from nearby points and visit the same bounding volumes.
+ * Rays wait in flat per-thread arrays - their weights, pixels and levels side by side - that
+ * later stages can process in bulk.
+ * <p>
+ * The closest hits of a wave can be found for packets of consecutive rays at once, see
+ * {@link #setPacketSize(int)}: the primary rays are then queued in blocks of neighbouring
+ * pixels, one packet per block, and the rays of a packet go down the bounding volume
+ * hierarchy together. The packets of primary rays carry the frustum of their tile, so the
+ * parts of the hierarchy outside the tile are skipped before any of their rays is tested.
+ * <p>
+ * The colors are those of {@link SimpleRayTracer}, up to the order of the sums.
+ * Tiles are handed out by {@link Camera}; a single ray can still be traced by
+ * {@link #traceRay(Ray)}.
+ */
+public class WavefrontRayTracer extends SimpleRayTracer {
+
+    /** Number of bits of every coordinate of an origin in a sort key */
+    private static final int MORTON_BITS = 9;
+
+    /**
+     * A queue of rays with what the stages need about them, in parallel arrays.
+     * Wave rays use the levels; shadow rays use the hit points and the light distances.
+     */
+    private static final class RayQueue {
+        /** The rays */
+        private Ray[] rays = new Ray[TILE_SIZE * TILE_SIZE];
+        /** The tile pixel of each ray */
+        private int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+        /** The level of each wave ray */
+        private int[] levels = new int[TILE_SIZE * TILE_SIZE];
+        /** The weight of each ray, red, green and blue after each other */
+        private double[] weights = new double[3 * TILE_SIZE * TILE_SIZE];
+        /** The hit point each shadow ray leaves from */
+        private Point[] points = new Point[TILE_SIZE * TILE_SIZE];
+        /** The distance to the light of each shadow ray */
+        private double[] distances = new double[TILE_SIZE * TILE_SIZE];
+        /** Sort keys and then the sorted order, see {@link #sort()} */
+        private long[] order = new long[TILE_SIZE * TILE_SIZE];
+        /** The spare rays, sorted into and then swapped with the rays, see {@link #sort()} */
+        private Ray[] sortedRays = new Ray[TILE_SIZE * TILE_SIZE];
+        /** The spare pixels */
+        private int[] sortedPixels = new int[TILE_SIZE * TILE_SIZE];
+        /** The spare levels */
+        private int[] sortedLevels = new int[TILE_SIZE * TILE_SIZE];
+        /** The spare weights */
+        private double[] sortedWeights = new double[3 * TILE_SIZE * TILE_SIZE];
+        /** The spare hit points */
+        private Point[] sortedPoints = new Point[TILE_SIZE * TILE_SIZE];
+        /** The spare light distances */
+        private double[] sortedDistances = new double[TILE_SIZE * TILE_SIZE];
+        /** The bounds of the origins and the scales of their coordinates in the sort keys */
+        private final double[] min = new double[3], max = new double[3], scale = new double[3];
+        /** Number of rays */
+        private int size = 0;
+
+        /**
+         * Adds a ray to the queue.
+         *
+         * @param ray   the ray
+         * @param pixel the tile pixel of the ray
+         * @param r     the red weight
+         * @param g     the green weight
+         * @param b     the blue weight
+         * @return the index of the ray, to fill its other data
+         */
+        int push(Ray ray, int pixel, double r, double g, double b) {
+            if (size == rays.length) {
+                int capacity = 2 * size;
+                rays = Arrays.copyOf(rays, capacity);
+                pixels = Arrays.copyOf(pixels, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+                weights = Arrays.copyOf(weights, 3 * capacity);
+                points = Arrays.copyOf(points, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+                order = new long[capacity];
+                sortedRays = new Ray[capacity];
+                sortedPixels = new int[capacity];
+                sortedLevels = new int[capacity];
+                sortedWeights = new double[3 * capacity];
+                sortedPoints = new Point[capacity];
+                sortedDistances = new double[capacity];
+            }
+            rays[size] = ray;
+            pixels[size] = pixel;
+            weights[3 * size] = r;
+            weights[3 * size + 1] = g;
+            weights[3 * size + 2] = b;
+            return size++;
+        }
+
+        /**
+         * Empties the queue, releasing the rays and points.
+         */
+        void clear() {
+            Arrays.fill(rays, 0, size, null);
+            Arrays.fill(points, 0, size, null);
+            size = 0;
+        }
+
+        /**
+         * Sorts the rays by the octant of their directions and then along a Morton curve
+         * through their origins. The rays are moved into the spare arrays, which are then
+         * swapped with the arrays of the queue, so a sort allocates nothing.
+         */
+        void sort() {
+            if (size < 2) return;
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+            for (int i = 0; i < size; ++i) {
+                Point head = rays[i].getHead();
+                for (int axis = 0; axis < 3; ++axis) {
+                    double c = head.getCoordinate(axis);
+                    if (c < min[axis]) min[axis] = c;
+                    if (c > max[axis]) max[axis] = c;
+                }
+            }
+            for (int axis = 0; axis < 3; ++axis)
+                scale[axis] = max[axis] > min[axis] ? ((1 << MORTON_BITS) - 1) / (max[axis] - min[axis]) : 0;
+
+            for (int i = 0; i < size; ++i) {
+                Point head = rays[i].getHead();
+                Vector direction = rays[i].getDirection();
+                long key = 0;
+                for (int axis = 0; axis < 3; ++axis)
+                    if (direction.getCoordinate(axis) < 0) key |= 1L << axis;
+                long morton = 0;
+                for (int axis = 0; axis < 3; ++axis)
+                    morton |= spread((int) ((head.getCoordinate(axis) - min[axis]) * scale[axis])) << axis;
+                key = key << 3 * MORTON_BITS | morton;
+                order[i] = key << 32 | i;
+            }
+            Arrays.sort(order, 0, size);
+
+            for (int i = 0; i < size; ++i) {
+                int from = (int) order[i];
+                sortedRays[i] = rays[from];
+                sortedPixels[i] = pixels[from];
+                sortedLevels[i] = levels[from];
+                System.arraycopy(weights, 3 * from, sortedWeights, 3 * i, 3);
+                sortedPoints[i] = points[from];
+                sortedDistances[i] = distances[from];
+            }
+            Ray[] swapRays = rays;
+            rays = sortedRays;
+            sortedRays = swapRays;
+            int[] swapPixels = pixels;
+            pixels = sortedPixels;
+            sortedPixels = swapPixels;
+            int[] swapLevels = levels;
+            levels = sortedLevels;
+            sortedLevels = swapLevels;
+            double[] swapWeights = weights;
+            weights = sortedWeights;
+            sortedWeights = swapWeights;
+            Point[] swapPoints = points;
+            points = sortedPoints;
+            sortedPoints = swapPoints;
+            double[] swapDistances = distances;
+            distances = sortedDistances;
+            sortedDistances = swapDistances;
+            // The spare arrays must not keep the rays and points alive
+            Arrays.fill(sortedRays, 0, size, null);
+            Arrays.fill(sortedPoints, 0, size, null);
+        }
+
+        /**
+         * Spreads the bits of a coordinate three apart, for a Morton code.
+         *
+         * @param value the coordinate, of {@link #MORTON_BITS} bits
+         * @return the spread bits
+         */
+        private static long spread(int value) {
+            long result = 0;
+            for (int bit = 0; bit < MORTON_BITS; ++bit)
+                result |= (long) ((value >> bit) & 1) << 3 * bit;
+            return result;
+        }
+    }
+
+    /**
+     * The buffers of a rendering thread.
+     */
+    private static final class Buffers {
+        /** The rays of the current wave */
+        RayQueue wave = new RayQueue();
+        /** The rays of the next wave */
+        RayQueue nextWave = new RayQueue();
+        /** The shadow rays of the current wave */
+        final RayQueue shadows = new RayQueue();
+        /** The hit records of the current wave, null for a ray that hit nothing */
+        Intersection[] hits = new Intersection[TILE_SIZE * TILE_SIZE];
+        /** Hit records to fill */
+        Intersection[] records = new Intersection[0];
+        /** The packet of rays intersected together, or null before the first packet */
+        RayPacket packet = null;
+    }
+
+    /** The buffers of each rendering thread */
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    /** Number of rays intersected together, 1 to intersect the rays one by one */
+    private int packetSize = 16;
+
+    /**
+     * Constructs a {@code WavefrontRayTracer} with the specified scene.
+     *
+     * @param scene the scene to be rendered
+     */
+    public WavefrontRayTracer(Scene scene) {
+        super(scene);
+    }
+
+    /**
+     * Sets the number of rays whose closest hits are found together. The primary rays of a
+     * packet come from a block of pixels as square as the size allows: 2x2 for 4, 4x2 for 8,
+     * 4x4 for 16.
+     *
+     * @param packetSize the number of rays in a packet, a power of 2 up to
+     *                   {@link RayPacket#MAX_SIZE}, 1 to intersect the rays one by one
+     * @return this tracer, for chaining
+     * @throws IllegalArgumentException if the size is not such a power of 2
+     */
+    public WavefrontRayTracer setPacketSize(int packetSize) {
+        if (packetSize < 1 || packetSize > RayPacket.MAX_SIZE || Integer.bitCount(packetSize) != 1)
+            throw new IllegalArgumentException("Packet size must be a power of 2 up to " + RayPacket.MAX_SIZE);
+        this.packetSize = packetSize;
+        return this;
+    }
+
+    /**
+     * Computes the colors of a tile of pixels.
+     *
+     * @param camera the camera constructing the primary rays
+     * @param nX     number of pixels in the X (width) direction of the image
+     * @param nY     number of pixels in the Y (height) direction of the image
+     * @param column the first column of the tile
+     * @param row    the first row of the tile
+     * @param width  number of columns of the tile
+     * @param height number of rows of the tile
+     * @return the colors of the tile pixels, row after row
+     */
+    public Color[] traceTile(Camera camera, int nX, int nY, int column, int row, int width, int height) {
+        Buffers buffers = this.buffers.get();
+        int pixelCount = width * height;
+        double[] sums = new double[3 * pixelCount];
+        boolean[] lit = new boolean[pixelCount];
+
+        RayQueue wave = buffers.wave;
+        wave.clear();
+        int blockWidth = 1 << (Integer.numberOfTrailingZeros(packetSize) + 1) / 2;
+        int blockHeight = packetSize / blockWidth;
+        for (int blockRow = 0; blockRow < height; blockRow += blockHeight)
+            for (int blockColumn = 0; blockColumn < width; blockColumn += blockWidth)
+                for (int i = blockRow; i < Math.min(blockRow + blockHeight, height); ++i)
+                    for (int j = blockColumn; j < Math.min(blockColumn + blockWidth, width); ++j) {
+                        int index = wave.push(camera.constructRay(nX, nY, column + j, row + i), i * width + j,
+                                1, 1, 1);
+                        wave.levels[index] = MAX_CALC_COLOR_LEVEL;
+                    }
+
+        Double3 background = scene.backround.getRgb();
+        boolean primary = true;
+        Frustum frustum = packetSize == 1 ? null : Frustum.enclosing(wave.rays, wave.size);
+        while (wave.size > 0) {
+            intersect(buffers, wave, primary ? frustum : null);
+
+            RayQueue nextWave = buffers.nextWave, shadows = buffers.shadows;
+            nextWave.clear();
+            shadows.clear();
+            for (int i = 0; i < wave.size; ++i) {
+                Intersection hit = buffers.hits[i];
+                int pixel = wave.pixels[i];
+                if (hit == null) {
+                    add(sums, pixel, background, wave.weights, i);
+                } else if (preprocessoIntersection(hit, wave.rays[i].getDirection())) {
+                    if (primary) lit[pixel] = true;
+                    shade(hit, wave, i, sums, shadows, nextWave);
+                }
+            }
+            shadows.sort();
+            traceShadows(shadows, sums);
+            nextWave.sort();
+
+            buffers.wave = nextWave;
+            buffers.nextWave = wave;
+            wave = nextWave;
+            primary = false;
+        }
+
+        Color ambient = scene.ambientLight.getIntensity();
+        Color[] colors = new Color[pixelCount];
+        for (int pixel = 0; pixel < pixelCount; ++pixel) {
+            Color color = new Color(sums[3 * pixel], sums[3 * pixel + 1], sums[3 * pixel + 2]);
+            colors[pixel] = lit[pixel] ? ambient.add(color) : color;
+        }
+        return colors;
+    }
+
+    /**
+     * Finds the closest hit of every ray of a wave.
+     *
+     * @param buffers the buffers of the thread, whose hits are filled
+     * @param wave    the wave
+     * @param frustum a frustum enclosing all the rays of the wave, or null if none
+     */
+    private void intersect(Buffers buffers, RayQueue wave, Frustum frustum) {
+        if (buffers.records.length < wave.size) {
+            int old = buffers.records.length;
+            buffers.records = Arrays.copyOf(buffers.records, wave.rays.length);
+            for (int i = old; i < buffers.records.length; ++i) buffers.records[i] = new Intersection();
+            buffers.hits = new Intersection[buffers.records.length];
+        }
+        if (packetSize == 1) {
+            for (int i = 0; i < wave.size; ++i)
+                buffers.hits[i] = scene.geometries.findClosestIntersection(wave.rays[i], buffers.records[i]);
+            return;
+        }
+
+        if (buffers.packet == null || buffers.packet.capacity() != packetSize)
+            buffers.packet = new RayPacket(packetSize);
+        RayPacket packet = buffers.packet;
+        for (int first = 0; first < wave.size; first += packetSize) {
+            int count = Math.min(packetSize, wave.size - first);
+            packet.clear();
+            packet.setFrustum(frustum);
+            for (int i = first; i < first + count; ++i) packet.add(wave.rays[i], buffers.records[i]);
+            scene.geometries.findClosestIntersections(packet);
+            for (int i = 0; i < count; ++i) buffers.hits[first + i] = packet.getHit(i);
+        }
+    }
+
+    /**
+     * Shades a hit: adds its weighted emission to its pixel, queues a shadow ray for every
+     * light it faces, and queues its reflected and refracted rays.
+     *
+     * @param hit      the preprocessed hit
+     * @param wave     the wave of the ray that hit
+     * @param index    the index of the ray in the wave
+     * @param sums     the red, green and blue sums of the tile pixels
+     * @param shadows  the queue of shadow rays
+     * @param nextWave the queue of the next wave
+     */
+    private void shade(Intersection hit, RayQueue wave, int index, double[] sums, RayQueue shadows,
+                       RayQueue nextWave) {
+        int pixel = wave.pixels[index];
+        double kr = wave.weights[3 * index], kg = wave.weights[3 * index + 1], kb = wave.weights[3 * index + 2];
+        add(sums, pixel, hit.geometry.getEmission().getRgb(), wave.weights, index);
+
+        double nv = hit.rayDirectionDPNormal;
+        for (LightSource lightSource : scene.findLights(hit.point)) {
+            if (!setLightSource(hit, lightSource)) continue;
+            double nl = alignZero(hit.lightDirectionDPNormal);
+            if (nl * nv <= 0) continue;
+            Double3 factor = calcDiffusive(hit).add(calcSpecular(hit));
+            Double3 intensity = hit.lightSample.intensity().getRgb();
+            Ray shadowRay = new Ray(hit.point, hit.lightDirection.scale(-1.0), DELTA, hit.normal);
+            int shadow = shadows.push(shadowRay, pixel, intensity.d1() * factor.d1() * kr,
+                    intensity.d2() * factor.d2() * kg, intensity.d3() * factor.d3() * kb);
+            shadows.points[shadow] = hit.point;
+            shadows.distances[shadow] = hit.lightSample.distance();
+        }
+
+        int level = wave.levels[index];
+        if (level == 1) return;
+        spawn(hit, true, level - 1, pixel, kr, kg, kb, hit.material.kR, nextWave);
+        spawn(hit, false, level - 1, pixel, kr, kg, kb, hit.material.kT, nextWave);
+    }
+
+    /**
+     * Queues a reflected or refracted ray if it is important enough, constructing it only then.
+     *
+     * @param hit      the preprocessed hit
+     * @param reflected true for the reflected ray, false for the refracted ray
+     * @param level    the level of the new ray
+     * @param pixel    the tile pixel of the ray
+     * @param kr       the red weight of the ray that hit
+     * @param kg       the green weight of the ray that hit
+     * @param kb       the blue weight of the ray that hit
+     * @param kx       the reflection or transparency coefficient of the hit
+     * @param nextWave the queue of the next wave
+     */
+    private void spawn(Intersection hit, boolean reflected, int level, int pixel, double kr, double kg, double kb,
+                       Double3 kx, RayQueue nextWave) {
+        double r = kr * kx.d1(), g = kg * kx.d2(), b = kb * kx.d3();
+        if (r < MIN_CALC_COLOR_K && g < MIN_CALC_COLOR_K && b < MIN_CALC_COLOR_K) return;
+        Ray ray = reflected ? constructReflectedRay(hit) : constructRefractedRay(hit);
+        int index = nextWave.push(ray, pixel, r, g, b);
+        nextWave.levels[index] = level;
+    }
+
+    /**
+     * Traces the shadow rays and adds the light they let through to their pixels.
+     *
+     * @param shadows the queue of shadow rays
+     * @param sums    the red, green and blue sums of the tile pixels
+     */
+    private void traceShadows(RayQueue shadows, double[] sums) {
+        for (int i = 0; i < shadows.size; ++i) {
+            Double3 ktr = transmittance(shadows.rays[i], shadows.points[i], shadows.distances[i]);
+            if (!ktr.greaterThan(MIN_CALC_COLOR_K)) continue;
+            int pixel = shadows.pixels[i];
+            sums[3 * pixel] += shadows.weights[3 * i] * ktr.d1();
+            sums[3 * pixel + 1] += shadows.weights[3 * i + 1] * ktr.d2();
+            sums[3 * pixel + 2] += shadows.weights[3 * i + 2] * ktr.d3();
+        }
+    }
+
+    /**
+     * Computes how much light a shadow ray lets through to its hit point.
+     *
+     * @param shadowRay     the shadow ray, from the hit point towards the light
+     * @param point         the hit point
+     * @param lightDistance the distance from the hit point to the light
+     * @return the transparency of the geometries between the point and the light
+     */
+    private Double3 transmittance(Ray shadowRay, Point point, double lightDistance) {
+        List<Intersection> intersections = scene.geometries.calculateIntersections(shadowRay);
+        Double3 ktr = Double3.ONE;
+        if (intersections == null) return ktr;
+        for (Intersection blocking : intersections) {
+            if (blocking.point.distance(point) < lightDistance) {
+                Double3 kT = blocking.geometry.getMaterial(blocking).kT;
+                ktr = ktr.product(kT);
+                if (kT.lowerThan(MIN_CALC_COLOR_K)) return Double3.ZERO;
+            }
+        }
+        return ktr;
+    }
+
+    /**
+     * Adds a weighted color to the sum of a pixel.
+     *
+     * @param sums    the red, green and blue sums of the tile pixels
+     * @param pixel   the tile pixel
+     * @param rgb     the color components
+     * @param weights the weights of a queue
+     * @param index   the index of the weight in the queue
+     */
+    private static void add(double[] sums, int pixel, Double3 rgb, double[] weights, int index) {
+        sums[3 * pixel] += rgb.d1() * weights[3 * index];
+        sums[3 * pixel + 1] += rgb.d2() * weights[3 * index + 1];
+        sums[3 * pixel + 2] += rgb.d3() * weights[3 * index + 2];
+    }
+}
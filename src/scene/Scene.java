@@ -3,9 +3,12 @@ package scene;
 import geometries.Geometries;
 import lighting.AmbientLight;
 import lighting.LightSource;
+import lighting.LightTree;
 import primitives.Color;
+import primitives.Point;
 import renderer.Camera;
 
+import java.util.AbstractList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -38,6 +41,12 @@ public class Scene {
      */
     public List<LightSource> lights = new LinkedList<>();
 
+    /**
+     * The hierarchy over the lights, built when the scene is committed, or null if none of
+     * the lights has a bounded reach.
+     */
+    private LightTree lightTree = null;
+
     /**
      * Constructs a scene with the given name.
      *
@@ -48,13 +57,18 @@ public class Scene {
     }
 
     /**
-     * Sets the list of light sources for the scene.
+     * Sets the list of light sources for the scene. On a committed scene the new lights are
+     * frozen and the hierarchy over them is built again, as {@link #commit()} does, so the
+     * same view can be rendered again with other lights.
      *
      * @param lights list of light sources
      * @return this scene, for chaining
      */
     public Scene setLights(List<LightSource> lights) {
+        boolean committed = this.lights instanceof CommittedLights;
         this.lights = lights;
+        lightTree = null;
+        if (committed) commitLights();
         return this;
     }
 
@@ -80,6 +94,60 @@ public class Scene {
         return this;
     }
 
+    /**
+     * Prepares the scene for rendering, before any ray is traced: computes the bounding
+     * boxes and builds the bounding volumes of all the geometries, in parallel, and freezes
+     * the geometries and the lights, so that rendering threads only read the scene. The
+     * hierarchy over the lights is built from their influence regions at this point.
+     * Called by {@link Camera.Builder#build()}; committing a committed scene again only
+     * rebuilds the bounding volumes if the global strategy has changed. Changing the list of
+     * lights of a committed scene throws {@link IllegalStateException}, as adding geometries
+     * does; {@link #setLights(List)} replaces them and builds the hierarchy again.
+     *
+     * @return this scene, for chaining
+     */
+    public Scene commit() {
+        geometries.commit();
+        commitLights();
+        return this;
+    }
+
+    /**
+     * Freezes the lights and builds the hierarchy over them.
+     */
+    private void commitLights() {
+        lights = new CommittedLights(lights);
+        LightTree tree = new LightTree(lights);
+        lightTree = tree.getUnboundedCount() < lights.size() ? tree : null;
+    }
+
+    /**
+     * Finds the lights that may reach a point, in their order in the scene. Lights left out
+     * cannot reach it; the lights found are still to be checked with
+     * {@link LightSource#canIlluminate(Point)}. Before the scene is committed, or if no light
+     * has a bounded reach, these are all the lights. The list may be reused by the next
+     * query of the same thread.
+     *
+     * @param point the point
+     * @return the lights
+     */
+    public List<LightSource> findLights(Point point) {
+        return lightTree == null ? lights : lightTree.findLights(point);
+    }
+
+    /**
+     * Finds the lights that may reach any point of an axis-aligned box, in their order in
+     * the scene. Before the scene is committed, or if no light has a bounded reach, these
+     * are all the lights. The list may be reused by the next query of the same thread.
+     *
+     * @param min the corner of the box with the minimal coordinates
+     * @param max the corner of the box with the maximal coordinates
+     * @return the lights
+     */
+    public List<LightSource> findLights(Point min, Point max) {
+        return lightTree == null ? lights : lightTree.findLights(min, max);
+    }
+
     /**
      * Sets the background color of the scene.
      *
@@ -90,4 +158,47 @@ public class Scene {
         this.backround = color;
         return this;
     }
+
+    /**
+     * The lights of a committed scene: a fixed copy of the lights that cannot change, since
+     * the hierarchy over them is already built.
+     */
+    private static final class CommittedLights extends AbstractList<LightSource> {
+        /** The lights */
+        private final LightSource[] lights;
+
+        /**
+         * Copies the lights of the scene.
+         *
+         * @param lights the lights
+         */
+        CommittedLights(List<LightSource> lights) {
+            this.lights = lights.toArray(new LightSource[0]);
+        }
+
+        @Override
+        public LightSource get(int index) {
+            return lights[index];
+        }
+
+        @Override
+        public int size() {
+            return lights.length;
+        }
+
+        @Override
+        public void add(int index, LightSource light) {
+            throw new IllegalStateException("Cannot add lights to a committed scene");
+        }
+
+        @Override
+        public LightSource set(int index, LightSource light) {
+            throw new IllegalStateException("Cannot replace lights of a committed scene");
+        }
+
+        @Override
+        public LightSource remove(int index) {
+            throw new IllegalStateException("Cannot remove lights from a committed scene");
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package Special;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import lighting.*;
 import primitives.*;
 import renderer.Camera;
@@ -8,8 +9,12 @@ import renderer.RayTracerType;
 import scene.Scene;
 import geometries.*;
 
+import java.io.IOException;
+
+import static Special.RenderAssertions.assertSameImage;
 import static renderer.RayTracerType.GRID;
 
+@ExtendWith(RestoreAccelerators.class)
 public class BonusSceneTests {
 
     private Camera.Builder cameraBuilder = Camera.getBuilder();
@@ -212,6 +217,30 @@ public class BonusSceneTests {
                 .setRayTracer(scene, RayTracerType.SIMPLE);
     }
 
+    /**
+     * The big scene with the uniform grid, the kd-tree and the structure chosen per
+     * collection, each rendered exactly as with BVH.
+     * @throws IOException if a written image cannot be read
+     */
+    @Test
+    void testBigSceneAccelerators() throws IOException {
+        Scene scene = createBigColorfulScene();
+        baseCamera(scene).setResolution(300, 300).setMultithreading(3).enableBVH()
+                .build().renderImage().writeToImage("bigColorfulScene_BVH");
+        scene = createBigColorfulScene();
+        baseCamera(scene).setResolution(300, 300).setMultithreading(3).enableGrid()
+                .build().renderImage().writeToImage("bigColorfulScene_grid");
+        scene = createBigColorfulScene();
+        baseCamera(scene).setResolution(300, 300).setMultithreading(3).enableKdTree()
+                .build().renderImage().writeToImage("bigColorfulScene_kdTree");
+        scene = createBigColorfulScene();
+        baseCamera(scene).setResolution(300, 300).setMultithreading(3).enableAuto()
+                .build().renderImage().writeToImage("bigColorfulScene_auto");
+        assertSameImage("bigColorfulScene_BVH", "bigColorfulScene_grid");
+        assertSameImage("bigColorfulScene_BVH", "bigColorfulScene_kdTree");
+        assertSameImage("bigColorfulScene_BVH", "bigColorfulScene_auto");
+    }
+
     @Test
     void testBigSceneBaseline() {
         Scene scene = createBigColorfulScene();
@@ -0,0 +1,36 @@
+package Special;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Assertions on the images written by the camera
+ */
+final class RenderAssertions {
+    /** Directory the camera writes its images to */
+    private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
+
+    /** Not to be instantiated */
+    private RenderAssertions() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Asserts that two written images are identical, pixel by pixel.
+     * @param expected the name of the reference image
+     * @param actual   the name of the tested image
+     * @throws IOException if an image cannot be read
+     */
+    static void assertSameImage(String expected, String actual) throws IOException {
+        BufferedImage expectedImage = ImageIO.read(new File(FOLDER_PATH, expected + ".png"));
+        BufferedImage actualImage = ImageIO.read(new File(FOLDER_PATH, actual + ".png"));
+        assertEquals(expectedImage.getWidth(), actualImage.getWidth(), "Wrong width of " + actual);
+        assertEquals(expectedImage.getHeight(), actualImage.getHeight(), "Wrong height of " + actual);
+        for (int y = 0; y < expectedImage.getHeight(); ++y)
+            for (int x = 0; x < expectedImage.getWidth(); ++x)
+                assertEquals(expectedImage.getRGB(x, y), actualImage.getRGB(x, y),
+                        "Pixel " + x + "," + y + " of " + actual + " differs from " + expected);
+    }
+}
@@ -1,12 +1,16 @@
 package Special;
 
+import static Special.RenderAssertions.assertSameImage;
 import static java.awt.Color.YELLOW;
 import static primitives.Util.random;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import static java.lang.Math.*;
 
+import java.io.IOException;
+
 import geometries.*;
 import lighting.PointLight;
 import primitives.*;
@@ -18,6 +22,7 @@ import scene.Scene;
  * Test rendering an image
  * @author Dan Zilberstein
  */
+@ExtendWith(RestoreAccelerators.class)
 class TeapotTest {
     /** Default constructor to satisfy JavaDoc generator */
     TeapotTest() { /* to satisfy JavaDoc generator */ }
@@ -57,6 +62,22 @@ class TeapotTest {
         }
     }
 
+    /**
+     * Teapot with the uniform grid, the kd-tree and the structure chosen per collection,
+     * each rendered exactly as with BVH
+     * @throws IOException if a written image cannot be read
+     */
+    @Test
+    void testTeapotAccelerators() throws IOException {
+        prepareTeapot().setResolution(250, 250).enableBVH().build().renderImage().writeToImage("teapotBVH");
+        prepareTeapot().setResolution(250, 250).enableGrid().build().renderImage().writeToImage("teapotGrid");
+        prepareTeapot().setResolution(250, 250).enableKdTree().build().renderImage().writeToImage("teapotKdTree");
+        prepareTeapot().setResolution(250, 250).enableAuto().build().renderImage().writeToImage("teapotAuto");
+        assertSameImage("teapotBVH", "teapotGrid");
+        assertSameImage("teapotBVH", "teapotKdTree");
+        assertSameImage("teapotBVH", "teapotAuto");
+    }
+
     /**
      * Teapot with CBR
      */
@@ -1659,7 +1680,7 @@ class TeapotTest {
     }
 
     /** the field is used for creating the bubbles from the teapot */
-    private static Geometries bubbles;
+    private static SphereCloud bubbles;
     /** the field is used for creating the bubbles from the teapot */
     private static double     coneX;
     /** the field is used for creating the bubbles from the teapot */
@@ -1685,6 +1706,15 @@ class TeapotTest {
     /** the field is used for creating the bubbles from the teapot */
     private static double     bubbleMaxKD;
 
+    /**
+     * A bubble: its center, its radius and its own material
+     * @param center   the center of the bubble
+     * @param radius   the radius of the bubble
+     * @param material the material of the bubble
+     */
+    private record Bubble(Point center, double radius, Material material) {
+    }
+
     /**
      * Set the cone for generating bubbles from the teapot
      * @param x         X coordinate for the cone top
@@ -1730,9 +1760,9 @@ class TeapotTest {
     /**
      * Generate a bubble
      * @param  y the height in cone for the center of the bubble
-     * @return   the bubble sphere
+     * @return   the bubble
      */
-    private static Sphere getRandomBubble(double y) {
+    private static Bubble getRandomBubble(double y) {
         double  coneR    = y * radiusAtOne;
         double  randomR  = random(0, coneR);
         double  angle    = random(0, 2 * PI);
@@ -1744,17 +1774,28 @@ class TeapotTest {
                 random(bubbleMinKD, bubbleMaxKD),                            //
                 random(bubbleMinKD, bubbleMaxKD));
         var     material = new Material().setKD(kd).setKS(bubbleKS).setkR(bubbleKR).setkT(bubbleKT);
-        return (Sphere) new Sphere(r, o).setMaterial(material);
+        return new Bubble(o, r, material);
     }
 
     /**
-     * Create a composite geometry containing the bubbles (generate the bubbles)
+     * Create a sphere cloud containing the bubbles (generate the bubbles), each bubble with
+     * its own entry in the material table of the cloud
      * @param amount amount of bubbles to generate
      */
     private static void prepareBubbles(int amount) {
-        bubbles = new Geometries();
-        while (amount-- > 0) {
-            bubbles.add(getRandomBubble(random(0, maxConeHeight)));
+        double[]   centers   = new double[3 * amount];
+        double[]   radii     = new double[amount];
+        Material[] materials = new Material[amount];
+        int[]      indices   = new int[amount];
+        for (int i = 0; i < amount; ++i) {
+            Bubble bubble = getRandomBubble(random(0, maxConeHeight));
+            centers[3 * i]     = bubble.center().getX();
+            centers[3 * i + 1] = bubble.center().getY();
+            centers[3 * i + 2] = bubble.center().getZ();
+            radii[i]           = bubble.radius();
+            materials[i]       = bubble.material();
+            indices[i]         = i;
         }
+        bubbles = new SphereCloud(centers, radii, materials, indices);
     }
-}
\ No newline at end of file
+}
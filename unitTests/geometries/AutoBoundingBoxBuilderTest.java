@@ -0,0 +1,99 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the automatic choice of bounding volume builder
+ */
+@ExtendWith(RestoreAccelerators.class)
+class AutoBoundingBoxBuilderTest {
+
+    /** The largest number of finite geometries tested one by one */
+    private static final int MAX_FEW = 8;
+
+    /**
+     * Creates a row of small spheres along the X axis, 3 apart from x=0.
+     * @param count the number of spheres
+     * @return the spheres
+     */
+    private List<Intersectable> createRow(int count) {
+        List<Intersectable> row = new ArrayList<>();
+        for (int i = 0; i < count; ++i) row.add(new Sphere(0.5, new Point(3.0 * i, 0.0, 0.0)));
+        return row;
+    }
+
+    /**
+     * Test method for {@link geometries.AutoBoundingBoxBuilder#createBoundingBox(List)}.
+     */
+    @Test
+    void testChoice() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Few geometries are tested one by one
+        AutoBoundingBoxBuilder builder = new AutoBoundingBoxBuilder();
+        builder.createBoundingBox(createRow(3));
+        assertEquals(AutoBoundingBoxBuilder.Choice.CBR, builder.getChoice(), "Few geometries need no structure");
+        assertNotNull(builder.getReason(), "The choice must have a reason");
+
+        // TC02: Many even geometries go into a grid
+        builder = new AutoBoundingBoxBuilder();
+        builder.createBoundingBox(createRow(20));
+        assertEquals(AutoBoundingBoxBuilder.Choice.GRID, builder.getChoice(), "Even geometries suit a grid");
+
+        // TC03: A dense cluster in a large scene goes into a kd-tree
+        List<Intersectable> cluster = new ArrayList<>();
+        for (int i = 0; i < 30; ++i) cluster.add(new Sphere(0.1, new Point(i % 3 * 0.3, i / 3 % 3 * 0.3, i / 9 * 0.3)));
+        cluster.add(new Sphere(0.1, new Point(100.0, 100.0, 100.0)));
+        builder = new AutoBoundingBoxBuilder();
+        builder.createBoundingBox(cluster);
+        assertEquals(AutoBoundingBoxBuilder.Choice.KD_TREE, builder.getChoice(), "A cluster suits a kd-tree");
+
+        // TC04: Widely spread sizes go into a kd-tree
+        List<Intersectable> sizes = createRow(20);
+        sizes.add(new Sphere(1000.0, new Point(0.0, 2000.0, 0.0)));
+        builder = new AutoBoundingBoxBuilder();
+        builder.createBoundingBox(sizes);
+        assertEquals(AutoBoundingBoxBuilder.Choice.KD_TREE, builder.getChoice(), "Spread sizes suit a kd-tree");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Infinite geometries are not counted for the choice
+        List<Intersectable> withPlanes = createRow(MAX_FEW);
+        for (int i = 0; i < 20; ++i)
+            withPlanes.add(new Plane(new Point(0.0, 0.0, -5.0 - i), new Vector(0.0, 0.0, 1.0)));
+        builder = new AutoBoundingBoxBuilder();
+        builder.createBoundingBox(withPlanes);
+        assertEquals(AutoBoundingBoxBuilder.Choice.CBR, builder.getChoice(), "Infinite geometries need no structure");
+
+        // TC12: One geometry more than few goes into a structure
+        builder = new AutoBoundingBoxBuilder();
+        builder.createBoundingBox(createRow(MAX_FEW + 1));
+        assertEquals(AutoBoundingBoxBuilder.Choice.GRID, builder.getChoice(), "Nine geometries need a structure");
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.AutoBoundingBoxBuilder#findClosestIntersection(Ray, List, Intersectable.Intersection)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The chosen structure finds the closest hit and all the hits
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new AutoBoundingBoxBuilder());
+        Geometries scene = new Geometries();
+        for (Intersectable sphere : createRow(20)) scene.add(sphere);
+        Ray ray = new Ray(new Point(100.0, 0.0, 0.0), new Vector(-1.0, 0.0, 0.0));
+        Intersectable.Intersection hit = scene.findClosestIntersection(ray, new Intersectable.Intersection());
+        assertNotNull(hit, "Ray against the row must hit");
+        assertEquals(new Point(57.5, 0.0, 0.0), hit.point, "Wrong closest hit");
+        assertEquals(40, scene.findIntersections(ray).size(), "Ray along the row must cross every sphere");
+    }
+}
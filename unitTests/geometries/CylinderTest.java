@@ -4,6 +4,8 @@ import primitives.*;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 /**
  * Test class for the Cylinder class, specifically the getNormal method.
  * It includes tests for various points on the cylinder's surface and bases.
@@ -61,4 +63,80 @@ class CylinderTest {
         assertTrue(normal7.equals(new Vector(1.0, 0.0, 0.0)) || normal7.equals(new Vector(0.0, 0.0, 1.0)),
                 "Cylinder's normal at the top edge is incorrect");
     }
+
+    /**
+     * Tests the findIntersections method of the Cylinder class.
+     * This test covers rays through the lateral surface, through the bases and along the rims.
+     */
+    @Test
+    void testFindIntersections() {
+        Ray axisRay = new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0)); // Cylinder along Z-axis
+        Cylinder cylinder = new Cylinder(1.0, axisRay, 4.0);
+        Vector right = new Vector(1.0, 0.0, 0.0);
+        Vector down = new Vector(0.0, 0.0, -1.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the lateral surface twice (2 points)
+        assertEquals(List.of(new Point(-1.0, 0.0, 2.0), new Point(1.0, 0.0, 2.0)),
+                cylinder.findIntersections(new Ray(new Point(-3.0, 0.0, 2.0), right)),
+                "Ray crosses the lateral surface");
+
+        // TC02: Ray crosses both bases (2 points)
+        assertEquals(List.of(new Point(0.5, 0.0, 4.0), new Point(0.5, 0.0, 0.0)),
+                cylinder.findIntersections(new Ray(new Point(0.5, 0.0, 6.0), down)),
+                "Ray crosses both bases");
+
+        // TC03: Ray crosses the top base and the lateral surface (2 points)
+        assertEquals(List.of(new Point(0.0, 0.0, 4.0), new Point(1.0, 0.0, 3.0)),
+                cylinder.findIntersections(new Ray(new Point(-1.0, 0.0, 5.0), new Vector(1.0, 0.0, -1.0))),
+                "Ray crosses the top base and the lateral surface");
+
+        // TC04: Ray passes above the cylinder (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-3.0, 0.0, 5.0), right)),
+                "Ray passes above the cylinder");
+
+        // TC05: Ray starts inside the cylinder (1 point)
+        assertEquals(List.of(new Point(0.0, 0.0, 0.0)),
+                cylinder.findIntersections(new Ray(new Point(0.0, 0.0, 2.0), down)),
+                "Ray starts inside the cylinder");
+
+        // TC06: Closest hit is on the lateral surface
+        Intersectable.Intersection hit = cylinder.findClosestIntersection(
+                new Ray(new Point(-3.0, 0.0, 2.0), right), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the cylinder");
+        assertEquals(new Point(-1.0, 0.0, 2.0), hit.point, "Wrong closest hit on the cylinder");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray along the lateral surface (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(1.0, 0.0, 6.0), down)),
+                "Ray along the lateral surface");
+
+        // TC12: Ray through the rim of the top base (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-3.0, 0.0, 4.0), right)),
+                "Ray through the rims");
+
+        // TC13: Ray tangent to the lateral surface (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-3.0, 1.0, 2.0), right)),
+                "Ray tangent to the lateral surface");
+    }
+
+    /**
+     * Tests the bounding box of the Cylinder class, which must follow the axis orientation.
+     */
+    @Test
+    void testCreateBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Cylinder along the Z axis is not inflated along Z
+        Cylinder cylinder = new Cylinder(1.0, new Ray(Point.ZERO, new Vector(0.0, 0.0, 1.0)), 4.0);
+        AABB box = cylinder.createBoundingBox();
+        assertEquals(new Point(-1.0, -1.0, 0.0), box.min, "Wrong minimum of the bounding box");
+        assertEquals(new Point(1.0, 1.0, 4.0), box.max, "Wrong maximum of the bounding box");
+
+        // TC02: Slanted cylinder in the XZ plane
+        cylinder = new Cylinder(1.0, new Ray(Point.ZERO, new Vector(1.0, 0.0, 1.0)), Math.sqrt(2));
+        box = cylinder.createBoundingBox();
+        double e = Math.sqrt(0.5);
+        assertEquals(new Point(-e, -1.0, -e), box.min, "Wrong minimum of the slanted bounding box");
+        assertEquals(new Point(1 + e, 1.0, 1 + e), box.max, "Wrong maximum of the slanted bounding box");
+    }
 }
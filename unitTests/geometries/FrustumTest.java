@@ -0,0 +1,159 @@
+package geometries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the frustum of a beam of rays
+ */
+@ExtendWith(RestoreAccelerators.class)
+class FrustumTest {
+
+    /** A frustum along -Z with a right angle between opposite sides */
+    private final Frustum frustum = new Frustum(Point.ZERO, new Vector(-1.0, -1.0, -1.0), new Vector(1.0, -1.0, -1.0),
+            new Vector(1.0, 1.0, -1.0), new Vector(-1.0, 1.0, -1.0));
+
+    /**
+     * Turns the bounding boxes on, since the hierarchy is built over them.
+     */
+    @BeforeEach
+    void enableBoundingBoxes() {
+        Intersectable.enableBVH = true;
+    }
+
+    /**
+     * Creates a box.
+     * @param minX the smallest x
+     * @param minY the smallest y
+     * @param minZ the smallest z
+     * @param maxX the largest x
+     * @param maxY the largest y
+     * @param maxZ the largest z
+     * @return the box
+     */
+    private static AABB box(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        return new AABB(new Point(minX, minY, minZ), new Point(maxX, maxY, maxZ));
+    }
+
+    /**
+     * Test method for {@link geometries.Frustum#Frustum(Point, Vector...)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Edges given the other way around make the same frustum
+        Frustum reversed = new Frustum(Point.ZERO, new Vector(-1.0, 1.0, -1.0), new Vector(1.0, 1.0, -1.0),
+                new Vector(1.0, -1.0, -1.0), new Vector(-1.0, -1.0, -1.0));
+        assertFalse(reversed.excludes(box(-1, -1, -11, 1, 1, -9)), "Box on the axis must be kept");
+        assertTrue(reversed.excludes(box(20, -1, -11, 22, 1, -9)), "Box to the side must be excluded");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Two edges do not bound a frustum
+        assertThrows(IllegalArgumentException.class,
+                () -> new Frustum(Point.ZERO, new Vector(0.0, 0.0, -1.0), new Vector(1.0, 0.0, -1.0)),
+                "A frustum needs 3 edges");
+    }
+
+    /**
+     * Test method for {@link geometries.Frustum#excludes(AABB)}.
+     */
+    @Test
+    void testExcludes() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Box inside the frustum
+        assertFalse(frustum.excludes(box(-1, -1, -11, 1, 1, -9)), "Box inside the frustum must be kept");
+
+        // TC02: Box across a side plane
+        assertFalse(frustum.excludes(box(8, -1, -11, 12, 1, -9)), "Box across a side must be kept");
+
+        // TC03: Box beyond a side plane
+        assertTrue(frustum.excludes(box(20, -1, -11, 22, 1, -9)), "Box beyond a side must be excluded");
+
+        // TC04: Box behind the apex
+        assertTrue(frustum.excludes(box(-1, -1, 9, 1, 1, 11)), "Box behind the apex must be excluded");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Box touching a side plane from outside
+        assertFalse(frustum.excludes(box(10, -1, -10, 12, 1, -8)), "Box touching a side must be kept");
+
+        // TC12: Box around the apex
+        assertFalse(frustum.excludes(box(-1, -1, -1, 1, 1, 1)), "Box around the apex must be kept");
+    }
+
+    /**
+     * Test method for {@link geometries.Frustum#enclosing(Ray[], int)}.
+     */
+    @Test
+    void testEnclosing() {
+        Point eye = new Point(0.0, 0.0, 10.0);
+        Ray[] rays = new Ray[9];
+        for (int i = 0; i < 9; ++i) rays[i] = new Ray(eye, new Vector(i % 3 - 1.0, i / 3 - 1.0, -10.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Rays from a common head are enclosed, up to the boxes their edge rays touch
+        Frustum enclosing = Frustum.enclosing(rays, rays.length);
+        assertNotNull(enclosing, "Rays from a common head must be enclosed");
+        assertFalse(enclosing.excludes(box(-0.1, -0.1, -0.1, 0.1, 0.1, 0.1)), "Box on the axis must be kept");
+        assertFalse(enclosing.excludes(box(1.0, 1.0, -0.1, 1.1, 1.1, 0.1)), "Box touched by a corner ray must be kept");
+        assertTrue(enclosing.excludes(box(1.1, -0.1, -0.1, 1.2, 0.1, 0.1)), "Box beside the rays must be excluded");
+
+        // TC02: Rays from different heads are not enclosed
+        rays[4] = new Ray(new Point(0.0, 1.0, 10.0), new Vector(0.0, 0.0, -1.0));
+        assertNull(Frustum.enclosing(rays, rays.length), "Rays from different heads must not be enclosed");
+
+        // TC03: Rays spread too widely are not enclosed
+        rays[4] = new Ray(eye, new Vector(1.0, 0.0, 0.0));
+        assertNull(Frustum.enclosing(rays, rays.length), "Rays spread too widely must not be enclosed");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A single ray is enclosed in a thin frustum
+        enclosing = Frustum.enclosing(rays, 1);
+        assertNotNull(enclosing, "A single ray must be enclosed");
+        assertFalse(enclosing.excludes(box(-1.05, -1.05, -0.1, -0.95, -0.95, 0.1)), "Box on the ray must be kept");
+        assertTrue(enclosing.excludes(box(-0.1, -0.1, -0.1, 0.1, 0.1, 0.1)), "Box beside the ray must be excluded");
+
+        // TC12: No rays
+        assertNull(Frustum.enclosing(rays, 0), "No rays must not be enclosed");
+    }
+
+    /**
+     * Test method for {@link geometries.Frustum#entry(BVHNode)}.
+     */
+    @Test
+    void testEntry() {
+        List<Intersectable> spheres = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) spheres.add(new Sphere(1.0, new Point(10.0 * i, 0.0, 0.0)));
+        BVHNode root = BVHNode.buildBVHTree(spheres);
+        Point eye = new Point(0.0, 0.0, 100.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A frustum around one sphere starts from a node below the root holding it
+        Frustum narrow = new Frustum(eye, new Vector(49.0, -1.0, -100.0), new Vector(51.0, -1.0, -100.0),
+                new Vector(51.0, 1.0, -100.0), new Vector(49.0, 1.0, -100.0));
+        BVHNode entry = narrow.entry(root);
+        assertNotNull(entry, "A frustum around a sphere must reach the hierarchy");
+        assertNotSame(root, entry, "A frustum around a sphere must start below the root");
+        assertNotNull(entry.findClosestIntersection(new Ray(eye, new Vector(50.0, 0.0, -100.0))),
+                "The entry node must hold the sphere");
+        assertSame(entry, narrow.entry(root), "The entry node must be found once");
+
+        // TC02: A frustum around all the spheres starts from the root
+        Frustum wide = new Frustum(eye, new Vector(-10.0, -10.0, -100.0), new Vector(160.0, -10.0, -100.0),
+                new Vector(160.0, 10.0, -100.0), new Vector(-10.0, 10.0, -100.0));
+        assertSame(root, wide.entry(root), "A frustum around all the spheres must start from the root");
+
+        // TC03: A frustum beside the spheres does not reach the hierarchy
+        Frustum beside = new Frustum(eye, new Vector(-1.0, 49.0, -100.0), new Vector(1.0, 49.0, -100.0),
+                new Vector(1.0, 51.0, -100.0), new Vector(-1.0, 51.0, -100.0));
+        assertNull(beside.entry(root), "A frustum beside the spheres must not reach the hierarchy");
+    }
+}
@@ -70,4 +70,85 @@ class GeometriesTests {
         assertEquals(1, intersections.size(), "Expected one intersection point");
     }
 
+    /**
+     * Tests the commit method of the Geometries class.
+     */
+    @Test
+    void testCommit() {
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new BVHBoundingBoxBuilder());
+        try {
+            Geometries inner = new Geometries(new Sphere(1.0, new Point(0.0, 0.0, 2.0)));
+            Geometries geometries = new Geometries(inner, new Sphere(1.0, new Point(0.0, 0.0, 5.0)));
+            Ray ray = new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0));
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: A committed collection finds the same intersections
+            geometries.commit();
+            assertEquals(4, geometries.findIntersections(ray).size(), "Committed collection lost intersections");
+
+            // TC02: Nested collections are committed too and cannot change
+            assertThrows(IllegalStateException.class, () -> inner.add(new Sphere(1.0, Point.ZERO)),
+                    "Added a geometry to a committed nested collection");
+            assertThrows(IllegalStateException.class, () -> geometries.add(new Sphere(1.0, Point.ZERO)),
+                    "Added a geometry to a committed collection");
+
+            // =============== Boundary Values Tests ==================
+            // TC11: Committing again after the strategy changed rebuilds with the new strategy
+            Geometries.setBoundingVolumeBuilder(new GridBoundingBoxBuilder());
+            geometries.commit();
+            assertEquals(4, geometries.findIntersections(ray).size(), "Recommitted collection lost intersections");
+        } finally {
+            Intersectable.enableBVH = false;
+            Geometries.setBoundingVolumeBuilder(null);
+        }
+    }
+
+    /**
+     * Tests that a collection built with a BVH finds all the intersections of a ray with the
+     * spheres and triangles packed in its leaves, as shadow and transparency rays need.
+     */
+    @Test
+    void testCommittedIntersections() {
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new BVHBoundingBoxBuilder());
+        try {
+            Geometries geometries = new Geometries();
+            for (int i = 0; i < 10; ++i)
+                geometries.add(new Sphere(1.0, new Point(0.0, 0.0, 4.0 * i)),
+                        new Triangle(new Point(-1.0, -1.0, 4.0 * i + 2), new Point(1.0, -1.0, 4.0 * i + 2),
+                                new Point(0.0, 1.0, 4.0 * i + 2)));
+            geometries.commit();
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: A ray through all the geometries meets each sphere twice and each triangle once
+            Ray ray = new Ray(new Point(0.0, 0.0, -5.0), new Vector(0.0, 0.0, 1.0));
+            List<Point> intersections = geometries.findIntersections(ray);
+            assertNotNull(intersections, "Ray must cross the geometries");
+            assertEquals(30, intersections.size(), "Wrong number of intersections");
+            for (int i = 0; i < 10; ++i) {
+                assertTrue(intersections.contains(new Point(0.0, 0.0, 4.0 * i - 1)), "Missing sphere entry " + i);
+                assertTrue(intersections.contains(new Point(0.0, 0.0, 4.0 * i + 1)), "Missing sphere exit " + i);
+                assertTrue(intersections.contains(new Point(0.0, 0.0, 4.0 * i + 2)), "Missing triangle " + i);
+            }
+
+            // TC02: A ray missing all the geometries
+            assertNull(geometries.findIntersections(new Ray(new Point(5.0, 5.0, -5.0), new Vector(0.0, 0.0, 1.0))),
+                    "Ray must miss the geometries");
+
+            // =============== Boundary Values Tests ==================
+            // TC11: A ray starting inside the last sphere meets only its exit and the last triangle
+            assertEquals(List.of(new Point(0.0, 0.0, 37.0), new Point(0.0, 0.0, 38.0)),
+                    geometries.findIntersections(new Ray(new Point(0.0, 0.0, 35.5), new Vector(0.0, 0.0, 1.0))),
+                    "Wrong intersections from inside a sphere");
+
+            // TC12: A ray starting at the center of the last sphere meets it once, then the last triangle
+            assertEquals(List.of(new Point(0.0, 0.0, 37.0), new Point(0.0, 0.0, 38.0)),
+                    geometries.findIntersections(new Ray(new Point(0.0, 0.0, 36.0), new Vector(0.0, 0.0, 1.0))),
+                    "Wrong intersections from the center of a sphere");
+        } finally {
+            Intersectable.enableBVH = false;
+            Geometries.setBoundingVolumeBuilder(null);
+        }
+    }
 }
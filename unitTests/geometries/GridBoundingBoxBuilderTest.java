@@ -0,0 +1,184 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the uniform grid bounding volume builder
+ */
+@ExtendWith(RestoreAccelerators.class)
+class GridBoundingBoxBuilderTest {
+
+    /**
+     * Creates a row of 20 unit spheres along the X axis, 3 apart from x=0 to x=57,
+     * above the infinite plane z=-5.
+     * @return the scene, built with a grid
+     */
+    private Geometries createScene() {
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new GridBoundingBoxBuilder());
+        Geometries scene = new Geometries(new Plane(new Point(0.0, 0.0, -5.0), new Vector(0.0, 0.0, 1.0)));
+        for (int i = 0; i < 20; ++i) scene.add(new Sphere(1.0, new Point(3.0 * i, 0.0, 0.0)));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link geometries.GridBoundingBoxBuilder#findIntersections(Ray, java.util.List)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Geometries scene = createScene();
+        Vector right = new Vector(1.0, 0.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the whole row (40 points)
+        assertEquals(40, scene.findIntersections(new Ray(new Point(-10.0, 0.0, 0.0), right)).size(),
+                "Ray crossing the row must cross every sphere once");
+
+        // TC02: Ray crosses one sphere and the plane (3 points)
+        assertEquals(3, scene.findIntersections(new Ray(new Point(30.0, 0.0, 10.0), new Vector(0.0, 0.0, -1.0)))
+                .size(), "Ray down through a sphere must also cross the plane");
+
+        // TC03: Ray misses everything (0 points)
+        assertNull(scene.findIntersections(new Ray(new Point(30.0, 0.0, 10.0), new Vector(0.0, 1.0, 1.0))),
+                "Ray away from the scene must not intersect");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray starts inside a sphere in the middle of the grid (19 points)
+        assertEquals(19, scene.findIntersections(new Ray(new Point(30.0, 0.0, 0.0), right)).size(),
+                "Ray from inside a sphere must cross the spheres ahead only");
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.GridBoundingBoxBuilder#findClosestIntersection(Ray, java.util.List, Intersectable.Intersection)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        Geometries scene = createScene();
+        Vector right = new Vector(1.0, 0.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray along the row hits the first sphere
+        Intersectable.Intersection hit = scene.findClosestIntersection(new Ray(new Point(-10.0, 0.0, 0.0), right),
+                new Intersectable.Intersection());
+        assertNotNull(hit, "Ray along the row must hit");
+        assertEquals(new Point(-1.0, 0.0, 0.0), hit.point, "Wrong closest hit along the row");
+
+        // TC02: Ray under the row hits the infinite plane
+        hit = scene.findClosestIntersection(new Ray(new Point(30.0, 0.0, -3.0), new Vector(0.0, 0.0, -1.0)),
+                new Intersectable.Intersection());
+        assertNotNull(hit, "Ray under the row must hit the plane");
+        assertEquals(new Point(30.0, 0.0, -5.0), hit.point, "Wrong hit on the plane");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray against the row hits the last sphere
+        hit = scene.findClosestIntersection(new Ray(new Point(100.0, 0.0, 0.0), new Vector(-1.0, 0.0, 0.0)),
+                new Intersectable.Intersection());
+        assertNotNull(hit, "Ray against the row must hit");
+        assertEquals(new Point(58.0, 0.0, 0.0), hit.point, "Wrong closest hit against the row");
+    }
+
+    /**
+     * 16 spheres of radius 1.5 centered at (2i+1, 2j+1, 2((i+j)%4)+1) for i, j from 0 to 3.
+     * Their bounds span -0.5 to 8.5 along every axis, so a grid over them has 4 cells of 2.25
+     * along each axis, with cell boundaries at -0.5, 1.75, 4, 6.25 and 8.5.
+     */
+    private final Sphere[] cellSpheres = new Sphere[16];
+
+    {
+        for (int i = 0; i < 4; ++i)
+            for (int j = 0; j < 4; ++j)
+                cellSpheres[4 * i + j] = new Sphere(1.5, new Point(2.0 * i + 1, 2.0 * j + 1, 2.0 * ((i + j) % 4) + 1));
+    }
+
+    /**
+     * Creates a scene of the {@link #cellSpheres}.
+     * @param builder the builder to commit the scene with, or null for a flat scene
+     * @return the scene
+     */
+    private Geometries createCellScene(BoundingVolumeBuilder builder) {
+        Intersectable.enableBVH = builder != null;
+        Geometries.setBoundingVolumeBuilder(builder);
+        Geometries scene = new Geometries(cellSpheres);
+        scene.commit();
+        return scene;
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.GridBoundingBoxBuilder#findClosestIntersection(Ray, java.util.List, Intersectable.Intersection)}
+     * with rays running along cell boundaries.
+     */
+    @Test
+    void testCellBoundaries() {
+        Geometries flat = createCellScene(null);
+        Geometries grid = createCellScene(new GridBoundingBoxBuilder());
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A ray along the edge shared by four cells, at y=4 and z=4, crosses the four
+        // spheres centered 1 off it along both axes
+        Ray ray = new Ray(new Point(-5.0, 4.0, 4.0), new Vector(1.0, 0.0, 0.0));
+        assertEquals(8, grid.findIntersections(ray).size(), "Ray along a cell edge must cross four spheres");
+        Intersectable.Intersection hit = grid.findClosestIntersection(ray, new Intersectable.Intersection());
+        assertNotNull(hit, "Ray along a cell edge must hit");
+        assertEquals(new Point(0.5, 4.0, 4.0), hit.point, "Wrong closest hit along a cell edge");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Rays both ways along every axis, on every edge where cell boundaries meet and
+        // on the boundary planes in between, find what the flat scene finds
+        double[] boundaries = { -0.5, 1.75, 4.0, 6.25, 8.5 };
+        double[] between = { 1.0, 3.0, 5.0, 7.0 };
+        for (int axis = 0; axis < 3; ++axis)
+            for (int sign = -1; sign <= 1; sign += 2)
+                for (double[] firstLines : new double[][] { boundaries, between })
+                    for (double first : firstLines)
+                        for (double second : boundaries)
+                            assertSameHits(flat, grid, axisRay(axis, sign, first, second));
+    }
+
+    /**
+     * Creates a ray parallel to an axis, starting outside the scene of
+     * {@link #createCellScene(BoundingVolumeBuilder)}.
+     * @param axis   the axis
+     * @param sign   the direction along the axis, 1 or -1
+     * @param first  the coordinate of the ray along the next axis
+     * @param second the coordinate of the ray along the axis after it
+     * @return the ray
+     */
+    private static Ray axisRay(int axis, int sign, double first, double second) {
+        double[] head = new double[3], direction = new double[3];
+        head[axis] = sign > 0 ? -5.0 : 15.0;
+        head[(axis + 1) % 3] = first;
+        head[(axis + 2) % 3] = second;
+        direction[axis] = sign;
+        return new Ray(new Point(head[0], head[1], head[2]), new Vector(direction[0], direction[1], direction[2]));
+    }
+
+    /**
+     * Asserts that a ray finds the same intersections in two scenes.
+     * @param expected the reference scene
+     * @param actual   the tested scene
+     * @param ray      the ray
+     */
+    private static void assertSameHits(Geometries expected, Geometries actual, Ray ray) {
+        var expectedPoints = expected.findIntersections(ray);
+        var actualPoints = actual.findIntersections(ray);
+        assertEquals(expectedPoints == null ? 0 : expectedPoints.size(), actualPoints == null ? 0 : actualPoints.size(),
+                "Wrong number of intersections of " + ray);
+        Intersectable.Intersection expectedHit = expected.findClosestIntersection(ray, new Intersectable.Intersection());
+        Intersectable.Intersection actualHit = actual.findClosestIntersection(ray, new Intersectable.Intersection());
+        if (expectedHit == null) {
+            assertNull(actualHit, "Hit along " + ray);
+            return;
+        }
+        assertNotNull(actualHit, "Missed along " + ray);
+        assertSame(expectedHit.geometry, actualHit.geometry, "Wrong geometry hit along " + ray);
+        assertEquals(expectedHit.point, actualHit.point, "Wrong closest hit along " + ray);
+    }
+}
@@ -0,0 +1,96 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing geometry instances
+ */
+class InstanceTest {
+
+    /** A unit sphere at the origin, shared by the instances */
+    private final Sphere sphere = new Sphere(1.0, Point.ZERO);
+
+    /** A direction pointing down the Z axis */
+    private final Vector down = new Vector(0.0, 0.0, -1.0);
+
+    /**
+     * Test method for {@link geometries.Instance#Instance(Intersectable, double...)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Wrong number of matrix values
+        assertThrows(IllegalArgumentException.class, () -> new Instance(sphere, 1, 0, 0, 0, 0, 1, 0, 0),
+                "Constructed an instance with a partial matrix");
+
+        // TC02: Singular transform
+        assertThrows(IllegalArgumentException.class,
+                () -> new Instance(sphere, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0),
+                "Constructed an instance with a singular transform");
+
+        // TC03: Nested instance
+        Instance instance = new Instance(sphere, new Vector(1.0, 0.0, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new Instance(instance, new Vector(1.0, 0.0, 0.0)),
+                "Constructed a nested instance");
+
+        // TC04: Instance nested inside a collection
+        assertThrows(IllegalArgumentException.class,
+                () -> new Instance(new Geometries(sphere, new Geometries(instance)), new Vector(1.0, 0.0, 0.0)),
+                "Constructed an instance nested inside a collection");
+
+        // TC05: Instance added to the shared collection after construction
+        Geometries group = new Geometries(sphere);
+        Instance outer = new Instance(group, new Vector(1.0, 0.0, 0.0));
+        group.add(instance);
+        assertThrows(IllegalStateException.class, () -> new Geometries(outer).commit(),
+                "Committed an instance nested inside a collection");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Moved instance is hit where the copy is (2 points)
+        Instance moved = new Instance(sphere, new Vector(5.0, 0.0, 0.0));
+        assertEquals(List.of(new Point(5.0, 0.0, 1.0), new Point(5.0, 0.0, -1.0)),
+                moved.findIntersections(new Ray(new Point(5.0, 0.0, 10.0), down)),
+                "Wrong intersections with a moved instance");
+
+        // TC02: The shared geometry's own place is empty (0 points)
+        assertNull(moved.findIntersections(new Ray(new Point(0.0, 0.0, 10.0), down)),
+                "Ray hit the shared geometry instead of its instance");
+
+        // TC03: Scaled and rotated instance - closest hit distance is in world units
+        Instance scaled = new Instance(sphere, new Vector(0.0, 1.0, 0.0), 90, 2, new Point(0.0, 0.0, -10.0));
+        Intersectable.Intersection hit = scaled.findClosestIntersection(
+                new Ray(new Point(0.0, 0.0, 10.0), down), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the scaled instance");
+        assertEquals(new Point(0.0, 0.0, -8.0), hit.point, "Wrong closest hit on the scaled instance");
+        assertEquals(18, hit.t, 0.000001, "Wrong hit distance on the scaled instance");
+        assertSame(sphere, hit.geometry, "Hit must report the shared geometry");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#getNormal(Intersectable.Intersection)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Normal of a rotated triangle is rotated too
+        Triangle triangle = new Triangle(new Point(-1.0, -1.0, 0.0), new Point(1.0, -1.0, 0.0), new Point(0.0, 1.0, 0.0));
+        Instance rotated = new Instance(triangle, new Vector(1.0, 0.0, 0.0), 90, 1, Point.ZERO);
+        Intersectable.Intersection hit = rotated.findClosestIntersection(
+                new Ray(new Point(0.0, 10.0, 0.0), new Vector(0.0, -1.0, 0.0)), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the rotated triangle");
+        assertEquals(new Vector(0.0, -1.0, 0.0), hit.computeNormal(), "Wrong normal of the rotated triangle");
+    }
+}
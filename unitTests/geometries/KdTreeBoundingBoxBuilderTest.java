@@ -0,0 +1,155 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the kd-tree bounding volume builder
+ */
+@ExtendWith(RestoreAccelerators.class)
+class KdTreeBoundingBoxBuilderTest {
+
+    /**
+     * Creates a row of 20 unit spheres along the X axis, 3 apart from x=0 to x=57,
+     * above the infinite plane z=-5.
+     * @return the scene, built with a kd-tree
+     */
+    private Geometries createScene() {
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new KdTreeBoundingBoxBuilder());
+        Geometries scene = new Geometries(new Plane(new Point(0.0, 0.0, -5.0), new Vector(0.0, 0.0, 1.0)));
+        for (int i = 0; i < 20; ++i) scene.add(new Sphere(1.0, new Point(3.0 * i, 0.0, 0.0)));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link geometries.KdTreeBoundingBoxBuilder#findIntersections(Ray, java.util.List)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Geometries scene = createScene();
+        Vector right = new Vector(1.0, 0.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the whole row (40 points)
+        assertEquals(40, scene.findIntersections(new Ray(new Point(-10.0, 0.0, 0.0), right)).size(),
+                "Ray crossing the row must cross every sphere once");
+
+        // TC02: Ray crosses one sphere and the plane (3 points)
+        assertEquals(3, scene.findIntersections(new Ray(new Point(30.0, 0.0, 10.0), new Vector(0.0, 0.0, -1.0)))
+                .size(), "Ray down through a sphere must also cross the plane");
+
+        // TC03: Ray misses everything (0 points)
+        assertNull(scene.findIntersections(new Ray(new Point(30.0, 0.0, 10.0), new Vector(0.0, 1.0, 1.0))),
+                "Ray away from the scene must not intersect");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray starts inside a sphere in the middle of the tree (19 points)
+        assertEquals(19, scene.findIntersections(new Ray(new Point(30.0, 0.0, 0.0), right)).size(),
+                "Ray from inside a sphere must cross the spheres ahead only");
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.KdTreeBoundingBoxBuilder#findClosestIntersection(Ray, java.util.List, Intersectable.Intersection)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        Geometries scene = createScene();
+        Vector right = new Vector(1.0, 0.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray along the row hits the first sphere
+        Intersectable.Intersection hit = scene.findClosestIntersection(new Ray(new Point(-10.0, 0.0, 0.0), right),
+                new Intersectable.Intersection());
+        assertNotNull(hit, "Ray along the row must hit");
+        assertEquals(new Point(-1.0, 0.0, 0.0), hit.point, "Wrong closest hit along the row");
+
+        // TC02: Ray under the row hits the infinite plane
+        hit = scene.findClosestIntersection(new Ray(new Point(30.0, 0.0, -3.0), new Vector(0.0, 0.0, -1.0)),
+                new Intersectable.Intersection());
+        assertNotNull(hit, "Ray under the row must hit the plane");
+        assertEquals(new Point(30.0, 0.0, -5.0), hit.point, "Wrong hit on the plane");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray against the row hits the last sphere
+        hit = scene.findClosestIntersection(new Ray(new Point(100.0, 0.0, 0.0), new Vector(-1.0, 0.0, 0.0)),
+                new Intersectable.Intersection());
+        assertNotNull(hit, "Ray against the row must hit");
+        assertEquals(new Point(58.0, 0.0, 0.0), hit.point, "Wrong closest hit against the row");
+    }
+
+    /**
+     * Creates two clusters of ten small spheres along the X axis, from x=0 to x=9 and from
+     * x=91 to x=100, a sphere at (91,2,0), five triangles lying in the plane x=50 - boxes with
+     * no thickness, on a candidate split plane - and a slanted triangle from x=5 to x=95,
+     * which straddles every split between the clusters and crosses the line y=2, z=0 at x=93.
+     * @return the scene, built with a kd-tree
+     */
+    private Geometries createSplitScene() {
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new KdTreeBoundingBoxBuilder());
+        Geometries scene = new Geometries(
+                new Sphere(0.4, new Point(91.0, 2.0, 0.0)),
+                new Triangle(new Point(5.0, -10.0, -8.8), new Point(95.0, -10.0, 0.2), new Point(95.0, 10.0, 0.2)));
+        for (int i = 0; i < 10; ++i)
+            scene.add(new Sphere(0.4, new Point((double) i, 0.0, 0.0)), new Sphere(0.4, new Point(91.0 + i, 0.0, 0.0)));
+        for (int i = -2; i <= 2; ++i)
+            scene.add(new Triangle(new Point(50.0, 3.0 * i - 1, -1.0), new Point(50.0, 3.0 * i + 1, -1.0),
+                    new Point(50.0, 3.0 * i, 1.0)));
+        scene.commit();
+        return scene;
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.KdTreeBoundingBoxBuilder#findClosestIntersection(Ray, java.util.List, Intersectable.Intersection)}
+     * with geometries straddling split planes or lying on them.
+     */
+    @Test
+    void testSplitPlanes() {
+        Geometries scene = createSplitScene();
+        Vector right = new Vector(1.0, 0.0, 0.0);
+        Vector left = new Vector(-1.0, 0.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The straddling triangle is met in the first leaf the ray crosses, but its hit
+        // lies beyond the sphere in a later leaf, so the traversal must go on to the sphere
+        Ray straddling = new Ray(new Point(-5.0, 2.0, 0.0), right);
+        Intersectable.Intersection hit = scene.findClosestIntersection(straddling, new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the sphere");
+        assertEquals(new Point(90.6, 2.0, 0.0), hit.point, "Closest hit beyond the leaf it was found in");
+
+        // TC02: The straddling triangle referenced from several leaves is intersected once
+        assertEquals(3, scene.findIntersections(straddling).size(),
+                "Ray must cross the sphere twice and the straddling triangle once");
+
+        // TC03: From the other side the straddling triangle is the closest hit
+        hit = scene.findClosestIntersection(new Ray(new Point(105.0, 2.0, 0.0), left), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the straddling triangle");
+        assertEquals(new Point(93.0, 2.0, 0.0), hit.point, "Wrong hit on the straddling triangle");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A triangle lying on the split plane is hit from below the plane
+        Ray above = new Ray(new Point(20.0, 0.0, 0.5), right);
+        hit = scene.findClosestIntersection(above, new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the flat triangle from below the plane");
+        assertEquals(new Point(50.0, 0.0, 0.5), hit.point, "Wrong hit on the flat triangle from below");
+        assertEquals(1, scene.findIntersections(above).size(), "Flat triangle must be intersected once");
+
+        // TC12: A triangle lying on the split plane is hit from above the plane
+        hit = scene.findClosestIntersection(new Ray(new Point(80.0, 0.0, 0.5), left), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the flat triangle from above the plane");
+        assertEquals(new Point(50.0, 0.0, 0.5), hit.point, "Wrong hit on the flat triangle from above");
+
+        // TC13: A ray through both clusters crosses every sphere, the flat triangle and the
+        // straddling triangle once each (42 points)
+        assertEquals(42, scene.findIntersections(new Ray(new Point(-5.0, 0.0, 0.0), right)).size(),
+                "Wrong number of intersections through both clusters");
+    }
+}
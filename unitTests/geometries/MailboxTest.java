@@ -0,0 +1,97 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the mailboxes of the bounding volume builders
+ */
+@ExtendWith(RestoreAccelerators.class)
+class MailboxTest {
+
+    /** A unit sphere at the origin */
+    private final Sphere sphere = new Sphere(1.0, Point.ZERO);
+
+    /** A ray crossing the sphere down the Z axis */
+    private final Ray ray = new Ray(new Point(0.0, 0.0, 10.0), new Vector(0.0, 0.0, -1.0));
+
+    /**
+     * Test method for {@link geometries.Mailbox#visit(Intersectable)} through the builders.
+     */
+    @Test
+    void testSharedGeometry() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A sphere in two groups is intersected once per ray with BVH
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new BVHBoundingBoxBuilder());
+        Geometries scene = new Geometries(new Geometries(sphere), new Geometries(sphere));
+        Mailbox.resetStatistics();
+        assertEquals(2, scene.calculateIntersections(ray).size(), "Shared sphere was intersected twice with BVH");
+        assertEquals(2, scene.calculateIntersections(ray).size(), "Mailbox was not emptied for a new ray");
+        // the first ray is counted once the second one starts
+        assertEquals(1, Mailbox.getAvoidedCount(), "Wrong number of avoided tests");
+
+        // TC02: A sphere in two groups is intersected once per ray with CBR
+        Intersectable.enableBVH = false;
+        Intersectable.enableCBR = true;
+        Geometries.setBoundingVolumeBuilder(new CBRBoundingBoxBuilder());
+        scene = new Geometries(new Geometries(sphere), new Geometries(sphere));
+        assertEquals(2, scene.calculateIntersections(ray).size(), "Shared sphere was intersected twice with CBR");
+
+        // TC03: Two instances of a sphere are different objects
+        Instance near = new Instance(sphere, new Vector(0.0, 0.0, 3.0));
+        Instance far = new Instance(sphere, new Vector(0.0, 0.0, -3.0));
+        scene = new Geometries(near, far);
+        assertEquals(4, scene.calculateIntersections(ray).size(), "Instances of a shared sphere were merged");
+        Intersectable.Intersection hit = scene.findClosestIntersection(ray, new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the near instance");
+        assertEquals(new Point(0.0, 0.0, 4.0), hit.point, "Wrong closest hit through the instances");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#usesMailbox()}.
+     */
+    @Test
+    void testUsesMailbox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Primitives and flat collections of them leave the mailbox alone
+        assertFalse(sphere.usesMailbox(), "A sphere does not use the mailbox");
+        assertFalse(new Geometries(sphere, new Geometries(sphere)).usesMailbox(),
+                "A flat collection does not use the mailbox");
+
+        // TC02: Instances and collections holding one use the mailbox
+        Instance instance = new Instance(sphere, new Vector(0.0, 0.0, 3.0));
+        assertTrue(instance.usesMailbox(), "An instance uses the mailbox");
+        Geometries holder = new Geometries(new Geometries(instance));
+        assertTrue(holder.usesMailbox(), "A collection holding an instance uses the mailbox");
+        holder.commit();
+        assertTrue(holder.usesMailbox(), "A committed collection holding an instance uses the mailbox");
+
+        // TC03: Collections with bounding volumes use the mailbox
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new BVHBoundingBoxBuilder());
+        assertTrue(new Geometries(sphere).usesMailbox(), "A collection with a BVH uses the mailbox");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A query of a flat scene does not start a ray in the mailbox, so the tests of
+        // the last BVH query are counted only once the next BVH query starts
+        Geometries scene = new Geometries(new Geometries(sphere), new Geometries(sphere));
+        scene.commit();
+        Mailbox.resetStatistics();
+        scene.calculateIntersections(ray);
+        Geometries.setBoundingVolumeBuilder(null);
+        Intersectable.enableBVH = false;
+        Geometries flat = new Geometries(sphere);
+        flat.commit();
+        assertEquals(2, flat.calculateIntersections(ray).size(), "Wrong intersections with a flat scene");
+        assertNotNull(sphere.findClosestIntersection(ray, new Intersectable.Intersection()), "Ray must hit the sphere");
+        assertEquals(0, Mailbox.getTestCount(), "A flat query started a ray in the mailbox");
+        scene.calculateIntersections(ray);
+        assertEquals(1, Mailbox.getAvoidedCount(), "The first BVH query was not counted");
+    }
+}
@@ -0,0 +1,117 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the indexed triangle mesh
+ */
+class MeshTest {
+
+    /**
+     * Delta value for accuracy when comparing the numbers of type 'double' in
+     * assertEquals.
+     */
+    private static final double DELTA = 0.000001;
+
+    /** A unit square in the plane z = 0, made of two triangles sharing a diagonal */
+    private final Mesh square = new Mesh(
+            new double[] { 0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0 },
+            new int[] { 0, 1, 2, 0, 2, 3 });
+
+    /** A direction pointing down the Z axis */
+    private final Vector down = new Vector(0.0, 0.0, -1.0);
+
+    /**
+     * Test method for {@link geometries.Mesh#Mesh(double[], int[], double[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct mesh
+        assertEquals(2, square.size(), "Wrong number of triangles");
+
+        // TC02: Index out of range
+        assertThrows(IllegalArgumentException.class,
+                () -> new Mesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 }, new int[] { 0, 1, 3 }),
+                "Constructed a mesh with an index out of range");
+
+        // TC03: Incomplete triangle
+        assertThrows(IllegalArgumentException.class,
+                () -> new Mesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 }, new int[] { 0, 1 }),
+                "Constructed a mesh with an incomplete triangle");
+
+        // TC04: Normals of a different length than positions
+        assertThrows(IllegalArgumentException.class,
+                () -> new Mesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 }, new int[] { 0, 1, 2 }, new double[] { 0, 0, 1 }),
+                "Constructed a mesh with missing normals");
+
+        // TC05: Changing the buffers after construction does not change the mesh
+        double[] positions = { 0, 0, 0, 1, 0, 0, 0, 1, 0 };
+        int[] indices = { 0, 1, 2 };
+        Mesh triangle = new Mesh(positions, indices);
+        positions[2] = 5;
+        indices[2] = 1;
+        assertEquals(List.of(new Point(0.25, 0.25, 0.0)),
+                triangle.findIntersections(new Ray(new Point(0.25, 0.25, 1.0), down)),
+                "Mesh changed with its buffers");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the first triangle (1 point)
+        assertEquals(List.of(new Point(0.75, 0.25, 0.0)),
+                square.findIntersections(new Ray(new Point(0.75, 0.25, 1.0), down)),
+                "Ray crosses the first triangle");
+
+        // TC02: Ray crosses the second triangle (1 point)
+        assertEquals(List.of(new Point(0.25, 0.75, 0.0)),
+                square.findIntersections(new Ray(new Point(0.25, 0.75, 1.0), down)),
+                "Ray crosses the second triangle");
+
+        // TC03: Ray misses the mesh (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(2.0, 2.0, 1.0), down)), "Ray misses the mesh");
+
+        // TC04: Ray points away from the mesh (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(0.5, 0.25, 1.0), new Vector(0.0, 0.0, 1.0))),
+                "Ray points away from the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray crosses the shared diagonal - the mesh has no crack there
+        Intersectable.Intersection hit = square.findClosestIntersection(
+                new Ray(new Point(0.5, 0.5, 1.0), down), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray through the shared edge must hit the mesh");
+        assertEquals(new Point(0.5, 0.5, 0.0), hit.point, "Wrong intersection on the shared edge");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#getNormal(Intersectable.Intersection)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Flat shaded mesh gives the face normal
+        Intersectable.Intersection hit = square.findClosestIntersection(
+                new Ray(new Point(0.75, 0.25, 1.0), down), new Intersectable.Intersection());
+        assertEquals(new Vector(0.0, 0.0, 1.0), square.getNormal(hit), "Wrong face normal");
+        assertEquals(new Vector(0.0, 0.0, 1.0), square.getNormal(hit.point), "Wrong face normal by point");
+
+        // TC02: Vertex normals are interpolated
+        Mesh smooth = new Mesh(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 }, new int[] { 0, 1, 2 },
+                new double[] { 0, 0, 1, 1, 0, 0, 1, 0, 0 });
+        hit = smooth.findClosestIntersection(new Ray(new Point(0.25, 0.25, 1.0), down), new Intersectable.Intersection());
+        Vector normal = smooth.getNormal(hit);
+        assertEquals(1.0, normal.length(), DELTA, "Interpolated normal is not a unit vector");
+        assertEquals(new Vector(1.0, 0.0, 1.0).normalize(), normal, "Wrong interpolated normal");
+    }
+}
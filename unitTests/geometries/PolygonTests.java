@@ -3,6 +3,8 @@ package geometries;
 import org.junit.jupiter.api.Test;
 import primitives.*;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -107,4 +109,48 @@ class PolygonTests {
             assertEquals(0.0, result.dotProduct(pts[i].subtract(pts[i == 0 ? 3 : i - 1])), DELTA,
                     "Polygon's normal is not orthogonal to one of the edges");
     }
+
+    /**
+     * Test method for {@link geometries.Polygon#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // a square in the plane x + z = 1, tilted so the projection is not trivial
+        Polygon square = new Polygon(new Point(0.0, 0.0, 1.0), new Point(1.0, 0.0, 0.0),
+                new Point(1.0, 1.0, 0.0), new Point(0.0, 1.0, 1.0));
+        Vector down = new Vector(0.0, 0.0, -1.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the polygon (1 point)
+        assertEquals(List.of(new Point(0.5, 0.5, 0.5)),
+                square.findIntersections(new Ray(new Point(0.5, 0.5, 2.0), down)),
+                "Ray crosses the polygon");
+
+        // TC02: Ray crosses the plane outside the polygon, against an edge (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(0.5, 1.5, 2.0), down)),
+                "Ray crosses the plane outside the polygon");
+
+        // TC03: Ray crosses the plane outside the polygon, against a vertex (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(1.5, 1.5, 2.0), down)),
+                "Ray crosses the plane outside the polygon against a vertex");
+
+        // TC04: Closest hit on the polygon
+        Intersectable.Intersection hit = square.findClosestIntersection(
+                new Ray(new Point(0.25, 0.75, 2.0), down), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the polygon");
+        assertEquals(new Point(0.25, 0.75, 0.75), hit.point, "Wrong closest hit on the polygon");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray crosses an edge of the polygon (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(0.5, 0.0, 2.0), down)),
+                "Ray crosses an edge of the polygon");
+
+        // TC12: Ray crosses a vertex of the polygon (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(1.0, 1.0, 2.0), down)),
+                "Ray crosses a vertex of the polygon");
+
+        // TC13: Ray crosses the continuation of an edge (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(2.0, 1.0, 2.0), down)),
+                "Ray crosses the continuation of an edge");
+    }
 }
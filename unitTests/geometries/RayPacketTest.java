@@ -0,0 +1,143 @@
+package geometries;
+
+import geometries.Intersectable.Intersection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing packets of rays intersected together
+ */
+@ExtendWith(RestoreAccelerators.class)
+class RayPacketTest {
+
+    /**
+     * Creates a 10x10 wall of unit spheres in the plane z=0, 3 apart from (0,0) to (27,27),
+     * with a triangle behind them and a tube crossing them.
+     * @return the scene, built with a BVH
+     */
+    private Geometries createScene() {
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new BVHBoundingBoxBuilder());
+        Geometries scene = new Geometries(
+                new Triangle(new Point(-10.0, -10.0, -5.0), new Point(50.0, -10.0, -5.0), new Point(-10.0, 50.0, -5.0)),
+                new Tube(0.5, new Ray(new Point(0.0, 13.5, 0.0), new Vector(1.0, 0.0, 0.0))));
+        for (int i = 0; i < 10; ++i)
+            for (int j = 0; j < 10; ++j) scene.add(new Sphere(1.0, new Point(3.0 * i, 3.0 * j, 0.0)));
+        scene.commit();
+        return scene;
+    }
+
+    /**
+     * Asserts that the hits of a packet are those of its rays traced one by one.
+     * @param scene  the scene
+     * @param packet the queried packet
+     * @param rays   the rays of the packet
+     */
+    private static void assertSingleHits(Geometries scene, RayPacket packet, Ray[] rays) {
+        for (int i = 0; i < rays.length; ++i) {
+            Intersection expected = scene.findClosestIntersection(rays[i], new Intersection());
+            Intersection actual = packet.getHit(i);
+            if (expected == null) {
+                assertNull(actual, "Ray " + i + " must miss");
+            } else {
+                assertNotNull(actual, "Ray " + i + " must hit");
+                assertSame(expected.geometry, actual.geometry, "Wrong geometry hit by ray " + i);
+                assertEquals(expected.point, actual.point, "Wrong point hit by ray " + i);
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestIntersections(RayPacket)}.
+     */
+    @Test
+    void testFindClosestIntersections() {
+        Geometries scene = createScene();
+        Point eye = new Point(13.5, 13.5, 50.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A coherent packet of 16 rays hits the same geometries as the rays one by one
+        Ray[] rays = new Ray[16];
+        RayPacket packet = new RayPacket(16);
+        for (int i = 0; i < 16; ++i) {
+            rays[i] = new Ray(eye, new Point(10.0 + i % 4, 10.0 + i / 4, 0.0).subtract(eye));
+            packet.add(rays[i], new Intersection());
+        }
+        scene.findClosestIntersections(packet);
+        assertSingleHits(scene, packet, rays);
+
+        // TC02: A packet of rays in all directions, some missing everything
+        packet.clear();
+        rays = new Ray[8];
+        for (int i = 0; i < 8; ++i) {
+            rays[i] = new Ray(new Point(4.0, 5.0, 10.0),
+                    new Vector((i & 1) == 0 ? 1.0 : -0.5, (i & 2) == 0 ? 0.7 : -0.3, (i & 4) == 0 ? 1.0 : -1.0));
+            packet.add(rays[i], new Intersection());
+        }
+        scene.findClosestIntersections(packet);
+        assertSingleHits(scene, packet, rays);
+        assertNull(packet.getHit(0), "A ray up and away must miss");
+
+        // TC03: A packet with the frustum of its tile hits the same geometries
+        rays = new Ray[16];
+        packet.clear();
+        Ray[] tile = new Ray[64];
+        for (int i = 0; i < 64; ++i) tile[i] = new Ray(eye, new Point(i % 8 * 1.0, i / 8 * 1.0, 0.0).subtract(eye));
+        for (int i = 0; i < 16; ++i) {
+            rays[i] = tile[i % 4 + 8 * (i / 4)];
+            packet.add(rays[i], new Intersection());
+        }
+        packet.setFrustum(Frustum.enclosing(tile, tile.length));
+        scene.findClosestIntersections(packet);
+        assertSingleHits(scene, packet, rays);
+
+        // TC04: A packet skips what is outside its frustum
+        packet.setFrustum(new Frustum(eye, new Vector(-1.0, 99.0, -50.0), new Vector(1.0, 99.0, -50.0),
+                new Vector(1.0, 101.0, -50.0), new Vector(-1.0, 101.0, -50.0)));
+        scene.findClosestIntersections(packet);
+        assertNull(packet.getHit(0), "A packet must skip the geometries outside its frustum");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A packet of a single ray
+        packet = new RayPacket(1);
+        rays = new Ray[] { new Ray(eye, new Vector(0.0, 0.0, -1.0)) };
+        packet.add(rays[0], new Intersection());
+        scene.findClosestIntersections(packet);
+        assertSingleHits(scene, packet, rays);
+
+        // TC12: A full packet of 32 rays, parallel to the axes, beyond the scene
+        packet = new RayPacket(RayPacket.MAX_SIZE);
+        rays = new Ray[RayPacket.MAX_SIZE];
+        for (int i = 0; i < rays.length; ++i) {
+            rays[i] = new Ray(new Point(2.0 * i, 0.0, 20.0), new Vector(0.0, 0.0, -1.0));
+            packet.add(rays[i], new Intersection());
+        }
+        scene.findClosestIntersections(packet);
+        assertSingleHits(scene, packet, rays);
+        assertNull(packet.getHit(31), "A ray beyond the triangle must miss");
+
+        // TC13: A full packet cannot take another ray
+        RayPacket full = packet;
+        assertThrows(IllegalStateException.class, () -> full.add(new Ray(eye, new Vector(0.0, 0.0, -1.0)),
+                new Intersection()), "A full packet must not take another ray");
+    }
+
+    /**
+     * Test method for {@link geometries.RayPacket#RayPacket(int)}.
+     */
+    @Test
+    void testConstructor() {
+        // =============== Boundary Values Tests ==================
+        // TC11: Empty packet
+        assertThrows(IllegalArgumentException.class, () -> new RayPacket(0), "A packet must hold a ray");
+
+        // TC12: More rays than the bits of a mask
+        assertThrows(IllegalArgumentException.class, () -> new RayPacket(RayPacket.MAX_SIZE + 1),
+                "A packet must not hold more rays than a mask");
+    }
+}
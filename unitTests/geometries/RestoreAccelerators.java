@@ -0,0 +1,23 @@
+package geometries;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Restores the global accelerator settings after every test of a test class extended with
+ * {@code @ExtendWith(RestoreAccelerators.class)}, so that the settings a test changes, directly
+ * or through the camera builder, do not leak into the tests that follow.
+ */
+public class RestoreAccelerators implements AfterEachCallback {
+
+    /**
+     * Turns the bounding boxes off and clears the global bounding volume strategy.
+     * @param context the context of the test that ended
+     */
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Intersectable.enableBVH = false;
+        Intersectable.enableCBR = false;
+        Geometries.setBoundingVolumeBuilder(null);
+    }
+}
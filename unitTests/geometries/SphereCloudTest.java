@@ -0,0 +1,101 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the sphere cloud
+ */
+class SphereCloudTest {
+
+    /** Two materials for the spheres of the cloud */
+    private final Material[] materials = { new Material().setKD(0.1), new Material().setKD(0.9) };
+
+    /** Two unit spheres at (0,0,0) and (5,0,0), each with its own material */
+    private final SphereCloud cloud = new SphereCloud(new double[] { 0, 0, 0, 5, 0, 0 }, new double[] { 1, 1 },
+            materials, new int[] { 0, 1 });
+
+    /** A direction pointing down the Z axis */
+    private final Vector down = new Vector(0.0, 0.0, -1.0);
+
+    /**
+     * Test method for {@link geometries.SphereCloud#SphereCloud(double[], double[], Material[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct cloud
+        assertEquals(2, cloud.size(), "Wrong number of spheres");
+
+        // TC02: Missing radius
+        assertThrows(IllegalArgumentException.class,
+                () -> new SphereCloud(new double[] { 0, 0, 0, 5, 0, 0 }, new double[] { 1 }),
+                "Constructed a cloud with a missing radius");
+
+        // TC03: Material index out of range
+        assertThrows(IllegalArgumentException.class,
+                () -> new SphereCloud(new double[] { 0, 0, 0 }, new double[] { 1 }, materials, new int[] { 2 }),
+                "Constructed a cloud with a material index out of range");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Zero radius
+        assertThrows(IllegalArgumentException.class,
+                () -> new SphereCloud(new double[] { 0, 0, 0 }, new double[] { 0 }),
+                "Constructed a cloud with a zero radius");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereCloud#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the second sphere (2 points)
+        assertEquals(List.of(new Point(5.0, 0.0, 1.0), new Point(5.0, 0.0, -1.0)),
+                cloud.findIntersections(new Ray(new Point(5.0, 0.0, 10.0), down)),
+                "Ray crosses the second sphere");
+
+        // TC02: Ray passes between the spheres (0 points)
+        assertNull(cloud.findIntersections(new Ray(new Point(2.5, 0.0, 10.0), down)),
+                "Ray passes between the spheres");
+
+        // TC03: Ray starts inside the first sphere (1 point)
+        assertEquals(List.of(new Point(0.0, 0.0, -1.0)),
+                cloud.findIntersections(new Ray(new Point(0.0, 0.0, 0.5), down)),
+                "Ray starts inside the first sphere");
+
+        // TC04: Closest hit through both spheres is on the first one, with its material
+        Intersectable.Intersection hit = cloud.findClosestIntersection(
+                new Ray(new Point(-10.0, 0.0, 0.0), new Vector(1.0, 0.0, 0.0)), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray must hit the cloud");
+        assertEquals(new Point(-1.0, 0.0, 0.0), hit.point, "Wrong closest hit");
+        assertSame(materials[0], hit.material, "Wrong material of the closest hit");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray starts at the center of a sphere (1 point)
+        hit = cloud.findClosestIntersection(new Ray(new Point(5.0, 0.0, 0.0), down), new Intersectable.Intersection());
+        assertNotNull(hit, "Ray from the center must hit the sphere");
+        assertEquals(new Point(5.0, 0.0, -1.0), hit.point, "Wrong hit from the center");
+        assertSame(materials[1], hit.material, "Wrong material of the hit from the center");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereCloud#getNormal(Intersectable.Intersection)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Normal at a hit on the second sphere
+        Intersectable.Intersection hit = cloud.findClosestIntersection(
+                new Ray(new Point(5.0, 0.0, 10.0), down), new Intersectable.Intersection());
+        assertEquals(new Vector(0.0, 0.0, 1.0), cloud.getNormal(hit), "Wrong normal at the hit");
+        assertEquals(new Vector(0.0, 0.0, 1.0), cloud.getNormal(hit.point), "Wrong normal by point");
+    }
+}
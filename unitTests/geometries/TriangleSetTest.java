@@ -0,0 +1,119 @@
+package geometries;
+
+import geometries.Intersectable.Intersection;
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the triangle set gathered for rasterization
+ */
+class TriangleSetTest {
+
+    /**
+     * Delta value for accuracy when comparing the numbers of type 'double' in
+     * assertEquals.
+     */
+    private static final double DELTA = 0.000001;
+
+    /** A unit square in the plane z = 0, made of two triangles sharing a diagonal */
+    private final Mesh square = new Mesh(
+            new double[] { 0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0 },
+            new int[] { 0, 1, 2, 0, 2, 3 });
+
+    /** A triangle in the plane z = -1, under the square */
+    private final Triangle triangle = new Triangle(new Point(0.0, 0.0, -1.0), new Point(2.0, 0.0, -1.0),
+            new Point(0.0, 2.0, -1.0));
+
+    /** A sphere between the square and the triangle */
+    private final Sphere sphere = new Sphere(0.2, new Point(0.5, 0.5, -0.5));
+
+    /** A direction pointing down the Z axis */
+    private final Vector down = new Vector(0.0, 0.0, -1.0);
+
+    /**
+     * Test method for {@link geometries.TriangleSet#TriangleSet(Intersectable)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Triangles and meshes are gathered from nested collections, the rest apart
+        TriangleSet set = new TriangleSet(new Geometries(triangle, new Geometries(square, sphere)));
+        assertEquals(3, set.size(), "Wrong number of triangles");
+        assertTrue(set.hasRest(), "The sphere was not kept apart");
+        assertEquals(new Point(2.0, 0.0, -1.0), set.getCorner(0, 1), "Wrong corner of the triangle");
+        assertEquals(new Point(1.0, 1.0, 0.0), set.getCorner(1, 2), "Wrong corner of the mesh triangle");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Triangles only
+        set = new TriangleSet(new Geometries(triangle, square));
+        assertEquals(3, set.size(), "Wrong number of triangles");
+        assertFalse(set.hasRest(), "Kept a rest without other geometries");
+
+        // TC12: No triangles
+        set = new TriangleSet(sphere);
+        assertEquals(0, set.size(), "Gathered a triangle from a sphere");
+        assertTrue(set.hasRest(), "The sphere was not kept apart");
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.TriangleSet#intersectionDistance(int, double, double, double, double, double, double)}.
+     */
+    @Test
+    void testIntersectionDistance() {
+        TriangleSet set = new TriangleSet(new Geometries(triangle, square));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray through a mesh triangle
+        assertEquals(1, set.intersectionDistance(1, 0.7, 0.2, 1, 0, 0, -1), DELTA, "Wrong distance to the mesh");
+
+        // TC02: Ray through the triangle
+        assertEquals(2, set.intersectionDistance(0, 0.7, 0.2, 1, 0, 0, -1), DELTA, "Wrong distance to the triangle");
+
+        // TC03: Ray missing a mesh triangle
+        assertEquals(0, set.intersectionDistance(2, 0.7, 0.2, 1, 0, 0, -1), DELTA, "Hit a missed triangle");
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.TriangleSet#findClosestIntersection(Ray, int, double, Intersection)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        TriangleSet set = new TriangleSet(new Geometries(triangle, square, sphere));
+        Intersection hit = new Intersection();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The triangle is the closest hit
+        Ray ray = new Ray(new Point(0.7, 0.2, 1.0), down);
+        Intersection result = set.findClosestIntersection(ray, 1, 1, hit);
+        assertSame(hit, result, "The record was not filled in place");
+        assertSame(square, result.geometry, "Wrong geometry hit");
+        assertEquals(0, result.primitive, "Wrong triangle hit");
+        assertEquals(new Point(0.7, 0.2, 0.0), result.point, "Wrong intersection point");
+
+        // TC02: Another geometry is nearer than the triangle
+        ray = new Ray(new Point(0.45, 0.55, -0.1), down);
+        result = set.findClosestIntersection(ray, 0, 0.9, hit);
+        assertSame(sphere, result.geometry, "Missed the nearer sphere");
+        assertEquals(0.4 - Math.sqrt(0.035), result.t, DELTA, "Wrong distance to the sphere");
+
+        // TC03: Another geometry is hit without a triangle
+        ray = new Ray(new Point(0.45, 0.55, 1.0), new Vector(0.0, 0.0, 1.0));
+        assertNull(set.findClosestIntersection(ray, -1, Double.POSITIVE_INFINITY, hit), "Hit behind the ray");
+        ray = new Ray(new Point(0.45, 0.55, -0.1), down);
+        assertSame(sphere, set.findClosestIntersection(ray, -1, Double.POSITIVE_INFINITY, hit).geometry,
+                "Missed the sphere");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Another geometry behind the triangle is not traced past it
+        ray = new Ray(new Point(0.45, 0.55, 1.0), down);
+        result = set.findClosestIntersection(ray, 2, 1, hit);
+        assertSame(square, result.geometry, "Hit the sphere behind the triangle");
+        assertEquals(1, result.primitive, "Wrong triangle hit");
+    }
+}
@@ -4,6 +4,8 @@ import primitives.*;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 /**
  * This class contains tests for the {@link geometries.Tube#getNormal(primitives.Point)} method
  * in the Tube class. It verifies the calculation of the normal vector at different points on the tube's surface.
@@ -71,4 +73,54 @@ class TubeTest {
 
          */
     }
+
+    /**
+     * Test method for {@link geometries.Tube#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Tube tube = new Tube(1.0, new Ray(Point.ZERO, new Vector(0.0, 0.0, 1.0))); // Tube along Z-axis
+        Vector right = new Vector(1.0, 0.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the tube (2 points)
+        assertEquals(List.of(new Point(-1.0, 0.0, 5.0), new Point(1.0, 0.0, 5.0)),
+                tube.findIntersections(new Ray(new Point(-3.0, 0.0, 5.0), right)),
+                "Ray crosses the tube");
+
+        // TC02: Ray starts inside the tube (1 point)
+        assertEquals(List.of(new Point(1.0, 0.0, 5.0)),
+                tube.findIntersections(new Ray(new Point(0.5, 0.0, 5.0), right)),
+                "Ray starts inside the tube");
+
+        // TC03: Ray misses the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(-3.0, 2.0, 5.0), right)), "Ray misses the tube");
+
+        // TC04: Ray starts after the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(3.0, 0.0, 5.0), right)),
+                "Ray starts after the tube");
+
+        // TC05: Slanted ray crosses the tube (2 points)
+        Vector slanted = new Vector(1.0, 0.0, 1.0);
+        assertEquals(List.of(new Point(-1.0, 0.0, 2.0), new Point(1.0, 0.0, 4.0)),
+                tube.findIntersections(new Ray(new Point(-3.0, 0.0, 0.0), slanted)),
+                "Slanted ray crosses the tube");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray is tangent to the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(-3.0, 1.0, 5.0), right)), "Ray is tangent to the tube");
+
+        // TC12: Ray is parallel to the axis inside the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(0.5, 0.0, 5.0), new Vector(0.0, 0.0, 1.0))),
+                "Ray is parallel to the axis");
+
+        // TC13: Ray starts on the surface and goes inside (1 point)
+        assertEquals(List.of(new Point(1.0, 0.0, 5.0)),
+                tube.findIntersections(new Ray(new Point(-1.0, 0.0, 5.0), right)),
+                "Ray starts on the surface and goes inside");
+
+        // TC14: Ray starts on the surface and goes outside (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(1.0, 0.0, 5.0), right)),
+                "Ray starts on the surface and goes outside");
+    }
 }
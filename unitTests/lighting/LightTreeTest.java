@@ -0,0 +1,100 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the hierarchy over the lights of a scene
+ */
+class LightTreeTest {
+
+    /**
+     * Creates a grid of point and spot lights of bounded reach, with a directional light.
+     *
+     * @return the lights
+     */
+    private static List<LightSource> lights() {
+        List<LightSource> lights = new ArrayList<>();
+        lights.add(new DirectionalLight(new Color(50, 50, 50), new Vector(0.0, 0.0, -1.0)));
+        for (int i = 0; i < 100; ++i) {
+            Point position = new Point((i % 10) * 10.0, (i / 10) * 10.0, 0.0);
+            lights.add(i % 2 == 0
+                    ? new PointLight(new Color(100, 100, 100), position).setKq(1).setInfluenceThreshold(1)
+                    : new SpotLight(new Color(100, 100, 100), position, new Vector(1.0, 1.0, -1.0))
+                    .setKq(1).setInfluenceThreshold(1));
+        }
+        return lights;
+    }
+
+    /**
+     * Test method for {@link lighting.LightTree#findLights(Point)}.
+     */
+    @Test
+    void testFindLights() {
+        List<LightSource> lights = lights();
+        LightTree tree = new LightTree(lights);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every light that may reach a point is found, in the order of the scene
+        Random random = new Random(7);
+        for (int test = 0; test < 1000; ++test) {
+            Point point = new Point(random.nextDouble() * 110 - 5, random.nextDouble() * 110 - 5,
+                    random.nextDouble() * 20 - 10);
+            List<LightSource> found = tree.findLights(point);
+            int last = -1;
+            for (LightSource light : found) {
+                int index = lights.indexOf(light);
+                assertTrue(index > last, "The lights are out of order");
+                last = index;
+            }
+            for (LightSource light : lights)
+                if (light.canIlluminate(point))
+                    assertTrue(found.contains(light), "A light reaching " + point + " was not found");
+        }
+
+        // TC02: A point near one light finds only a few lights
+        List<LightSource> found = tree.findLights(new Point(40.0, 40.0, 0.0));
+        assertTrue(found.size() < 10, "Found too many lights near one light");
+        assertTrue(found.contains(lights.get(45)), "Missed the light at the point");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A point far from all the bounded lights finds only the unbounded ones
+        assertEquals(List.of(lights.get(0)), tree.findLights(new Point(500.0, 500.0, 500.0)),
+                "Found bounded lights far away");
+
+        // TC12: Lights without a threshold are all unbounded
+        List<LightSource> unbounded = List.of(new PointLight(new Color(100, 100, 100), Point.ZERO),
+                new SpotLight(new Color(100, 100, 100), Point.ZERO, new Vector(1.0, 0.0, 0.0)));
+        assertEquals(unbounded, new LightTree(unbounded).findLights(new Point(1e6, 0.0, 0.0)),
+                "Missed lights of unbounded reach");
+    }
+
+    /**
+     * Test method for {@link lighting.LightTree#findLights(Point)}: the memory allocated by
+     * the queries of a thread, as counted by the garbage collector.
+     */
+    @Test
+    void testFindLightsAllocation() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LightTree tree = new LightTree(lights());
+        Point[] points = new Point[100];
+        for (int i = 0; i < points.length; ++i) points[i] = new Point(i % 10 * 10.0 + 3, i / 10 * 10.0 + 3, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Repeated queries reuse the buffers of the thread and allocate nothing
+        for (Point point : points) tree.findLights(point);
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int found = 0;
+        for (int i = 0; i < 10000; ++i) found += tree.findLights(points[i % points.length]).size();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(found > 10000, "The queries found no bounded lights");
+        assertTrue(allocated < 10000, "The queries allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,107 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the point light
+ */
+class PointLightTest {
+
+    /** The position of the light */
+    private static final Point POSITION = new Point(1.0, 2.0, 3.0);
+
+    /**
+     * Creates a light at {@link #POSITION} whose strongest color component is 100.
+     *
+     * @return the light
+     */
+    private static PointLight light() {
+        return new PointLight(new Color(100, 50, 0), POSITION);
+    }
+
+    /**
+     * Test method for {@link lighting.PointLight#getInfluenceRadius()}.
+     */
+    @Test
+    void testGetInfluenceRadius() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Linear attenuation
+        assertEquals(99, light().setKl(1).setInfluenceThreshold(1).getInfluenceRadius(), 1e-10,
+                "Wrong radius of a linear attenuation");
+
+        // TC02: Quadratic attenuation, the intensity at the radius is the threshold
+        PointLight light = light().setKl(0.1).setKq(0.01).setInfluenceThreshold(0.5);
+        double radius = light.getInfluenceRadius();
+        assertEquals(0.5, light.getIntensity(POSITION.add(new Vector(0.0, 0.0, radius))).getRgb().d1(), 1e-10,
+                "Wrong radius of a quadratic attenuation");
+
+        // TC03: The radius follows a later change of the attenuation
+        assertEquals(49, light().setInfluenceThreshold(2).setKl(1).getInfluenceRadius(), 1e-10,
+                "The radius did not follow the attenuation");
+
+        // TC04: A negative threshold
+        assertThrows(IllegalArgumentException.class, () -> light().setInfluenceThreshold(-1),
+                "Accepted a negative threshold");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: No threshold
+        assertEquals(Double.POSITIVE_INFINITY, light().setKl(1).getInfluenceRadius(), "A radius without a threshold");
+
+        // TC12: No attenuation by distance
+        assertEquals(Double.POSITIVE_INFINITY, light().setInfluenceThreshold(1).getInfluenceRadius(),
+                "A radius without attenuation");
+
+        // TC13: A light never above the threshold
+        assertEquals(0, light().setKl(1).setInfluenceThreshold(200).getInfluenceRadius(),
+                "A radius of a light below the threshold");
+    }
+
+    /**
+     * Test method for {@link lighting.PointLight#canIlluminate(Point)}.
+     */
+    @Test
+    void testCanIlluminate() {
+        PointLight light = light().setKl(1).setInfluenceThreshold(1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A point within the radius
+        assertTrue(light.canIlluminate(POSITION.add(new Vector(50.0, 0.0, 0.0))), "Culled a point within the radius");
+
+        // TC02: A point beyond the radius
+        assertFalse(light.canIlluminate(POSITION.add(new Vector(0.0, 100.0, 0.0))), "Kept a point beyond the radius");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A point at the radius
+        assertTrue(light.canIlluminate(POSITION.add(new Vector(0.0, 0.0, 99.0))), "Culled a point at the radius");
+
+        // TC12: A far point without a threshold
+        assertTrue(light().setKl(1).canIlluminate(new Point(1e6, 0.0, 0.0)), "Culled a light without a threshold");
+    }
+
+    /**
+     * Test method for {@link lighting.PointLight#sample(Point)}.
+     */
+    @Test
+    void testSample() {
+        PointLight light = light().setkC(0.5).setKl(0.01).setKq(0.001);
+        Point point = new Point(4.0, -2.0, 15.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The sample holds the direction, distance and intensity of the light
+        LightSample sample = light.sample(point);
+        assertEquals(light.getL(point), sample.direction(), "Wrong direction");
+        assertEquals(light.getDistance(point), sample.distance(), 1e-10, "Wrong distance");
+        assertEquals(light.getIntensity(point).getRgb(), sample.intensity().getRgb(), "Wrong intensity");
+
+        // TC02: A point beyond the influence radius is not sampled
+        assertNull(light().setKl(1).setInfluenceThreshold(1).sample(POSITION.add(new Vector(0.0, 100.0, 0.0))),
+                "Sampled a point beyond the radius");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The position of the light is not sampled
+        assertNull(light.sample(POSITION), "Sampled the position of the light");
+    }
+}
@@ -0,0 +1,68 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the spot light
+ */
+class SpotLightTest {
+
+    /**
+     * Test method for {@link lighting.SpotLight#canIlluminate(Point)}.
+     */
+    @Test
+    void testCanIlluminate() {
+        // a light at the origin shining down the Z axis, whose cone is bounded at 60 degrees
+        SpotLight light = new SpotLight(new Color(100, 100, 100), Point.ZERO, new Vector(0.0, 0.0, 1.0))
+                .setkC(1).setKl(1).setInfluenceThreshold(50);
+        assertEquals(0.5, light.getMinCosine(), 1e-10, "Wrong cone bound");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A near point inside the cone
+        assertTrue(light.canIlluminate(new Point(0.1, 0.0, 0.5)), "Culled a point inside the cone");
+
+        // TC02: A near point outside the cone
+        assertFalse(light.canIlluminate(new Point(0.5, 0.0, 0.1)), "Kept a point outside the cone");
+
+        // TC03: A point behind the light
+        assertFalse(light.canIlluminate(new Point(0.0, 0.1, -0.5)), "Kept a point behind the light");
+
+        // TC04: A point inside the cone beyond the radius
+        assertFalse(light.canIlluminate(new Point(0.0, 0.0, 5.0)), "Kept a point beyond the radius");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A point on the side of the light without a threshold
+        SpotLight unbounded = new SpotLight(new Color(100, 100, 100), Point.ZERO, new Vector(0.0, 0.0, 1.0));
+        assertFalse(unbounded.canIlluminate(new Point(1.0, 0.0, 0.0)), "Kept a point on the side of the light");
+
+        // TC12: A point barely inside the cone without a threshold
+        assertTrue(unbounded.canIlluminate(new Point(1.0, 0.0, 0.01)), "Culled a point inside the cone");
+    }
+
+    /**
+     * Test method for {@link lighting.SpotLight#sample(Point)}.
+     */
+    @Test
+    void testSample() {
+        SpotLight light = new SpotLight(new Color(100, 200, 300), Point.ZERO, new Vector(1.0, 0.0, 1.0))
+                .setKl(0.1).setKq(0.01);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The intensity of a point inside the cone is scaled by the angle
+        Point inside = new Point(3.0, 1.0, 5.0);
+        LightSample sample = light.sample(inside);
+        assertEquals(light.getL(inside), sample.direction(), "Wrong direction");
+        assertEquals(light.getDistance(inside), sample.distance(), 1e-10, "Wrong distance");
+        assertEquals(light.getIntensity(inside).getRgb(), sample.intensity().getRgb(), "Wrong intensity");
+
+        // TC02: A point behind the light is not sampled
+        assertNull(light.sample(new Point(-3.0, 1.0, -5.0)), "Sampled a point behind the light");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A point on the side of the light is not sampled
+        assertNull(light.sample(new Point(1.0, 0.0, -1.0)), "Sampled a point on the side of the light");
+    }
+}
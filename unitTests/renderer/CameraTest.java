@@ -3,13 +3,24 @@ package renderer;
 //import static org.junit.Assert.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static renderer.RayTracerType.GRID;
 import static renderer.RayTracerType.SIMPLE;
+import static renderer.RayTracerTestUtils.createGlassAndMirror;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Instance;
+import geometries.Intersectable.Intersection;
+import geometries.Mesh;
+import geometries.Triangle;
+import lighting.PointLight;
+import lighting.SpotLight;
 import primitives.*;
 import scene.Scene;
 
+import java.util.List;
+
 /**
  * Testing Camera Class
  * @author Dan
@@ -22,6 +33,12 @@ class CameraTest {
    /** Assert failure message for a bad ray */
    private static final String  BAD_RAY       = "Bad ray";
 
+   /** Image width in pixels for the rendering tests: two full tiles and a partial one */
+   private static final int     NX            = 37;
+
+   /** Image height in pixels for the rendering tests */
+   private static final int     NY            = 21;
+
    /**
     * Test method for
     * {@link renderer.Camera#constructRay(int, int, int, int)}.
@@ -134,6 +151,371 @@ class CameraTest {
       assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setDirection(new Point(0.0, 10.0, 0.0)).build());
    }*/
 
+
+   /** The material of the triangle of the rendering tests, edited between renders */
+   private final Material       triangleMaterial = new Material().setKD(0.4).setKS(0.2).setShininess(10);
+
+   /** The triangle of the rendering tests, edited between renders */
+   private final Triangle       triangle      = new Triangle(new Point(-40.0, -30.0, -70.0),
+           new Point(10.0, -30.0, -40.0), new Point(-30.0, 20.0, -60.0));
+
+   /**
+    * Creates a scene of the triangle and a mesh beside a glass sphere in front of a mirror,
+    * lit by a point light and a spot light.
+    * @return the scene
+    */
+   private Scene createScene() {
+      Scene scene = createGlassAndMirror();
+      scene.geometries.add(
+              triangle.setEmission(new Color(60, 20, 20)).setMaterial(triangleMaterial),
+              new Mesh(new double[] { 15.0, 5.0, -30.0, 45.0, 5.0, -40.0, 45.0, 30.0, -40.0, 15.0, 30.0, -30.0 },
+                      new int[] { 0, 1, 2, 0, 2, 3 }).setEmission(new Color(20, 60, 20))
+                      .setMaterial(new Material().setKD(0.5).setKS(0.3).setShininess(20).setkT(0.3)));
+      scene.lights.add(new SpotLight(new Color(300, 300, 300), new Point(-50.0, 40.0, 20.0), new Vector(1.0, -1.0, -2.0))
+              .setKl(0.0005));
+      return scene;
+   }
+
+   /**
+    * Creates the builder of a camera rendering a scene.
+    * @param  scene the scene
+    * @return       the camera builder
+    */
+   private static Camera.Builder sceneCamera(Scene scene) {
+      return Camera.getBuilder()
+              .setLocation(new Point(0.0, 0.0, 100.0)).setDirection(new Point(0.0, 0.0, -50.0), Vector.AXIS_Y)
+              .setVpDistance(100).setVpSize(100, 57).setResolution(NX, NY)
+              .setRayTracer(scene, SIMPLE);
+   }
+
+   /**
+    * Renders the image of a camera.
+    * @param  builder the builder of the camera
+    * @return         the rendered image
+    */
+   private static ImageWriter render(Camera.Builder builder) {
+      ImageWriter image = new ImageWriter(NX, NY);
+      builder.setImageWriter(image).build().renderImage();
+      return image;
+   }
+
+   /**
+    * Asserts that two images are the same, pixel by pixel.
+    * @param expected the expected image
+    * @param actual   the actual image
+    * @param message  the failure message
+    */
+   private static void assertSameImage(ImageWriter expected, ImageWriter actual, String message) {
+      for (int i = 0; i < NY; ++i)
+         for (int j = 0; j < NX; ++j)
+            assertEquals(expected.getPixel(j, i), actual.getPixel(j, i), message + " at pixel " + j + "," + i);
+   }
+
+   /**
+    * Test method for {@link renderer.Camera.Builder#setVisibilityBuffer(boolean)}.
+    */
+   @Test
+   void testVisibilityBuffer() {
+      Scene scene = createScene();
+      ImageWriter traced = render(sceneCamera(scene));
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Rasterized primary hits render the traced image
+      ImageWriter image = new ImageWriter(NX, NY);
+      Camera camera = sceneCamera(scene).setVisibilityBuffer(true).setImageWriter(image).build();
+      camera.renderImage();
+      assertSameImage(traced, image, "Rasterized image differs");
+
+      // TC02: Rendering again with the triangles gathered at build renders the image again
+      camera.renderImage();
+      assertSameImage(traced, image, "Second rasterized image differs");
+
+      // TC03: Rendering in parallel renders the traced image
+      assertSameImage(traced, render(sceneCamera(scene).setVisibilityBuffer(true).setMultithreading(-1)),
+              "Parallel rasterized image differs");
+
+      // =============== Boundary Values Tests ==================
+      // TC11: A scene without triangles renders the traced image
+      Scene noTriangles = createGlassAndMirror();
+      assertSameImage(render(sceneCamera(noTriangles)), render(sceneCamera(noTriangles).setVisibilityBuffer(true)),
+              "Image without triangles differs");
+   }
+
+
+   /**
+    * Edits the emission and the material of the triangle.
+    */
+   private void editTriangle() {
+      triangle.setEmission(new Color(20, 20, 80));
+      triangleMaterial.setKD(0.1).setKS(0.6).setShininess(50);
+   }
+
+   /**
+    * Test method for {@link renderer.Camera.Builder#setGBuffer(boolean)}.
+    */
+   @Test
+   void testGBuffer() {
+      Scene scene = createScene();
+      ImageWriter image = new ImageWriter(NX, NY);
+      Camera camera = sceneCamera(scene).setGBuffer(true).setImageWriter(image).build();
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: The render keeping the primary hits renders the traced image
+      camera.renderImage();
+      assertSameImage(render(sceneCamera(scene)), image, "Image keeping the hits differs");
+
+      // TC02: Shading the kept hits after an edit renders the traced image of the edited scene
+      editTriangle();
+      camera.renderImage();
+      assertSameImage(render(sceneCamera(scene)), image, "Image shaded from the kept hits differs");
+
+      // TC03: Keeping the rasterized primary hits renders the traced image
+      ImageWriter rasterized = new ImageWriter(NX, NY);
+      Camera rasterizing = sceneCamera(scene).setGBuffer(true).setVisibilityBuffer(true).setImageWriter(rasterized)
+              .build();
+      rasterizing.renderImage();
+      assertSameImage(render(sceneCamera(scene)), rasterized, "Image keeping the rasterized hits differs");
+   }
+
+   /**
+    * Test method for {@link renderer.Camera.Builder#setGBuffer(boolean)} when the lights of
+    * the scene are replaced between renders.
+    */
+   @Test
+   void testGBufferRelighting() {
+      Scene scene = createScene();
+      ImageWriter image = new ImageWriter(NX, NY);
+      Camera camera = sceneCamera(scene).setGBuffer(true).setImageWriter(image).build();
+      ImageWriter tiledImage = new ImageWriter(NX, NY);
+      Camera tiled = sceneCamera(scene).setGBuffer(true).setTileLightLists(true).setImageWriter(tiledImage).build();
+      camera.renderImage();
+      tiled.renderImage();
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Shading the kept hits with new lights renders the traced image of the relit scene
+      scene.setLights(List.of(
+              new PointLight(new Color(200, 200, 300), new Point(-20.0, -30.0, 40.0)).setKl(0.001)
+                      .setInfluenceThreshold(1e-4),
+              new PointLight(new Color(300, 100, 100), new Point(40.0, 10.0, 0.0)).setKq(0.05)
+                      .setInfluenceThreshold(1)));
+      camera.renderImage();
+      ImageWriter relit = render(sceneCamera(scene));
+      assertSameImage(relit, image, "Image relit from the kept hits differs");
+
+      // TC02: Shading the kept hits with the lights of the tiles of the new lights renders the
+      // traced image of the relit scene
+      tiled.renderImage();
+      assertSameImage(relit, tiledImage, "Image relit from the kept hits with tile lights differs");
+   }
+
+   /**
+    * Test method for {@link renderer.Camera#clearGBuffer()}.
+    */
+   @Test
+   void testClearGBuffer() {
+      Scene scene = createScene();
+      ImageWriter image = new ImageWriter(NX, NY);
+      Camera camera = sceneCamera(scene).setGBuffer(true).setImageWriter(image).build();
+      camera.renderImage();
+      editTriangle();
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: The render after clearing traces the primary rays again
+      camera.clearGBuffer().renderImage();
+      ImageWriter traced = render(sceneCamera(scene));
+      assertSameImage(traced, image, "Image after clearing differs");
+
+      // TC02: The render after that shades the hits kept again
+      camera.renderImage();
+      assertSameImage(traced, image, "Image shaded from the hits kept again differs");
+
+      // =============== Boundary Values Tests ==================
+      // TC11: Clearing before the first render changes nothing
+      ImageWriter cleared = new ImageWriter(NX, NY);
+      sceneCamera(scene).setGBuffer(true).setImageWriter(cleared).build().clearGBuffer().renderImage();
+      assertSameImage(traced, cleared, "Image after clearing an empty buffer differs");
+   }
+
+
+   /**
+    * Test method for {@link renderer.Camera#renderEdits(geometries.Geometry...)}.
+    */
+   @Test
+   void testRenderEdits() {
+      Scene scene = createScene();
+      ImageWriter image = new ImageWriter(NX, NY);
+      Camera camera = sceneCamera(scene).setDependencyTracking(true).setImageWriter(image).build();
+      camera.renderImage();
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Rendering the pixels that depend on an edited geometry renders the full image
+      editTriangle();
+      camera.renderEdits(triangle);
+      assertSameImage(render(sceneCamera(scene)), image, "Image rendering the edits differs");
+
+      // TC02: The dependencies recorded by rendering the edits serve the next edit
+      triangle.setEmission(new Color(80, 80, 0));
+      camera.renderEdits(triangle);
+      assertSameImage(render(sceneCamera(scene)), image, "Image rendering the second edits differs");
+
+      // TC03: Rendering the edits in parallel renders the full image
+      ImageWriter parallel = new ImageWriter(NX, NY);
+      Camera parallelCamera = sceneCamera(scene).setDependencyTracking(true).setMultithreading(-1)
+              .setImageWriter(parallel).build();
+      parallelCamera.renderImage();
+      triangleMaterial.setKD(0.8);
+      parallelCamera.renderEdits(triangle);
+      assertSameImage(render(sceneCamera(scene)), parallel, "Image rendering the edits in parallel differs");
+
+      // =============== Boundary Values Tests ==================
+      // TC11: Editing no geometries renders no pixel
+      parallelCamera.renderEdits();
+      assertSameImage(render(sceneCamera(scene)), parallel, "Image without edits differs");
+
+      // TC12: Edits cannot be rendered without recorded dependencies
+      Camera untracked = sceneCamera(scene).build();
+      untracked.renderImage();
+      assertThrows(IllegalStateException.class, () -> untracked.renderEdits(triangle),
+              "Edits rendered without recorded dependencies");
+   }
+
+
+   /**
+    * Finds the pixels on the edges of objects, from the primary hits of a scene.
+    * @param  scene the scene
+    * @return       whether each pixel is on an edge, row after row
+    */
+   private static boolean[] findEdges(Scene scene) {
+      Camera camera = sceneCamera(scene).build();
+      SimpleRayTracer tracer = new SimpleRayTracer(scene);
+      EdgeBuffer buffer = new EdgeBuffer(NX, NY);
+      for (int i = 0; i < NY; ++i)
+         for (int j = 0; j < NX; ++j) {
+            Ray ray = camera.constructRay(NX, NY, j, i);
+            Intersection intersection = tracer.findClosestIntersection(ray);
+            tracer.traceRay(ray, intersection);
+            buffer.store(j, i, intersection);
+         }
+      boolean[] edges = new boolean[NX * NY];
+      for (int pixel : buffer.findEdgePixels()) edges[pixel] = true;
+      return edges;
+   }
+
+   /**
+    * Asserts that the pixels on the edges of objects have the supersampled color, and the
+    * other pixels the color of a single ray.
+    * @param plain   the image of a single ray per pixel
+    * @param grid    the supersampled image
+    * @param edges   whether each pixel is on an edge
+    * @param actual  the anti-aliased image
+    * @param message the failure message
+    */
+   private static void assertEdgesResampled(ImageWriter plain, ImageWriter grid, boolean[] edges, ImageWriter actual,
+                                            String message) {
+      for (int i = 0; i < NY; ++i)
+         for (int j = 0; j < NX; ++j)
+            assertEquals((edges[i * NX + j] ? grid : plain).getPixel(j, i), actual.getPixel(j, i),
+                    message + " at pixel " + j + "," + i);
+   }
+
+   /**
+    * Test method for {@link renderer.Camera.Builder#setEdgeAntiAliasing(boolean)}.
+    */
+   @Test
+   void testEdgeAntiAliasing() {
+      Scene scene = createScene();
+      ImageWriter plain = render(sceneCamera(scene));
+      ImageWriter grid = render(sceneCamera(scene).setRayTracer(scene, GRID));
+      boolean[] edges = findEdges(scene);
+      int edgeCount = 0, resampled = 0;
+      for (int i = 0; i < NY; ++i)
+         for (int j = 0; j < NX; ++j)
+            if (edges[i * NX + j]) {
+               ++edgeCount;
+               if (grid.getPixel(j, i) != plain.getPixel(j, i)) ++resampled;
+            }
+      assertTrue(edgeCount > 0 && edgeCount < NX * NY, "The scene must have edge and interior pixels");
+      assertTrue(resampled > 0, "Supersampling must change some edge pixels");
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Only the pixels on the edges are resampled, the others keep the plain color
+      assertEdgesResampled(plain, grid, edges, render(sceneCamera(scene).setEdgeAntiAliasing(true)),
+              "Anti-aliased image differs");
+
+      // TC02: Anti-aliasing in parallel resamples the same pixels
+      assertEdgesResampled(plain, grid, edges,
+              render(sceneCamera(scene).setEdgeAntiAliasing(true).setMultithreading(-1)),
+              "Image anti-aliased in parallel differs");
+
+      // =============== Boundary Values Tests ==================
+      // TC11: A scene without edges renders the plain image
+      Scene empty = new Scene("Empty").setBackground(new Color(10, 20, 30));
+      assertSameImage(render(sceneCamera(empty)), render(sceneCamera(empty).setEdgeAntiAliasing(true)),
+              "Image without edges differs");
+   }
+
+
+   /**
+    * Test method for {@link renderer.Camera.Builder#setEdgeAntiAliasing(boolean)} with the
+    * G-buffer, on instances of one geometry.
+    */
+   @Test
+   void testGBufferEdgeAntiAliasing() {
+      // two instances of one square, side by side with the seam under a sharp highlight
+      Scene scene = new Scene("Instances").setBackground(new Color(10, 20, 30));
+      Mesh square = new Mesh(new double[] { -10.0, -25.0, -50.0, 10.0, -25.0, -50.0, 10.0, 25.0, -50.0,
+                                            -10.0, 25.0, -50.0 }, new int[] { 0, 1, 2, 0, 2, 3 });
+      square.setEmission(new Color(20, 20, 20)).setMaterial(new Material().setKD(0.3).setKS(0.9).setShininess(300));
+      scene.geometries.add(new Instance(square, new Vector(-10.0, 0.0, 0.0)),
+              new Instance(square, new Vector(10.0, 0.0, 0.0)));
+      scene.lights.add(new PointLight(new Color(600, 600, 600), new Point(0.0, 0.0, -40.0)));
+      ImageWriter expected = render(sceneCamera(scene).setEdgeAntiAliasing(true));
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: The seam between the instances is an edge when the hits are kept
+      ImageWriter image = new ImageWriter(NX, NY);
+      Camera camera = sceneCamera(scene).setGBuffer(true).setEdgeAntiAliasing(true).setImageWriter(image).build();
+      camera.renderImage();
+      assertSameImage(expected, image, "Image keeping the hits differs");
+
+      // TC02: The seam between the instances is an edge when the kept hits are shaded
+      camera.renderImage();
+      assertSameImage(expected, image, "Image shaded from the kept hits differs");
+   }
+
+   /**
+    * Test method for {@link renderer.Camera.Builder#setTileLightLists(boolean)}.
+    */
+   @Test
+   void testTileLightLists() {
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Lights of unbounded reach are listed for every tile and shade as all the lights
+      Scene unbounded = createScene();
+      assertSameImage(render(sceneCamera(unbounded)), render(sceneCamera(unbounded).setTileLightLists(true)),
+              "Image shaded with the lights of unbounded reach differs");
+
+      // TC02: Lights of bounded reach covering the whole scene shade as all the lights
+      Scene bounded = createScene();
+      bounded.lights.add(new PointLight(new Color(200, 200, 300), new Point(-20.0, -30.0, 40.0)).setKl(0.001)
+              .setInfluenceThreshold(1e-4));
+      bounded.lights.add(new PointLight(new Color(300, 100, 100), new Point(40.0, 10.0, 0.0)).setKq(0.0001)
+              .setInfluenceThreshold(1e-4));
+      ImageWriter allLights = render(sceneCamera(bounded));
+      assertSameImage(allLights, render(sceneCamera(bounded).setTileLightLists(true)),
+              "Image shaded with the lights of bounded reach differs");
+
+      // TC03: Shading with the lists of the tiles in parallel shades as all the lights
+      assertSameImage(allLights, render(sceneCamera(bounded).setTileLightLists(true).setMultithreading(-1)),
+              "Image shaded in parallel with the lights of the tiles differs");
+
+      // =============== Boundary Values Tests ==================
+      // TC11: A scene without lights shades as all the lights
+      Scene dark = createScene();
+      dark.lights.clear();
+      assertSameImage(render(sceneCamera(dark)), render(sceneCamera(dark).setTileLightLists(true)),
+              "Image without lights differs");
+   }
+
 }
 
 
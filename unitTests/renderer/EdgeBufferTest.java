@@ -0,0 +1,104 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Intersectable.Intersection;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the buffer finding the pixels on the edges of objects
+ */
+class EdgeBufferTest {
+
+    /** Image width in pixels */
+    private static final int NX = 6;
+
+    /** Image height in pixels */
+    private static final int NY = 3;
+
+    /** An object */
+    private final Geometry first = new Sphere(1.0, Point.ZERO);
+
+    /** Another object */
+    private final Geometry second = new Sphere(1.0, Point.ZERO);
+
+    /**
+     * Creates the record of a hit.
+     *
+     * @param geometry the geometry hit
+     * @param normal   the normal at the hit
+     * @return the record
+     */
+    private static Intersection hit(Geometry geometry, Vector normal) {
+        Intersection intersection = new Intersection(geometry, Point.ZERO);
+        intersection.normal = normal;
+        return intersection;
+    }
+
+    /**
+     * Fills the columns of a buffer with hits, the same hit down each column.
+     *
+     * @param columns the hit of each column
+     * @return the buffer
+     */
+    private static EdgeBuffer fill(Intersection... columns) {
+        EdgeBuffer buffer = new EdgeBuffer(NX, NY);
+        for (int row = 0; row < NY; ++row)
+            for (int column = 0; column < NX; ++column)
+                buffer.store(column, row, columns[column]);
+        return buffer;
+    }
+
+    /**
+     * Returns the pixels of all the rows at some columns.
+     *
+     * @param columns the columns, in order
+     * @return the indices of the pixels, row after row
+     */
+    private static int[] pixels(int... columns) {
+        int[] pixels = new int[NY * columns.length];
+        for (int row = 0; row < NY; ++row)
+            for (int i = 0; i < columns.length; ++i)
+                pixels[row * columns.length + i] = row * NX + columns[i];
+        return pixels;
+    }
+
+    /**
+     * Test method for {@link renderer.EdgeBuffer#findEdgePixels()}.
+     */
+    @Test
+    void testFindEdgePixels() {
+        Vector front = new Vector(0.0, 0.0, 1.0);
+        Vector near = new Vector(0.0, 0.1, 1.0).normalize();
+        Vector side = new Vector(1.0, 0.0, 1.0).normalize();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Two objects side by side
+        Intersection a = hit(first, front), b = hit(second, front);
+        assertArrayEquals(pixels(2, 3), fill(a, a, a, b, b, b).findEdgePixels(), "Wrong edge between objects");
+
+        // TC02: An object against the background
+        assertArrayEquals(pixels(3, 4), fill(a, a, a, a, null, null).findEdgePixels(),
+                "Wrong edge against the background");
+
+        // TC03: A crease inside an object
+        Intersection c = hit(first, side);
+        assertArrayEquals(pixels(1, 2), fill(a, a, c, c, c, c).findEdgePixels(), "Wrong edge of a crease");
+
+        // TC04: A smooth surface inside an object
+        Intersection d = hit(first, near);
+        assertEquals(0, fill(a, a, d, d, a, a).findEdgePixels().length, "Found an edge on a smooth surface");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Only one object
+        assertEquals(0, fill(a, a, a, a, a, a).findEdgePixels().length, "Found an edge inside an object");
+
+        // TC12: Only background
+        assertEquals(0, fill(null, null, null, null, null, null).findEdgePixels().length,
+                "Found an edge in the background");
+    }
+}
@@ -0,0 +1,154 @@
+package renderer;
+
+import geometries.Instance;
+import geometries.Intersectable.Intersection;
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the G-buffer of primary hits
+ */
+class GBufferTest {
+
+    /** Image width in pixels */
+    private static final int NX = 16;
+
+    /** Image height in pixels */
+    private static final int NY = 12;
+
+    /** The material of the sphere, changed between renders */
+    private final Material glass = new Material().setKD(0.3).setKS(0.3).setShininess(30).setkT(0.6).setkR(0.3);
+
+    /** A scene of a glass sphere and a triangle in front of a mirror */
+    private final Scene scene = new Scene("Relighting").setBackground(new Color(10, 20, 30));
+
+    /** A camera looking at the scene */
+    private final Camera camera = Camera.getBuilder()
+            .setLocation(new Point(0.0, 0.0, 100.0)).setDirection(new Point(0.0, 0.0, -50.0), Vector.AXIS_Y)
+            .setVpDistance(100).setVpSize(100, 75).setResolution(NX, NY)
+            .setRayTracer(null, RayTracerType.SIMPLE).build();
+
+    /**
+     * Creates the scene.
+     */
+    GBufferTest() {
+        scene.geometries.add(
+                new Sphere(20.0, new Point(0.0, 0.0, -50.0)).setEmission(new Color(20, 40, 60)).setMaterial(glass),
+                new Triangle(new Point(-40.0, -30.0, -70.0), new Point(10.0, -30.0, -40.0),
+                        new Point(-30.0, 20.0, -60.0)).setEmission(new Color(60, 20, 20))
+                        .setMaterial(new Material().setKD(0.4).setKS(0.2).setShininess(10)),
+                new Plane(new Point(0.0, 0.0, -100.0), new Vector(0.0, 0.2, 1.0)).setEmission(new Color(30, 30, 30))
+                        .setMaterial(new Material().setKD(0.5).setkR(0.8)));
+        scene.lights.add(new PointLight(new Color(400, 300, 200), new Point(30.0, 30.0, 50.0)).setKl(0.001));
+    }
+
+    /**
+     * Stores the primary hits of all the pixels, as a first render does.
+     *
+     * @param tracer the ray tracer
+     * @return the filled buffer
+     */
+    private GBuffer render(SimpleRayTracer tracer) {
+        GBuffer buffer = new GBuffer(NX, NY);
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) {
+                assertFalse(buffer.isComplete(), "Complete before all the pixels are stored");
+                Ray ray = camera.constructRay(NX, NY, j, i);
+                Intersection intersection = tracer.findClosestIntersection(ray);
+                tracer.traceRay(ray, intersection);
+                buffer.store(j, i, intersection);
+            }
+        return buffer;
+    }
+
+    /**
+     * Test method for {@link renderer.GBuffer#load(int, int)}.
+     */
+    @Test
+    void testLoad() {
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        GBuffer buffer = render(tracer);
+        assertTrue(buffer.isComplete(), "Not complete after all the pixels are stored");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The restored hits are those of the camera rays
+        Intersection expected = new Intersection();
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) {
+                Ray ray = camera.constructRay(NX, NY, j, i);
+                Intersection traced = scene.geometries.findClosestIntersection(ray, expected);
+                Intersection loaded = buffer.load(j, i);
+                if (traced == null) {
+                    assertNull(loaded, "Hit at pixel " + j + "," + i);
+                    assertFalse(buffer.isHit(j, i), "Hit at pixel " + j + "," + i);
+                    continue;
+                }
+                assertTrue(buffer.isHit(j, i), "No hit at pixel " + j + "," + i);
+                assertEquals(traced.point, new Point(buffer.getCoordinate(j, i, 0), buffer.getCoordinate(j, i, 1),
+                        buffer.getCoordinate(j, i, 2)), "Wrong coordinates at pixel " + j + "," + i);
+                assertSame(traced.geometry, loaded.geometry, "Wrong geometry at pixel " + j + "," + i);
+                assertEquals(traced.t, loaded.t, "Wrong distance at pixel " + j + "," + i);
+                assertEquals(traced.point, loaded.point, "Wrong point at pixel " + j + "," + i);
+                assertEquals(ray.getDirection(), loaded.rayDirection, "Wrong direction at pixel " + j + "," + i);
+            }
+
+        // TC02: Shading the restored hits after the lights and materials change gives the
+        // colors of tracing the camera rays again
+        scene.lights.add(new SpotLight(new Color(300, 300, 500), new Point(-40.0, 20.0, 20.0),
+                new Vector(1.0, -0.5, -2.0)).setKl(0.0005));
+        glass.setKD(0.1).setkT(0.2).setkR(0.6);
+        for (SimpleRayTracer relit : new SimpleRayTracer[] { tracer, new IterativeRayTracer(scene) })
+            for (int i = 0; i < NY; ++i)
+                for (int j = 0; j < NX; ++j)
+                    assertEquals(relit.traceRay(camera.constructRay(NX, NY, j, i)).getRgb(),
+                            relit.shade(buffer.load(j, i)).getRgb(), "Wrong color of pixel " + j + "," + i);
+
+        // TC03: The instance a hit was found through is restored
+        Sphere shared = new Sphere(5.0, Point.ZERO);
+        Instance instance = new Instance(shared, new Vector(0.0, 0.0, -50.0));
+        Intersection throughInstance = new Intersection(shared, new Point(0.0, 0.0, -45.0));
+        throughInstance.instance = instance;
+        throughInstance.normal = Vector.AXIS_Z;
+        throughInstance.rayDirection = new Vector(0.0, 0.0, -1.0);
+        GBuffer instances = new GBuffer(2, 1);
+        instances.store(0, 0, throughInstance);
+        throughInstance.instance = null;
+        instances.store(1, 0, throughInstance);
+        assertSame(instance, instances.load(0, 0).instance, "Wrong instance of the hit");
+        assertNull(instances.load(1, 0).instance, "Instance of a direct hit");
+    }
+
+    /**
+     * Test method for {@link renderer.GBuffer#isComplete()}.
+     */
+    @Test
+    void testIsComplete() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A buffer with every pixel stored is complete
+        GBuffer buffer = new GBuffer(NX, NY);
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) buffer.store(j, i, null);
+        assertTrue(buffer.isComplete(), "Not complete after all the pixels are stored");
+
+        // TC02: Storing pixels again keeps the buffer complete
+        buffer.store(0, 0, null);
+        assertTrue(buffer.isComplete(), "Not complete after a pixel is stored again");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: An empty buffer is not complete
+        assertFalse(new GBuffer(NX, NY).isComplete(), "An empty buffer is complete");
+
+        // TC12: Storing one pixel as many times as there are pixels does not complete the buffer
+        GBuffer partial = new GBuffer(NX, NY);
+        for (int k = 0; k < NX * NY; ++k) partial.store(0, 0, null);
+        assertFalse(partial.isComplete(), "Complete after one pixel is stored many times");
+    }
+}
@@ -0,0 +1,63 @@
+package renderer;
+
+import geometries.Triangle;
+import lighting.DirectionalLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static renderer.RayTracerTestUtils.assertColor;
+
+/**
+ * Testing the grid ray tracer
+ */
+class GridRayTracerTest {
+
+    /** Image width and height in pixels */
+    private static final int N = 11;
+
+    /** The camera position */
+    private static final Point LOCATION = new Point(0.0, 0.0, 100.0);
+
+    /**
+     * Test method for {@link renderer.GridRayTracer#setDecoupledShading(boolean)}.
+     */
+    @Test
+    void testSetDecoupledShading() {
+        // two matte triangles of constant color under a directional light, meeting along x = 0
+        Scene scene = new Scene("Flat").setBackground(new Color(10, 20, 30));
+        scene.geometries.add(
+                new Triangle(new Point(0.0, -50.0, 0.0), new Point(50.0, -50.0, 0.0), new Point(0.0, 50.0, 0.0))
+                        .setEmission(new Color(60, 20, 20)).setMaterial(new Material().setKD(0.5)),
+                new Triangle(new Point(0.0, -50.0, 0.0), new Point(0.0, 50.0, 0.0), new Point(-50.0, 50.0, 0.0))
+                        .setEmission(new Color(20, 60, 20)).setMaterial(new Material().setKD(0.3)));
+        scene.lights.add(new DirectionalLight(new Color(200, 200, 200), new Vector(1.0, -1.0, -2.0)));
+        Camera camera = Camera.getBuilder()
+                .setLocation(LOCATION).setDirection(Point.ZERO, Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(110, 110).setResolution(N, N)
+                .setRayTracer(scene, RayTracerType.SIMPLE).build();
+        GridRayTracer grid = new GridRayTracer(scene, 10, new Vector(1.0, 0.0, 0.0), Vector.AXIS_Y);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A pixel inside one triangle
+        Color expected = grid.setDecoupledShading(false).traceRayGrid(LOCATION, camera, N, N, 7, 7);
+        assertColor(expected, grid.setDecoupledShading(true).traceRayGrid(LOCATION, camera, N, N, 7, 7),
+                "Wrong color inside a triangle");
+
+        // TC02: A pixel across the edge of two triangles keeps their coverage
+        expected = grid.setDecoupledShading(false).traceRayGrid(LOCATION, camera, N, N, 5, 5);
+        assertColor(expected, grid.setDecoupledShading(true).traceRayGrid(LOCATION, camera, N, N, 5, 5),
+                "Wrong color across an edge");
+
+        // TC03: A pixel across the edge of a triangle and the background
+        expected = grid.setDecoupledShading(false).traceRayGrid(LOCATION, camera, N, N, 2, 4);
+        assertColor(expected, grid.setDecoupledShading(true).traceRayGrid(LOCATION, camera, N, N, 2, 4),
+                "Wrong color across the background");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A pixel seeing only the background
+        assertColor(scene.backround, grid.setDecoupledShading(true).traceRayGrid(LOCATION, camera, N, N, 0, 10),
+                "Wrong color of the background");
+    }
+}
@@ -0,0 +1,75 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static renderer.RayTracerTestUtils.*;
+
+/**
+ * Testing the iterative ray tracer
+ */
+class IterativeRayTracerTest {
+
+    /**
+     * Test method for {@link renderer.IterativeRayTracer#traceRay(Ray)}.
+     */
+    @Test
+    void testTraceRay() {
+        Scene scene = createGlassAndMirror();
+        RayTracerBase recursive = new SimpleRayTracer(scene);
+        RayTracerBase iterative = new IterativeRayTracer(scene);
+        Point eye = new Point(0.0, 0.0, 100.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray through the glass sphere and onto the mirror
+        Ray ray = new Ray(eye, new Vector(0.05, 0.03, -1.0));
+        assertColor(recursive.traceRay(ray), iterative.traceRay(ray), "Wrong color through the sphere");
+
+        // TC02: Ray onto the mirror only
+        ray = new Ray(eye, new Vector(0.4, -0.3, -1.0));
+        assertColor(recursive.traceRay(ray), iterative.traceRay(ray), "Wrong color on the mirror");
+
+        // TC03: Ray missing the scene
+        ray = new Ray(eye, new Vector(0.0, 0.0, 1.0));
+        assertEquals(scene.backround, iterative.traceRay(ray), "Ray missing the scene must get the background");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray through the center of the sphere, refracted straight to the mirror and back
+        ray = new Ray(eye, new Vector(0.0, 0.0, -1.0));
+        assertColor(recursive.traceRay(ray), iterative.traceRay(ray), "Wrong color through the center");
+    }
+
+    /**
+     * Test method for {@link renderer.IterativeRayTracer#setRussianRouletteDepth(int)}.
+     */
+    @Test
+    void testRussianRoulette() {
+        Scene scene = createGlassAndMirror();
+        RayTracerBase exact = new IterativeRayTracer(scene);
+        IterativeRayTracer roulette = new IterativeRayTracer(scene).setRussianRouletteDepth(1).setRandomSeed(37);
+        Ray ray = new Ray(new Point(0.0, 0.0, 100.0), new Vector(0.05, 0.03, -1.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The average color with the roulette is the exact color
+        final int SAMPLES = 10000;
+        Color sum = Color.BLACK;
+        for (int i = 0; i < SAMPLES; ++i) sum = sum.add(roulette.traceRay(ray));
+        Double3 expected = exact.traceRay(ray).getRgb(), average = sum.reduce(SAMPLES).getRgb();
+        assertEquals(expected.d1(), average.d1(), expected.d1() * 0.05, "Roulette changed the expected red");
+        assertEquals(expected.d2(), average.d2(), expected.d2() * 0.05, "Roulette changed the expected green");
+        assertEquals(expected.d3(), average.d3(), expected.d3() * 0.05, "Roulette changed the expected blue");
+
+        // TC02: The roulette plays the same way with the same seed
+        IterativeRayTracer again = new IterativeRayTracer(scene).setRussianRouletteDepth(1).setRandomSeed(37);
+        Color againSum = Color.BLACK;
+        for (int i = 0; i < SAMPLES; ++i) againSum = againSum.add(again.traceRay(ray));
+        assertEquals(sum.getRgb(), againSum.getRgb(), "Roulette played differently with the same seed");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Negative depth
+        assertThrows(IllegalArgumentException.class, () -> roulette.setRussianRouletteDepth(-1),
+                "Set a negative Russian roulette depth");
+    }
+}
@@ -0,0 +1,147 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Intersectable.Intersection;
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the record of the geometries hit through each pixel
+ */
+class PixelDependenciesTest {
+
+    /** Image width in pixels */
+    private static final int NX = 16;
+
+    /** Image height in pixels */
+    private static final int NY = 12;
+
+    /** A glass sphere */
+    private final Sphere sphere = new Sphere(20.0, new Point(0.0, 0.0, -50.0));
+
+    /** A triangle casting a shadow on the mirror */
+    private final Triangle triangle = new Triangle(new Point(-40.0, -30.0, -70.0), new Point(10.0, -30.0, -40.0),
+            new Point(-30.0, 20.0, -60.0));
+
+    /** A mirror behind the sphere and the triangle */
+    private final Plane mirror = new Plane(new Point(0.0, 0.0, -100.0), new Vector(0.0, 0.2, 1.0));
+
+    /** A camera looking at the scene */
+    private final Camera camera = Camera.getBuilder()
+            .setLocation(new Point(0.0, 0.0, 100.0)).setDirection(new Point(0.0, 0.0, -50.0), Vector.AXIS_Y)
+            .setVpDistance(100).setVpSize(100, 75).setResolution(NX, NY)
+            .setRayTracer(null, RayTracerType.SIMPLE).build();
+
+    /**
+     * Test method for {@link renderer.PixelDependencies#findDependentPixels(Geometry...)}.
+     */
+    @Test
+    void testFindDependentPixels() {
+        PixelDependencies dependencies = new PixelDependencies(3, 2);
+        Geometry other = new Sphere(1.0, Point.ZERO);
+        dependencies.begin();
+        dependencies.touch(sphere);
+        dependencies.touch(triangle);
+        dependencies.touch(sphere);
+        dependencies.end(0, 0);
+        dependencies.begin();
+        dependencies.touch(triangle);
+        dependencies.end(2, 0);
+        dependencies.begin();
+        dependencies.end(1, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A geometry hit through some pixels
+        assertArrayEquals(new int[] { 0 }, dependencies.findDependentPixels(sphere), "Wrong pixels of the sphere");
+        assertArrayEquals(new int[] { 0, 2 }, dependencies.findDependentPixels(triangle),
+                "Wrong pixels of the triangle");
+
+        // TC02: Several geometries
+        assertArrayEquals(new int[] { 0, 2 }, dependencies.findDependentPixels(sphere, triangle, other),
+                "Wrong pixels of the geometries");
+
+        // TC03: A pixel rendered again replaces its geometries
+        dependencies.begin();
+        dependencies.touch(sphere);
+        dependencies.end(2, 0);
+        assertArrayEquals(new int[] { 0 }, dependencies.findDependentPixels(triangle), "Kept the old geometries");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A geometry hit through no pixel
+        assertEquals(0, dependencies.findDependentPixels(other).length, "Found pixels of a geometry not hit");
+
+        // TC12: No geometries
+        assertEquals(0, dependencies.findDependentPixels().length, "Found pixels of no geometries");
+    }
+
+    /**
+     * Renders the pixels of the scene, recording their dependencies.
+     *
+     * @param tracer       the ray tracer
+     * @param dependencies the record of the dependencies
+     * @return the colors of the pixels, row after row
+     */
+    private Double3[] render(SimpleRayTracer tracer, PixelDependencies dependencies) {
+        Double3[] colors = new Double3[NX * NY];
+        tracer.setDependencies(dependencies);
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) {
+                Ray ray = camera.constructRay(NX, NY, j, i);
+                dependencies.begin();
+                Intersection intersection = tracer.findClosestIntersection(ray);
+                if (intersection != null) dependencies.touch(intersection.geometry);
+                colors[i * NX + j] = tracer.traceRay(ray, intersection).getRgb();
+                dependencies.end(j, i);
+            }
+        tracer.setDependencies(null);
+        return colors;
+    }
+
+    /**
+     * Test method for {@link renderer.PixelDependencies#end(int, int)} as recorded by the
+     * ray tracers.
+     */
+    @Test
+    void testRecordedDependencies() {
+        Material glass = new Material().setKD(0.3).setKS(0.3).setShininess(30).setkT(0.6).setkR(0.3);
+        Material matte = new Material().setKD(0.4);
+        Scene scene = new Scene("Edits").setBackground(new Color(10, 20, 30));
+        scene.geometries.add(sphere.setEmission(new Color(20, 40, 60)).setMaterial(glass),
+                triangle.setEmission(new Color(60, 20, 20)).setMaterial(matte),
+                mirror.setEmission(new Color(30, 30, 30)).setMaterial(new Material().setKD(0.5).setkR(0.8)));
+        scene.lights.add(new PointLight(new Color(400, 300, 200), new Point(30.0, 30.0, 50.0)).setKl(0.001));
+
+        for (SimpleRayTracer tracer : new SimpleRayTracer[] { new SimpleRayTracer(scene),
+                new IterativeRayTracer(scene) }) {
+            PixelDependencies dependencies = new PixelDependencies(NX, NY);
+            Double3[] before = render(tracer, dependencies);
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: Only the pixels depending on an edited geometry change
+            triangle.setEmission(new Color(20, 60, 20));
+            matte.setKD(0.7);
+            int[] dependent = dependencies.findDependentPixels(triangle);
+            Double3[] after = render(tracer, new PixelDependencies(NX, NY));
+            int changed = 0;
+            for (int pixel = 0; pixel < NX * NY; ++pixel) {
+                if (before[pixel].equals(after[pixel])) continue;
+                ++changed;
+                assertTrue(Arrays.binarySearch(dependent, pixel) >= 0, "Pixel " + pixel + " changed unrecorded");
+            }
+            assertTrue(changed > 0, "The edit changed nothing");
+            assertTrue(dependent.length < NX * NY, "Every pixel depends on the triangle");
+
+            triangle.setEmission(new Color(60, 20, 20));
+            matte.setKD(0.4);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.PointLight;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scenes and assertions shared by the ray tracer tests
+ */
+final class RayTracerTestUtils {
+
+    /** Allowed difference between color components, from the order of the sums */
+    static final double DELTA = 1e-9;
+
+    /** Not to be instantiated */
+    private RayTracerTestUtils() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Creates a scene of a glass sphere in front of a mirror, lit by a point light.
+     * The scene is not committed, so geometries may still be added.
+     * @return the scene
+     */
+    static Scene createGlassAndMirror() {
+        Scene scene = new Scene("Glass and mirror").setBackground(new Color(10, 20, 30));
+        scene.geometries.add(
+                new Sphere(20.0, new Point(0.0, 0.0, -50.0)).setEmission(new Color(20, 40, 60))
+                        .setMaterial(new Material().setKD(0.3).setKS(0.3).setShininess(30).setkT(0.6).setkR(0.3)),
+                new Plane(new Point(0.0, 0.0, -100.0), new Vector(0.0, 0.2, 1.0)).setEmission(new Color(30, 30, 30))
+                        .setMaterial(new Material().setKD(0.5).setkR(0.8)));
+        scene.lights.add(new PointLight(new Color(400, 300, 200), new Point(30.0, 30.0, 50.0)).setKl(0.001));
+        return scene;
+    }
+
+    /**
+     * Asserts that two colors are equal up to {@link #DELTA}.
+     * @param expected the expected color
+     * @param actual   the actual color
+     * @param message  the failure message
+     */
+    static void assertColor(Color expected, Color actual, String message) {
+        Double3 e = expected.getRgb(), a = actual.getRgb();
+        assertEquals(e.d1(), a.d1(), DELTA, message);
+        assertEquals(e.d2(), a.d2(), DELTA, message);
+        assertEquals(e.d3(), a.d3(), DELTA, message);
+    }
+}
@@ -0,0 +1,113 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.SphereCloud;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the simple ray tracer
+ */
+class SimpleRayTracerTest {
+
+    /** The color of the floor in shadow: its emission, with no ambient light */
+    private static final Color SHADOW = new Color(20, 20, 20);
+
+    /**
+     * Creates a scene of a floor under a light, with a sphere in between.
+     *
+     * @param kT the transparency coefficient of the sphere
+     * @return the scene
+     */
+    private static Scene scene(double kT) {
+        Scene scene = new Scene("Shadow");
+        scene.geometries.add(
+                new Plane(Point.ZERO, Vector.AXIS_Z).setEmission(SHADOW)
+                        .setMaterial(new Material().setKD(0.5)),
+                new Sphere(10.0, new Point(0.0, 0.0, 50.0))
+                        .setMaterial(new Material().setKD(0.5).setkT(kT)));
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(0.0, 0.0, 100.0)));
+        return scene;
+    }
+
+    /**
+     * Traces a ray straight down to a point of the floor.
+     *
+     * @param tracer the ray tracer
+     * @param x      the X coordinate of the point
+     * @param y      the Y coordinate of the point
+     * @return the color of the point
+     */
+    private static Color traceFloor(SimpleRayTracer tracer, double x, double y) {
+        return tracer.traceRay(new Ray(new Point(x, y, 30.0), new Vector(0.0, 0.0, -1.0)));
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#getOccluderCacheHitRate()}.
+     */
+    @Test
+    void testOccluderCache() {
+        SimpleRayTracer tracer = new SimpleRayTracer(scene(0.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Points in the shadow of the same blocker find it in the cache after the first
+        for (int i = 0; i < 4; ++i)
+            assertEquals(SHADOW.getRgb(), traceFloor(tracer, i, i).getRgb(), "Wrong color in the shadow");
+        assertEquals(4, tracer.getShadowRayCount(), "Wrong number of shadow rays");
+        assertEquals(3, tracer.getOccluderCacheHitCount(), "Wrong number of cache hits");
+        assertEquals(0.75, tracer.getOccluderCacheHitRate(), 1e-10, "Wrong cache hit rate");
+
+        // TC02: A lit point misses the cached blocker and is lit
+        assertNotEquals(SHADOW.getRgb(), traceFloor(tracer, 40.0, 0.0).getRgb(), "A lit point is in the shadow");
+        assertEquals(5, tracer.getShadowRayCount(), "Wrong number of shadow rays");
+        assertEquals(3, tracer.getOccluderCacheHitCount(), "A lit point hit the cache");
+
+        // TC03: A transparent blocker is never cached
+        tracer = new SimpleRayTracer(scene(0.5));
+        Double3 first = traceFloor(tracer, 0.0, 0.0).getRgb();
+        assertNotEquals(SHADOW.getRgb(), first, "A transparent blocker is opaque");
+        assertEquals(first, traceFloor(tracer, 0.0, 0.0).getRgb(), "Wrong color behind a transparent blocker");
+        assertEquals(0, tracer.getOccluderCacheHitCount(), "A transparent blocker was cached");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: No shadow rays since a reset
+        tracer.resetOccluderCacheStatistics();
+        assertEquals(0, tracer.getShadowRayCount(), "Shadow rays counted after a reset");
+        assertEquals(0, tracer.getOccluderCacheHitRate(), "Wrong cache hit rate without shadow rays");
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#traceRay(Ray)}: the shadows of the
+     * spheres of a cloud, each of its own material.
+     */
+    @Test
+    void testCloudShadow() {
+        Material opaque = new Material().setKD(0.5);
+        Material glass = new Material().setKD(0.5).setkT(0.5);
+        Scene scene = new Scene("Cloud shadow");
+        scene.geometries.add(
+                new Plane(Point.ZERO, Vector.AXIS_Z).setEmission(SHADOW).setMaterial(new Material().setKD(0.5)),
+                new SphereCloud(new double[] { 0.0, 0.0, 50.0, 20.0, 0.0, 50.0 }, new double[] { 10.0, 10.0 },
+                        new Material[] { opaque, glass }, new int[] { 0, 1 }).setMaterial(opaque));
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(0.0, 0.0, 100.0)));
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+
+        Scene standalone = scene(0.0);
+        standalone.geometries.add(new Sphere(10.0, new Point(20.0, 0.0, 50.0)).setMaterial(glass));
+        Double3 expected = traceFloor(new SimpleRayTracer(standalone), 40.0, 0.0).getRgb();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The opaque sphere of the cloud casts a full shadow
+        assertEquals(SHADOW.getRgb(), traceFloor(tracer, 0.0, 0.0).getRgb(), "Wrong color behind an opaque sphere");
+
+        // TC02: The glass sphere of the cloud lets light through, as a glass sphere of its own
+        // does, though the cloud is the cached occluder of the light
+        assertNotEquals(SHADOW.getRgb(), expected, "A glass sphere is opaque");
+        assertEquals(expected, traceFloor(tracer, 40.0, 0.0).getRgb(), "Wrong color behind a glass sphere of a cloud");
+    }
+}
@@ -0,0 +1,95 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import geometries.Triangle;
+import lighting.LightSource;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the lists of the lights of the tiles of an image
+ */
+class TileLightsTest {
+
+    /** Image width in pixels, three tiles */
+    private static final int NX = 48;
+
+    /** Image height in pixels, two tiles */
+    private static final int NY = 32;
+
+    /** A floor covering only a part of the view, under a grid of lights of bounded reach */
+    private final Scene scene = new Scene("Many lights").setBackground(new Color(10, 20, 30));
+
+    /** A camera looking down at the floor */
+    private final Camera camera = Camera.getBuilder()
+            .setLocation(new Point(0.0, 0.0, 100.0)).setDirection(new Point(0.0, 0.0, -100.0), Vector.AXIS_Y)
+            .setVpDistance(100).setVpSize(96, 64).setResolution(NX, NY)
+            .setRayTracer(null, RayTracerType.SIMPLE).build();
+
+    /**
+     * Creates the scene.
+     */
+    TileLightsTest() {
+        scene.geometries.add(new Triangle(new Point(-200.0, -200.0, -100.0), new Point(40.0, -200.0, -100.0),
+                new Point(-200.0, 200.0, -100.0)).setEmission(new Color(20, 20, 20))
+                .setMaterial(new Material().setKD(0.5).setKS(0.3).setShininess(20)));
+        for (int i = 0; i < 100; ++i)
+            scene.lights.add(new PointLight(new Color(200, 150, 100),
+                    new Point(-180 + (i % 10) * 40.0, -180 + (i / 10) * 40.0, -90.0))
+                    .setKq(1).setInfluenceThreshold(0.5));
+        scene.commit();
+    }
+
+    /**
+     * Test method for {@link renderer.TileLights#getLights(int, int)}.
+     */
+    @Test
+    void testGetLights() {
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        GBuffer buffer = new GBuffer(NX, NY);
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) {
+                Ray ray = camera.constructRay(NX, NY, j, i);
+                Intersection intersection = tracer.findClosestIntersection(ray);
+                if (intersection != null) tracer.preprocessoIntersection(intersection, ray.getDirection());
+                buffer.store(j, i, intersection);
+            }
+        TileLights tileLights = new TileLights(buffer, NX, NY, scene);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The list of a tile holds every light reaching a primary hit of the tile
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) {
+                Point point = buffer.getPoint(j, i);
+                if (point == null) continue;
+                List<LightSource> lights = tileLights.getLights(j, i);
+                for (LightSource light : scene.lights)
+                    if (light.canIlluminate(point))
+                        assertTrue(lights.contains(light), "Missed a light of pixel " + j + "," + i);
+            }
+
+        // TC02: The list of a tile covered by the floor is short
+        int size = tileLights.getLights(0, NY - 1).size();
+        assertTrue(size > 0 && size < scene.lights.size() / 4, "Wrong length of the list of a tile: " + size);
+
+        // TC03: Shading the primary hits with the lights of their tiles gives the colors of
+        // shading them with the lights the scene finds
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) {
+                Intersection intersection = buffer.load(j, i);
+                Double3 expected = tracer.shade(intersection).getRgb();
+                assertEquals(expected, tracer.shade(intersection, tileLights.getLights(j, i)).getRgb(),
+                        "Wrong color of pixel " + j + "," + i);
+            }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A tile seeing only the background has no lights
+        assertEquals(0, tileLights.getLights(NX - 1, 0).size(), "Lights of a tile of background");
+    }
+}
@@ -0,0 +1,115 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Intersectable.Intersection;
+import geometries.Mesh;
+import geometries.Sphere;
+import geometries.Triangle;
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the rasterized visibility buffer of primary hits
+ */
+class VisibilityBufferTest {
+
+    /** Image width in pixels: two full tiles and a partial one */
+    private static final int NX = 37;
+
+    /** Image height in pixels */
+    private static final int NY = 21;
+
+    /** A camera at the origin looking down the Z axis */
+    private final Camera camera = Camera.getBuilder()
+            .setLocation(Point.ZERO).setDirection(new Vector(0.0, 0.0, -1.0), Vector.AXIS_Y)
+            .setVpDistance(100).setVpSize(111, 63).setResolution(NX, NY)
+            .setRayTracer(null, RayTracerType.SIMPLE).build();
+
+    /**
+     * Checks that the buffer holds, for every pixel, the closest hit of the primary ray.
+     *
+     * @param scene  the geometries of the scene
+     * @param buffer the visibility buffer of the scene
+     */
+    private void assertHits(Geometries scene, VisibilityBuffer buffer) {
+        Intersection expected = new Intersection();
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j) {
+                Ray ray = camera.constructRay(NX, NY, j, i);
+                Intersection traced = scene.findClosestIntersection(ray, expected);
+                Intersection buffered = buffer.findClosestIntersection(j, i, ray);
+                if (traced == null) {
+                    assertNull(buffered, "Hit at pixel " + j + "," + i);
+                    continue;
+                }
+                assertNotNull(buffered, "Missed at pixel " + j + "," + i);
+                assertSame(traced.geometry, buffered.geometry, "Wrong geometry at pixel " + j + "," + i);
+                assertEquals(traced.primitive, buffered.primitive, "Wrong triangle at pixel " + j + "," + i);
+                assertEquals(traced.t, buffered.t, "Wrong distance at pixel " + j + "," + i);
+            }
+    }
+
+    /**
+     * Test method for {@link renderer.VisibilityBuffer#VisibilityBuffer(Camera, int, int, geometries.Intersectable)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A triangle in front of the camera covers the pixels of its projection
+        Triangle triangle = new Triangle(new Point(-10.0, -10.0, -100.0), new Point(20.0, -10.0, -100.0),
+                new Point(-10.0, 20.0, -100.0));
+        VisibilityBuffer buffer = new VisibilityBuffer(camera, NX, NY, new Geometries(triangle));
+        assertEquals(0, buffer.getTriangle(15, 13), "Missed the triangle");
+        assertEquals(100, buffer.getDepth(18, 10), 1e-9, "Wrong depth of the triangle");
+        assertEquals(-1, buffer.getTriangle(0, 0), "Hit outside the triangle");
+        assertEquals(Double.POSITIVE_INFINITY, buffer.getDepth(0, 0), "Depth outside the triangle");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A triangle behind the camera covers nothing
+        triangle = new Triangle(new Point(-10.0, -10.0, 100.0), new Point(10.0, -10.0, 100.0),
+                new Point(-10.0, 10.0, 100.0));
+        buffer = new VisibilityBuffer(camera, NX, NY, new Geometries(triangle));
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < NX; ++j)
+                assertEquals(-1, buffer.getTriangle(j, i), "Hit behind the camera at pixel " + j + "," + i);
+    }
+
+    /**
+     * Test method for {@link renderer.VisibilityBuffer#findClosestIntersection(int, int, Ray)}.
+     */
+    @Test
+    void testFindClosestIntersection() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Overlapping triangles and a mesh
+        Mesh wall = new Mesh(
+                new double[] { -60, -40, -150, 60, -40, -150, 60, 40, -150, -60, 40, -150 },
+                new int[] { 0, 1, 2, 0, 2, 3 });
+        Triangle front = new Triangle(new Point(-30.0, -20.0, -120.0), new Point(20.0, -25.0, -90.0),
+                new Point(0.0, 25.0, -110.0));
+        Triangle tilted = new Triangle(new Point(-50.0, 0.0, -80.0), new Point(50.0, 10.0, -140.0),
+                new Point(0.0, 30.0, -100.0));
+        Geometries scene = new Geometries(wall, new Geometries(front, tilted));
+        assertHits(scene, new VisibilityBuffer(camera, NX, NY, scene));
+
+        // TC02: Triangles and other geometries, in front of and behind each other
+        Sphere near = new Sphere(10.0, new Point(10.0, 5.0, -80.0));
+        Sphere far = new Sphere(15.0, new Point(-25.0, -5.0, -140.0));
+        scene = new Geometries(wall, front, near, far, tilted);
+        assertHits(scene, new VisibilityBuffer(camera, NX, NY, scene));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A triangle reaching behind the camera
+        Triangle floor = new Triangle(new Point(-50.0, -20.0, 50.0), new Point(50.0, -20.0, 50.0),
+                new Point(0.0, -20.0, -200.0));
+        scene = new Geometries(wall, floor, near);
+        assertHits(scene, new VisibilityBuffer(camera, NX, NY, scene));
+
+        // TC12: No triangles
+        scene = new Geometries(near, far);
+        assertHits(scene, new VisibilityBuffer(camera, NX, NY, scene));
+    }
+}
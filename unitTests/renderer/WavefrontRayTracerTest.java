@@ -0,0 +1,120 @@
+package renderer;
+
+import geometries.BVHBoundingBoxBuilder;
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.RestoreAccelerators;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static renderer.RayTracerTestUtils.*;
+
+/**
+ * Testing the wavefront ray tracer
+ */
+@ExtendWith(RestoreAccelerators.class)
+class WavefrontRayTracerTest {
+
+    /** Image width in pixels: a full tile and a partial one */
+    private static final int NX = Camera.TILE_SIZE + 4;
+
+    /** Image height in pixels */
+    private static final int NY = 12;
+
+    /**
+     * Creates the glass and mirror scene, with a translucent sphere casting a shadow.
+     * @return the scene
+     */
+    private Scene createScene() {
+        Scene scene = createGlassAndMirror();
+        scene.geometries.add(new Sphere(8.0, new Point(20.0, 20.0, -10.0)).setEmission(new Color(60, 20, 20))
+                .setMaterial(new Material().setKD(0.4).setkT(0.5)));
+        return scene;
+    }
+
+    /**
+     * Test method for
+     * {@link renderer.WavefrontRayTracer#traceTile(Camera, int, int, int, int, int, int)}.
+     */
+    @Test
+    void testTraceTile() {
+        Scene scene = createScene();
+        WavefrontRayTracer wavefront = new WavefrontRayTracer(scene);
+        SimpleRayTracer simple = new SimpleRayTracer(scene);
+        Camera camera = Camera.getBuilder()
+                .setLocation(new Point(0.0, 0.0, 100.0)).setDirection(new Point(0.0, 0.0, -50.0), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(100, 60).setResolution(NX, NY)
+                .setRayTracer(wavefront).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A full tile has the colors of the recursive tracer
+        final int SIZE = Camera.TILE_SIZE;
+        Color[] colors = wavefront.traceTile(camera, NX, NY, 0, 0, SIZE, NY);
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < SIZE; ++j)
+                assertColor(simple.traceRay(camera.constructRay(NX, NY, j, i)), colors[i * SIZE + j],
+                        "Wrong color of pixel " + j + "," + i);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A partial tile at the image edge has the colors of the recursive tracer
+        colors = wavefront.traceTile(camera, NX, NY, SIZE, 0, NX - SIZE, NY);
+        for (int i = 0; i < NY; ++i)
+            for (int j = SIZE; j < NX; ++j)
+                assertColor(simple.traceRay(camera.constructRay(NX, NY, j, i)), colors[i * (NX - SIZE) + j - SIZE],
+                        "Wrong color of edge pixel " + j + "," + i);
+    }
+
+    /**
+     * Test method for {@link renderer.WavefrontRayTracer#setPacketSize(int)}.
+     */
+    @Test
+    void testSetPacketSize() {
+        Intersectable.enableBVH = true;
+        Geometries.setBoundingVolumeBuilder(new BVHBoundingBoxBuilder());
+        Scene scene = createScene();
+        WavefrontRayTracer wavefront = new WavefrontRayTracer(scene);
+        SimpleRayTracer simple = new SimpleRayTracer(scene);
+        Camera camera = Camera.getBuilder()
+                .setLocation(new Point(0.0, 0.0, 100.0)).setDirection(new Point(0.0, 0.0, -50.0), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(100, 60).setResolution(NX, NY)
+                .setRayTracer(wavefront).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Packets of 4, 8 and 16 rays through a BVH give the colors of the recursive tracer,
+        // in the partial edge tile as well
+        final int SIZE = Camera.TILE_SIZE;
+        for (int packetSize : new int[] { 4, 8, 16 }) {
+            wavefront.setPacketSize(packetSize);
+            Color[] colors = wavefront.traceTile(camera, NX, NY, SIZE, 0, NX - SIZE, NY);
+            for (int i = 0; i < NY; ++i)
+                for (int j = SIZE; j < NX; ++j)
+                    assertColor(simple.traceRay(camera.constructRay(NX, NY, j, i)), colors[i * (NX - SIZE) + j - SIZE],
+                            "Wrong color of pixel " + j + "," + i + " with packets of " + packetSize);
+        }
+
+        // TC02: Packet size that is not a power of 2
+        assertThrows(IllegalArgumentException.class, () -> wavefront.setPacketSize(6),
+                "Packet size must be a power of 2");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Rays one by one give the colors of the recursive tracer
+        wavefront.setPacketSize(1);
+        Color[] colors = wavefront.traceTile(camera, NX, NY, 0, 0, SIZE, NY);
+        for (int i = 0; i < NY; ++i)
+            for (int j = 0; j < SIZE; ++j)
+                assertColor(simple.traceRay(camera.constructRay(NX, NY, j, i)), colors[i * SIZE + j],
+                        "Wrong color of pixel " + j + "," + i + " without packets");
+
+        // TC12: Empty packets
+        assertThrows(IllegalArgumentException.class, () -> wavefront.setPacketSize(0),
+                "Packet size must be positive");
+
+        // TC13: Packets beyond the bits of a mask
+        assertThrows(IllegalArgumentException.class, () -> wavefront.setPacketSize(64),
+                "Packet size must fit a mask");
+    }
+}
@@ -0,0 +1,79 @@
+package scene;
+
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the scene
+ */
+class SceneTest {
+
+    /**
+     * Test method for {@link scene.Scene#commit()}.
+     */
+    @Test
+    void testCommit() {
+        Scene scene = new Scene("Test scene");
+        PointLight light = new PointLight(new Color(100, 100, 100), Point.ZERO);
+        scene.lights.add(light);
+        scene.commit();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The committed scene keeps its lights
+        assertEquals(1, scene.lights.size(), "Committed scene lost its lights");
+        assertSame(light, scene.lights.get(0), "Committed scene changed its lights");
+
+        // TC02: Lights cannot be added to, replaced in or removed from a committed scene
+        DirectionalLight other = new DirectionalLight(new Color(100, 100, 100), new Vector(0.0, 0.0, -1.0));
+        assertThrows(IllegalStateException.class, () -> scene.lights.add(other),
+                "Added a light to a committed scene");
+        assertThrows(IllegalStateException.class, () -> scene.lights.set(0, other),
+                "Replaced a light of a committed scene");
+        assertThrows(IllegalStateException.class, () -> scene.lights.remove(0),
+                "Removed a light from a committed scene");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Committing a committed scene again keeps its lights
+        scene.commit();
+        assertEquals(1, scene.lights.size(), "Recommitted scene lost its lights");
+        assertThrows(IllegalStateException.class, () -> scene.lights.clear(),
+                "Cleared the lights of a recommitted scene");
+    }
+
+    /**
+     * Test method for {@link scene.Scene#setLights(java.util.List)}.
+     */
+    @Test
+    void testSetLights() {
+        Scene scene = new Scene("Test scene");
+        scene.lights.add(new DirectionalLight(new Color(100, 100, 100), new Vector(0.0, 0.0, -1.0)));
+        scene.commit();
+        PointLight near = new PointLight(new Color(100, 100, 100), Point.ZERO).setKl(1).setInfluenceThreshold(1);
+        Point far = new Point(1000.0, 0.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The lights set on a committed scene are frozen and culled by a new hierarchy
+        scene.setLights(new ArrayList<>(List.of(near)));
+        assertSame(near, scene.lights.get(0), "Lights not replaced");
+        assertThrows(IllegalStateException.class, () -> scene.lights.add(near), "New lights not frozen");
+        assertEquals(List.of(near), scene.findLights(Point.ZERO), "Light missed near its position");
+        assertTrue(scene.findLights(far).isEmpty(), "Light of bounded reach found far away");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The lights set on a scene not committed yet are left open
+        Scene open = new Scene("Open scene").setLights(new ArrayList<>(List.of(near)));
+        open.lights.add(near);
+        assertEquals(2, open.lights.size(), "Lights of an open scene frozen");
+        assertEquals(open.lights, open.findLights(far), "Lights of an open scene culled");
+    }
+
+}